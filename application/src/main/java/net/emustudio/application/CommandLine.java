@@ -42,6 +42,28 @@ public class CommandLine {
     @Option(name = "--waitmax", metaVar = "X", usage = "wait for emulation finish max X milliseconds", depends = "--auto")
     private int waitForFinishMillis = Automation.DONT_WAIT;
 
+    @Option(name = "--load-snapshot", metaVar = "filename", usage = "restore virtual computer state from the snapshot file",
+        forbids = "--batch")
+    private String loadSnapshotFileName;
+
+    @Option(name = "--save-snapshot", metaVar = "filename", usage = "save virtual computer state into the snapshot file after the automation",
+        depends = "--auto")
+    private String saveSnapshotFileName;
+
+    @Option(name = "--batch", metaVar = "filename", usage = "run emulations given by the batch manifest in parallel, without GUI",
+        forbids = {"--auto", "--config", "--input"})
+    private String batchFileName;
+
+    @Option(name = "--report", metaVar = "filename", usage = "write JUnit XML report of the batch run", depends = "--batch")
+    private String reportFileName;
+
+    @Option(name = "--jobs", metaVar = "N", usage = "run max N batch emulations at the same time (default: number of CPUs)",
+        depends = "--batch")
+    private int batchJobs = Runtime.getRuntime().availableProcessors();
+
+    @Option(name = "--compile-to-memory", usage = "load compiled program only into memory, do not write compiler output file")
+    private boolean compileToMemory;
+
     @Option(name = "--help", help = true, usage = "output this message")
     private boolean help;
 
@@ -68,6 +90,30 @@ public class CommandLine {
         return waitForFinishMillis;
     }
 
+    public Optional<Path> getLoadSnapshotFileName() {
+        return Optional.ofNullable(loadSnapshotFileName).map(Path::of);
+    }
+
+    public Optional<Path> getSaveSnapshotFileName() {
+        return Optional.ofNullable(saveSnapshotFileName).map(Path::of);
+    }
+
+    public Optional<Path> getBatchFileName() {
+        return Optional.ofNullable(batchFileName).map(Path::of);
+    }
+
+    public Optional<Path> getReportFileName() {
+        return Optional.ofNullable(reportFileName).map(Path::of);
+    }
+
+    public int getBatchJobs() {
+        return batchJobs;
+    }
+
+    public boolean isCompileToMemory() {
+        return compileToMemory;
+    }
+
     public static CommandLine parse(String[] args) throws CmdLineException {
         CommandLine commandLine = new CommandLine();
 
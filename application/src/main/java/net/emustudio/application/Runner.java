@@ -23,6 +23,11 @@ import net.emustudio.application.configuration.ApplicationConfig;
 import net.emustudio.application.configuration.ComputerConfig;
 import net.emustudio.application.configuration.ConfigFiles;
 import net.emustudio.application.emulation.Automation;
+import net.emustudio.application.emulation.AutomationException;
+import net.emustudio.application.emulation.BatchJob;
+import net.emustudio.application.emulation.BatchReport;
+import net.emustudio.application.emulation.BatchResult;
+import net.emustudio.application.emulation.BatchRunner;
 import net.emustudio.application.gui.ExtendedDialogs;
 import net.emustudio.application.gui.GuiDialogsImpl;
 import net.emustudio.application.gui.NoGuiDialogsImpl;
@@ -51,6 +56,7 @@ import java.awt.*;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.UUID;
@@ -64,6 +70,9 @@ public class Runner {
         ExtendedDialogs dialogs = new NoGuiDialogsImpl();
         try {
             CommandLine commandLine = CommandLine.parse(args);
+            if (commandLine.getBatchFileName().isPresent()) {
+                System.exit(runBatch(commandLine, dialogs));
+            }
 
             setupLookAndFeel();
 
@@ -72,7 +81,7 @@ public class Runner {
                 Files.createFile(configFile);
             }
             ApplicationConfig applicationConfig = ApplicationConfig.fromFile(
-                configFile, commandLine.isNoGUI(), commandLine.isAuto()
+                configFile, commandLine.isNoGUI(), commandLine.isAuto(), commandLine.isCompileToMemory()
             );
 
             if (!commandLine.isNoGUI()) {
@@ -109,15 +118,19 @@ public class Runner {
             computer.initialize(contextPool);
             computer.reset();
 
+            Optional<Path> snapshotFile = commandLine.getLoadSnapshotFileName();
+            if (snapshotFile.isPresent()) {
+                LOGGER.info("Loading snapshot: {}", snapshotFile.get());
+                computer.loadSnapshot(snapshotFile.get());
+            }
+
             final int memorySize = computer.getMemory().map(Memory::getSize).orElse(0);
             computer.getCPU().ifPresent(cpu -> debugTableModel.setCPU(cpu, memorySize));
 
             splash.ifPresent(Window::dispose);
 
             if (commandLine.isAuto()) {
-                System.exit(runAutomation(
-                    computer, commandLine.getInputFileName(), applicationConfig, dialogs, commandLine.getWaitForFinishMillis()
-                ));
+                System.exit(runAutomation(computer, commandLine, applicationConfig, dialogs));
             } else if (!commandLine.isNoGUI()) {
                 showMainWindow(
                     computer, applicationConfig, dialogs, debugTableModel, contextPool, commandLine.getInputFileName()
@@ -132,10 +145,19 @@ public class Runner {
         }
     }
 
-    private static int runAutomation(VirtualComputer computer, String inputFileName, ApplicationConfig applicationConfig,
-                                     Dialogs dialogs, int waitForFinishMillis) {
+    private static int runAutomation(VirtualComputer computer, CommandLine commandLine, ApplicationConfig applicationConfig,
+                                     Dialogs dialogs) {
         try {
-            new Automation(computer, inputFileName, applicationConfig, dialogs, waitForFinishMillis).run();
+            Automation automation = new Automation(
+                computer, commandLine.getInputFileName(), applicationConfig, dialogs,
+                commandLine.getWaitForFinishMillis(), commandLine.getLoadSnapshotFileName().isPresent()
+            );
+            automation.run();
+
+            Optional<Path> snapshotFile = commandLine.getSaveSnapshotFileName();
+            if (snapshotFile.isPresent()) {
+                automation.saveSnapshot(snapshotFile.get());
+            }
             return 0;
         } catch (Exception e) {
             LOGGER.error("Unexpected error during automation.", e);
@@ -146,6 +168,44 @@ public class Runner {
         }
     }
 
+    private static int runBatch(CommandLine commandLine, Dialogs dialogs) {
+        Path batchFile = commandLine.getBatchFileName().orElseThrow();
+        try {
+            List<BatchJob> jobs = BatchJob.load(batchFile);
+            LOGGER.info("Running {} batch jobs from {}", jobs.size(), batchFile);
+
+            Path configFile = Path.of("emuStudio.toml");
+            if (Files.notExists(configFile)) {
+                Files.createFile(configFile);
+            }
+            ApplicationConfig applicationConfig = ApplicationConfig.fromFile(
+                configFile, true, true, commandLine.isCompileToMemory()
+            );
+
+            List<BatchResult> results = new BatchRunner(
+                applicationConfig, new ConfigFiles(), dialogs, commandLine.getBatchJobs()
+            ).run(jobs);
+
+            for (BatchResult result : results) {
+                LOGGER.info("[{}] {} in {} ms", result.getJob().getName(),
+                    result.getState().map(Enum::name).or(result::getError).orElse(""), result.getWallTimeMillis());
+            }
+            BatchReport report = new BatchReport(results);
+            Optional<Path> reportFile = commandLine.getReportFileName();
+            if (reportFile.isPresent()) {
+                report.write(reportFile.get());
+            }
+            return (report.getFailedCount() == 0) ? 0 : 1;
+        } catch (AutomationException | IOException e) {
+            LOGGER.error("Could not run batch {}", batchFile, e);
+            return 1;
+        } catch (InterruptedException e) {
+            LOGGER.error("Batch run has been interrupted");
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private static void showMainWindow(VirtualComputer computer, ApplicationConfig applicationConfig, ExtendedDialogs dialogs,
                                        DebugTableModel debugTableModel, ContextPool contextPool, String inputFileName) {
@@ -33,23 +33,38 @@ import static net.emustudio.emulib.runtime.PluginSettings.*;
 public class ApplicationConfig implements Closeable {
     public final static String KEY_NOGUI = EMUSTUDIO_NO_GUI.substring(EMUSTUDIO_PREFIX.length());
     public final static String KEY_AUTO = EMUSTUDIO_AUTO.substring(EMUSTUDIO_PREFIX.length());
+    public final static String KEY_COMPILE_TO_MEMORY = "compileToMemory";
     public final static String KEY_USE_SCHEMA_GRID = "useSchemaGrid";
     public final static String KEY_SCHEMA_GRID_GAP = "schemaGridGap";
 
     public transient final boolean emuStudioAuto;
     public transient final boolean noGUI;
+    public transient final boolean compileToMemory;
 
     private final FileConfig config;
 
     public ApplicationConfig(FileConfig config, boolean nogui, boolean auto) {
+        this(config, nogui, auto, false);
+    }
+
+    /**
+     * Creates application configuration.
+     *
+     * @param config          configuration file
+     * @param nogui           if GUI should not be shown
+     * @param auto            if emulation automation is running
+     * @param compileToMemory if compilers should load compiled programs only into memory, without output files
+     */
+    public ApplicationConfig(FileConfig config, boolean nogui, boolean auto, boolean compileToMemory) {
         this.config = Objects.requireNonNull(config);
         this.emuStudioAuto = auto;
         this.noGUI = nogui;
+        this.compileToMemory = compileToMemory;
     }
 
     public boolean contains(String key) {
-        return KEY_NOGUI.equals(key) || KEY_AUTO.equals(key) || KEY_USE_SCHEMA_GRID.equals(key)
-            || KEY_SCHEMA_GRID_GAP.equals(key);
+        return KEY_NOGUI.equals(key) || KEY_AUTO.equals(key) || KEY_COMPILE_TO_MEMORY.equals(key)
+            || KEY_USE_SCHEMA_GRID.equals(key) || KEY_SCHEMA_GRID_GAP.equals(key);
     }
 
     public Optional<Boolean> getBoolean(String key) {
@@ -61,6 +76,8 @@ public class ApplicationConfig implements Closeable {
             return Optional.of(emuStudioAuto);
         } else if (KEY_NOGUI.equals(key)) {
             return Optional.of(noGUI);
+        } else if (KEY_COMPILE_TO_MEMORY.equals(key)) {
+            return Optional.of(compileToMemory);
         }
         return Optional.empty();
     }
@@ -114,8 +131,12 @@ public class ApplicationConfig implements Closeable {
     }
 
     public static ApplicationConfig fromFile(Path file, boolean nogui, boolean auto) {
+        return fromFile(file, nogui, auto, false);
+    }
+
+    public static ApplicationConfig fromFile(Path file, boolean nogui, boolean auto, boolean compileToMemory) {
         FileConfig config = FileConfig.of(file);
         config.load();
-        return new ApplicationConfig(config, nogui, auto);
+        return new ApplicationConfig(config, nogui, auto, compileToMemory);
     }
 }
@@ -32,6 +32,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -42,6 +44,7 @@ import java.util.concurrent.atomic.AtomicReference;
 public class Automation implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger("automation");
     public static final int DONT_WAIT = -1;
+    private static final long PAUSE_TIMEOUT_MILLIS = 5000;
 
     private AutoDialog progressGUI;
     private File inputFile;
@@ -50,26 +53,56 @@ public class Automation implements Runnable {
     private final ApplicationConfig applicationConfig;
     private final Dialogs dialogs;
     private final int waitForFinishMillis;
+    private final boolean resume;
 
+    private final Object resultStateLock = new Object();
     private volatile CPU.RunState resultState;
 
     public Automation(VirtualComputer computer, String inputFileName, ApplicationConfig applicationConfig,
                       Dialogs dialogs, int waitForFinishMillis) throws AutomationException {
+        this(computer, inputFileName, applicationConfig, dialogs, waitForFinishMillis, false);
+    }
+
+    /**
+     * Creates new automation.
+     *
+     * @param computer            virtual computer
+     * @param inputFileName       source code to compile; can be null only if resuming
+     * @param applicationConfig   application configuration
+     * @param dialogs             dialogs
+     * @param waitForFinishMillis max time to wait for emulation finish, or DONT_WAIT
+     * @param resume              if true, CPU is not reset before the emulation. Used when the computer state was
+     *                            restored from a snapshot.
+     * @throws AutomationException if the input file does not exist
+     */
+    public Automation(VirtualComputer computer, String inputFileName, ApplicationConfig applicationConfig,
+                      Dialogs dialogs, int waitForFinishMillis, boolean resume) throws AutomationException {
         this.computer = Objects.requireNonNull(computer);
         this.applicationConfig = Objects.requireNonNull(applicationConfig);
         this.dialogs = Objects.requireNonNull(dialogs);
         this.waitForFinishMillis = waitForFinishMillis;
+        this.resume = resume;
 
-        this.inputFile = new File(Objects.requireNonNull(inputFileName, "Input file must be defined"));
-
-        if (!inputFile.exists()) {
-            throw new AutomationException("Input file not found");
+        if (inputFileName != null || !resume) {
+            this.inputFile = new File(Objects.requireNonNull(inputFileName, "Input file must be defined"));
+            if (!inputFile.exists()) {
+                throw new AutomationException("Input file not found");
+            }
         }
         if (!applicationConfig.noGUI) {
             progressGUI = new AutoDialog(computer);
         }
     }
 
+    /**
+     * Get CPU state after the emulation.
+     *
+     * @return CPU state; null if the emulation was not run. STATE_RUNNING if the emulation did not finish in time.
+     */
+    public CPU.RunState getResultState() {
+        return resultState;
+    }
+
     private void setProgress(String msg, boolean stopEnabled) {
         LOGGER.info(msg);
         if (progressGUI != null) {
@@ -81,7 +114,11 @@ public class Automation implements Runnable {
         if (inputFile == null) {
             return;
         }
-        setProgress("Compiling input file: " + inputFile, false);
+        if (applicationConfig.compileToMemory) {
+            setProgress("Compiling input file into memory: " + inputFile, false);
+        } else {
+            setProgress("Compiling input file: " + inputFile, false);
+        }
         CompilerListener reporter = new CompilerListener() {
             @Override
             public void onStart() {
@@ -133,8 +170,6 @@ public class Automation implements Runnable {
     private void autoEmulate(CPU cpu) {
         setProgress("Running emulation...", true);
 
-        final Object resultStateLock = new Object();
-
         // Show all devices if GUI is supported
         for (Device device : computer.getDevices()) {
             if (!applicationConfig.noGUI) {
@@ -149,7 +184,7 @@ public class Automation implements Runnable {
                 if (state != CPU.RunState.STATE_RUNNING) {
                     synchronized (resultStateLock) {
                         resultState = state;
-                        resultStateLock.notify();
+                        resultStateLock.notifyAll();
                     }
                 }
             }
@@ -160,12 +195,20 @@ public class Automation implements Runnable {
         });
         cpu.execute();
 
+        // The CPU might stop before we start waiting, so the state is checked instead of relying on the notification
         synchronized (resultStateLock) {
+            long deadline = System.currentTimeMillis() + waitForFinishMillis;
             try {
-                if (waitForFinishMillis == DONT_WAIT) {
-                    resultStateLock.wait();
-                } else {
-                    resultStateLock.wait(waitForFinishMillis);
+                while (resultState == CPU.RunState.STATE_RUNNING) {
+                    if (waitForFinishMillis == DONT_WAIT) {
+                        resultStateLock.wait();
+                    } else {
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        resultStateLock.wait(remaining);
+                    }
                 }
             } catch (InterruptedException e) {
                 LOGGER.error("Emulation has been interrupted");
@@ -196,6 +239,36 @@ public class Automation implements Runnable {
     }
 
 
+    /**
+     * Save virtual computer state into a snapshot file.
+     * <p>
+     * If the emulation is still running (it did not finish in time), the CPU is paused first.
+     *
+     * @param file snapshot file
+     * @throws IOException if the CPU could not be paused, or the snapshot could not be written
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        synchronized (resultStateLock) {
+            if (resultState == CPU.RunState.STATE_RUNNING) {
+                computer.getCPU().ifPresent(CPU::pause);
+                long deadline = System.currentTimeMillis() + PAUSE_TIMEOUT_MILLIS;
+                try {
+                    while (resultState == CPU.RunState.STATE_RUNNING && System.currentTimeMillis() < deadline) {
+                        resultStateLock.wait(PAUSE_TIMEOUT_MILLIS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the emulation to pause", e);
+                }
+                if (resultState == CPU.RunState.STATE_RUNNING) {
+                    throw new IOException("Could not pause the emulation");
+                }
+            }
+        }
+        setProgress("Saving snapshot: " + file, false);
+        computer.saveSnapshot(file);
+    }
+
     /**
      * Executes automatic emulation.
      * <p/>
@@ -232,12 +305,17 @@ public class Automation implements Runnable {
             });
 
             computer.getCPU().ifPresent(cpu -> {
-                setProgress("Resetting CPU...", false);
-                Integer ps = programLocation.get();
-                if (ps == null) {
-                    cpu.reset();
+                if (resume) {
+                    setProgress("Resuming CPU from instruction location: "
+                        + String.format("%04Xh", cpu.getInstructionLocation()), false);
                 } else {
-                    cpu.reset(ps);
+                    setProgress("Resetting CPU...", false);
+                    Integer ps = programLocation.get();
+                    if (ps == null) {
+                        cpu.reset();
+                    } else {
+                        cpu.reset(ps);
+                    }
                 }
                 autoEmulate(cpu);
             });
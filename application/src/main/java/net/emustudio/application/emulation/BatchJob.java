@@ -0,0 +1,180 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.file.FileConfig;
+import net.emustudio.emulib.plugins.cpu.CPU;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * One job of a batch run: a virtual computer, a program to compile and run on it, and the expected result.
+ * <p>
+ * Jobs are loaded from a TOML manifest with one {@code [[job]]} table per job:
+ * <pre>
+ * [[job]]
+ * name = "reverse"                          # optional; defaults to the input file name
+ * config = "config/MITSAltair8800.toml"     # virtual computer configuration
+ * input = "examples/as-8080/reverse.asm"    # source code compiled by the computer compiler
+ * timeout = 5000                            # optional; milliseconds, default is 60000; -1 waits without limit
+ * expectedState = "STATE_STOPPED_NORMAL"    # optional; CPU state expected after the emulation
+ * snapshot = "snapshots/booted.snap"        # optional; computer state to start from, instead of CPU reset
+ * output = "reverse.out"                    # optional; file written by the computer, e.g. terminal output file
+ * expectedOutput = "expected/reverse.out"   # optional; expected content of the output file
+ * </pre>
+ * Relative paths are resolved against the manifest directory. The expected output requires the output file.
+ */
+public class BatchJob {
+    public final static String KEY_JOB = "job";
+    public final static String KEY_NAME = "name";
+    public final static String KEY_CONFIG = "config";
+    public final static String KEY_INPUT = "input";
+    public final static String KEY_TIMEOUT = "timeout";
+    public final static String KEY_EXPECTED_STATE = "expectedState";
+    public final static String KEY_SNAPSHOT = "snapshot";
+    public final static String KEY_OUTPUT = "output";
+    public final static String KEY_EXPECTED_OUTPUT = "expectedOutput";
+
+    /**
+     * Timeout of jobs which do not define it, so one program which never stops cannot hang the whole batch.
+     */
+    public final static int DEFAULT_TIMEOUT_MILLIS = 60000;
+
+    private final String name;
+    private final Path configFile;
+    private final Path inputFile;
+    private final int timeoutMillis;
+    private final CPU.RunState expectedState;
+    private final Path snapshotFile;
+    private final Path outputFile;
+    private final Path expectedOutputFile;
+
+    public BatchJob(String name, Path configFile, Path inputFile, int timeoutMillis, CPU.RunState expectedState) {
+        this(name, configFile, inputFile, timeoutMillis, expectedState, null);
+    }
+
+    public BatchJob(String name, Path configFile, Path inputFile, int timeoutMillis, CPU.RunState expectedState,
+                    Path snapshotFile) {
+        this(name, configFile, inputFile, timeoutMillis, expectedState, snapshotFile, null, null);
+    }
+
+    public BatchJob(String name, Path configFile, Path inputFile, int timeoutMillis, CPU.RunState expectedState,
+                    Path snapshotFile, Path outputFile, Path expectedOutputFile) {
+        if (expectedOutputFile != null && outputFile == null) {
+            throw new IllegalArgumentException("Expected output requires output file");
+        }
+        this.name = Objects.requireNonNull(name);
+        this.configFile = Objects.requireNonNull(configFile);
+        this.inputFile = Objects.requireNonNull(inputFile);
+        this.timeoutMillis = timeoutMillis;
+        this.expectedState = expectedState;
+        this.snapshotFile = snapshotFile;
+        this.outputFile = outputFile;
+        this.expectedOutputFile = expectedOutputFile;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Path getConfigFile() {
+        return configFile;
+    }
+
+    public Path getInputFile() {
+        return inputFile;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public Optional<CPU.RunState> getExpectedState() {
+        return Optional.ofNullable(expectedState);
+    }
+
+    public Optional<Path> getSnapshotFile() {
+        return Optional.ofNullable(snapshotFile);
+    }
+
+    public Optional<Path> getOutputFile() {
+        return Optional.ofNullable(outputFile);
+    }
+
+    public Optional<Path> getExpectedOutputFile() {
+        return Optional.ofNullable(expectedOutputFile);
+    }
+
+    /**
+     * Load jobs from a manifest file.
+     *
+     * @param manifestFile TOML manifest file
+     * @return jobs in the order given in the manifest
+     * @throws AutomationException if the manifest is not valid
+     */
+    public static List<BatchJob> load(Path manifestFile) throws AutomationException {
+        Path baseDir = Optional.ofNullable(manifestFile.toAbsolutePath().getParent()).orElse(Path.of(""));
+
+        try (FileConfig manifest = FileConfig.of(manifestFile)) {
+            manifest.load();
+
+            List<Config> jobConfigs = manifest.<List<Config>>getOptional(KEY_JOB).orElse(Collections.emptyList());
+            List<BatchJob> jobs = new ArrayList<>();
+            for (Config jobConfig : jobConfigs) {
+                jobs.add(fromConfig(jobConfig, baseDir));
+            }
+            return jobs;
+        } catch (ClassCastException | IllegalArgumentException e) {
+            throw new AutomationException("Invalid batch manifest " + manifestFile + ": " + e.getMessage());
+        }
+    }
+
+    private static BatchJob fromConfig(Config jobConfig, Path baseDir) throws AutomationException {
+        String config = jobConfig.get(KEY_CONFIG);
+        String input = jobConfig.get(KEY_INPUT);
+        if (config == null || input == null) {
+            throw new AutomationException("Each batch job must define '" + KEY_CONFIG + "' and '" + KEY_INPUT + "'");
+        }
+        Path inputFile = baseDir.resolve(input);
+        String name = jobConfig.<String>getOptional(KEY_NAME).orElse(inputFile.getFileName().toString());
+        int timeout = jobConfig.<Number>getOptional(KEY_TIMEOUT).map(Number::intValue).orElse(DEFAULT_TIMEOUT_MILLIS);
+        CPU.RunState expectedState = jobConfig.<String>getOptional(KEY_EXPECTED_STATE)
+            .map(CPU.RunState::valueOf)
+            .orElse(null);
+        Path snapshotFile = jobConfig.<String>getOptional(KEY_SNAPSHOT).map(baseDir::resolve).orElse(null);
+        Path outputFile = jobConfig.<String>getOptional(KEY_OUTPUT).map(baseDir::resolve).orElse(null);
+        Path expectedOutputFile = jobConfig.<String>getOptional(KEY_EXPECTED_OUTPUT).map(baseDir::resolve).orElse(null);
+        if (expectedOutputFile != null && outputFile == null) {
+            throw new AutomationException(
+                "Batch job '" + name + "' defines '" + KEY_EXPECTED_OUTPUT + "', but not '" + KEY_OUTPUT + "'"
+            );
+        }
+
+        return new BatchJob(
+            name, baseDir.resolve(config), inputFile, timeout, expectedState, snapshotFile, outputFile,
+            expectedOutputFile
+        );
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes batch results as a JUnit XML report, which is understood by most CI servers.
+ * <p>
+ * Each job is one test case. A job which did not finish in the expected CPU state, or with the expected output, is
+ * a failure; a job which could not be run at all (or timed out) is an error. CPU state, instruction location and
+ * wall time are written for every job.
+ */
+public class BatchReport {
+    public final static String SUITE_NAME = "emuStudio batch";
+
+    private final List<BatchResult> results;
+
+    public BatchReport(List<BatchResult> results) {
+        this.results = List.copyOf(results);
+    }
+
+    public long getFailedCount() {
+        return results.stream().filter(r -> !r.isPassed()).count();
+    }
+
+    public void write(Path reportFile) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            write(writer);
+        }
+    }
+
+    public void write(Writer writer) throws IOException {
+        try {
+            XMLStreamWriter xml = XMLOutputFactory.newFactory().createXMLStreamWriter(writer);
+            xml.writeStartDocument("UTF-8", "1.0");
+            xml.writeStartElement("testsuite");
+            xml.writeAttribute("name", SUITE_NAME);
+            xml.writeAttribute("tests", String.valueOf(results.size()));
+            xml.writeAttribute("failures", String.valueOf(results.stream().filter(this::isFailure).count()));
+            xml.writeAttribute("errors", String.valueOf(results.stream().filter(this::isError).count()));
+            xml.writeAttribute("time", seconds(results.stream().mapToLong(BatchResult::getWallTimeMillis).sum()));
+
+            for (BatchResult result : results) {
+                writeTestCase(xml, result);
+            }
+
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not write batch report", e);
+        }
+    }
+
+    private void writeTestCase(XMLStreamWriter xml, BatchResult result) throws XMLStreamException {
+        BatchJob job = result.getJob();
+
+        xml.writeStartElement("testcase");
+        xml.writeAttribute("name", job.getName());
+        xml.writeAttribute("classname", String.valueOf(job.getConfigFile().getFileName()));
+        xml.writeAttribute("time", seconds(result.getWallTimeMillis()));
+
+        xml.writeStartElement("properties");
+        writeProperty(xml, "input", job.getInputFile().toString());
+        if (result.getState().isPresent()) {
+            writeProperty(xml, "state", result.getState().get().name());
+            writeProperty(xml, "instructionLocation", String.format("%04Xh", result.getInstructionLocation()));
+        }
+        if (job.getExpectedState().isPresent()) {
+            writeProperty(xml, "expectedState", job.getExpectedState().get().name());
+        }
+        if (job.getExpectedOutputFile().isPresent()) {
+            writeProperty(xml, "expectedOutput", job.getExpectedOutputFile().get().toString());
+        }
+        xml.writeEndElement();
+
+        if (isError(result)) {
+            xml.writeEmptyElement("error");
+            xml.writeAttribute(
+                "message", result.getError().orElse("Timed out after " + job.getTimeoutMillis() + " ms")
+            );
+        } else if (isFailure(result)) {
+            xml.writeEmptyElement("failure");
+            boolean stateMatches = job.getExpectedState().map(s -> result.getState().get() == s).orElse(true);
+            if (stateMatches && result.getOutputMismatch().isPresent()) {
+                xml.writeAttribute("message", result.getOutputMismatch().get());
+            } else {
+                xml.writeAttribute("message", String.format(
+                    "Expected %s, but was %s at %04Xh", job.getExpectedState().map(Enum::name).orElse(""),
+                    result.getState().map(Enum::name).orElse(""), result.getInstructionLocation()
+                ));
+            }
+        }
+        xml.writeEndElement();
+    }
+
+    private static void writeProperty(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        xml.writeEmptyElement("property");
+        xml.writeAttribute("name", name);
+        xml.writeAttribute("value", value);
+    }
+
+    private boolean isError(BatchResult result) {
+        return result.getState().isEmpty() || result.isTimedOut();
+    }
+
+    private boolean isFailure(BatchResult result) {
+        return !isError(result) && !result.isPassed();
+    }
+
+    private static String seconds(long millis) {
+        return String.format(Locale.ENGLISH, "%.3f", millis / 1000.0);
+    }
+}
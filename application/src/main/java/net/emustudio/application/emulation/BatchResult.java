@@ -0,0 +1,120 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import net.emustudio.emulib.plugins.cpu.CPU;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Result of one batch job.
+ */
+public class BatchResult {
+    private final BatchJob job;
+    private final CPU.RunState state;
+    private final int instructionLocation;
+    private final long wallTimeMillis;
+    private final String error;
+    private final String outputMismatch;
+
+    private BatchResult(BatchJob job, CPU.RunState state, int instructionLocation, long wallTimeMillis, String error,
+                        String outputMismatch) {
+        this.job = Objects.requireNonNull(job);
+        this.state = state;
+        this.instructionLocation = instructionLocation;
+        this.wallTimeMillis = wallTimeMillis;
+        this.error = error;
+        this.outputMismatch = outputMismatch;
+    }
+
+    public static BatchResult finished(BatchJob job, CPU.RunState state, int instructionLocation, long wallTimeMillis) {
+        return finished(job, state, instructionLocation, wallTimeMillis, null);
+    }
+
+    /**
+     * Create result of a finished job.
+     *
+     * @param job                 the job
+     * @param state               CPU state after the emulation
+     * @param instructionLocation CPU instruction location after the emulation
+     * @param wallTimeMillis      wall time of the job
+     * @param outputMismatch      how the output differs from the expected output; null if it matches or it was not
+     *                            checked
+     * @return result of the job
+     */
+    public static BatchResult finished(BatchJob job, CPU.RunState state, int instructionLocation, long wallTimeMillis,
+                                       String outputMismatch) {
+        return new BatchResult(
+            job, Objects.requireNonNull(state), instructionLocation, wallTimeMillis, null, outputMismatch
+        );
+    }
+
+    public static BatchResult failed(BatchJob job, String error, long wallTimeMillis) {
+        return new BatchResult(job, null, -1, wallTimeMillis, Objects.requireNonNull(error), null);
+    }
+
+    public BatchJob getJob() {
+        return job;
+    }
+
+    /**
+     * Get CPU state after the emulation.
+     *
+     * @return CPU state; empty if the job could not be run. STATE_RUNNING means the job timed out.
+     */
+    public Optional<CPU.RunState> getState() {
+        return Optional.ofNullable(state);
+    }
+
+    public int getInstructionLocation() {
+        return instructionLocation;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public Optional<String> getError() {
+        return Optional.ofNullable(error);
+    }
+
+    public Optional<String> getOutputMismatch() {
+        return Optional.ofNullable(outputMismatch);
+    }
+
+    public boolean isTimedOut() {
+        return state == CPU.RunState.STATE_RUNNING;
+    }
+
+    /**
+     * Determine if the job passed.
+     * <p>
+     * A job passes if it finished in time, the CPU ended in the expected state (if it was given), and the output
+     * matches the expected output (if it was given).
+     *
+     * @return true if the job passed; false otherwise
+     */
+    public boolean isPassed() {
+        if (state == null || isTimedOut() || outputMismatch != null) {
+            return false;
+        }
+        return job.getExpectedState().map(expected -> expected == state).orElse(true);
+    }
+}
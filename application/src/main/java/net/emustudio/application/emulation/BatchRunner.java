@@ -0,0 +1,248 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import net.emustudio.application.api.ApplicationApiImpl;
+import net.emustudio.application.configuration.ApplicationConfig;
+import net.emustudio.application.configuration.ComputerConfig;
+import net.emustudio.application.configuration.ConfigFiles;
+import net.emustudio.application.gui.debugtable.DebugTableModelImpl;
+import net.emustudio.application.virtualcomputer.ContextPoolImpl;
+import net.emustudio.application.virtualcomputer.VirtualComputer;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.ApplicationApi;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent emulations in parallel, within one JVM.
+ * <p>
+ * Every job gets its own virtual computer: a separate context pool and plugins loaded by a separate class loader,
+ * so jobs do not share any plugin state. Emulation itself is driven by {@link Automation}, the same way as with
+ * the "--auto" command-line option.
+ */
+public class BatchRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger("automation");
+
+    private final ApplicationConfig applicationConfig;
+    private final ConfigFiles configFiles;
+    private final Dialogs dialogs;
+    private final int parallelism;
+    private final ComputerFactory computerFactory;
+
+    /**
+     * Creates new batch runner.
+     *
+     * @param applicationConfig application configuration; should have "nogui" set
+     * @param configFiles       configuration files
+     * @param dialogs           dialogs (non-GUI)
+     * @param parallelism       max number of emulations running at the same time
+     */
+    public BatchRunner(ApplicationConfig applicationConfig, ConfigFiles configFiles, Dialogs dialogs, int parallelism) {
+        this(applicationConfig, configFiles, dialogs, parallelism, null);
+    }
+
+    BatchRunner(ApplicationConfig applicationConfig, ConfigFiles configFiles, Dialogs dialogs, int parallelism,
+                ComputerFactory computerFactory) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.applicationConfig = Objects.requireNonNull(applicationConfig);
+        this.configFiles = Objects.requireNonNull(configFiles);
+        this.dialogs = Objects.requireNonNull(dialogs);
+        this.parallelism = parallelism;
+        this.computerFactory = Objects.requireNonNullElse(computerFactory, this::createComputer);
+    }
+
+    /**
+     * Creates initialized virtual computer for a batch job.
+     */
+    @FunctionalInterface
+    interface ComputerFactory {
+        VirtualComputer create(ComputerConfig computerConfig) throws Exception;
+    }
+
+    /**
+     * Run all jobs and wait until they finish.
+     *
+     * @param jobs jobs to run
+     * @return results in the order of jobs
+     * @throws InterruptedException if the waiting was interrupted
+     */
+    public List<BatchResult> run(List<BatchJob> jobs) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, jobs.size())));
+        try {
+            // written by the job thread before the job runs; visible after Future.get() returns or throws
+            long[] startTimes = new long[jobs.size()];
+            List<Future<BatchResult>> futures = new ArrayList<>();
+            for (int i = 0; i < jobs.size(); i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    startTimes[index] = System.nanoTime();
+                    return runJob(jobs.get(index), startTimes[index]);
+                }));
+            }
+
+            List<BatchResult> results = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    BatchJob job = jobs.get(i);
+                    LOGGER.error("[{}] Batch job failed", job.getName(), e.getCause());
+                    results.add(BatchResult.failed(job, String.valueOf(e.getCause()), elapsedMillis(startTimes[i])));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BatchResult runJob(BatchJob job, long startTime) {
+        LOGGER.info("[{}] Starting batch job", job.getName());
+
+        ComputerConfig computerConfig;
+        try {
+            computerConfig = configFiles.loadConfiguration(job.getConfigFile());
+        } catch (Exception e) {
+            LOGGER.error("[{}] Could not load computer configuration", job.getName(), e);
+            return BatchResult.failed(job, "Could not load computer configuration: " + e, elapsedMillis(startTime));
+        }
+
+        VirtualComputer computer = null;
+        CPU.RunState state;
+        int instructionLocation;
+        try {
+            Optional<Path> outputFile = job.getOutputFile();
+            if (outputFile.isPresent()) {
+                // output of a previous run must not be mistaken for the output of this one
+                Files.deleteIfExists(outputFile.get());
+            }
+
+            computer = computerFactory.create(computerConfig);
+            computer.reset();
+            Optional<Path> snapshotFile = job.getSnapshotFile();
+            if (snapshotFile.isPresent()) {
+                computer.loadSnapshot(snapshotFile.get());
+            }
+
+            Automation automation = new Automation(
+                computer, job.getInputFile().toString(), applicationConfig, dialogs, job.getTimeoutMillis(),
+                snapshotFile.isPresent()
+            );
+            automation.run();
+
+            state = automation.getResultState();
+            if (state == null) {
+                return BatchResult.failed(job, "Automation failed; see log for details", elapsedMillis(startTime));
+            }
+            CPU cpu = computer.getCPU().orElseThrow();
+            if (state == CPU.RunState.STATE_RUNNING) {
+                LOGGER.warn("[{}] Emulation timed out, stopping", job.getName());
+                cpu.stop();
+            }
+            instructionLocation = cpu.getInstructionLocation();
+        } catch (Exception e) {
+            LOGGER.error("[{}] Batch job failed", job.getName(), e);
+            return BatchResult.failed(job, e.toString(), elapsedMillis(startTime));
+        } finally {
+            if (computer != null) {
+                computer.close();
+            } else {
+                computerConfig.close();
+            }
+        }
+
+        // plugins flush their output files when the computer is closed
+        String outputMismatch = null;
+        if (job.getExpectedOutputFile().isPresent()) {
+            try {
+                outputMismatch = compareOutput(job.getOutputFile().orElseThrow(), job.getExpectedOutputFile().get());
+            } catch (IOException e) {
+                LOGGER.error("[{}] Could not compare output", job.getName(), e);
+                return BatchResult.failed(job, "Could not compare output: " + e, elapsedMillis(startTime));
+            }
+        }
+        return BatchResult.finished(job, state, instructionLocation, elapsedMillis(startTime), outputMismatch);
+    }
+
+    private VirtualComputer createComputer(ComputerConfig computerConfig) throws Exception {
+        long applicationId = UUID.randomUUID().toString().hashCode();
+        ContextPoolImpl contextPool = new ContextPoolImpl(applicationId);
+        ApplicationApi applicationApi = new ApplicationApiImpl(new DebugTableModelImpl(), contextPool, dialogs);
+
+        VirtualComputer computer = VirtualComputer.create(
+            computerConfig, applicationApi, applicationConfig, configFiles
+        );
+        try {
+            computer.initialize(contextPool);
+        } catch (Exception e) {
+            computer.close();
+            throw e;
+        }
+        return computer;
+    }
+
+    /**
+     * Compare output of a job with the expected output.
+     *
+     * @param outputFile         output file
+     * @param expectedOutputFile file with the expected output
+     * @return description of the first difference; null if the output matches
+     * @throws IOException if the expected output could not be read
+     */
+    static String compareOutput(Path outputFile, Path expectedOutputFile) throws IOException {
+        byte[] expected = Files.readAllBytes(expectedOutputFile);
+        if (Files.notExists(outputFile)) {
+            return "Output file " + outputFile + " was not written";
+        }
+        byte[] output = Files.readAllBytes(outputFile);
+
+        int length = Math.min(expected.length, output.length);
+        for (int i = 0; i < length; i++) {
+            if (expected[i] != output[i]) {
+                return "Output differs from " + expectedOutputFile.getFileName() + " at byte " + i;
+            }
+        }
+        if (expected.length != output.length) {
+            return "Output has " + output.length + " bytes, but " + expectedOutputFile.getFileName() + " has "
+                + expected.length;
+        }
+        return null;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000000;
+    }
+}
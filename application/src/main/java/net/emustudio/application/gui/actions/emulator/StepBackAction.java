@@ -2,28 +2,52 @@ package net.emustudio.application.gui.actions.emulator;
 
 import net.emustudio.application.gui.debugtable.DebugTableModel;
 import net.emustudio.application.virtualcomputer.VirtualComputer;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Objects;
+import java.util.Optional;
 
 public class StepBackAction extends AbstractAction {
+    private final static Logger LOGGER = LoggerFactory.getLogger(StepBackAction.class);
 
     private final VirtualComputer computer;
     private final DebugTableModel debugTableModel;
+    private final Dialogs dialogs;
     private final Runnable refreshDebugTable;
 
-    public StepBackAction(VirtualComputer computer, DebugTableModel debugTableModel, Runnable refreshDebugTable) {
+    public StepBackAction(VirtualComputer computer, DebugTableModel debugTableModel, Dialogs dialogs,
+                          Runnable refreshDebugTable) {
         super("Step Back", new ImageIcon(StepBackAction.class.getResource("/net/emustudio/application/gui/dialogs/go-previous.png")));
 
         this.computer = Objects.requireNonNull(computer);
         this.debugTableModel = Objects.requireNonNull(debugTableModel);
+        this.dialogs = Objects.requireNonNull(dialogs);
         this.refreshDebugTable = Objects.requireNonNull(refreshDebugTable);
     }
 
     @Override
     public void actionPerformed(ActionEvent actionEvent) {
         computer.getCPU().ifPresent(cpu -> {
+            Optional<Method> stepBack = findStepBack(cpu);
+            if (stepBack.isPresent()) {
+                try {
+                    if ((Boolean) stepBack.get().invoke(cpu)) {
+                        refreshDebugTable.run();
+                        return;
+                    }
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    LOGGER.error("Cannot step back.", e);
+                    dialogs.showError("Cannot step back. Please see log file for details", "Step back");
+                    return;
+                }
+            }
             int pc = cpu.getInstructionLocation();
             if (pc > 0) {
                 cpu.setInstructionLocation(debugTableModel.guessPreviousInstructionLocation());
@@ -31,4 +55,20 @@ public class StepBackAction extends AbstractAction {
             }
         });
     }
+
+    /**
+     * CPUs which remember executed instructions offer public method "boolean stepBack()", returning true if the
+     * last instruction was undone. It is not a part of emuLib API, so it is called by reflection.
+     *
+     * @param cpu CPU
+     * @return the method, if the CPU has it
+     */
+    private static Optional<Method> findStepBack(CPU cpu) {
+        try {
+            Method stepBack = cpu.getClass().getMethod("stepBack");
+            return Optional.of(stepBack).filter(method -> method.getReturnType() == boolean.class);
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package net.emustudio.application.gui.actions.emulator;
+
+import net.emustudio.application.virtualcomputer.VirtualComputer;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Objects;
+import java.util.Optional;
+
+public class StepBackToBreakpointAction extends AbstractAction {
+    private final static Logger LOGGER = LoggerFactory.getLogger(StepBackToBreakpointAction.class);
+    private final static String METHOD_NAME = "stepBackToBreakpoint";
+
+    private final VirtualComputer computer;
+    private final Dialogs dialogs;
+    private final Runnable refreshDebugTable;
+
+    public StepBackToBreakpointAction(VirtualComputer computer, Dialogs dialogs, Runnable refreshDebugTable) {
+        super("Step back to breakpoint", new ImageIcon(StepBackToBreakpointAction.class.getResource("/net/emustudio/application/gui/dialogs/page-seek-backward.png")));
+
+        this.computer = Objects.requireNonNull(computer);
+        this.dialogs = Objects.requireNonNull(dialogs);
+        this.refreshDebugTable = Objects.requireNonNull(refreshDebugTable);
+    }
+
+    /**
+     * Determine if the CPU can step back to a breakpoint.
+     *
+     * @param cpu CPU
+     * @return true if the CPU offers public method "int stepBackToBreakpoint()"
+     */
+    public static boolean isSupported(CPU cpu) {
+        return findMethod(cpu).isPresent();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent actionEvent) {
+        computer.getCPU().ifPresent(cpu -> findMethod(cpu).ifPresent(stepBack -> {
+            try {
+                if ((Integer) stepBack.invoke(cpu) > 0) {
+                    refreshDebugTable.run();
+                }
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                LOGGER.error("Cannot step back to breakpoint.", e);
+                // instructions undone before the failure are kept
+                refreshDebugTable.run();
+                dialogs.showError("Cannot step back to breakpoint. Please see log file for details", "Step back");
+            }
+        }));
+    }
+
+    /**
+     * CPUs which remember executed instructions can offer public method "int stepBackToBreakpoint()", returning
+     * the number of undone instructions. It is not a part of emuLib API, so it is called by reflection.
+     *
+     * @param cpu CPU
+     * @return the method, if the CPU has it
+     */
+    private static Optional<Method> findMethod(CPU cpu) {
+        try {
+            Method stepBack = cpu.getClass().getMethod(METHOD_NAME);
+            return Optional.of(stepBack).filter(method -> method.getReturnType() == int.class);
+        } catch (NoSuchMethodException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.gui.debugtable;
+
+import net.emustudio.emulib.plugins.cpu.DisassembledInstruction;
+import net.emustudio.emulib.plugins.cpu.Disassembler;
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Disassembler which remembers decoded instructions by their address.
+ * <p>
+ * Next instruction positions are kept in a primitive array indexed by address, decoded instructions in
+ * a parallel array. Entries are dropped when memory under them changes, so unchanged code is disassembled
+ * only once. Instructions around the current location can be decoded ahead of time on a background thread.
+ * <p>
+ * Disassemblers of CPUs are not thread-safe, so the wrapped disassembler is called by one thread at a time.
+ */
+@ThreadSafe
+class CachedDisassembler implements Disassembler {
+    final static int MAX_CACHED_LOCATIONS = 1 << 20;
+    final static int PREFETCH_PAGES = 2;
+
+    private final static int UNKNOWN = -1;
+
+    @GuardedBy("disassemblerLock")
+    private final Disassembler disassembler;
+    private final Object disassemblerLock = new Object();
+    private final ExecutorService prefetcher;
+    private final AtomicBoolean prefetchPending = new AtomicBoolean();
+
+    private volatile int prefetchLocation = -1;
+
+    @GuardedBy("this")
+    private int[] nextPositions;
+    @GuardedBy("this")
+    private DisassembledInstruction[] instructions;
+    @GuardedBy("this")
+    private long generation;
+    @GuardedBy("this")
+    private int longestInstructionSize = 1;
+
+    CachedDisassembler(Disassembler disassembler, int memorySize) {
+        this(disassembler, memorySize, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "debugger-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    CachedDisassembler(Disassembler disassembler, int memorySize, ExecutorService prefetcher) {
+        this.disassembler = Objects.requireNonNull(disassembler);
+        this.prefetcher = Objects.requireNonNull(prefetcher);
+        setMemorySize(memorySize);
+    }
+
+    @Override
+    public DisassembledInstruction disassemble(int memoryLocation) {
+        long snapshot;
+        synchronized (this) {
+            if (isCached(memoryLocation) && instructions[memoryLocation] != null) {
+                return instructions[memoryLocation];
+            }
+            snapshot = generation;
+        }
+        DisassembledInstruction instruction;
+        synchronized (disassemblerLock) {
+            instruction = disassembler.disassemble(memoryLocation);
+        }
+        synchronized (this) {
+            if (snapshot == generation && isCached(memoryLocation)) {
+                instructions[memoryLocation] = instruction;
+            }
+        }
+        return instruction;
+    }
+
+    @Override
+    public int getNextInstructionPosition(int memoryLocation) {
+        long snapshot;
+        synchronized (this) {
+            if (isCached(memoryLocation) && nextPositions[memoryLocation] != UNKNOWN) {
+                return nextPositions[memoryLocation];
+            }
+            snapshot = generation;
+        }
+        int nextPosition;
+        synchronized (disassemblerLock) {
+            nextPosition = disassembler.getNextInstructionPosition(memoryLocation);
+        }
+        synchronized (this) {
+            if (snapshot == generation && isCached(memoryLocation) && nextPosition > memoryLocation) {
+                nextPositions[memoryLocation] = nextPosition;
+                longestInstructionSize = Math.max(longestInstructionSize, nextPosition - memoryLocation);
+            }
+        }
+        return nextPosition;
+    }
+
+    /**
+     * Forget instructions overlapping given memory range.
+     *
+     * @param from memory location, inclusive. If negative, whole cache is dropped.
+     * @param to   memory location, exclusive.
+     */
+    synchronized void invalidate(int from, int to) {
+        generation++;
+        if (from < 0) {
+            Arrays.fill(nextPositions, UNKNOWN);
+            Arrays.fill(instructions, null);
+            return;
+        }
+        // instructions starting before "from" might still reach into the changed range
+        int realFrom = Math.max(0, from - longestInstructionSize + 1);
+        int realTo = Math.min(nextPositions.length, to);
+        if (realFrom < realTo) {
+            Arrays.fill(nextPositions, realFrom, realTo, UNKNOWN);
+            Arrays.fill(instructions, realFrom, realTo, null);
+        }
+    }
+
+    synchronized void setMemorySize(int memorySize) {
+        int size = Math.max(0, Math.min(memorySize, MAX_CACHED_LOCATIONS));
+        generation++;
+        nextPositions = new int[size];
+        instructions = new DisassembledInstruction[size];
+        Arrays.fill(nextPositions, UNKNOWN);
+    }
+
+    /**
+     * Decode instructions around given location on the background thread.
+     * <p>
+     * Following instructions are decoded for the current and {@link #PREFETCH_PAGES} next pages. Since backward
+     * paging has to guess instruction boundaries, every location within {@link #PREFETCH_PAGES} pages before
+     * is decoded. Requests coming while prefetching is in progress are merged into one.
+     *
+     * @param location current instruction location
+     */
+    void prefetch(int location) {
+        if (location < 0 || location == prefetchLocation) {
+            return;
+        }
+        prefetchLocation = location;
+        if (prefetchPending.compareAndSet(false, true)) {
+            prefetcher.execute(this::prefetchNow);
+        }
+    }
+
+    void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    private void prefetchNow() {
+        prefetchPending.set(false);
+        int location = prefetchLocation;
+        int pageBytes;
+        int cachedSize;
+        synchronized (this) {
+            pageBytes = PaginatingDisassembler.INSTR_PER_PAGE * longestInstructionSize;
+            cachedSize = nextPositions.length;
+        }
+        try {
+            for (int i = Math.max(0, location - PREFETCH_PAGES * pageBytes); i < location && i < cachedSize; i++) {
+                getNextInstructionPosition(i);
+            }
+            int next = location;
+            for (int i = 0; i < (PREFETCH_PAGES + 1) * PaginatingDisassembler.INSTR_PER_PAGE; i++) {
+                if (next >= cachedSize || prefetchPending.get()) {
+                    break;
+                }
+                disassemble(next);
+                int tmpNext = getNextInstructionPosition(next);
+                if (tmpNext <= next) {
+                    break;
+                }
+                next = tmpNext;
+            }
+        } catch (RuntimeException ignored) {
+            // the table will show what is wrong when it gets there
+        }
+    }
+
+    private boolean isCached(int memoryLocation) {
+        return memoryLocation >= 0 && memoryLocation < nextPositions.length;
+    }
+}
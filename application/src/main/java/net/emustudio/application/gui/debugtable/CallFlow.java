@@ -31,7 +31,10 @@ class CallFlow {
     private final static Logger LOGGER = LoggerFactory.getLogger(CallFlow.class);
 
     private final Disassembler disassembler;
-    private final NavigableMap<Integer, Integer> flowGraph = new TreeMap<>();
+
+    // flow graph: known instruction locations (bitmap) mapped to next instruction positions
+    private long[] knownLocations = new long[1];
+    private int[] nextPositions = new int[64];
     private int longestInstructionSize = 1;
 
     CallFlow(Disassembler disassembler) {
@@ -44,7 +47,7 @@ class CallFlow {
             if (nextPosition - currentLocation > longestInstructionSize) {
                 longestInstructionSize = nextPosition - currentLocation;
             }
-            flowGraph.put(currentLocation, nextPosition);
+            putKnown(currentLocation, nextPosition);
         } catch (RuntimeException ex) {
             LOGGER.error("Could not update call-flow cache", ex);
         }
@@ -105,8 +108,8 @@ class CallFlow {
 
     void traverseBackForInstructionCount(int knownFrom, int count, Consumer<Integer> consumer) {
         for (int i = 0; i < count; i++) {
-            Integer previousLocation = flowGraph.lowerKey(knownFrom);
-            if (previousLocation == null) {
+            int previousLocation = lowerKnown(knownFrom);
+            if (previousLocation == -1) {
                 break;
             }
 
@@ -125,15 +128,15 @@ class CallFlow {
         }
     }
 
-    private int findGreatestPreviousLocation(int unknownLocation, SortedMap<Integer, Integer> knownLocations) {
-        if (knownLocations.isEmpty() || knownLocations.firstKey() > unknownLocation) {
-            Integer previousKnownLocation = flowGraph.lowerKey(unknownLocation);
-            if (previousKnownLocation != null) {
+    private int findGreatestPreviousLocation(int unknownLocation, int firstKnownLocation) {
+        if (firstKnownLocation == -1 || firstKnownLocation > unknownLocation) {
+            int previousKnownLocation = lowerKnown(unknownLocation);
+            if (previousKnownLocation != -1) {
                 return traverseUpTo(previousKnownLocation, unknownLocation, i -> {
                 });
             }
         }
-        return knownLocations.isEmpty() ? unknownLocation : knownLocations.firstKey();
+        return (firstKnownLocation == -1) ? unknownLocation : firstKnownLocation;
     }
 
     List<Integer> getLocations(int from, int to) {
@@ -147,15 +150,15 @@ class CallFlow {
             return Collections.emptyList();
         }
 
-        SortedMap<Integer, Integer> knownInterval = flowGraph.subMap(from, true, to, true);
+        int firstKnownLocation = ceilingKnown(from, to);
         List<Integer> locations = new ArrayList<>();
 
         int lastLocation = -1;
-        if (!knownInterval.containsKey(from)) {
-            from = findGreatestPreviousLocation(from, knownInterval);
-            if (!knownInterval.isEmpty() && from < knownInterval.firstKey()) {
-                lastLocation = traverseUpTo(from, knownInterval.firstKey(), locations::add);
-                if (lastLocation != knownInterval.firstKey()) {
+        if (firstKnownLocation != from) {
+            from = findGreatestPreviousLocation(from, firstKnownLocation);
+            if (firstKnownLocation != -1 && from < firstKnownLocation) {
+                lastLocation = traverseUpTo(from, firstKnownLocation, locations::add);
+                if (lastLocation != firstKnownLocation) {
                     lastLocation = disassembler.getNextInstructionPosition(lastLocation);
                 }
             }
@@ -164,8 +167,8 @@ class CallFlow {
         // keep locations sorted!
         boolean skipNext = false;
         List<Integer> invalidLocations = new ArrayList<>();
-        for (Map.Entry<Integer, Integer> currentLocation : knownInterval.entrySet()) {
-            int currentDecodedLocation = currentLocation.getKey();
+        for (int currentDecodedLocation = firstKnownLocation; currentDecodedLocation != -1;
+             currentDecodedLocation = ceilingKnown(currentDecodedLocation + 1, to)) {
             if (skipNext) {
                 skipNext = false;
                 if (lastLocation > currentDecodedLocation) {
@@ -192,11 +195,11 @@ class CallFlow {
                     skipNext = true;
                 } else {
                     locations.add(currentDecodedLocation);
-                    lastLocation = currentLocation.getValue();
+                    lastLocation = nextPositions[currentDecodedLocation];
                 }
             }
         }
-        invalidLocations.forEach(flowGraph::remove);
+        invalidLocations.forEach(this::removeKnown);
 
         if (lastLocation == -1) {
             lastLocation = from;
@@ -213,10 +216,74 @@ class CallFlow {
     }
 
     void flushCache(int fromLocationInclusive, int toLocationExclusive) {
-        flowGraph.subMap(fromLocationInclusive, toLocationExclusive).clear();
+        int from = Math.max(0, fromLocationInclusive);
+        int to = Math.min(knownLocations.length << 6, toLocationExclusive);
+        for (int location = ceilingKnown(from, to - 1); location != -1; location = ceilingKnown(location + 1, to - 1)) {
+            removeKnown(location);
+        }
     }
 
     int getLongestInstructionSize() {
         return longestInstructionSize;
     }
+
+    private void putKnown(int location, int nextPosition) {
+        if (location < 0) {
+            return;
+        }
+        if (location >= nextPositions.length) {
+            int size = Integer.highestOneBit(location) << 1;
+            nextPositions = Arrays.copyOf(nextPositions, size);
+            knownLocations = Arrays.copyOf(knownLocations, Math.max(1, size >>> 6));
+        }
+        knownLocations[location >>> 6] |= 1L << location;
+        nextPositions[location] = nextPosition;
+    }
+
+    private void removeKnown(int location) {
+        knownLocations[location >>> 6] &= ~(1L << location);
+    }
+
+    /**
+     * Find the least known location in interval [from, to].
+     *
+     * @return known location, or -1 if there is none
+     */
+    private int ceilingKnown(int from, int to) {
+        int lastIndex = Math.min(to, (knownLocations.length << 6) - 1);
+        if (from < 0 || from > lastIndex) {
+            return -1;
+        }
+        int index = from >>> 6;
+        long word = knownLocations[index] & (-1L << from);
+        while (word == 0) {
+            if (++index > (lastIndex >>> 6)) {
+                return -1;
+            }
+            word = knownLocations[index];
+        }
+        int location = (index << 6) + Long.numberOfTrailingZeros(word);
+        return (location <= lastIndex) ? location : -1;
+    }
+
+    /**
+     * Find the greatest known location less than given one.
+     *
+     * @return known location, or -1 if there is none
+     */
+    private int lowerKnown(int location) {
+        int last = Math.min(location, knownLocations.length << 6) - 1;
+        if (last < 0) {
+            return -1;
+        }
+        int index = last >>> 6;
+        long word = knownLocations[index] & (-1L >>> (63 - (last & 63)));
+        while (word == 0) {
+            if (--index < 0) {
+                return -1;
+            }
+            word = knownLocations[index];
+        }
+        return (index << 6) + 63 - Long.numberOfLeadingZeros(word);
+    }
 }
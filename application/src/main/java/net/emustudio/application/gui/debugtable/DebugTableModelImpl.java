@@ -30,6 +30,7 @@ import java.util.Optional;
 public class DebugTableModelImpl extends DebugTableModel {
     private DebuggerColumn<?>[] columns = new DebuggerColumn[0];
     private CPU cpu;
+    private CachedDisassembler disassembler;
     private PaginatingDisassembler ida;
 
     public DebugTableModelImpl() {
@@ -37,7 +38,9 @@ public class DebugTableModelImpl extends DebugTableModel {
 
     public void setCPU(CPU cpu, int memorySize) {
         this.cpu = Objects.requireNonNull(cpu);
-        CallFlow callFlow = new CallFlow(cpu.getDisassembler());
+        Optional.ofNullable(disassembler).ifPresent(CachedDisassembler::shutdown);
+        this.disassembler = new CachedDisassembler(cpu.getDisassembler(), memorySize);
+        CallFlow callFlow = new CallFlow(disassembler);
         this.ida = new PaginatingDisassembler(callFlow, memorySize);
         setDefaultColumns();
     }
@@ -130,7 +133,10 @@ public class DebugTableModelImpl extends DebugTableModel {
     @Override
     public Object getValueAt(int rowIndex, int columnIndex) {
         return Optional.ofNullable(ida).map(i -> {
-            int location = i.rowToLocation(cpu.getInstructionLocation(), rowIndex);
+            int currentLocation = cpu.getInstructionLocation();
+            disassembler.prefetch(currentLocation);
+
+            int location = i.rowToLocation(currentLocation, rowIndex);
             if (location != -1) {
                 return columns[columnIndex].getValue(location);
             }
@@ -166,18 +172,29 @@ public class DebugTableModelImpl extends DebugTableModel {
 
     @Override
     public void memoryChanged(int from, int to) {
-        Optional.ofNullable(ida).ifPresent(i -> i.flushCache(from, to + 1));
+        Optional.ofNullable(ida).ifPresent(i -> {
+            disassembler.invalidate(from, to + 1);
+            if (from < 0) {
+                // whole memory has changed
+                i.flushCache(0, Integer.MAX_VALUE - 1);
+            } else {
+                i.flushCache(from, to + 1);
+            }
+        });
     }
 
     @Override
     public void setMemorySize(int memorySize) {
-        Optional.ofNullable(ida).ifPresent(i -> i.setMemorySize(memorySize));
+        Optional.ofNullable(ida).ifPresent(i -> {
+            disassembler.setMemorySize(memorySize);
+            i.setMemorySize(memorySize);
+        });
     }
 
     @Override
     public final void setDefaultColumns() {
         Optional.ofNullable(cpu).ifPresent(cpu -> {
-            Disassembler dis = cpu.getDisassembler();
+            Disassembler dis = disassembler;
             if (cpu.isBreakpointSupported()) {
                 setDebuggerColumns(Arrays.asList(
                     new BreakpointColumn(cpu), new AddressColumn(), new MnemoColumn(dis), new OpcodeColumn(dis)
@@ -41,6 +41,7 @@ public class EmulatorPanel extends JPanel {
     private final JTable debugTable;
 
     private final StepBackAction stepBackAction;
+    private final StepBackToBreakpointAction stepBackToBreakpointAction;
     private final ResetAction resetAction;
     private final JumpToBeginningAction jumpToBeginningAction;
     private final StopAction stopAction;
@@ -75,7 +76,8 @@ public class EmulatorPanel extends JPanel {
             .flatMap(cpu -> Optional.ofNullable(cpu.getStatusPanel()))
             .ifPresent(this::setStatusPanel);
 
-        this.stepBackAction = new StepBackAction(computer, debugTableModel, this::refreshDebugTable);
+        this.stepBackAction = new StepBackAction(computer, debugTableModel, dialogs, this::refreshDebugTable);
+        this.stepBackToBreakpointAction = new StepBackToBreakpointAction(computer, dialogs, this::refreshDebugTable);
         this.resetAction = new ResetAction(emulationController);
         this.jumpToBeginningAction = new JumpToBeginningAction(computer, this::refreshDebugTable);
         this.stopAction = new StopAction(emulationController);
@@ -90,7 +92,7 @@ public class EmulatorPanel extends JPanel {
         showMemoryAction.setEnabled(computer.getMemory().filter(Memory::isShowSettingsSupported).isPresent());
         breakpointAction.setEnabled(computer.getCPU().filter(CPU::isBreakpointSupported).isPresent());
 
-        setupDebugToolbar();
+        setupDebugToolbar(computer.getCPU().filter(StepBackToBreakpointAction::isSupported).isPresent());
 
         panelPages = PagesPanel.create(debugTableModel, dialogs);
 
@@ -266,7 +268,7 @@ public class EmulatorPanel extends JPanel {
                 .addComponent(statusPanel));
     }
 
-    private void setupDebugToolbar() {
+    private void setupDebugToolbar(boolean stepBackToBreakpointSupported) {
         toolDebug.setFloatable(false);
         toolDebug.setRollover(true);
         toolDebug.setBorder(null);
@@ -274,6 +276,9 @@ public class EmulatorPanel extends JPanel {
 
         toolDebug.add(new ToolbarButton(resetAction, "Reset emulation"));
         toolDebug.add(new ToolbarButton(jumpToBeginningAction, "Jump to beginning"));
+        if (stepBackToBreakpointSupported) {
+            toolDebug.add(new ToolbarButton(stepBackToBreakpointAction, "Step back to breakpoint"));
+        }
         toolDebug.add(new ToolbarButton(stepBackAction,"Step back"));
         toolDebug.add(new ToolbarButton(stopAction, "Stop emulation"));
         toolDebug.add(new ToolbarButton(pauseAction, "Pause emulation"));
@@ -297,6 +302,7 @@ public class EmulatorPanel extends JPanel {
     private void setStateNotRunning(CPU.RunState state, boolean timedRunning) {
         pauseAction.setEnabled(false);
         stepBackAction.setEnabled(true);
+        stepBackToBreakpointAction.setEnabled(true);
         jumpToBeginningAction.setEnabled(true);
         paneDebug.setEnabled(true);
         debugTable.setEnabled(true);
@@ -315,6 +321,7 @@ public class EmulatorPanel extends JPanel {
             runAction.setEnabled(false);
             stepAction.setEnabled(false);
             stepBackAction.setEnabled(false);
+            stepBackToBreakpointAction.setEnabled(false);
             jumpToBeginningAction.setEnabled(false);
         } else {
             stopAction.setEnabled(false);
@@ -331,6 +338,7 @@ public class EmulatorPanel extends JPanel {
     private void setStateRunning() {
         stopAction.setEnabled(true);
         stepBackAction.setEnabled(false);
+        stepBackToBreakpointAction.setEnabled(false);
         runAction.setEnabled(false);
         stepAction.setEnabled(false);
         jumpToBeginningAction.setEnabled(false);
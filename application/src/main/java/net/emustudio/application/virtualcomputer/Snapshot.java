@@ -0,0 +1,192 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.virtualcomputer;
+
+import net.emustudio.emulib.plugins.Plugin;
+import net.emustudio.snapshot.Snapshottable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Snapshot of the virtual computer state.
+ * <p>
+ * A plugin takes part in the snapshot if it implements {@link Snapshottable}. Plugins which do not implement the
+ * interface are skipped. A plugin state is loaded only if its state version matches the version in the snapshot,
+ * and the plugin must read all of it.
+ * <p>
+ * File format (big-endian):
+ * <pre>
+ * "EMUSNAP\0"           magic
+ * int                   format version
+ * int                   sections count
+ * sections:
+ *   UTF                 plugin ID from computer configuration
+ *   UTF                 plugin class name
+ *   unsigned short      plugin state version
+ *   int                 data length
+ *   byte[length]        plugin state
+ * </pre>
+ */
+class Snapshot {
+    private final static Logger LOGGER = LoggerFactory.getLogger(Snapshot.class);
+
+    final static byte[] MAGIC = {'E', 'M', 'U', 'S', 'N', 'A', 'P', 0};
+    final static int VERSION = 2;
+    final static int MAX_STATE_VERSION = 0xFFFF;
+
+    /**
+     * Save state of plugins into a file.
+     *
+     * @param file    snapshot file
+     * @param plugins plugins by plugin ID, in the order in which they should be saved
+     * @throws IOException if the snapshot could not be written
+     */
+    static void save(Path file, Map<String, Plugin> plugins) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.write(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt((int) plugins.values().stream().filter(p -> p instanceof Snapshottable).count());
+
+            for (Map.Entry<String, Plugin> entry : plugins.entrySet()) {
+                Plugin plugin = entry.getValue();
+                if (!(plugin instanceof Snapshottable)) {
+                    LOGGER.debug("Plugin {} does not support snapshots; skipping", plugin.getTitle());
+                    continue;
+                }
+                Snapshottable snapshottable = (Snapshottable) plugin;
+                int stateVersion = snapshottable.getSnapshotVersion();
+                if (stateVersion < 0 || stateVersion > MAX_STATE_VERSION) {
+                    throw new IOException("Invalid state version of plugin " + plugin.getTitle() + ": " + stateVersion);
+                }
+
+                ByteArrayOutputStream state = new ByteArrayOutputStream();
+                snapshottable.saveSnapshot(new DataOutputStream(state));
+                output.writeUTF(entry.getKey());
+                output.writeUTF(plugin.getClass().getName());
+                output.writeShort(stateVersion);
+                output.writeInt(state.size());
+                state.writeTo(output);
+            }
+        }
+    }
+
+    /**
+     * Load state of plugins from a file.
+     * <p>
+     * The snapshot must have been created with the same computer configuration.
+     *
+     * @param file    snapshot file
+     * @param plugins plugins by plugin ID, in the order in which they should be loaded
+     * @throws IOException if the snapshot could not be read or it does not match the plugins
+     */
+    static void load(Path file, Map<String, Plugin> plugins) throws IOException {
+        Map<String, Section> sections = readSections(file);
+
+        Set<String> unknownSections = new HashSet<>(sections.keySet());
+        unknownSections.removeAll(plugins.keySet());
+        if (!unknownSections.isEmpty()) {
+            throw new IOException("Snapshot contains state of unknown plugins: " + unknownSections);
+        }
+
+        for (Map.Entry<String, Plugin> entry : plugins.entrySet()) {
+            Plugin plugin = entry.getValue();
+            Section section = sections.get(entry.getKey());
+            if (section == null) {
+                if (plugin instanceof Snapshottable) {
+                    LOGGER.warn("Snapshot does not contain state of plugin {}; keeping current state", plugin.getTitle());
+                }
+                continue;
+            }
+            if (!(plugin instanceof Snapshottable) || !plugin.getClass().getName().equals(section.className)) {
+                throw new IOException(
+                    "Snapshot of plugin " + entry.getKey() + " was created by " + section.className
+                        + ", but the plugin is " + plugin.getClass().getName()
+                );
+            }
+            Snapshottable snapshottable = (Snapshottable) plugin;
+            if (section.stateVersion != snapshottable.getSnapshotVersion()) {
+                throw new IOException(
+                    "Snapshot of plugin " + entry.getKey() + " has state version " + section.stateVersion
+                        + ", but the plugin expects version " + snapshottable.getSnapshotVersion()
+                );
+            }
+
+            DataInputStream pluginInput = new DataInputStream(new ByteArrayInputStream(section.state));
+            try {
+                snapshottable.loadSnapshot(pluginInput);
+            } catch (EOFException e) {
+                throw new IOException("Snapshot of plugin " + entry.getKey() + " is truncated", e);
+            }
+            if (pluginInput.available() > 0) {
+                throw new IOException("Snapshot of plugin " + entry.getKey() + " was not fully read by the plugin");
+            }
+        }
+    }
+
+    private static Map<String, Section> readSections(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            byte[] magic = new byte[MAGIC.length];
+            input.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            int version = input.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+
+            int count = input.readInt();
+            Map<String, Section> sections = new HashMap<>();
+            for (int i = 0; i < count; i++) {
+                String pluginId = input.readUTF();
+                String className = input.readUTF();
+                int stateVersion = input.readUnsignedShort();
+                int length = input.readInt();
+                if (length < 0) {
+                    throw new IOException("Invalid state length of plugin " + pluginId + ": " + length);
+                }
+                byte[] state = new byte[length];
+                input.readFully(state);
+                sections.put(pluginId, new Section(className, stateVersion, state));
+            }
+            return sections;
+        }
+    }
+
+    private static class Section {
+        final String className;
+        final int stateVersion;
+        final byte[] state;
+
+        Section(String className, int stateVersion, byte[] state) {
+            this.className = className;
+            this.stateVersion = stateVersion;
+            this.state = state;
+        }
+    }
+}
@@ -35,6 +35,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
@@ -96,6 +97,42 @@ public class VirtualComputer implements PluginConnections {
         getDevices().forEach(Device::reset);
     }
 
+    /**
+     * Save state of the virtual computer into a snapshot file.
+     * <p>
+     * Emulation must not be running. Only plugins implementing {@link net.emustudio.snapshot.Snapshottable} are saved.
+     *
+     * @param file snapshot file
+     * @throws IOException if the snapshot could not be written
+     */
+    public void saveSnapshot(Path file) throws IOException {
+        Snapshot.save(file, getSnapshotPlugins());
+    }
+
+    /**
+     * Restore state of the virtual computer from a snapshot file.
+     * <p>
+     * The snapshot must have been saved by the same computer configuration. It should be loaded after the computer
+     * is initialized and reset.
+     *
+     * @param file snapshot file
+     * @throws IOException if the snapshot could not be read or it was not created by this computer
+     */
+    public void loadSnapshot(Path file) throws IOException {
+        Snapshot.load(file, getSnapshotPlugins());
+    }
+
+    private Map<String, Plugin> getSnapshotPlugins() {
+        // memory goes first, so the CPU can safely drop anything it has cached from memory
+        Map<String, Plugin> plugins = new LinkedHashMap<>();
+        List.of(PLUGIN_TYPE.MEMORY, PLUGIN_TYPE.CPU, PLUGIN_TYPE.DEVICE).forEach(
+            pluginType -> pluginsByType.getOrDefault(pluginType, Collections.emptyList()).forEach(
+                meta -> plugins.put(meta.pluginConfig.getPluginId(), meta.pluginInstance)
+            )
+        );
+        return plugins;
+    }
+
     public boolean isConnected(long pluginA, long pluginB) {
         String fst = pluginsById.get(pluginA).pluginConfig.getPluginId();
         String snd = pluginsById.get(pluginB).pluginConfig.getPluginId();
@@ -128,7 +165,21 @@ public class VirtualComputer implements PluginConnections {
         return meta.stream().map(m -> (Device) m.pluginInstance).collect(Collectors.toList());
     }
 
+    /**
+     * Destroy all plugins and close the computer configuration.
+     * <p>
+     * Plugins release their resources, e.g. devices flush and close their output files.
+     */
     public void close() {
+        List.of(PLUGIN_TYPE.DEVICE, PLUGIN_TYPE.CPU, PLUGIN_TYPE.MEMORY, PLUGIN_TYPE.COMPILER).forEach(
+            pluginType -> pluginsByType.getOrDefault(pluginType, Collections.emptyList()).forEach(meta -> {
+                try {
+                    meta.pluginInstance.destroy();
+                } catch (Exception e) {
+                    LOGGER.error("Could not destroy plugin {}", meta.pluginInstance.getTitle(), e);
+                }
+            })
+        );
         computerConfig.close();
     }
 
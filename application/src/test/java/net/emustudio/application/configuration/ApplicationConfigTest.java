@@ -50,4 +50,17 @@ public class ApplicationConfigTest {
         assertFalse(noguiOpt.get());
         assertFalse(autoOpt.get());
     }
+
+    @Test
+    public void testCompileToMemory() throws IOException {
+        FileConfig config = FileConfig.of(temporaryFolder.newFile("emustudio.toml"));
+
+        ApplicationConfig applicationConfig = new ApplicationConfig(config, true, true, true);
+
+        Optional<Boolean> compileToMemoryOpt = applicationConfig.getBoolean(ApplicationConfig.KEY_COMPILE_TO_MEMORY);
+        assertTrue(applicationConfig.contains(ApplicationConfig.KEY_COMPILE_TO_MEMORY));
+        assertTrue(compileToMemoryOpt.isPresent());
+        assertTrue(compileToMemoryOpt.get());
+        assertFalse(new ApplicationConfig(config, true, true).compileToMemory);
+    }
 }
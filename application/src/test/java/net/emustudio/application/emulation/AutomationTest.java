@@ -0,0 +1,104 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import com.electronwill.nightconfig.core.file.FileConfig;
+import net.emustudio.application.configuration.ApplicationConfig;
+import net.emustudio.application.virtualcomputer.VirtualComputer;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertEquals;
+
+public class AutomationTest {
+    private final Capture<CPU.CPUListener> cpuListener = newCapture();
+    private CPU cpu;
+    private VirtualComputer computer;
+
+    @Before
+    public void setUp() {
+        cpu = createNiceMock(CPU.class);
+        cpu.addCPUListener(capture(cpuListener));
+        expectLastCall().once();
+
+        computer = createNiceMock(VirtualComputer.class);
+        expect(computer.getCompiler()).andReturn(Optional.empty()).anyTimes();
+        expect(computer.getMemory()).andReturn(Optional.empty()).anyTimes();
+        expect(computer.getDevices()).andReturn(Collections.emptyList()).anyTimes();
+        expect(computer.getCPU()).andReturn(Optional.of(cpu)).anyTimes();
+        replay(computer);
+    }
+
+    private Automation createAutomation(int waitForFinishMillis) throws AutomationException {
+        ApplicationConfig config = new ApplicationConfig(createNiceMock(FileConfig.class), true, true);
+        return new Automation(computer, null, config, createNiceMock(Dialogs.class), waitForFinishMillis, true);
+    }
+
+    @Test(timeout = 5000)
+    public void testCpuStoppedBeforeWaitingIsNotMissed() throws Exception {
+        cpu.execute();
+        expectLastCall().andAnswer(() -> {
+            cpuListener.getValue().runStateChanged(CPU.RunState.STATE_STOPPED_NORMAL);
+            return null;
+        });
+        replay(cpu);
+
+        Automation automation = createAutomation(Automation.DONT_WAIT);
+        automation.run();
+
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, automation.getResultState());
+    }
+
+    @Test(timeout = 5000)
+    public void testWaitsUntilCpuStops() throws Exception {
+        cpu.execute();
+        expectLastCall().andAnswer(() -> {
+            new Thread(() -> {
+                CPU.CPUListener listener = cpuListener.getValue();
+                listener.runStateChanged(CPU.RunState.STATE_RUNNING);
+                listener.internalStateChanged();
+                listener.runStateChanged(CPU.RunState.STATE_STOPPED_BREAK);
+            }).start();
+            return null;
+        });
+        replay(cpu);
+
+        Automation automation = createAutomation(Automation.DONT_WAIT);
+        automation.run();
+
+        assertEquals(CPU.RunState.STATE_STOPPED_BREAK, automation.getResultState());
+    }
+
+    @Test(timeout = 5000)
+    public void testRunningCpuTimesOut() throws Exception {
+        replay(cpu);
+
+        Automation automation = createAutomation(100);
+        automation.run();
+
+        assertEquals(CPU.RunState.STATE_RUNNING, automation.getResultState());
+    }
+}
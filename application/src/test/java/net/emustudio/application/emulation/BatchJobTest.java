@@ -0,0 +1,152 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import net.emustudio.emulib.plugins.cpu.CPU;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchJobTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path writeManifest(String content) throws IOException {
+        Path manifest = temporaryFolder.getRoot().toPath().resolve("batch.toml");
+        Files.writeString(manifest, content);
+        return manifest;
+    }
+
+    @Test
+    public void testLoadJobs() throws Exception {
+        Path manifest = writeManifest(
+            "[[job]]\n" +
+                "name = \"first\"\n" +
+                "config = \"config/computer.toml\"\n" +
+                "input = \"examples/prog.asm\"\n" +
+                "timeout = 5000\n" +
+                "expectedState = \"STATE_STOPPED_NORMAL\"\n" +
+                "snapshot = \"booted.snap\"\n" +
+                "output = \"prog.out\"\n" +
+                "expectedOutput = \"expected/prog.out\"\n" +
+                "\n" +
+                "[[job]]\n" +
+                "config = \"/abs/computer.toml\"\n" +
+                "input = \"second.asm\"\n"
+        );
+        Path base = temporaryFolder.getRoot().toPath().toAbsolutePath();
+
+        List<BatchJob> jobs = BatchJob.load(manifest);
+        assertEquals(2, jobs.size());
+
+        BatchJob first = jobs.get(0);
+        assertEquals("first", first.getName());
+        assertEquals(base.resolve("config/computer.toml"), first.getConfigFile());
+        assertEquals(base.resolve("examples/prog.asm"), first.getInputFile());
+        assertEquals(5000, first.getTimeoutMillis());
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, first.getExpectedState().orElseThrow());
+        assertEquals(base.resolve("booted.snap"), first.getSnapshotFile().orElseThrow());
+        assertEquals(base.resolve("prog.out"), first.getOutputFile().orElseThrow());
+        assertEquals(base.resolve("expected/prog.out"), first.getExpectedOutputFile().orElseThrow());
+
+        BatchJob second = jobs.get(1);
+        assertEquals("second.asm", second.getName());
+        assertEquals(Path.of("/abs/computer.toml"), second.getConfigFile());
+        assertEquals(BatchJob.DEFAULT_TIMEOUT_MILLIS, second.getTimeoutMillis());
+        assertTrue(second.getExpectedState().isEmpty());
+        assertTrue(second.getSnapshotFile().isEmpty());
+        assertTrue(second.getOutputFile().isEmpty());
+        assertTrue(second.getExpectedOutputFile().isEmpty());
+    }
+
+    @Test
+    public void testEmptyManifestHasNoJobs() throws Exception {
+        assertTrue(BatchJob.load(writeManifest("")).isEmpty());
+    }
+
+    @Test(expected = AutomationException.class)
+    public void testJobWithoutInputIsRejected() throws Exception {
+        BatchJob.load(writeManifest("[[job]]\nconfig = \"computer.toml\"\n"));
+    }
+
+    @Test(expected = AutomationException.class)
+    public void testInvalidExpectedStateIsRejected() throws Exception {
+        BatchJob.load(writeManifest(
+            "[[job]]\nconfig = \"computer.toml\"\ninput = \"a.asm\"\nexpectedState = \"STATE_BAD\"\n"
+        ));
+    }
+
+    @Test(expected = AutomationException.class)
+    public void testExpectedOutputWithoutOutputIsRejected() throws Exception {
+        BatchJob.load(writeManifest(
+            "[[job]]\nconfig = \"computer.toml\"\ninput = \"a.asm\"\nexpectedOutput = \"a.out\"\n"
+        ));
+    }
+
+    @Test
+    public void testReport() throws Exception {
+        BatchJob passing = new BatchJob("ok", Path.of("c.toml"), Path.of("a.asm"), 100, CPU.RunState.STATE_STOPPED_NORMAL);
+        BatchJob failing = new BatchJob("bad", Path.of("c.toml"), Path.of("b.asm"), 100, CPU.RunState.STATE_STOPPED_NORMAL);
+        BatchJob timeout = new BatchJob("slow", Path.of("c.toml"), Path.of("c.asm"), 100, null);
+        BatchJob broken = new BatchJob("<broken>", Path.of("c.toml"), Path.of("d.asm"), 100, null);
+        BatchJob output = new BatchJob(
+            "output", Path.of("c.toml"), Path.of("e.asm"), 100, null, null, Path.of("e.out"), Path.of("expected.out")
+        );
+
+        List<BatchResult> results = List.of(
+            BatchResult.finished(passing, CPU.RunState.STATE_STOPPED_NORMAL, 0x12, 20),
+            BatchResult.finished(failing, CPU.RunState.STATE_STOPPED_BAD_INSTR, 0x34, 30),
+            BatchResult.finished(timeout, CPU.RunState.STATE_RUNNING, 0x56, 100),
+            BatchResult.failed(broken, "Compile failed", 5),
+            BatchResult.finished(output, CPU.RunState.STATE_STOPPED_NORMAL, 0x78, 10, "Output differs at byte 3")
+        );
+        assertTrue(results.get(0).isPassed());
+        assertFalse(results.get(1).isPassed());
+        assertFalse(results.get(2).isPassed());
+        assertFalse(results.get(3).isPassed());
+        assertFalse(results.get(4).isPassed());
+
+        BatchReport report = new BatchReport(results);
+        assertEquals(4, report.getFailedCount());
+
+        StringWriter writer = new StringWriter();
+        report.write(writer);
+        String xml = writer.toString();
+
+        assertTrue(xml.contains("tests=\"5\" failures=\"2\" errors=\"2\" time=\"0.165\""));
+        assertTrue(xml.contains("<testcase name=\"ok\" classname=\"c.toml\" time=\"0.020\">"));
+        assertTrue(xml.contains("<failure message=\"Expected STATE_STOPPED_NORMAL, but was STATE_STOPPED_BAD_INSTR at 0034h\""));
+        assertTrue(xml.contains("<error message=\"Timed out after 100 ms\""));
+        assertTrue(xml.contains("name=\"&lt;broken&gt;\""));
+        assertTrue(xml.contains("<error message=\"Compile failed\""));
+        assertTrue(xml.contains("<property name=\"expectedOutput\" value=\"expected.out\""));
+        assertTrue(xml.contains("<failure message=\"Output differs at byte 3\""));
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.emulation;
+
+import com.electronwill.nightconfig.core.file.FileConfig;
+import net.emustudio.application.configuration.ApplicationConfig;
+import net.emustudio.application.configuration.ComputerConfig;
+import net.emustudio.application.configuration.ConfigFiles;
+import net.emustudio.application.virtualcomputer.VirtualComputer;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.easymock.Capture;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ApplicationConfig applicationConfig;
+    private ConfigFiles configFiles;
+    private Path inputFile;
+
+    @Before
+    public void setUp() throws Exception {
+        applicationConfig = new ApplicationConfig(createNiceMock(FileConfig.class), true, true);
+
+        ComputerConfig computerConfig = createNiceMock(ComputerConfig.class);
+        replay(computerConfig);
+        configFiles = createNiceMock(ConfigFiles.class);
+        expect(configFiles.loadConfiguration(anyObject(Path.class))).andStubReturn(computerConfig);
+        replay(configFiles);
+
+        inputFile = temporaryFolder.newFile("program.asm").toPath();
+    }
+
+    private BatchRunner createRunner(int parallelism, BatchRunner.ComputerFactory computerFactory) {
+        return new BatchRunner(
+            applicationConfig, configFiles, createNiceMock(Dialogs.class), parallelism, computerFactory
+        );
+    }
+
+    private BatchJob createJob(String name, int timeoutMillis) {
+        return new BatchJob(
+            name, Path.of("computer.toml"), inputFile, timeoutMillis, CPU.RunState.STATE_STOPPED_NORMAL
+        );
+    }
+
+    private static CPU createCpu(StopAnswer answer) {
+        Capture<CPU.CPUListener> cpuListener = newCapture();
+        CPU cpu = createNiceMock(CPU.class);
+        cpu.addCPUListener(capture(cpuListener));
+        expectLastCall().once();
+        cpu.execute();
+        expectLastCall().andAnswer(() -> {
+            answer.run(cpuListener.getValue());
+            return null;
+        });
+        return cpu;
+    }
+
+    private static VirtualComputer createComputer(CPU cpu) {
+        VirtualComputer computer = createNiceMock(VirtualComputer.class);
+        expect(computer.getCompiler()).andReturn(Optional.empty()).anyTimes();
+        expect(computer.getMemory()).andReturn(Optional.empty()).anyTimes();
+        expect(computer.getDevices()).andReturn(Collections.emptyList()).anyTimes();
+        expect(computer.getCPU()).andReturn(Optional.of(cpu)).anyTimes();
+        replay(computer);
+        return computer;
+    }
+
+    private static VirtualComputer createStoppingComputer() {
+        CPU cpu = createCpu(listener -> listener.runStateChanged(CPU.RunState.STATE_STOPPED_NORMAL));
+        replay(cpu);
+        return createComputer(cpu);
+    }
+
+    @Test(timeout = 10000)
+    public void testJobsRunConcurrently() throws Exception {
+        CountDownLatch allStarted = new CountDownLatch(2);
+
+        List<BatchResult> results = createRunner(2, computerConfig -> {
+            allStarted.countDown();
+            if (!allStarted.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Jobs do not run concurrently");
+            }
+            return createStoppingComputer();
+        }).run(List.of(createJob("first", 1000), createJob("second", 1000)));
+
+        assertEquals(2, results.size());
+        assertEquals("first", results.get(0).getJob().getName());
+        assertEquals("second", results.get(1).getJob().getName());
+        assertTrue(results.get(0).getError().orElse(""), results.get(0).isPassed());
+        assertTrue(results.get(1).getError().orElse(""), results.get(1).isPassed());
+    }
+
+    @Test(timeout = 10000)
+    public void testRunningJobTimesOutAndCpuIsStopped() throws Exception {
+        CPU cpu = createCpu(listener -> {
+        });
+        cpu.stop();
+        expectLastCall().once();
+        replay(cpu);
+
+        List<BatchResult> results = createRunner(1, computerConfig -> createComputer(cpu))
+            .run(List.of(createJob("slow", 100)));
+
+        BatchResult result = results.get(0);
+        assertTrue(result.isTimedOut());
+        assertFalse(result.isPassed());
+        assertTrue(result.getWallTimeMillis() >= 100);
+        verify(cpu);
+    }
+
+    @Test(timeout = 10000)
+    public void testJobFailingWithErrorRecordsWallTime() throws Exception {
+        List<BatchResult> results = createRunner(1, computerConfig -> {
+            Thread.sleep(50);
+            throw new LinkageError("Broken plugin");
+        }).run(List.of(createJob("broken", 1000)));
+
+        BatchResult result = results.get(0);
+        assertFalse(result.isPassed());
+        assertTrue(result.getState().isEmpty());
+        assertTrue(result.getError().orElseThrow().contains("Broken plugin"));
+        assertTrue(result.getWallTimeMillis() >= 50);
+    }
+
+    @Test(timeout = 10000)
+    public void testOutputIsComparedWithExpectedOutput() throws Exception {
+        Path outputFile = temporaryFolder.getRoot().toPath().resolve("program.out");
+        Path expectedOutputFile = temporaryFolder.getRoot().toPath().resolve("expected.out");
+        Files.writeString(expectedOutputFile, "HELLO\n");
+
+        BatchJob matching = new BatchJob(
+            "matching", Path.of("computer.toml"), inputFile, 1000, null, null, outputFile, expectedOutputFile
+        );
+        BatchJob different = new BatchJob(
+            "different", Path.of("computer.toml"), inputFile, 1000, null, null, outputFile, expectedOutputFile
+        );
+        List<String> outputs = List.of("HELLO\n", "HELL0\n");
+        AtomicInteger run = new AtomicInteger();
+
+        BatchRunner runner = createRunner(1, computerConfig -> {
+            String output = outputs.get(run.getAndIncrement());
+            CPU cpu = createCpu(listener -> {
+                Files.writeString(outputFile, output);
+                listener.runStateChanged(CPU.RunState.STATE_STOPPED_NORMAL);
+            });
+            replay(cpu);
+            return createComputer(cpu);
+        });
+
+        BatchResult matchingResult = runner.run(List.of(matching)).get(0);
+        assertTrue(matchingResult.isPassed());
+        assertTrue(matchingResult.getOutputMismatch().isEmpty());
+
+        BatchResult differentResult = runner.run(List.of(different)).get(0);
+        assertFalse(differentResult.isPassed());
+        assertEquals("Output differs from expected.out at byte 4", differentResult.getOutputMismatch().orElseThrow());
+    }
+
+    @Test
+    public void testMissingOutputDoesNotMatch() throws Exception {
+        Path expectedOutputFile = temporaryFolder.newFile("expected.out").toPath();
+        Path outputFile = temporaryFolder.getRoot().toPath().resolve("missing.out");
+
+        assertEquals(
+            "Output file " + outputFile + " was not written",
+            BatchRunner.compareOutput(outputFile, expectedOutputFile)
+        );
+    }
+
+    @FunctionalInterface
+    private interface StopAnswer {
+        void run(CPU.CPUListener listener) throws Exception;
+    }
+}
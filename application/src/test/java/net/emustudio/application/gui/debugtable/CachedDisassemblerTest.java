@@ -0,0 +1,213 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.application.gui.debugtable;
+
+import net.emustudio.emulib.plugins.cpu.DisassembledInstruction;
+import net.emustudio.emulib.plugins.cpu.Disassembler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class CachedDisassemblerTest {
+    private final static int MEMORY_SIZE = 1000;
+
+    private ExecutorService executor;
+    private CountingDisassembler counting;
+    private CachedDisassembler cached;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        counting = new CountingDisassembler(MEMORY_SIZE, 2);
+        cached = new CachedDisassembler(counting, MEMORY_SIZE, executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCreateInstanceNullDisassemblerThrows() {
+        new CachedDisassembler(null, MEMORY_SIZE, executor);
+    }
+
+    @Test
+    public void testNextInstructionPositionIsDecodedOnce() {
+        assertEquals(12, cached.getNextInstructionPosition(10));
+        assertEquals(12, cached.getNextInstructionPosition(10));
+        assertEquals(1, counting.nextPositionCalls);
+    }
+
+    @Test
+    public void testInstructionIsDisassembledOnce() {
+        DisassembledInstruction instruction = cached.disassemble(10);
+        assertSame(instruction, cached.disassemble(10));
+        assertEquals(1, counting.disassembleCalls);
+    }
+
+    @Test
+    public void testLocationsOutOfMemoryAreNotCached() {
+        cached.getNextInstructionPosition(MEMORY_SIZE + 5);
+        cached.getNextInstructionPosition(MEMORY_SIZE + 5);
+        assertEquals(2, counting.nextPositionCalls);
+    }
+
+    @Test
+    public void testInvalidateDropsOverlappingInstructions() {
+        cached.getNextInstructionPosition(8);
+        cached.getNextInstructionPosition(9);
+        cached.getNextInstructionPosition(10);
+        cached.getNextInstructionPosition(12);
+
+        counting.size = 3;
+        cached.invalidate(10, 11);
+
+        assertEquals(10, cached.getNextInstructionPosition(8));
+        assertEquals(12, cached.getNextInstructionPosition(9));
+        assertEquals(13, cached.getNextInstructionPosition(10));
+        assertEquals(14, cached.getNextInstructionPosition(12));
+    }
+
+    @Test
+    public void testInvalidateWholeMemory() {
+        cached.disassemble(100);
+        cached.getNextInstructionPosition(900);
+
+        cached.invalidate(-1, 0);
+
+        cached.disassemble(100);
+        cached.getNextInstructionPosition(900);
+        assertEquals(2, counting.disassembleCalls);
+        assertEquals(2, counting.nextPositionCalls);
+    }
+
+    @Test
+    public void testSetMemorySizeDropsCache() {
+        cached.getNextInstructionPosition(10);
+        cached.setMemorySize(5);
+
+        cached.getNextInstructionPosition(10);
+        cached.getNextInstructionPosition(10);
+        assertEquals(3, counting.nextPositionCalls);
+    }
+
+    @Test
+    public void testPrefetchDecodesPagesAroundLocation() throws InterruptedException {
+        cached.prefetch(500);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int calls = counting.nextPositionCalls;
+        for (int i = 500; i < 500 + PaginatingDisassembler.INSTR_PER_PAGE * 2; i += 2) {
+            cached.getNextInstructionPosition(i);
+            cached.disassemble(i);
+        }
+        for (int i = 500 - PaginatingDisassembler.INSTR_PER_PAGE * 2; i < 500; i++) {
+            cached.getNextInstructionPosition(i);
+        }
+        assertEquals(calls, counting.nextPositionCalls);
+    }
+
+    @Test(timeout = 30000)
+    public void testDisassemblerIsNotCalledConcurrently() throws InterruptedException {
+        ConcurrencyDetectingDisassembler detecting = new ConcurrencyDetectingDisassembler();
+        cached = new CachedDisassembler(detecting, MEMORY_SIZE, executor);
+
+        for (int round = 0; round < 50; round++) {
+            cached.invalidate(-1, 0);
+            cached.prefetch(round % 2 == 0 ? 500 : 600);
+            for (int i = 0; i < MEMORY_SIZE; i++) {
+                cached.getNextInstructionPosition(i);
+                cached.disassemble(i);
+            }
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertFalse(detecting.concurrentCall.get());
+    }
+
+    private static class ConcurrencyDetectingDisassembler implements Disassembler {
+        private final AtomicInteger callers = new AtomicInteger();
+        private final AtomicBoolean concurrentCall = new AtomicBoolean();
+
+        @Override
+        public DisassembledInstruction disassemble(int memoryLocation) {
+            enter();
+            try {
+                return new DisassembledInstruction(memoryLocation, "nop", "00");
+            } finally {
+                callers.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int getNextInstructionPosition(int memoryLocation) throws IndexOutOfBoundsException {
+            enter();
+            try {
+                return memoryLocation + 1;
+            } finally {
+                callers.decrementAndGet();
+            }
+        }
+
+        private void enter() {
+            if (callers.incrementAndGet() > 1) {
+                concurrentCall.set(true);
+            }
+            Thread.yield();
+        }
+    }
+
+    private static class CountingDisassembler implements Disassembler {
+        private final int memorySize;
+        private volatile int size;
+        private int disassembleCalls;
+        private int nextPositionCalls;
+
+        CountingDisassembler(int memorySize, int size) {
+            this.memorySize = memorySize;
+            this.size = size;
+        }
+
+        @Override
+        public synchronized DisassembledInstruction disassemble(int memoryLocation) {
+            disassembleCalls++;
+            return new DisassembledInstruction(memoryLocation, "nop", "00");
+        }
+
+        @Override
+        public synchronized int getNextInstructionPosition(int memoryLocation) throws IndexOutOfBoundsException {
+            nextPositionCalls++;
+            if (memoryLocation + size > memorySize + 100) {
+                throw new IndexOutOfBoundsException();
+            }
+            return memoryLocation + size;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package net.emustudio.application.virtualcomputer;
 import net.emustudio.application.configuration.ComputerConfig;
 import net.emustudio.application.configuration.PluginConfig;
 import net.emustudio.application.virtualcomputer.VirtualComputer.PluginMeta;
+import net.emustudio.application.virtualcomputer.stubs.CPUImplStub;
 import net.emustudio.emulib.plugins.Plugin;
 import net.emustudio.emulib.plugins.annotations.PLUGIN_TYPE;
 import net.emustudio.emulib.plugins.compiler.Compiler;
@@ -10,8 +11,16 @@ import net.emustudio.emulib.plugins.cpu.CPU;
 import net.emustudio.emulib.plugins.device.Device;
 import net.emustudio.emulib.plugins.memory.Memory;
 import net.emustudio.emulib.runtime.PluginSettings;
+import net.emustudio.snapshot.Snapshottable;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +32,9 @@ import static org.junit.Assert.assertTrue;
 
 public class VirtualComputerTest {
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void testGetCPUworks() {
         CPU instance = createNiceMock(CPU.class);
@@ -78,6 +90,94 @@ public class VirtualComputerTest {
         assertEquals(instance2, devices.get(1));
     }
 
+    @Test
+    public void testCloseDestroysAllPlugins() {
+        Device device = createNiceMock(Device.class);
+        device.destroy();
+        expectLastCall().andThrow(new IllegalStateException("Device failure")).once();
+        Memory memory = createNiceMock(Memory.class);
+        memory.destroy();
+        expectLastCall().once();
+        ComputerConfig computerConfig = createNiceMock(ComputerConfig.class);
+        computerConfig.close();
+        expectLastCall().once();
+        replay(device, memory, computerConfig);
+
+        new VirtualComputer(computerConfig, mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.DEVICE, device, "device"), mockPluginMeta(PLUGIN_TYPE.MEMORY, memory, "mem")
+        )).close();
+
+        verify(device, memory, computerConfig);
+    }
+
+    @Test
+    public void testSnapshotRestoresPluginState() throws Exception {
+        StatefulCPUStub cpu = new StatefulCPUStub();
+        Memory memory = createNiceMock(Memory.class);
+        replay(memory);
+        cpu.state = 0x1234;
+
+        VirtualComputer virtualComputer = new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, cpu, "cpu"), mockPluginMeta(PLUGIN_TYPE.MEMORY, memory, "mem")
+        ));
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("computer.snap");
+        virtualComputer.saveSnapshot(snapshot);
+
+        cpu.state = 0;
+        virtualComputer.loadSnapshot(snapshot);
+        assertEquals(0x1234, cpu.state);
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshotOfDifferentComputerIsRejected() throws Exception {
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("computer.snap");
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, new StatefulCPUStub(), "cpu")
+        )).saveSnapshot(snapshot);
+
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, new StatefulCPUStub(), "other-cpu")
+        )).loadSnapshot(snapshot);
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshotWithDifferentStateVersionIsRejected() throws Exception {
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("computer.snap");
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, new StatefulCPUStub(), "cpu")
+        )).saveSnapshot(snapshot);
+
+        StatefulCPUStub cpu = new StatefulCPUStub();
+        cpu.version = 2;
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, cpu, "cpu")
+        )).loadSnapshot(snapshot);
+    }
+
+    @Test(expected = IOException.class)
+    public void testSnapshotNotFullyReadIsRejected() throws Exception {
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("computer.snap");
+        StatefulCPUStub cpu = new StatefulCPUStub();
+        cpu.extraState = true;
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, cpu, "cpu")
+        )).saveSnapshot(snapshot);
+
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, new StatefulCPUStub(), "cpu")
+        )).loadSnapshot(snapshot);
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSnapshotIsRejected() throws Exception {
+        Path snapshot = temporaryFolder.getRoot().toPath().resolve("computer.snap");
+        Files.write(snapshot, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+
+        new VirtualComputer(mockComputerConfig(), mockPlugins(
+            mockPluginMeta(PLUGIN_TYPE.CPU, new StatefulCPUStub(), "cpu")
+        )).loadSnapshot(snapshot);
+    }
+
     private ComputerConfig mockComputerConfig() {
         ComputerConfig computerConfig = createNiceMock(ComputerConfig.class);
         replay(computerConfig);
@@ -99,4 +199,40 @@ public class VirtualComputerTest {
         replay(pluginConfig);
         return new PluginMeta(PluginSettings.UNAVAILABLE, instance, pluginConfig);
     }
+
+    private PluginMeta mockPluginMeta(PLUGIN_TYPE pluginType, Plugin instance, String pluginId) {
+        PluginConfig pluginConfig = createNiceMock(PluginConfig.class);
+        expect(pluginConfig.getPluginType()).andReturn(pluginType).once();
+        expect(pluginConfig.getPluginId()).andReturn(pluginId).anyTimes();
+        replay(pluginConfig);
+        return new PluginMeta(PluginSettings.UNAVAILABLE, instance, pluginConfig);
+    }
+
+    public static class StatefulCPUStub extends CPUImplStub implements Snapshottable {
+        int state;
+        int version = 1;
+        boolean extraState;
+
+        public StatefulCPUStub() {
+            super(0, null, null);
+        }
+
+        @Override
+        public int getSnapshotVersion() {
+            return version;
+        }
+
+        @Override
+        public void saveSnapshot(DataOutput output) throws IOException {
+            output.writeInt(state);
+            if (extraState) {
+                output.writeInt(state);
+            }
+        }
+
+        @Override
+        public void loadSnapshot(DataInput input) throws IOException {
+            state = input.readInt();
+        }
+    }
 }
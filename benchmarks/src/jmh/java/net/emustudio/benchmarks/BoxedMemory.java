@@ -0,0 +1,70 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.benchmarks;
+
+import net.emustudio.emulib.plugins.memory.AbstractMemoryContext;
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+
+/**
+ * Memory which hides the primitive access of the wrapped memory, so CPUs must use the boxed MemoryContext methods.
+ * <p>
+ * Used for comparing the primitive and boxed memory access of CPUs.
+ */
+public class BoxedMemory extends AbstractMemoryContext<Short> {
+    private final MemoryContext<Short> memory;
+
+    public BoxedMemory(MemoryContext<Short> memory) {
+        this.memory = memory;
+    }
+
+    @Override
+    public Short read(int from) {
+        return memory.read(from);
+    }
+
+    @Override
+    public Short[] readWord(int from) {
+        return memory.readWord(from);
+    }
+
+    @Override
+    public void write(int to, Short val) {
+        memory.write(to, val);
+    }
+
+    @Override
+    public void writeWord(int to, Short[] cells) {
+        memory.writeWord(to, cells);
+    }
+
+    @Override
+    public Class<Short> getDataType() {
+        return memory.getDataType();
+    }
+
+    @Override
+    public void clear() {
+        memory.clear();
+    }
+
+    @Override
+    public int getSize() {
+        return memory.getSize();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.benchmarks;
+
+/**
+ * Workloads used by the benchmarks.
+ * <p>
+ * Programs which never stop are preferred, so the benchmarks can execute any number of instructions without resets.
+ */
+public class Programs {
+
+    /**
+     * Intel 8080 program (also valid for Z80): fill 64 bytes at 0100h in descending order, bubble-sort them, and
+     * start again. Address 0000h is reached once per sort.
+     */
+    public final static short[] BUBBLE_SORT_8080 = new short[]{
+        0x21, 0x00, 0x01, // 0000: start:  LXI H, 0100h
+        0x06, 0x40,       // 0003:         MVI B, 64
+        0x70,             // 0005: init:   MOV M, B
+        0x23,             // 0006:         INX H
+        0x05,             // 0007:         DCR B
+        0xC2, 0x05, 0x00, // 0008:         JNZ init
+        0x0E, 0x3F,       // 000B: outer:  MVI C, 63
+        0x1E, 0x00,       // 000D:         MVI E, 0        ; swapped = false
+        0x21, 0x00, 0x01, // 000F:         LXI H, 0100h
+        0x7E,             // 0012: inner:  MOV A, M
+        0x23,             // 0013:         INX H
+        0xBE,             // 0014:         CMP M
+        0xDA, 0x22, 0x00, // 0015:         JC noswap
+        0xCA, 0x22, 0x00, // 0018:         JZ noswap
+        0x56,             // 001B:         MOV D, M
+        0x77,             // 001C:         MOV M, A
+        0x2B,             // 001D:         DCX H
+        0x72,             // 001E:         MOV M, D
+        0x23,             // 001F:         INX H
+        0x1E, 0x01,       // 0020:         MVI E, 1        ; swapped = true
+        0x0D,             // 0022: noswap: DCR C
+        0xC2, 0x12, 0x00, // 0023:         JNZ inner
+        0x7B,             // 0026:         MOV A, E
+        0xB7,             // 0027:         ORA A
+        0xC2, 0x0B, 0x00, // 0028:         JNZ outer
+        0xC3, 0x00, 0x00  // 002B:         JMP start
+    };
+
+    /**
+     * Brainfuck program printing squares from 0 to 10000 (by Daniel B. Cristofani).
+     */
+    public final static String SQUARES_BF = "++++[>+++++<-]>[<+++++>-]+<+[>[>+>+<<-]++>>[<<+>>-]>>>[-]++>[-]+>>>+[[-]++++++>>>]"
+        + "<<<[[<++++++++<++>>-]+<.<[>----<-]<]<<[>>>>>[>>>[-]+++++++++<[>-<-]+++++++++>[-[<->-]+[<<<]]<[>+<-]>]<<-]<<-]";
+}
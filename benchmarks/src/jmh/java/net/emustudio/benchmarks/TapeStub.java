@@ -0,0 +1,139 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.benchmarks;
+
+import net.emustudio.plugins.device.abstracttape.api.AbstractTapeContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tape without GUI, behaving as the abstract tape device.
+ */
+public class TapeStub implements AbstractTapeContext {
+    private final List<String> tape = new ArrayList<>();
+    private int position;
+    private boolean bounded;
+
+    @Override
+    public void clear() {
+        tape.clear();
+        position = 0;
+    }
+
+    @Override
+    public void setBounded(boolean bounded) {
+        this.bounded = bounded;
+    }
+
+    @Override
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    @Override
+    public boolean moveLeft() {
+        if (position > 0) {
+            position--;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void moveRight() {
+        position++;
+        if (position >= tape.size()) {
+            tape.add("");
+        }
+    }
+
+    @Override
+    public void setEditable(boolean editable) {
+    }
+
+    @Override
+    public String getSymbolAt(int pos) {
+        if (pos >= tape.size() || pos < 0) {
+            return "";
+        }
+        return tape.get(pos);
+    }
+
+    @Override
+    public void setSymbolAt(int pos, String symbol) {
+        while (pos >= tape.size()) {
+            tape.add("");
+        }
+        if (pos >= 0) {
+            tape.set(pos, symbol);
+        }
+    }
+
+    @Override
+    public void setHighlightHeadPosition(boolean visible) {
+    }
+
+    @Override
+    public void setClearAtReset(boolean clear) {
+    }
+
+    @Override
+    public void setTitle(String title) {
+    }
+
+    @Override
+    public boolean showPositions() {
+        return false;
+    }
+
+    @Override
+    public void setShowPositions(boolean showPositions) {
+    }
+
+    @Override
+    public int getHeadPosition() {
+        return position;
+    }
+
+    @Override
+    public int getSize() {
+        return tape.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tape.isEmpty();
+    }
+
+    @Override
+    public String readData() {
+        return getSymbolAt(position);
+    }
+
+    @Override
+    public void writeData(String data) {
+        setSymbolAt(position, data);
+    }
+
+    @Override
+    public Class<String> getDataType() {
+        return String.class;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.brainduck;
+
+import net.emustudio.benchmarks.Programs;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.plugins.memory.brainduck.MemoryContextImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the BrainDuck emulator (executed instructions per second) running a program printing squares.
+ * The program is restarted whenever it ends. With "optimize", one step executes a whole run of repeated
+ * instructions or a whole copy/scan loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmulatorEngineBenchmark {
+    private final static int STEPS = 10000;
+    private final static String OPCODES = ";><+-.,[]";
+
+    @Param({"false", "true"})
+    public boolean optimize;
+
+    private EmulatorEngine engine;
+    private short[] rawMemory;
+    private int programLength;
+
+    @Setup
+    public void setup() {
+        MemoryContextImpl memory = new MemoryContextImpl();
+        rawMemory = memory.getRawMemory();
+        for (char c : Programs.SQUARES_BF.toCharArray()) {
+            rawMemory[programLength++] = (short) OPCODES.indexOf(c);
+        }
+        engine = new EmulatorEngine(memory, new BrainCPUContextImpl(), new Profiler(memory));
+        restart();
+    }
+
+    private void restart() {
+        Arrays.fill(rawMemory, programLength, rawMemory.length, (short) 0);
+        engine.reset(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void step(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < STEPS; i++) {
+            CPU.RunState state = engine.step(optimize);
+            if (state != CPU.RunState.STATE_STOPPED_BREAK) {
+                restart();
+            }
+            blackhole.consume(state);
+        }
+    }
+}
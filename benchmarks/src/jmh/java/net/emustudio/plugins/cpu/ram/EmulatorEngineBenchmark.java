@@ -0,0 +1,105 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.ram;
+
+import net.emustudio.benchmarks.TapeStub;
+import net.emustudio.emulib.runtime.ContextPool;
+import net.emustudio.plugins.compiler.ramc.tree.RAMInstructionImpl;
+import net.emustudio.plugins.device.abstracttape.api.AbstractTapeContext;
+import net.emustudio.plugins.memory.ram.MemoryContextImpl;
+import net.emustudio.plugins.memory.ram.api.RAMInstruction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.emustudio.plugins.memory.ram.api.RAMInstruction.*;
+import static org.easymock.EasyMock.*;
+
+/**
+ * Throughput of the RAM emulator (executed instructions per second). The program fills an array with squares
+ * using indirect stores, sums them up, and starts again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmulatorEngineBenchmark {
+    private final static int STEPS = 10000;
+
+    private EmulatorEngine engine;
+
+    private static RAMInstruction constant(int code, int value) {
+        return new RAMInstructionImpl(code, Direction.DIRECT, String.valueOf(value));
+    }
+
+    private static RAMInstruction register(int code, int register) {
+        return new RAMInstructionImpl(code, Direction.REGISTER, register);
+    }
+
+    private static RAMInstruction indirect(int code, int register) {
+        return new RAMInstructionImpl(code, Direction.INDIRECT, register);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        RAMInstruction[] program = new RAMInstruction[]{
+            constant(LOAD, 50),   //  0: start: LOAD =50
+            register(STORE, 1),   //  1:        STORE 1     ; i = 50
+            constant(LOAD, 0),    //  2:        LOAD =0
+            register(STORE, 2),   //  3:        STORE 2     ; sum = 0
+            register(LOAD, 1),    //  4: loop:  LOAD 1
+            constant(ADD, 10),    //  5:        ADD =10
+            register(STORE, 3),   //  6:        STORE 3     ; pointer = i + 10
+            register(LOAD, 1),    //  7:        LOAD 1
+            register(MUL, 1),     //  8:        MUL 1
+            indirect(STORE, 3),   //  9:        STORE *3    ; a[i] = i * i
+            register(ADD, 2),     // 10:        ADD 2
+            register(STORE, 2),   // 11:        STORE 2     ; sum = sum + i * i
+            register(LOAD, 1),    // 12:        LOAD 1
+            constant(SUB, 1),     // 13:        SUB =1
+            register(STORE, 1),   // 14:        STORE 1     ; i = i - 1
+            register(JGTZ, 4),    // 15:        JGTZ loop
+            register(JMP, 0)      // 16:        JMP start
+        };
+        MemoryContextImpl memory = new MemoryContextImpl();
+        for (int i = 0; i < program.length; i++) {
+            memory.write(i, program[i]);
+        }
+
+        ContextPool contextPool = createNiceMock(ContextPool.class);
+        for (int i = 0; i < 3; i++) {
+            expect(contextPool.getDeviceContext(anyLong(), eq(AbstractTapeContext.class), eq(i)))
+                .andReturn(new TapeStub()).anyTimes();
+        }
+        replay(contextPool);
+
+        RAMContextImpl context = new RAMContextImpl(contextPool);
+        engine = new EmulatorEngine(context, memory);
+        context.init(0, engine);
+        engine.reset(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void step(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < STEPS; i++) {
+            blackhole.consume(engine.step());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.rasp;
+
+import net.emustudio.benchmarks.TapeStub;
+import net.emustudio.emulib.runtime.ContextPool;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import net.emustudio.plugins.device.abstracttape.api.AbstractTapeContext;
+import net.emustudio.plugins.memory.rasp.InstructionImpl;
+import net.emustudio.plugins.memory.rasp.MemoryContextImpl;
+import net.emustudio.plugins.memory.rasp.NumberMemoryItem;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.emustudio.plugins.memory.rasp.api.RASPInstruction.*;
+import static org.easymock.EasyMock.*;
+
+/**
+ * Throughput of the RASP emulator (executed instructions per second). The program sums up squares of numbers
+ * in a loop, and starts again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmulatorEngineBenchmark {
+    private final static int STEPS = 10000;
+    private final static int PROGRAM_START = 20;
+
+    private EmulatorEngine engine;
+
+    @Setup
+    public void setup() throws Exception {
+        int[] program = new int[]{
+            LOAD_CONSTANT, 50,    // 20: start: LOAD =50
+            STORE, 1,             // 22:        STORE 1     ; i = 50
+            LOAD_CONSTANT, 0,     // 24:        LOAD =0
+            STORE, 2,             // 26:        STORE 2     ; sum = 0
+            LOAD_REGISTER, 1,     // 28: loop:  LOAD 1
+            MUL_REGISTER, 1,      // 30:        MUL 1
+            ADD_REGISTER, 2,      // 32:        ADD 2
+            STORE, 2,             // 34:        STORE 2     ; sum = sum + i * i
+            LOAD_REGISTER, 1,     // 36:        LOAD 1
+            SUB_CONSTANT, 1,      // 38:        SUB =1
+            STORE, 1,             // 40:        STORE 1     ; i = i - 1
+            JGTZ, 28,             // 42:        JGTZ loop
+            JMP, PROGRAM_START    // 44:        JMP start
+        };
+
+        MemoryContextImpl memory = new MemoryContextImpl();
+        for (int i = 0; i < PROGRAM_START; i++) {
+            memory.write(i, new NumberMemoryItem(0));
+        }
+        for (int i = 0; i < program.length; i += 2) {
+            memory.write(PROGRAM_START + i, new InstructionImpl(program[i]));
+            memory.write(PROGRAM_START + i + 1, new NumberMemoryItem(program[i + 1]));
+        }
+
+        ContextPool contextPool = createNiceMock(ContextPool.class);
+        for (int i = 0; i < 2; i++) {
+            expect(contextPool.getDeviceContext(anyLong(), eq(AbstractTapeContext.class), eq(i)))
+                .andReturn(new TapeStub()).anyTimes();
+        }
+        replay(contextPool);
+
+        RASPCpuContext context = new RASPCpuContext(contextPool);
+        context.init(0);
+        engine = new EmulatorEngine(context, memory, createNiceMock(Dialogs.class));
+        engine.reset(PROGRAM_START);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void step(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < STEPS; i++) {
+            blackhole.consume(engine.step());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.ssem;
+
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import net.emustudio.plugins.memory.ssem.MemoryContextImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.createNiceMock;
+
+/**
+ * Throughput of the SSEM emulator (executed instructions per second). The program increments a counter forever.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmulatorEngineBenchmark {
+    private final static int STEPS = 10000;
+
+    private final static int JMP = 0;
+    private final static int SUB = 1;
+    private final static int LDN = 2;
+    private final static int STO = 6;
+
+    private EmulatorEngine engine;
+    private MemoryContextImpl memory;
+
+    private void writeInstruction(int line, int opcode, int operandLine) {
+        memory.writeWord(line * 4, new Byte[]{
+            (byte) NumberUtils.reverseBits(operandLine, 8), (byte) opcode, 0, 0
+        });
+    }
+
+    private void writeNumber(int line, int value) {
+        Byte[] word = new Byte[4];
+        NumberUtils.writeInt(value, word, NumberUtils.Strategy.REVERSE_BITS);
+        memory.writeWord(line * 4, word);
+    }
+
+    @Setup
+    public void setup() {
+        memory = new MemoryContextImpl();
+        writeInstruction(1, LDN, 20); // A = -counter
+        writeInstruction(2, SUB, 21); // A = -counter - 1
+        writeInstruction(3, STO, 22);
+        writeInstruction(4, LDN, 22); // A = counter + 1
+        writeInstruction(5, STO, 20); // counter = A
+        writeInstruction(6, JMP, 23); // CI = line 0; the next executed instruction is at line 1
+        writeNumber(20, 0);
+        writeNumber(21, 1);
+        writeNumber(23, 0);
+
+        engine = new EmulatorEngine(memory, createNiceMock(CPU.class));
+        engine.reset(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void step(Blackhole blackhole) {
+        for (int i = 0; i < STEPS; i++) {
+            blackhole.consume(engine.step());
+        }
+    }
+}
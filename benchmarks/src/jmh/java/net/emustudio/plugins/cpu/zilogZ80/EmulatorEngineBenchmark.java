@@ -0,0 +1,87 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.zilogZ80;
+
+import net.emustudio.benchmarks.BoxedMemory;
+import net.emustudio.benchmarks.Programs;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
+import net.emustudio.plugins.cpu.intel8080.api.Pacer;
+import net.emustudio.plugins.memory.standard.MemoryContextImpl;
+import net.emustudio.plugins.memory.standard.StandardMemoryFixture;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the Z80 emulator running a bubble sort (the 8080 program is a valid Z80 program).
+ * <p>
+ * "step" reports executed instructions per second; "run" reports sorts per second, and emulated cycles per second
+ * as the secondary "cycles" result. With primitiveMemory=false, the memory is accessed through the boxed
+ * MemoryContext methods only.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EmulatorEngineBenchmark {
+    private final static int STEPS = 10000;
+
+    @Param({"0", "65536"})
+    public int stepBackHistory;
+
+    @Param({"true", "false"})
+    public boolean primitiveMemory;
+
+    private EmulatorEngine engine;
+    private BreakpointBitmap breakpoints;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Cycles {
+        public long cycles;
+    }
+
+    @Setup
+    public void setup() {
+        ContextImpl context = new ContextImpl();
+        MemoryContextImpl memory = StandardMemoryFixture.create(0x10000, Programs.BUBBLE_SORT_8080);
+        engine = new EmulatorEngine(primitiveMemory ? memory : new BoxedMemory(memory), context);
+        context.setCpu(engine);
+        engine.setPacer(new Pacer(Pacer.DEFAULT_SLICE_MILLIS, false));
+        engine.setStepBackHistory(stepBackHistory);
+        engine.reset(0);
+
+        breakpoints = new BreakpointBitmap();
+        breakpoints.set(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(STEPS)
+    public void step(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < STEPS; i++) {
+            blackhole.consume(engine.step());
+        }
+    }
+
+    @Benchmark
+    public void run(Cycles cycles, Blackhole blackhole) {
+        blackhole.consume(engine.run(breakpoints));
+        cycles.cycles += engine.getAndResetExecutedCycles();
+    }
+}
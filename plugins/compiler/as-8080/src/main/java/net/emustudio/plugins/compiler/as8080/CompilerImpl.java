@@ -29,12 +29,17 @@ import net.emustudio.emulib.runtime.ContextNotFoundException;
 import net.emustudio.emulib.runtime.InvalidContextException;
 import net.emustudio.emulib.runtime.PluginSettings;
 import net.emustudio.emulib.runtime.helpers.IntelHEX;
+import net.emustudio.plugins.compiler.as8080.api.ParsedFileCache;
+import net.emustudio.plugins.compiler.as8080.api.ProgramLoader;
 import net.emustudio.plugins.compiler.as8080.tree.Statement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.util.*;
 
 @PluginRoot(
@@ -44,20 +49,18 @@ import java.util.*;
 @SuppressWarnings("unused")
 public class CompilerImpl extends AbstractCompiler {
     private final static Logger LOGGER = LoggerFactory.getLogger(CompilerImpl.class);
+    public final static String KEY_COMPILE_TO_MEMORY = PluginSettings.EMUSTUDIO_PREFIX + "compileToMemory";
     private final static List<SourceFileExtension> SOURCE_FILE_EXTENSIONS = List.of(
         new SourceFileExtension("asm", "Assembler source file"),
         new SourceFileExtension("inc", "Include file")
     );
 
-    private final LexerImpl lexer;
-    private final ParserImpl parser;
+    private final ParsedFileCache<Statement> parsedFileCache = new ParsedFileCache<>(Statement::clearPassState);
     private MemoryContext<Short> memory;
     private int programLocation;
 
     public CompilerImpl(long pluginID, ApplicationApi applicationApi, PluginSettings pluginSettings) {
         super(pluginID, applicationApi, pluginSettings);
-        lexer = new LexerImpl(null);
-        parser = new ParserImpl(lexer, this);
     }
 
     @SuppressWarnings("unchecked")
@@ -103,12 +106,17 @@ public class CompilerImpl extends AbstractCompiler {
             notifyCompileStart();
             IntelHEX hex = compileToHex(inputFileName);
 
-            hex.generate(outputFileName);
             programLocation = hex.getProgramLocation();
-            notifyInfo("Compilation was successful.\n Output file: " + outputFileName);
+            if (isCompileToMemory()) {
+                notifyInfo("Compilation was successful.\n Output: memory");
+            } else {
+                hex.generate(outputFileName);
+                notifyInfo("Compilation was successful.\n Output file: " + outputFileName);
+            }
+            notifyInfo("Parsing: " + ParsedFileCache.formatHitRate(parsedFileCache.getHits(), parsedFileCache.getMisses()));
 
             if (memory != null) {
-                hex.loadIntoMemory(memory);
+                ProgramLoader.load(hex, memory);
                 notifyInfo("Compiled file was loaded into memory.");
             } else {
                 notifyWarning("Memory is not available.");
@@ -146,40 +154,85 @@ public class CompilerImpl extends AbstractCompiler {
         return SOURCE_FILE_EXTENSIONS;
     }
 
+    /**
+     * Determines if the compiled program should be only loaded into memory, without writing the output file.
+     * <p>
+     * The output file is still written if memory is not available, otherwise the program would be lost.
+     *
+     * @return true if the output file should not be written
+     */
+    private boolean isCompileToMemory() {
+        return memory != null && settings.getBoolean(KEY_COMPILE_TO_MEMORY, false);
+    }
+
+    ParsedFileCache<Statement> getParsedFileCache() {
+        return parsedFileCache;
+    }
+
+    /**
+     * Parses included file.
+     * <p>
+     * If the file has not changed since it was parsed last time, cached syntax tree is returned.
+     *
+     * @param file included file
+     * @return syntax tree of the file, or null if the file is empty
+     * @throws Exception if the file cannot be read or parsed
+     */
+    public Statement parseIncludeFile(File file) throws Exception {
+        return parseFile(file, file.getName() + ": ", false);
+    }
+
+    private Statement parseFile(File file, String reportPrefixString, boolean failOnSyntaxErrors) throws Exception {
+        byte[] content = Files.readAllBytes(file.toPath());
+        String path = file.getCanonicalPath();
+        byte[] digest = ParsedFileCache.digest(content);
+
+        Optional<Statement> cached = parsedFileCache.take(path, digest);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(content))) {
+            ParserImpl parser = new ParserImpl(new LexerImpl(reader), this);
+            parser.setReportPrefixString(reportPrefixString);
+            Statement statement = (Statement) parser.parse().value;
+
+            if (parser.hasSyntaxErrors()) {
+                if (failOnSyntaxErrors) {
+                    throw new Exception("One or more errors has been found, cannot continue.");
+                }
+            } else if (statement != null) {
+                parsedFileCache.put(path, digest, statement);
+            }
+            return statement;
+        }
+    }
+
     private IntelHEX compileToHex(String inputFileName) throws Exception {
         Objects.requireNonNull(inputFileName);
 
         notifyInfo(getTitle() + ", version " + getVersion());
 
-        Object parsedAST;
         IntelHEX hex = new IntelHEX();
 
-        try (Reader reader = new FileReader(inputFileName)) {
-            lexer.reset(reader, 0, 0, 0);
-            parser.reset();
-            parsedAST = parser.parse().value;
-
-            if (parsedAST == null) {
-                throw new Exception("Unexpected end of file");
-            }
-            if (parser.hasSyntaxErrors()) {
-                throw new Exception("One or more errors has been found, cannot continue.");
-            }
+        parsedFileCache.startCompilation();
+        Statement stat = parseFile(new File(inputFileName), null, true);
+        if (stat == null) {
+            throw new Exception("Unexpected end of file");
+        }
 
-            // do several passes for compiling
-            Statement stat = (Statement) parsedAST;
-            Namespace env = new Namespace(inputFileName);
-            stat.pass1(env); // create symbol table
-            stat.pass2(0); // try to evaluate all expressions + compute relative addresses
-            while (stat.pass3(env)) {
-                // don't worry about deadlock
-            }
-            if (env.getPassNeedCount() != 0) {
-                throw new Exception("Error: could not evaulate all expressions");
-            }
-            stat.pass4(hex, env);
-            return hex;
+        // do several passes for compiling
+        Namespace env = new Namespace(inputFileName);
+        stat.pass1(env); // create symbol table
+        stat.pass2(0); // try to evaluate all expressions + compute relative addresses
+        while (stat.pass3(env)) {
+            // don't worry about deadlock
+        }
+        if (env.getPassNeedCount() != 0) {
+            throw new Exception("Error: could not evaulate all expressions");
         }
+        stat.pass4(hex, env);
+        return hex;
     }
 
     private Optional<ResourceBundle> getResourceBundle() {
@@ -22,11 +22,14 @@ import net.emustudio.emulib.plugins.compiler.CompilerListener;
 import net.emustudio.emulib.plugins.compiler.CompilerMessage;
 import net.emustudio.emulib.runtime.ApplicationApi;
 import net.emustudio.emulib.runtime.PluginSettings;
+import net.emustudio.plugins.compiler.as8080.api.ParsedFileCache;
+
+import java.util.Arrays;
+import java.util.List;
 
 public class Runner {
 
     public static void main(String... args) {
-        String inputFile;
         String outputFile = null;
 
         int i;
@@ -48,15 +51,10 @@ public class Runner {
             System.err.println("Error: expected input file name");
             return;
         }
-        inputFile = args[i];
-        if (outputFile == null) {
-            int index = inputFile.lastIndexOf('.');
-            if (index != -1) {
-                outputFile = inputFile.substring(0, index);
-            } else {
-                outputFile = inputFile;
-            }
-            outputFile += ".hex";
+        List<String> inputFiles = Arrays.asList(args).subList(i, args.length);
+        if (outputFile != null && inputFiles.size() > 1) {
+            System.err.println("Error: output file name can be given only for single input file");
+            return;
         }
 
         CompilerImpl compiler = new CompilerImpl(0L, ApplicationApi.UNAVAILABLE, PluginSettings.UNAVAILABLE);
@@ -75,15 +73,29 @@ public class Runner {
                 System.err.println("Compilation finished");
             }
         });
-        try {
-            compiler.compile(inputFile, outputFile);
-        } catch (Exception e) {
-            System.err.println(e.getMessage());
+        for (String inputFile : inputFiles) {
+            try {
+                compiler.compile(inputFile, (outputFile == null) ? getOutputFile(inputFile) : outputFile);
+            } catch (Exception e) {
+                System.err.println(e.getMessage());
+            }
+        }
+        if (inputFiles.size() > 1) {
+            ParsedFileCache<?> cache = compiler.getParsedFileCache();
+            System.err.println("Total parsing: " + ParsedFileCache.formatHitRate(cache.getTotalHits(), cache.getTotalMisses()));
+        }
+    }
+
+    private static String getOutputFile(String inputFile) {
+        int index = inputFile.lastIndexOf('.');
+        if (index != -1) {
+            return inputFile.substring(0, index) + ".hex";
         }
+        return inputFile + ".hex";
     }
 
     private static void printHelp() {
-        System.out.println("Syntax: java -jar as-8080.jar [-o outputFile] inputFile\nOptions:");
+        System.out.println("Syntax: java -jar as-8080.jar [-o outputFile] inputFile [inputFile...]\nOptions:");
         System.out.println("\t--output, -o\tfile: name of the output file");
         System.out.println("\t--version, -v\t: print version");
         System.out.println("\t--help, -h\t: this help");
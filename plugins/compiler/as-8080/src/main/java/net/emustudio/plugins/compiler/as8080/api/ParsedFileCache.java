@@ -0,0 +1,187 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.compiler.as8080.api;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Cache of parsed source files.
+ * <p>
+ * A file is identified by its canonical path and the SHA-256 hash of its content. If neither has changed since the
+ * file was parsed last time, its syntax tree is reused instead of lexing and parsing the file again. Compiler passes
+ * store their results in the tree, so a reused tree is cleared before it is handed out.
+ * <p>
+ * The cache is shared by assemblers, each of them having its own syntax tree type.
+ * <p>
+ * One tree can be used only once in a compilation. If a file is included several times, each inclusion gets its own
+ * tree.
+ * <p>
+ * The cache is not thread-safe.
+ */
+public class ParsedFileCache<T> {
+    final static int MAX_FILES = 256;
+
+    private final Map<String, Entry<T>> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+            return size() > MAX_FILES;
+        }
+    };
+    private final Consumer<T> clearPassState;
+
+    private int compilation;
+    private int hits;
+    private int misses;
+    private long totalHits;
+    private long totalMisses;
+
+    private static class Entry<T> {
+        private final byte[] digest;
+        private final List<T> trees = new ArrayList<>();
+        private int compilation;
+        private int used;
+
+        private Entry(byte[] digest) {
+            this.digest = digest;
+        }
+
+        private void use(int compilation) {
+            if (this.compilation != compilation) {
+                this.compilation = compilation;
+                this.used = 0;
+            }
+        }
+    }
+
+    /**
+     * Creates new cache.
+     *
+     * @param clearPassState clears results of compiler passes stored in a tree
+     */
+    public ParsedFileCache(Consumer<T> clearPassState) {
+        this.clearPassState = Objects.requireNonNull(clearPassState);
+    }
+
+    /**
+     * Starts new compilation.
+     * <p>
+     * Trees handed out in previous compilations can be used again, and per-compilation statistics are reset.
+     */
+    public void startCompilation() {
+        compilation++;
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Computes digest of file content.
+     *
+     * @param content file content
+     * @return digest identifying the content
+     */
+    public static byte[] digest(byte[] content) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(content);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    /**
+     * Finds a tree of the file which is not used in current compilation yet.
+     *
+     * @param path   canonical file path
+     * @param digest digest of current file content
+     * @return cleared tree, or empty if the file must be parsed
+     */
+    public Optional<T> take(String path, byte[] digest) {
+        Entry<T> entry = entries.get(path);
+        if (entry != null && Arrays.equals(entry.digest, digest)) {
+            entry.use(compilation);
+            if (entry.used < entry.trees.size()) {
+                T tree = entry.trees.get(entry.used++);
+                clearPassState.accept(tree);
+                hits++;
+                totalHits++;
+                return Optional.of(tree);
+            }
+        }
+        misses++;
+        totalMisses++;
+        return Optional.empty();
+    }
+
+    /**
+     * Stores newly parsed tree of the file.
+     * <p>
+     * The tree is regarded as used in current compilation. Trees of previous file content are forgotten.
+     *
+     * @param path   canonical file path
+     * @param digest digest of the parsed file content
+     * @param tree   parsed tree
+     */
+    public void put(String path, byte[] digest, T tree) {
+        Entry<T> entry = entries.get(path);
+        if (entry == null || !Arrays.equals(entry.digest, digest)) {
+            entry = new Entry<>(digest);
+            entries.put(path, entry);
+        }
+        entry.use(compilation);
+        entry.trees.add(entry.used++, tree);
+    }
+
+    /**
+     * Forgets all parsed files.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public long getTotalMisses() {
+        return totalMisses;
+    }
+
+    /**
+     * Formats cache hit rate.
+     *
+     * @param hits   number of reused files
+     * @param misses number of parsed files
+     * @return human-readable hit rate
+     */
+    public static String formatHitRate(long hits, long misses) {
+        long total = hits + misses;
+        long rate = (total == 0) ? 0 : (100 * hits / total);
+        return String.format("%d of %d file(s) reused from cache (%d%%)", hits, total, rate);
+    }
+}
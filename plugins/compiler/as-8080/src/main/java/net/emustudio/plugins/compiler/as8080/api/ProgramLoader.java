@@ -0,0 +1,68 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.compiler.as8080.api;
+
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.emulib.runtime.helpers.IntelHEX;
+import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Loads compiled programs into memory.
+ * <p>
+ * Standard memory gets the whole program at once and notifies its listeners only once. Other memories are written
+ * cell by cell.
+ */
+public class ProgramLoader {
+
+    /**
+     * Load compiled program into memory.
+     *
+     * @param hex    compiled program
+     * @param memory operating memory
+     */
+    public static void load(IntelHEX hex, MemoryContext<Short> memory) {
+        if (memory instanceof StandardMemoryContext) {
+            ((StandardMemoryContext) memory).loadImage(toImage(hex.getTable()));
+        } else {
+            hex.loadIntoMemory(memory);
+        }
+    }
+
+    /**
+     * Convert table of hexadecimal code blocks into a program image.
+     *
+     * @param table code blocks; keys are start addresses, values are bytes as hexadecimal digits
+     * @return program image; keys are start addresses, values are bytes of the blocks
+     */
+    static Map<Integer, byte[]> toImage(Map<Integer, String> table) {
+        Map<Integer, byte[]> image = new TreeMap<>();
+        for (Map.Entry<Integer, String> block : table.entrySet()) {
+            String code = block.getValue();
+            byte[] bytes = new byte[code.length() / 2];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) Integer.parseInt(code.substring(2 * i, 2 * i + 2), 16);
+            }
+            image.put(block.getKey(), bytes);
+        }
+        return image;
+    }
+}
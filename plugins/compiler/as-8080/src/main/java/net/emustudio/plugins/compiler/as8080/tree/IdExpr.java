@@ -39,6 +39,7 @@ public class IdExpr extends ExprNode {
         // identifier in expression can be only label, equ, or set statement. macro does NOT search in env for labels
         LabelNode lab = env.getLabel(this.name);
         if ((lab != null) && (lab.getAddress() == null)) {
+            this.value = 0;
             throw new NeedMorePassException(lab.getLine(), lab.getColumn());
         } else if (lab != null) {
             this.value = lab.getAddress();
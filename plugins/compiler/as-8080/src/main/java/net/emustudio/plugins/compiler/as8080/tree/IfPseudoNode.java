@@ -73,6 +73,12 @@ public class IfPseudoNode extends PseudoBlock {
         }
     }
 
+    @Override
+    public void clearPassState() {
+        condTrue = false;
+        stat.clearPassState();
+    }
+
     @Override
     public void pass4(IntelHEX hex) throws Exception {
         if (condTrue) {
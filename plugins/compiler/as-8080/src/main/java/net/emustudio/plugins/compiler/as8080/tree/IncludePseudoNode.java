@@ -20,15 +20,12 @@ package net.emustudio.plugins.compiler.as8080.tree;
 
 import net.emustudio.emulib.runtime.helpers.IntelHEX;
 import net.emustudio.plugins.compiler.as8080.CompilerImpl;
-import net.emustudio.plugins.compiler.as8080.LexerImpl;
 import net.emustudio.plugins.compiler.as8080.Namespace;
-import net.emustudio.plugins.compiler.as8080.ParserImpl;
 import net.emustudio.plugins.compiler.as8080.exceptions.CompilerException;
 import net.emustudio.plugins.compiler.as8080.exceptions.UnexpectedEOFException;
 import net.emustudio.plugins.compiler.as8080.treeAbstract.PseudoNode;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.List;
 
@@ -74,19 +71,11 @@ public class IncludePseudoNode extends PseudoNode {
             namespace = new Namespace(parentEnv.getInputFile().getAbsolutePath());
 
             File file = findIncludeFile(fileName);
-            FileReader f = new FileReader(file);
-            LexerImpl lexer = new LexerImpl(f);
-            ParserImpl parser = new ParserImpl(lexer, compiler);
-
-            parser.setReportPrefixString(file.getName() + ": ");
-            Object s = parser.parse().value;
-            parser.setReportPrefixString(null);
-
-            if (s == null) {
+            program = compiler.parseIncludeFile(file);
+            if (program == null) {
                 throw new UnexpectedEOFException(line, column, file.getAbsolutePath());
             }
 
-            program = (Statement) s;
             program.addIncludeFiles(includefiles);
             namespace = parentEnv;
 
@@ -119,6 +108,12 @@ public class IncludePseudoNode extends PseudoNode {
         program.pass4(hex);
     }
 
+    @Override
+    public void clearPassState() {
+        program = null;
+        namespace = null;
+    }
+
     @Override
     public String getName() {
         return fileName;
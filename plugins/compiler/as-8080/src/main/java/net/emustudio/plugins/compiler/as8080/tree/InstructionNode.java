@@ -94,6 +94,15 @@ public class InstructionNode {
         }
     }
 
+    void clearPassState() {
+        if (label != null) {
+            label.setAddress(null);
+        }
+        if (codePseudo != null) {
+            codePseudo.clearPassState();
+        }
+    }
+
     boolean getIncludeLoops(String filename) {
         if (codePseudo != null && codePseudo instanceof IncludePseudoNode) {
             IncludePseudoNode i = (IncludePseudoNode) codePseudo;
@@ -73,6 +73,12 @@ public class MacroCallPseudo extends PseudoNode {
         }
     }
 
+    @Override
+    public void clearPassState() {
+        macro = null;
+        statHex = new IntelHEX();
+    }
+
     @Override
     public String getName() {
         return this.mnemo;
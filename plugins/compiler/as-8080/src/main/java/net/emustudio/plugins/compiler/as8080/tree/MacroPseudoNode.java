@@ -95,6 +95,13 @@ public class MacroPseudoNode extends PseudoBlock {
         }
     }
 
+    @Override
+    public void clearPassState() {
+        newEnv = null;
+        call_params = null;
+        stat.clearPassState();
+    }
+
     @Override
     public void pass4(IntelHEX hex) throws Exception {
         stat.pass4(hex, newEnv);
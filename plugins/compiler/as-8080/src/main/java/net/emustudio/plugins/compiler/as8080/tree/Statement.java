@@ -148,4 +148,15 @@ public class Statement {
     void addIncludeFiles(List<String> inclfiles) {
         includefiles.addAll(inclfiles);
     }
+
+    /**
+     * Forgets results of previous compiler passes, so the tree can be compiled again.
+     */
+    public void clearPassState() {
+        env = null;
+        includefiles.clear();
+        for (InstructionNode in : list) {
+            in.clearPassState();
+        }
+    }
 }
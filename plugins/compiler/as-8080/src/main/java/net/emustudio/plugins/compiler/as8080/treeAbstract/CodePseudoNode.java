@@ -40,4 +40,10 @@ public abstract class CodePseudoNode {
     public abstract int pass2(Namespace parentEnv, int addr_start) throws Exception;
 
     public abstract void pass4(IntelHEX hex) throws Exception;
+
+    /**
+     * Forgets results of previous compiler passes, so the node can be compiled again.
+     */
+    public void clearPassState() {
+    }
 }
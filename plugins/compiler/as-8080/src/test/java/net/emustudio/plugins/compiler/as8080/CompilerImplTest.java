@@ -18,9 +18,19 @@
  */
 package net.emustudio.plugins.compiler.as8080;
 
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.emulib.runtime.ApplicationApi;
+import net.emustudio.emulib.runtime.ContextPool;
+import net.emustudio.emulib.runtime.PluginSettings;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CompilerImplTest extends AbstractCompilerTest {
 
@@ -144,4 +154,29 @@ public class CompilerImplTest extends AbstractCompilerTest {
             0xC3, 0x0F, 0, 0xDB, 0x10, 0xE6, 1, 0xCA, 0x03, 0, 0xDB, 0x11, 0xD3, 0x11, 0xC9, 0x78
         );
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCompileToMemoryDoesNotWriteOutputFile() throws Exception {
+        ContextPool pool = createNiceMock(ContextPool.class);
+        expect(pool.getMemoryContext(0, MemoryContext.class)).andReturn(memoryStub).anyTimes();
+        replay(pool);
+        ApplicationApi applicationApi = createNiceMock(ApplicationApi.class);
+        expect(applicationApi.getContextPool()).andReturn(pool).anyTimes();
+        replay(applicationApi);
+        PluginSettings settings = createNiceMock(PluginSettings.class);
+        expect(settings.getBoolean(CompilerImpl.KEY_COMPILE_TO_MEMORY, false)).andReturn(true).anyTimes();
+        replay(settings);
+
+        compiler = new CompilerImpl(0L, applicationApi, settings);
+        compiler.initialize();
+
+        File sourceFile = folder.newFile("program.asm");
+        Files.writeString(sourceFile.toPath(), "mvi a, 5\n");
+        File outputFile = new File(folder.getRoot(), "program.hex");
+
+        assertTrue(compiler.compile(sourceFile.getAbsolutePath(), outputFile.getAbsolutePath()));
+        assertFalse(outputFile.exists());
+        assertProgram(0x3E, 5);
+    }
 }
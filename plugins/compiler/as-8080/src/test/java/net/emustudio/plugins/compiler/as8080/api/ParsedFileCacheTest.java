@@ -0,0 +1,138 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.compiler.as8080.api;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class ParsedFileCacheTest {
+    private final static byte[] CONTENT = ParsedFileCache.digest("mvi a, 5".getBytes());
+    private final static byte[] CHANGED_CONTENT = ParsedFileCache.digest("mvi a, 6".getBytes());
+
+    private final List<Object> clearedTrees = new ArrayList<>();
+    private ParsedFileCache<Object> cache;
+
+    @Before
+    public void setUp() {
+        cache = new ParsedFileCache<>(clearedTrees::add);
+        cache.startCompilation();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testCreateInstanceNullClearPassStateThrows() {
+        new ParsedFileCache<>(null);
+    }
+
+    @Test
+    public void testTreeIsReusedInNextCompilation() {
+        Object tree = new Object();
+        assertFalse(cache.take("main.asm", CONTENT).isPresent());
+        cache.put("main.asm", CONTENT, tree);
+
+        cache.startCompilation();
+        assertSame(tree, cache.take("main.asm", CONTENT).orElseThrow());
+
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(1, cache.getTotalHits());
+        assertEquals(1, cache.getTotalMisses());
+    }
+
+    @Test
+    public void testReusedTreeIsCleared() {
+        Object tree = new Object();
+        cache.put("main.asm", CONTENT, tree);
+        assertTrue(clearedTrees.isEmpty());
+
+        cache.startCompilation();
+        cache.take("main.asm", CONTENT);
+
+        assertEquals(List.of(tree), clearedTrees);
+    }
+
+    @Test
+    public void testTreeIsNotReusedInTheSameCompilation() {
+        cache.put("main.asm", CONTENT, new Object());
+        assertFalse(cache.take("main.asm", CONTENT).isPresent());
+    }
+
+    @Test
+    public void testFileIncludedTwiceHasTwoTrees() {
+        Object first = new Object();
+        Object second = new Object();
+        cache.put("lib.inc", CONTENT, first);
+        assertFalse(cache.take("lib.inc", CONTENT).isPresent());
+        cache.put("lib.inc", CONTENT, second);
+
+        cache.startCompilation();
+        assertSame(first, cache.take("lib.inc", CONTENT).orElseThrow());
+        assertSame(second, cache.take("lib.inc", CONTENT).orElseThrow());
+        assertFalse(cache.take("lib.inc", CONTENT).isPresent());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testChangedFileIsParsedAgain() {
+        Object oldTree = new Object();
+        Object newTree = new Object();
+        cache.put("main.asm", CONTENT, oldTree);
+
+        cache.startCompilation();
+        assertFalse(cache.take("main.asm", CHANGED_CONTENT).isPresent());
+        cache.put("main.asm", CHANGED_CONTENT, newTree);
+
+        cache.startCompilation();
+        assertFalse(cache.take("main.asm", CONTENT).isPresent());
+        assertSame(newTree, cache.take("main.asm", CHANGED_CONTENT).orElseThrow());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFileIsForgotten() {
+        for (int i = 0; i <= ParsedFileCache.MAX_FILES; i++) {
+            cache.put("file" + i, CONTENT, i);
+        }
+
+        cache.startCompilation();
+        assertFalse(cache.take("file0", CONTENT).isPresent());
+        assertEquals(Optional.of(1), cache.take("file1", CONTENT));
+        assertEquals(Optional.of(ParsedFileCache.MAX_FILES), cache.take("file" + ParsedFileCache.MAX_FILES, CONTENT));
+    }
+
+    @Test
+    public void testClearForgetsAllFiles() {
+        cache.put("main.asm", CONTENT, new Object());
+        cache.clear();
+
+        cache.startCompilation();
+        assertFalse(cache.take("main.asm", CONTENT).isPresent());
+    }
+
+    @Test
+    public void testFormatHitRate() {
+        assertEquals("1 of 4 file(s) reused from cache (25%)", ParsedFileCache.formatHitRate(1, 3));
+        assertEquals("0 of 0 file(s) reused from cache (0%)", ParsedFileCache.formatHitRate(0, 0));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.compiler.as8080.api;
+
+import net.emustudio.emulib.plugins.memory.AbstractMemoryContext;
+import net.emustudio.emulib.plugins.memory.Memory;
+import net.emustudio.emulib.runtime.helpers.IntelHEX;
+import net.emustudio.plugins.memory.standard.MemoryContextImpl;
+import net.emustudio.plugins.memory.standard.StandardMemoryFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ProgramLoaderTest {
+    private IntelHEX hex;
+
+    @Before
+    public void setUp() {
+        hex = new IntelHEX();
+        hex.putCode("3E05");
+        hex.setNextAddress(0x100);
+        hex.putCode("C9");
+    }
+
+    @Test
+    public void testToImage() {
+        Map<Integer, byte[]> image = ProgramLoader.toImage(Map.of(0x10, "3E05FF", 0x20, ""));
+
+        assertEquals(2, image.size());
+        assertArrayEquals(new byte[]{0x3E, 0x05, (byte) 0xFF}, image.get(0x10));
+        assertArrayEquals(new byte[0], image.get(0x20));
+    }
+
+    @Test
+    public void testStandardMemoryIsNotifiedOnce() {
+        MemoryContextImpl memory = StandardMemoryFixture.create(0x1000, 1, 0);
+        List<Integer> changes = new ArrayList<>();
+        Memory.MemoryListener listener = new Memory.MemoryListener() {
+            @Override
+            public void memoryChanged(int memoryPosition) {
+                changes.add(memoryPosition);
+            }
+
+            @Override
+            public void memorySizeChanged() {
+            }
+        };
+        memory.addMemoryListener(listener);
+
+        ProgramLoader.load(hex, memory);
+        memory.removeMemoryListener(listener);
+
+        assertEquals(List.of(-1), changes);
+        assertEquals(0x3E, memory.readByte(0));
+        assertEquals(0x05, memory.readByte(1));
+        assertEquals(0xC9, memory.readByte(0x100));
+    }
+
+    @Test
+    public void testOtherMemoryIsLoadedCellByCell() {
+        ShortMemory memory = new ShortMemory();
+
+        ProgramLoader.load(hex, memory);
+
+        assertEquals(0x3E, (int) memory.cells[0]);
+        assertEquals(0x05, (int) memory.cells[1]);
+        assertEquals(0xC9, (int) memory.cells[0x100]);
+    }
+
+    private static class ShortMemory extends AbstractMemoryContext<Short> {
+        private final Short[] cells = new Short[0x1000];
+
+        @Override
+        public Short read(int from) {
+            return cells[from];
+        }
+
+        @Override
+        public Short[] readWord(int from) {
+            return new Short[]{cells[from], cells[from + 1]};
+        }
+
+        @Override
+        public void write(int to, Short val) {
+            cells[to] = val;
+        }
+
+        @Override
+        public void writeWord(int to, Short[] cells) {
+            System.arraycopy(cells, 0, this.cells, to, cells.length);
+        }
+
+        @Override
+        public Class<Short> getDataType() {
+            return Short.class;
+        }
+
+        @Override
+        public void clear() {
+        }
+
+        @Override
+        public int getSize() {
+            return cells.length;
+        }
+    }
+}
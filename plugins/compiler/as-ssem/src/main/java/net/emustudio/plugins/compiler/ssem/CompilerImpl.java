@@ -45,6 +45,7 @@ import java.util.*;
 @SuppressWarnings("unused")
 public class CompilerImpl extends AbstractCompiler {
     private static final Logger LOGGER = LoggerFactory.getLogger(CompilerImpl.class);
+    public static final String KEY_COMPILE_TO_MEMORY = PluginSettings.EMUSTUDIO_PREFIX + "compileToMemory";
     private static final List<SourceFileExtension> SOURCE_FILE_EXTENSIONS = List.of(
         new SourceFileExtension("ssem", "SSEM source file")
     );
@@ -86,8 +87,12 @@ public class CompilerImpl extends AbstractCompiler {
             notifyWarning("Memory is not available.");
         }
 
+        boolean compileToMemory = isCompileToMemory();
         try (Reader reader = new FileReader(inputFileName)) {
-            try (CodeGenerator codeGenerator = new CodeGenerator(new MemoryAndFileOutput(outputFileName, memory))) {
+            SeekableOutputStream output = compileToMemory
+                ? new MemoryOutput(memory)
+                : new MemoryAndFileOutput(outputFileName, memory);
+            try (CodeGenerator codeGenerator = new CodeGenerator(output)) {
                 lexer.reset(reader, 0, 0, 0);
                 parser.reset();
 
@@ -103,7 +108,7 @@ public class CompilerImpl extends AbstractCompiler {
                 programLocation = program.getStartLine() * 4;
                 notifyInfo(
                     "Compile was successful (program starts at " + RadixUtils.formatWordHexString(programLocation)
-                        + "). Output: " + outputFileName
+                        + "). Output: " + (compileToMemory ? "memory" : outputFileName)
                 );
             }
         } catch (Exception e) {
@@ -130,6 +135,17 @@ public class CompilerImpl extends AbstractCompiler {
         return compile(inputFileName, outputFileName + ".bin");
     }
 
+    /**
+     * Determines if the compiled program should be only written into memory, without the output file.
+     * <p>
+     * If memory is not available, the output file is written anyway.
+     *
+     * @return true if the output file should not be written
+     */
+    private boolean isCompileToMemory() {
+        return memory != null && settings.getBoolean(KEY_COMPILE_TO_MEMORY, false);
+    }
+
     @Override
     public int getProgramLocation() {
         return programLocation;
@@ -0,0 +1,48 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.compiler.ssem;
+
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.Objects;
+
+/**
+ * Output writing compiled program only into memory, without output file.
+ */
+@NotThreadSafe
+public class MemoryOutput extends SeekableOutputStream {
+    private final MemoryContext<Byte> memoryContext;
+    private int position = 0;
+
+    public MemoryOutput(MemoryContext<Byte> memoryContext) {
+        this.memoryContext = Objects.requireNonNull(memoryContext);
+    }
+
+    @Override
+    public void write(int b) {
+        memoryContext.write(position, (byte) (b & 0xFF));
+        position++;
+    }
+
+    @Override
+    public void seek(int position) {
+        this.position = position;
+    }
+}
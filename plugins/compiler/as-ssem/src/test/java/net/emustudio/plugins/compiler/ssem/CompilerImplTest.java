@@ -36,7 +36,9 @@ import java.nio.file.StandardOpenOption;
 
 import static org.easymock.EasyMock.*;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CompilerImplTest {
     private CompilerImpl compiler;
@@ -100,4 +102,31 @@ public class CompilerImplTest {
             0x68, 6, 0, 0
         );
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testCompileToMemoryDoesNotWriteOutputFile() throws Exception {
+        ContextPool pool = createNiceMock(ContextPool.class);
+        expect(pool.getMemoryContext(0, MemoryContext.class)).andReturn(memoryStub).anyTimes();
+        replay(pool);
+        ApplicationApi applicationApi = createNiceMock(ApplicationApi.class);
+        expect(applicationApi.getContextPool()).andReturn(pool).anyTimes();
+        replay(applicationApi);
+        PluginSettings settings = createNiceMock(PluginSettings.class);
+        expect(settings.getBoolean(CompilerImpl.KEY_COMPILE_TO_MEMORY, false)).andReturn(true).anyTimes();
+        replay(settings);
+
+        compiler = new CompilerImpl(0L, applicationApi, settings);
+        compiler.initialize();
+
+        File sourceFile = folder.newFile("program.ssem");
+        Files.write(sourceFile.toPath(), "0 sto 22\n".getBytes(), StandardOpenOption.WRITE);
+        File outputFile = new File(folder.getRoot(), "program.bin");
+
+        assertTrue(compiler.compile(sourceFile.getAbsolutePath(), outputFile.getAbsolutePath()));
+        assertFalse(outputFile.exists());
+        assertProgram(
+            0x68, 6, 0, 0
+        );
+    }
 }
@@ -29,12 +29,17 @@ import net.emustudio.emulib.runtime.ContextNotFoundException;
 import net.emustudio.emulib.runtime.InvalidContextException;
 import net.emustudio.emulib.runtime.PluginSettings;
 import net.emustudio.emulib.runtime.helpers.IntelHEX;
+import net.emustudio.plugins.compiler.as8080.api.ParsedFileCache;
+import net.emustudio.plugins.compiler.as8080.api.ProgramLoader;
 import net.emustudio.plugins.compiler.asZ80.tree.Program;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileReader;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.util.*;
 
 @PluginRoot(
@@ -44,21 +49,18 @@ import java.util.*;
 @SuppressWarnings("unused")
 public class CompilerImpl extends AbstractCompiler {
     private final static Logger LOGGER = LoggerFactory.getLogger(CompilerImpl.class);
+    public final static String KEY_COMPILE_TO_MEMORY = PluginSettings.EMUSTUDIO_PREFIX + "compileToMemory";
 
     private final static List<SourceFileExtension> SOURCE_FILE_EXTENSIONS = List.of(
         new SourceFileExtension("asm", "Z80 assembler source")
     );
 
-    private final LexerImpl lexer;
-    private final ParserImpl parser;
+    private final ParsedFileCache<Program> parsedFileCache = new ParsedFileCache<>(Program::clearPassState);
     private MemoryContext<Short> memory;
     int programLocation;
 
     public CompilerImpl(long pluginID, ApplicationApi applicationApi, PluginSettings settings) {
         super(pluginID, applicationApi, settings);
-
-        lexer = new LexerImpl(null);
-        parser = new ParserImpl(lexer, this);
     }
 
     @SuppressWarnings("unchecked")
@@ -84,12 +86,17 @@ public class CompilerImpl extends AbstractCompiler {
             notifyCompileStart();
             IntelHEX hex = compileToHex(inputFileName);
 
-            hex.generate(outputFileName);
             programLocation = hex.getProgramLocation();
-            notifyInfo("Compile was successful.\nOutput: " + outputFileName);
+            if (isCompileToMemory()) {
+                notifyInfo("Compile was successful.\nOutput: memory");
+            } else {
+                hex.generate(outputFileName);
+                notifyInfo("Compile was successful.\nOutput: " + outputFileName);
+            }
+            notifyInfo("Parsing: " + ParsedFileCache.formatHitRate(parsedFileCache.getHits(), parsedFileCache.getMisses()));
 
             if (memory != null) {
-                hex.loadIntoMemory(memory);
+                ProgramLoader.load(hex, memory);
                 notifyInfo("Compiled file was loaded into operating memory.");
             } else {
                 notifyWarning("Memory is not available.");
@@ -147,40 +154,85 @@ public class CompilerImpl extends AbstractCompiler {
         return programLocation;
     }
 
+    /**
+     * Determines if the compiled program should be only loaded into memory, without writing the output file.
+     * <p>
+     * The output file is still written if memory is not available, otherwise the program would be lost.
+     *
+     * @return true if the output file should not be written
+     */
+    private boolean isCompileToMemory() {
+        return memory != null && settings.getBoolean(KEY_COMPILE_TO_MEMORY, false);
+    }
+
+    ParsedFileCache<Program> getParsedFileCache() {
+        return parsedFileCache;
+    }
+
+    /**
+     * Parses included file.
+     * <p>
+     * If the file has not changed since it was parsed last time, cached program is returned.
+     *
+     * @param file included file
+     * @return program in the file, or null if the file is empty
+     * @throws Exception if the file cannot be read or parsed
+     */
+    public Program parseIncludeFile(File file) throws Exception {
+        return parseFile(file, file.getName() + ": ", false);
+    }
+
+    private Program parseFile(File file, String reportPrefixString, boolean failOnSyntaxErrors) throws Exception {
+        byte[] content = Files.readAllBytes(file.toPath());
+        String path = file.getCanonicalPath();
+        byte[] digest = ParsedFileCache.digest(content);
+
+        Optional<Program> cached = parsedFileCache.take(path, digest);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(content))) {
+            ParserImpl parser = new ParserImpl(new LexerImpl(reader), this);
+            parser.setReportPrefixString(reportPrefixString);
+            Program program = (Program) parser.parse().value;
+
+            if (parser.hasSyntaxErrors()) {
+                if (failOnSyntaxErrors) {
+                    throw new Exception("One or more errors has been found, cannot continue.");
+                }
+            } else if (program != null) {
+                parsedFileCache.put(path, digest, program);
+            }
+            return program;
+        }
+    }
+
 
     private IntelHEX compileToHex(String inputFileName) throws Exception {
         Objects.requireNonNull(inputFileName);
 
         notifyInfo(getTitle() + ", version " + getVersion());
 
-        Object parsedProgram;
         IntelHEX hex = new IntelHEX();
 
-        try (Reader reader = new FileReader(inputFileName)) {
-            lexer.reset(reader, 0, 0, 0);
-            parser.reset();
-            parsedProgram = parser.parse().value;
-
-            if (parsedProgram == null) {
-                throw new Exception("Unexpected end of file");
-            }
-            if (parser.hasSyntaxErrors()) {
-                throw new Exception("One or more errors has been found, cannot continue.");
-            }
+        parsedFileCache.startCompilation();
+        Program stat = parseFile(new File(inputFileName), null, true);
+        if (stat == null) {
+            throw new Exception("Unexpected end of file");
+        }
 
-            Program stat = (Program) parsedProgram;
-            Namespace env = new Namespace(inputFileName);
-            stat.pass1(env); // create symbol table
-            stat.pass2(0); // try to evaluate all expressions + compute relative addresses
-            while (stat.pass3(env)) {
-                // don't worry about deadlock
-            }
-            if (env.getPassNeedCount() != 0) {
-                throw new Exception("Error: can't evaluate all expressions");
-            }
-            stat.pass4(hex, env);
-            return hex;
+        Namespace env = new Namespace(inputFileName);
+        stat.pass1(env); // create symbol table
+        stat.pass2(0); // try to evaluate all expressions + compute relative addresses
+        while (stat.pass3(env)) {
+            // don't worry about deadlock
+        }
+        if (env.getPassNeedCount() != 0) {
+            throw new Exception("Error: can't evaluate all expressions");
         }
+        stat.pass4(hex, env);
+        return hex;
     }
 
     private Optional<ResourceBundle> getResourceBundle() {
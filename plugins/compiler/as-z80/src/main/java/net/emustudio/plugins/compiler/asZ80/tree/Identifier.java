@@ -44,6 +44,7 @@ public class Identifier extends Expression {
         // search in env for labels
         Label lab = env.getLabel(this.name);
         if ((lab != null) && (lab.getAddress() == null)) {
+            this.value = 0;
             throw new NeedMorePassException(lab.getLine(), lab.getColumn());
         } else if (lab != null) {
             this.value = lab.getAddress();
@@ -81,6 +81,17 @@ public class Program {
         return false;
     }
 
+    /**
+     * Forgets results of previous compiler passes, so the program can be compiled again.
+     */
+    public void clearPassState() {
+        namespace = null;
+        includefiles.clear();
+        for (Row row : list) {
+            row.clearPassState();
+        }
+    }
+
     public void pass1(Namespace namespace) throws Exception {
         this.namespace = namespace;
         pass1();
@@ -68,6 +68,12 @@ public class PseudoIF extends Pseudo {
         }
     }
 
+    @Override
+    public void clearPassState() {
+        condTrue = false;
+        subprogram.clearPassState();
+    }
+
     @Override
     public void generateCode(IntelHEX hex) throws Exception {
         if (condTrue) {
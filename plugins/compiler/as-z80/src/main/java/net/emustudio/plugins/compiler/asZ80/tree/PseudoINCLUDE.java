@@ -20,15 +20,12 @@ package net.emustudio.plugins.compiler.asZ80.tree;
 
 import net.emustudio.emulib.runtime.helpers.IntelHEX;
 import net.emustudio.plugins.compiler.asZ80.CompilerImpl;
-import net.emustudio.plugins.compiler.asZ80.LexerImpl;
 import net.emustudio.plugins.compiler.asZ80.Namespace;
-import net.emustudio.plugins.compiler.asZ80.ParserImpl;
 import net.emustudio.plugins.compiler.asZ80.exceptions.CompilerException;
 import net.emustudio.plugins.compiler.asZ80.exceptions.UnexpectedEOFException;
 import net.emustudio.plugins.compiler.asZ80.treeAbstract.Pseudo;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.List;
 
@@ -79,18 +76,10 @@ public class PseudoINCLUDE extends Pseudo {
             namespace = new Namespace(parent.getInputFile().getAbsolutePath());
 
             File file = findIncludeFile(fileName);
-
-            FileReader f = new FileReader(file);
-            LexerImpl lexer = new LexerImpl(f);
-            ParserImpl parser = new ParserImpl(lexer, compiler);
-
-            parser.setReportPrefixString(file.getName() + ": ");
-            Object s = parser.parse().value;
-            parser.setReportPrefixString(null);
-            if (s == null) {
+            program = compiler.parseIncludeFile(file);
+            if (program == null) {
                 throw new UnexpectedEOFException(line, column, file.getAbsolutePath());
             }
-            program = (Program) s;
             program.addIncludeFiles(includefiles);
             namespace = parent;
 
@@ -113,6 +102,12 @@ public class PseudoINCLUDE extends Pseudo {
         return program.pass2(addr_start);
     }
 
+    @Override
+    public void clearPassState() {
+        program = null;
+        namespace = null;
+    }
+
     @Override
     public void generateCode(IntelHEX hex) throws Exception {
         while (program.pass3(namespace)) {
@@ -97,6 +97,13 @@ public class PseudoMACRO extends Pseudo {
         }
     }
 
+    @Override
+    public void clearPassState() {
+        newEnv = null;
+        call_params = null;
+        subprogram.clearPassState();
+    }
+
     @Override
     public void generateCode(IntelHEX hex) throws Exception {
         subprogram.pass4(hex, newEnv);
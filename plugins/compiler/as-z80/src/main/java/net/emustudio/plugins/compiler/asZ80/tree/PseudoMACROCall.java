@@ -77,6 +77,12 @@ public class PseudoMACROCall extends Pseudo {
         }
     }
 
+    @Override
+    public void clearPassState() {
+        macro = null;
+        statHex = new IntelHEX();
+    }
+
     @Override
     public void generateCode(IntelHEX hex) {
         hex.addTable(statHex.getTable());
@@ -52,6 +52,15 @@ public class Row {
         return false;
     }
 
+    public void clearPassState() {
+        if (label != null) {
+            label.setAddress(null);
+        }
+        if (statement != null) {
+            statement.clearPassState();
+        }
+    }
+
     public int getSize() {
         if (statement != null) {
             return statement.getSize();
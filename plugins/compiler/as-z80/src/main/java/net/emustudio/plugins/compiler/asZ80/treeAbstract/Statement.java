@@ -40,4 +40,10 @@ public abstract class Statement {
     public abstract int pass2(Namespace parentEnv, int addr_start) throws Exception;
 
     public abstract void generateCode(IntelHEX hex) throws Exception;
+
+    /**
+     * Forgets results of previous compiler passes, so the statement can be compiled again.
+     */
+    public void clearPassState() {
+    }
 }
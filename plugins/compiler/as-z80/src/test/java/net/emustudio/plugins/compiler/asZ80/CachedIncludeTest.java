@@ -0,0 +1,109 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.compiler.asZ80;
+
+import net.emustudio.plugins.compiler.as8080.api.ParsedFileCache;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+public class CachedIncludeTest extends AbstractCompilerTest {
+
+    private File write(String fileName, String content) throws Exception {
+        File file = new File(folder.getRoot(), fileName);
+        Files.write(file.toPath(), content.getBytes());
+        return file;
+    }
+
+    private void compileFile(File file) throws Exception {
+        File outputFile = new File(folder.getRoot(), "program.hex");
+        if (!compiler.compile(file.getAbsolutePath(), outputFile.getAbsolutePath())) {
+            throw new Exception("Compilation failed");
+        }
+    }
+
+    private void assertCacheStatistics(int hits, int misses) {
+        ParsedFileCache<?> cache = compiler.getParsedFileCache();
+        assertEquals(hits, cache.getHits());
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    public void testUnchangedFilesAreReused() throws Exception {
+        File include = write("lib.inc", "sample:\n  ld a, 0\n  ret\n");
+        File main = write("main.asm", "call sample\ninclude \"" + include.getAbsolutePath() + "\"\n");
+
+        compileFile(main);
+        assertCacheStatistics(0, 2);
+        compileFile(main);
+        assertCacheStatistics(2, 0);
+
+        assertProgram(
+            0xCD, 03, 00, 0x3E, 0, 0xC9
+        );
+    }
+
+    @Test
+    public void testReusedIncludeComputesNewLabelAddresses() throws Exception {
+        File include = write("lib.inc", "jp after\nafter:\n  ret\n");
+        File main = write("main.asm", "include \"" + include.getAbsolutePath() + "\"\n");
+
+        compileFile(main);
+        write("main.asm", "nop\ninclude \"" + include.getAbsolutePath() + "\"\n");
+        compileFile(main);
+        assertCacheStatistics(1, 1);
+
+        assertProgram(
+            0, 0xC3, 04, 00, 0xC9
+        );
+    }
+
+    @Test
+    public void testReusedIncludeEvaluatesIfAgain() throws Exception {
+        File include = write("lib.inc", "if flag\n  ld a, 1\nendif\nret\n");
+        File main = write("main.asm", "flag equ 1\ninclude \"" + include.getAbsolutePath() + "\"\n");
+
+        compileFile(main);
+        write("main.asm", "flag equ 0\ninclude \"" + include.getAbsolutePath() + "\"\nnop\nnop\n");
+        compileFile(main);
+        assertCacheStatistics(1, 1);
+
+        assertProgram(
+            0xC9, 0, 0
+        );
+    }
+
+    @Test
+    public void testReusedIncludeExpandsMacroAtNewAddress() throws Exception {
+        File include = write("lib.inc", "seven macro\n  ld a, 7\nendm\nseven\n");
+        File main = write("main.asm", "include \"" + include.getAbsolutePath() + "\"\n");
+
+        compileFile(main);
+        write("main.asm", "nop\nnop\ninclude \"" + include.getAbsolutePath() + "\"\n");
+        compileFile(main);
+        assertCacheStatistics(1, 1);
+
+        assertProgram(
+            0, 0, 0x3E, 7
+        );
+    }
+}
@@ -48,6 +48,22 @@ public class RunnerTest {
         assertEquals(":00000001FF", lines.get(1));
     }
 
+    @Test
+    public void testCommandLineMoreSourceFiles() throws Exception {
+        File first = folder.newFile("first.asm");
+        Files.write(first.toPath(), "nop".getBytes(), StandardOpenOption.WRITE);
+        File second = folder.newFile("second.asm");
+        Files.write(second.toPath(), "ret".getBytes(), StandardOpenOption.WRITE);
+
+        Runner.main(first.getPath(), second.getPath());
+
+        List<String> firstLines = Files.readAllLines(new File(folder.getRoot(), "first.hex").toPath());
+        assertEquals(":0100000000FF", firstLines.get(0));
+
+        List<String> secondLines = Files.readAllLines(new File(folder.getRoot(), "second.hex").toPath());
+        assertEquals(":01000000C936", secondLines.get(0));
+    }
+
     @Test
     public void testCommandLinePrintHelp() {
         Runner.main("--help");
@@ -19,10 +19,13 @@
 package net.emustudio.plugins.compiler.ramc;
 
 import net.emustudio.plugins.compiler.ramc.tree.Label;
+import net.emustudio.plugins.memory.ram.ProgramFile;
 import net.emustudio.plugins.memory.ram.api.RAMInstruction;
 import net.emustudio.plugins.memory.ram.api.RAMMemoryContext;
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -58,18 +61,12 @@ public class CompiledCode {
     }
 
     public boolean serialize(String filename) {
-        try {
-            OutputStream file = new FileOutputStream(filename);
-            OutputStream buffer = new BufferedOutputStream(file);
-            try (ObjectOutput output = new ObjectOutputStream(buffer)) {
-                Map<Integer, String> labels = new HashMap<>();
-                for (Label label : Namespace.getLabels()) {
-                    labels.put(label.getAddress(), label.getValue());
-                }
-                output.writeObject(labels);
-                output.writeObject(Namespace.getInputs());
-                output.writeObject(program);
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(filename))) {
+            Map<Integer, String> labels = new HashMap<>();
+            for (Label label : Namespace.getLabels()) {
+                labels.put(label.getAddress(), label.getValue());
             }
+            new ProgramFile(labels, Namespace.getInputs(), program).write(output);
             Namespace.clear();
         } catch (Exception e) {
             return false;
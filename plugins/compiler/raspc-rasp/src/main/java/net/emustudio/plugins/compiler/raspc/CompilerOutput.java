@@ -20,6 +20,7 @@
 package net.emustudio.plugins.compiler.raspc;
 
 import net.emustudio.plugins.compiler.raspc.tree.Label;
+import net.emustudio.plugins.memory.rasp.ProgramFile;
 import net.emustudio.plugins.memory.rasp.api.MemoryItem;
 import net.emustudio.plugins.memory.rasp.api.RASPMemoryContext;
 
@@ -80,17 +81,8 @@ public class CompilerOutput {
     }
 
     public void saveToFile(String outputFile) {
-        try {
-            FileOutputStream fileOutputStream = new FileOutputStream(outputFile);
-            BufferedOutputStream bufferedOutputStream = new BufferedOutputStream(fileOutputStream);
-            try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(bufferedOutputStream)) {
-                objectOutputStream.writeObject(labels);
-                objectOutputStream.writeObject(programStart);
-                objectOutputStream.writeObject(inputs);
-                objectOutputStream.writeObject(memoryItems);
-            }
-        } catch (FileNotFoundException ex) {
-            System.out.println("Error saving to file.");
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile))) {
+            new ProgramFile(programStart, labels, inputs, memoryItems).write(output);
         } catch (IOException ex) {
             System.out.println("Error saving to file.");
         }
@@ -0,0 +1,249 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.plugins.cpu.intel8080.api.BlockCache;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Decoder of 8080 basic blocks.
+ * <p>
+ * A block ends with an instruction which can change the control flow (jump, call, return, restart, halt), which
+ * changes interrupt state, or which accesses a device (a device can e.g. switch memory banks).
+ * <p>
+ * Instructions are decoded into operations, which the CPU executes without fetching opcodes and operands from
+ * memory again. An operation is an int: bits 0-7 are the operation type (OP_*), bits 8-15 its argument (register,
+ * register pair, condition or ALU operation) and bits 16-31 the immediate operand. Instructions without a dedicated
+ * operation type are decoded as OP_GENERIC with the opcode as the argument; the CPU executes them by the opcode.
+ */
+class BlockDecoder {
+    final static int MAX_INSTRUCTION_LENGTH = 3;
+
+    final static int OP_GENERIC = 0; // argument: opcode
+    final static int OP_NOP = 1;
+    final static int OP_MOV_RR = 2; // argument: destination register | source register << 3
+    final static int OP_MOV_RM = 3; // argument: destination register
+    final static int OP_MOV_MR = 4; // argument: source register
+    final static int OP_MVI = 5; // argument: destination register; immediate: value
+    final static int OP_LXI = 6; // argument: register pair; immediate: value
+    final static int OP_ALU_R = 7; // argument: ALU operation | source register << 3
+    final static int OP_ALU_M = 8; // argument: ALU operation
+    final static int OP_ALU_I = 9; // argument: ALU operation; immediate: value
+    final static int OP_INR = 10; // argument: register
+    final static int OP_DCR = 11; // argument: register
+    final static int OP_INX = 12; // argument: register pair
+    final static int OP_DCX = 13; // argument: register pair
+    final static int OP_DAD = 14; // argument: register pair
+    final static int OP_LDAX = 15; // argument: register pair
+    final static int OP_STAX = 16; // argument: register pair
+    final static int OP_LDA = 17; // immediate: address
+    final static int OP_STA = 18; // immediate: address
+    final static int OP_PUSH = 19; // argument: register pair in PUSH format
+    final static int OP_POP = 20; // argument: register pair in PUSH format
+    final static int OP_XCHG = 21;
+    final static int OP_JMP = 22; // immediate: address
+    final static int OP_JCC = 23; // argument: condition; immediate: address
+    final static int OP_CALL = 24; // immediate: address
+    final static int OP_CCC = 25; // argument: condition; immediate: address
+    final static int OP_RET = 26;
+    final static int OP_RCC = 27; // argument: condition
+
+    /**
+     * ALU operations, in the order of 8080 opcodes.
+     */
+    final static int ALU_ADD = 0, ALU_ADC = 1, ALU_SUB = 2, ALU_SBB = 3, ALU_ANA = 4, ALU_XRA = 5, ALU_ORA = 6,
+        ALU_CMP = 7;
+
+    /**
+     * Instruction lengths in bytes; 0 for undocumented opcodes.
+     */
+    private final static int[] LENGTH = new int[256];
+    private final static boolean[] ENDS_BLOCK = new boolean[256];
+
+    static {
+        Arrays.fill(LENGTH, 1);
+        for (int op : new int[]{0x08, 0x10, 0x18, 0x20, 0x28, 0x30, 0x38, 0xCB, 0xD9, 0xDD, 0xED, 0xFD}) {
+            LENGTH[op] = 0;
+        }
+        for (int op : new int[]{
+            0x06, 0x0E, 0x16, 0x1E, 0x26, 0x2E, 0x36, 0x3E, // MVI
+            0xC6, 0xCE, 0xD3, 0xD6, 0xDB, 0xDE, 0xE6, 0xEE, 0xF6, 0xFE
+        }) {
+            LENGTH[op] = 2;
+        }
+        for (int op : new int[]{
+            0x01, 0x11, 0x21, 0x31, // LXI
+            0x22, 0x2A, 0x32, 0x3A, 0xC3, 0xCD
+        }) {
+            LENGTH[op] = 3;
+        }
+        for (int i = 0; i < 8; i++) {
+            LENGTH[0xC2 | (i << 3)] = 3; // Jcc
+            LENGTH[0xC4 | (i << 3)] = 3; // Ccc
+
+            ENDS_BLOCK[0xC0 | (i << 3)] = true; // Rcc
+            ENDS_BLOCK[0xC2 | (i << 3)] = true; // Jcc
+            ENDS_BLOCK[0xC4 | (i << 3)] = true; // Ccc
+            ENDS_BLOCK[0xC7 | (i << 3)] = true; // RST
+        }
+        for (int op : new int[]{0x76, 0xC3, 0xC9, 0xCD, 0xD3, 0xDB, 0xE9, 0xF3, 0xFB}) { // HLT, JMP, RET, CALL, OUT, IN, PCHL, DI, EI
+            ENDS_BLOCK[op] = true;
+        }
+    }
+
+    static int getInstructionLength(int opcode) {
+        return LENGTH[opcode];
+    }
+
+    static boolean isBlockEnd(int opcode) {
+        return ENDS_BLOCK[opcode];
+    }
+
+    /**
+     * Decode a basic block.
+     *
+     * @param address    address of the first instruction
+     * @param memorySize size of the memory
+     * @param readByte   function reading a byte from memory
+     * @return decoded block, or null if the first instruction is undocumented
+     */
+    static BlockCache.BasicBlock decode(int address, int memorySize, IntUnaryOperator readByte) {
+        int[] operations = new int[BlockCache.MAX_BLOCK_INSTRUCTIONS];
+        int[] addresses = new int[BlockCache.MAX_BLOCK_INSTRUCTIONS + 1];
+        int size = Math.min(memorySize, 0x10000);
+
+        int count = 0;
+        while (count < BlockCache.MAX_BLOCK_INSTRUCTIONS && address < size) {
+            int opcode = readByte.applyAsInt(address);
+            int length = LENGTH[opcode];
+            if (length == 0 || address + length > size) {
+                // undocumented instruction, or the instruction wraps around the memory
+                break;
+            }
+            int immediate = 0;
+            if (length == 2) {
+                immediate = readByte.applyAsInt(address + 1);
+            } else if (length == 3) {
+                immediate = readByte.applyAsInt(address + 1) | (readByte.applyAsInt(address + 2) << 8);
+            }
+            operations[count] = decodeOperation(opcode, immediate);
+            addresses[count] = address;
+            count++;
+            address += length;
+            if (ENDS_BLOCK[opcode]) {
+                break;
+            }
+        }
+
+        if (count == 0) {
+            return null;
+        }
+        addresses[count] = address;
+        return new BlockCache.BasicBlock(Arrays.copyOf(operations, count), Arrays.copyOf(addresses, count + 1));
+    }
+
+    static int decodeOperation(int opcode, int immediate) {
+        int x = (opcode >>> 3) & 0x07;
+        int y = opcode & 0x07;
+        int pair = (opcode >>> 4) & 0x03;
+
+        switch (opcode & 0xC0) {
+            case 0x40:
+                if (opcode == 0x76) { // HLT
+                    return operation(OP_GENERIC, opcode, 0);
+                } else if (y == 6) {
+                    return operation(OP_MOV_RM, x, 0);
+                } else if (x == 6) {
+                    return operation(OP_MOV_MR, y, 0);
+                }
+                return operation(OP_MOV_RR, x | (y << 3), 0);
+            case 0x80:
+                if (y == 6) {
+                    return operation(OP_ALU_M, x, 0);
+                }
+                return operation(OP_ALU_R, x | (y << 3), 0);
+            case 0x00:
+                switch (opcode & 0x0F) {
+                    case 0x01:
+                        return operation(OP_LXI, pair, immediate);
+                    case 0x03:
+                        return operation(OP_INX, pair, 0);
+                    case 0x09:
+                        return operation(OP_DAD, pair, 0);
+                    case 0x0B:
+                        return operation(OP_DCX, pair, 0);
+                }
+                if (x != 6) {
+                    switch (y) {
+                        case 4:
+                            return operation(OP_INR, x, 0);
+                        case 5:
+                            return operation(OP_DCR, x, 0);
+                        case 6:
+                            return operation(OP_MVI, x, immediate);
+                    }
+                }
+                switch (opcode) {
+                    case 0x00:
+                        return operation(OP_NOP, 0, 0);
+                    case 0x02: case 0x12:
+                        return operation(OP_STAX, pair, 0);
+                    case 0x0A: case 0x1A:
+                        return operation(OP_LDAX, pair, 0);
+                    case 0x32:
+                        return operation(OP_STA, 0, immediate);
+                    case 0x3A:
+                        return operation(OP_LDA, 0, immediate);
+                }
+                break;
+            default:
+                switch (y) {
+                    case 0:
+                        return operation(OP_RCC, x, 0);
+                    case 2:
+                        return operation(OP_JCC, x, immediate);
+                    case 4:
+                        return operation(OP_CCC, x, immediate);
+                    case 6:
+                        return operation(OP_ALU_I, x, immediate);
+                }
+                switch (opcode) {
+                    case 0xC1: case 0xD1: case 0xE1: case 0xF1:
+                        return operation(OP_POP, pair, 0);
+                    case 0xC5: case 0xD5: case 0xE5: case 0xF5:
+                        return operation(OP_PUSH, pair, 0);
+                    case 0xC3:
+                        return operation(OP_JMP, 0, immediate);
+                    case 0xC9:
+                        return operation(OP_RET, 0, 0);
+                    case 0xCD:
+                        return operation(OP_CALL, 0, immediate);
+                    case 0xEB:
+                        return operation(OP_XCHG, 0, 0);
+                }
+        }
+        return operation(OP_GENERIC, opcode, 0);
+    }
+
+    private static int operation(int type, int argument, int immediate) {
+        return type | (argument << 8) | (immediate << 16);
+    }
+}
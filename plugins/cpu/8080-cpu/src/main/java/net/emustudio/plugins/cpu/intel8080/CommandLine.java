@@ -0,0 +1,93 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.plugins.cpu.intel8080.trace.DecodeCommand;
+import net.emustudio.plugins.cpu.intel8080.trace.DiffCommand;
+import net.emustudio.plugins.cpu.intel8080.trace.TraceCommand;
+import org.kohsuke.args4j.*;
+import org.kohsuke.args4j.spi.SubCommand;
+import org.kohsuke.args4j.spi.SubCommandHandler;
+import org.kohsuke.args4j.spi.SubCommands;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.MissingResourceException;
+import java.util.Optional;
+import java.util.ResourceBundle;
+
+/**
+ * Command line of offline tools for execution traces recorded by 8080 or Z80 CPU.
+ */
+public class CommandLine {
+    private final static Logger LOGGER = LoggerFactory.getLogger(CommandLine.class);
+
+    @Option(name = "--help", help = true, usage = "output this message")
+    private boolean help = false;
+
+    @Argument(handler = SubCommandHandler.class, required = true, metaVar = "trace command (decode, diff)")
+    @SubCommands({
+        @SubCommand(name = "decode", impl = DecodeCommand.class),
+        @SubCommand(name = "diff", impl = DiffCommand.class)
+    })
+    TraceCommand command;
+
+    public static Optional<Runnable> parse(String[] args) {
+        CommandLine commandLine = new CommandLine();
+
+        CmdLineParser parser = new CmdLineParser(commandLine, ParserProperties.defaults().withUsageWidth(120));
+        try {
+            parser.parseArgument(args);
+
+            if (commandLine.help) {
+                System.out.println("Intel 8080 emuStudio plug-in, version " + getVersion());
+
+                parser.printUsage(System.err);
+                System.exit(0);
+            }
+
+            return Optional.of(commandLine.createCommand());
+        } catch (CmdLineException e) {
+            System.err.println(e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Runnable createCommand() {
+        return () -> {
+            try {
+                command.execute(System.out);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+            } catch (IOException e) {
+                LOGGER.error("Could not run trace command", e);
+            }
+        };
+    }
+
+    private static String getVersion() {
+        try {
+            ResourceBundle bundle = ResourceBundle.getBundle("net.emustudio.plugins.cpu.intel8080.version");
+            return bundle.getString("version");
+        } catch (MissingResourceException e) {
+            return "(unknown)";
+        }
+    }
+}
@@ -20,19 +20,18 @@ package net.emustudio.plugins.cpu.intel8080;
 
 import net.emustudio.emulib.plugins.device.DeviceContext;
 import net.emustudio.plugins.cpu.intel8080.api.ExtendedContext;
+import net.emustudio.plugins.cpu.intel8080.api.PortBus;
 import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 @ThreadSafe
 public class ContextImpl implements ExtendedContext {
     private final static Logger LOGGER = LoggerFactory.getLogger(ContextImpl.class);
 
-    private final ConcurrentMap<Integer, DeviceContext<Short>> devices = new ConcurrentHashMap<>();
+    private final PortBus ports = new PortBus(0);
 
     private volatile EmulatorEngine cpu;
     private volatile int clockFrequency = 2000; // kHz
@@ -44,25 +43,23 @@ public class ContextImpl implements ExtendedContext {
     // device mapping = only one device can be attached to one port
     @Override
     public boolean attachDevice(DeviceContext<Short> device, int port) {
-        if (devices.containsKey(port)) {
-            return false;
-        }
-        if (devices.putIfAbsent(port, device) == null) {
+        if (ports.attach(device, port)) {
             LOGGER.debug("[port={},device={}] Device was attached to CPU", port, device);
+            return true;
         }
-        return true;
+        return false;
     }
 
     @Override
     public void detachDevice(int port) {
-        if (devices.remove(port) != null) {
+        if (ports.detach(port)) {
             LOGGER.debug("[port={}] Device was detached from CPU", port);
         }
     }
 
     public void clearDevices() {
         LOGGER.info("Detaching all devices from CPU");
-        devices.clear();
+        ports.clear();
     }
 
     /**
@@ -74,14 +71,10 @@ public class ContextImpl implements ExtendedContext {
      * @return value from the port if read is true, otherwise 0
      */
     public short fireIO(int port, boolean read, short data) throws IOException {
-        DeviceContext<Short> device = devices.get(port);
-        if (device != null) {
-            if (read) {
-                return device.readData();
-            } else {
-                device.writeData(data);
-            }
+        if (read) {
+            return (short) ports.read(port);
         }
+        ports.write(port, data);
         return 0;
     }
 
@@ -27,13 +27,18 @@ import net.emustudio.emulib.runtime.ApplicationApi;
 import net.emustudio.emulib.runtime.ContextAlreadyRegisteredException;
 import net.emustudio.emulib.runtime.InvalidContextException;
 import net.emustudio.emulib.runtime.PluginSettings;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
 import net.emustudio.plugins.cpu.intel8080.api.ExtendedContext;
 import net.emustudio.plugins.cpu.intel8080.api.FrequencyUpdater;
 import net.emustudio.plugins.cpu.intel8080.gui.StatusPanel;
+import net.emustudio.snapshot.Snapshottable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -48,13 +53,15 @@ import java.util.concurrent.atomic.AtomicReference;
     title = "Intel 8080 CPU"
 )
 @SuppressWarnings("unused")
-public class CpuImpl extends AbstractCPU {
+public class CpuImpl extends AbstractCPU implements Snapshottable {
     private final static Logger LOGGER = LoggerFactory.getLogger(CpuImpl.class);
+    private final static int SNAPSHOT_VERSION = 1;
 
     private final ScheduledExecutorService frequencyScheduler = Executors.newSingleThreadScheduledExecutor();
     private final AtomicReference<Future<?>> frequencyUpdaterFuture = new AtomicReference<>();
 
     private final ContextImpl context = new ContextImpl();
+    private final BreakpointBitmap breakpoints = new BreakpointBitmap();
     private final InitializerFor8080 initializer;
 
     private EmulatorEngine engine;
@@ -133,6 +140,32 @@ public class CpuImpl extends AbstractCPU {
         return engine.step();
     }
 
+    /**
+     * Undo the last executed instruction. Works only if step-back history is enabled in the settings.
+     *
+     * @return true if the instruction was undone; false if there is no history
+     */
+    public boolean stepBack() {
+        boolean undone = engine.stepBack();
+        if (undone) {
+            statusPanel.updateGUI();
+        }
+        return undone;
+    }
+
+    /**
+     * Undo executed instructions until a breakpoint is reached or the step-back history is exhausted.
+     *
+     * @return number of undone instructions
+     */
+    public int stepBackToBreakpoint() {
+        int count = engine.stepBackToBreakpoint(breakpoints);
+        if (count > 0) {
+            statusPanel.updateGUI();
+        }
+        return count;
+    }
+
     @Override
     public JPanel getStatusPanel() {
         return statusPanel;
@@ -165,7 +198,7 @@ public class CpuImpl extends AbstractCPU {
     public RunState call() {
         try {
             startFrequencyUpdater();
-            return engine.run(this);
+            return engine.run(breakpoints);
         } finally {
             stopFrequencyUpdater();
         }
@@ -190,6 +223,33 @@ public class CpuImpl extends AbstractCPU {
         return true;
     }
 
+    @Override
+    public void setBreakpoint(int memLocation) {
+        super.setBreakpoint(memLocation);
+        breakpoints.set(memLocation);
+    }
+
+    @Override
+    public void unsetBreakpoint(int memLocation) {
+        super.unsetBreakpoint(memLocation);
+        breakpoints.unset(memLocation);
+    }
+
+    @Override
+    public int getSnapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void saveSnapshot(DataOutput output) throws IOException {
+        engine.saveState(output);
+    }
+
+    @Override
+    public void loadSnapshot(DataInput input) throws IOException {
+        engine.loadState(input);
+    }
+
     private Optional<ResourceBundle> getResourceBundle() {
         try {
             return Optional.of(ResourceBundle.getBundle("net.emustudio.plugins.cpu.intel8080.version"));
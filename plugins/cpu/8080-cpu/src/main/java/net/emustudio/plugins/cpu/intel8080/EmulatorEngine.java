@@ -20,19 +20,25 @@ package net.emustudio.plugins.cpu.intel8080;
 
 import net.emustudio.emulib.plugins.cpu.CPU;
 import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.plugins.cpu.intel8080.api.BlockCache;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
 import net.emustudio.plugins.cpu.intel8080.api.CpuEngine;
 import net.emustudio.plugins.cpu.intel8080.api.DispatchListener;
 import net.emustudio.plugins.cpu.intel8080.api.FrequencyChangedListener;
+import net.emustudio.plugins.cpu.intel8080.api.Pacer;
+import net.emustudio.plugins.cpu.intel8080.api.UndoJournal;
+import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class EmulatorEngine implements CpuEngine {
     private static final Logger LOGGER = LoggerFactory.getLogger(EmulatorEngine.class);
@@ -59,16 +65,26 @@ public class EmulatorEngine implements CpuEngine {
     public volatile CPU.RunState currentRunState = CPU.RunState.STATE_STOPPED_NORMAL;
 
     private final MemoryContext<Short> memory;
+    private final StandardMemoryContext fastMemory;
     private final ContextImpl context;
     private final List<FrequencyChangedListener> frequencyChangedListeners = new CopyOnWriteArrayList<>();
 
-    private long executedCycles = 0;
+    private final AtomicLong executedCycles = new AtomicLong();
 
     private volatile DispatchListener dispatchListener;
+    private volatile Pacer pacer = new Pacer(Pacer.DEFAULT_SLICE_MILLIS, true);
+    private volatile BlockCache blockCache;
+    private volatile UndoJournal journal;
+    private final UndoJournal.MemoryRestorer memoryRestorer;
 
     public EmulatorEngine(MemoryContext<Short> memory, ContextImpl context) {
         this.memory = memory;
+        this.fastMemory = (memory instanceof StandardMemoryContext) ? (StandardMemoryContext) memory : null;
         this.context = context;
+        this.memoryRestorer = (address, value) -> {
+            memory.write(address, (short) value);
+            invalidateBlocks(address);
+        };
     }
 
     @Override
@@ -76,11 +92,97 @@ public class EmulatorEngine implements CpuEngine {
         this.dispatchListener = dispatchListener;
     }
 
+    @Override
+    public void setPacer(Pacer pacer) {
+        this.pacer = Objects.requireNonNull(pacer);
+    }
+
     @Override
     public long getAndResetExecutedCycles() {
-        long tmpExecutedCycles = executedCycles;
-        executedCycles = 0;
-        return tmpExecutedCycles;
+        return executedCycles.getAndSet(0);
+    }
+
+    /**
+     * Enable or disable execution of cached basic blocks.
+     * <p>
+     * When enabled, the CPU decodes straight-line code into blocks of operations, which are cached and executed
+     * without fetching and decoding the instructions again. The cache is invalidated by memory change notifications.
+     * If a dispatch listener is set, or an interrupt is pending, the CPU executes instructions one by one.
+     *
+     * @param enabled whether the block cache should be used
+     */
+    public void setBlockCacheEnabled(boolean enabled) {
+        BlockCache tmpCache = blockCache;
+        if (enabled && tmpCache == null) {
+            tmpCache = new BlockCache(BlockDecoder.MAX_INSTRUCTION_LENGTH);
+            memory.addMemoryListener(tmpCache);
+            blockCache = tmpCache;
+        } else if (!enabled && tmpCache != null) {
+            memory.removeMemoryListener(tmpCache);
+            blockCache = null;
+        }
+    }
+
+    /**
+     * Enable or disable remembering executed instructions for stepping back.
+     * <p>
+     * When enabled, the block cache is not used.
+     *
+     * @param instructions number of instructions which should be possible to undo; 0 disables the history
+     */
+    @Override
+    public void setStepBackHistory(int instructions) {
+        journal = (instructions > 0) ? new UndoJournal(instructions, 2) : null;
+    }
+
+    /**
+     * Undo the last executed instruction. The CPU must not be running.
+     * <p>
+     * The CPU returns to the nearest older checkpoint and replays instructions from there, with inputs and
+     * interrupts taken from the history. Devices are not affected. Changes done by the user (e.g. in memory) are
+     * not undone.
+     *
+     * @return true if the instruction was undone; false if there is no history
+     */
+    public boolean stepBack() {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null || !tmpJournal.canReturnTo(tmpJournal.getInstructions() - 1)) {
+            return false;
+        }
+        replayTo(tmpJournal, tmpJournal.getInstructions() - 1, null);
+        return true;
+    }
+
+    /**
+     * Undo executed instructions until a breakpoint is reached or the history is exhausted. The CPU must not be
+     * running.
+     *
+     * @param breakpoints breakpoints
+     * @return number of undone instructions
+     */
+    public int stepBackToBreakpoint(BreakpointBitmap breakpoints) {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null) {
+            return 0;
+        }
+        long current = tmpJournal.getInstructions();
+        long target = current - 1;
+        while (tmpJournal.canReturnTo(target)) {
+            long hit = replayTo(tmpJournal, target, breakpoints);
+            if (hit >= 0) {
+                if (hit != target) {
+                    replayTo(tmpJournal, hit, null);
+                }
+                break;
+            }
+            long checkpoint = target & -UndoJournal.CHECKPOINT_INTERVAL;
+            if (!tmpJournal.canReturnTo(checkpoint - 1)) {
+                replayTo(tmpJournal, checkpoint, null);
+                break;
+            }
+            target = checkpoint - 1;
+        }
+        return (int) (current - tmpJournal.getInstructions());
     }
 
     public void addFrequencyChangedListener(FrequencyChangedListener listener) {
@@ -100,53 +202,104 @@ public class EmulatorEngine implements CpuEngine {
         flags = 2; //0000 0010b
         PC = startPos;
         INTE = false;
+        clearStepBackHistory();
         currentRunState = CPU.RunState.STATE_STOPPED_BREAK;
     }
 
+    /**
+     * Save CPU state into a snapshot. The CPU must not be running.
+     *
+     * @param output snapshot output
+     * @throws IOException if the state could not be written
+     */
+    public void saveState(DataOutput output) throws IOException {
+        for (int reg : regs) {
+            output.writeByte(reg);
+        }
+        output.writeByte(flags);
+        output.writeShort(PC);
+        output.writeShort(SP);
+        output.writeBoolean(INTE);
+        output.writeBoolean(isINT);
+        output.writeByte(b1);
+        output.writeByte(b2);
+        output.writeByte(b3);
+        output.writeLong(executedCycles.get());
+    }
+
+    /**
+     * Restore CPU state from a snapshot. The CPU must not be running.
+     * <p>
+     * Cached blocks are dropped, because memory might have been restored too.
+     *
+     * @param input snapshot input
+     * @throws IOException if the state could not be read
+     */
+    public void loadState(DataInput input) throws IOException {
+        for (int i = 0; i < regs.length; i++) {
+            regs[i] = input.readUnsignedByte();
+        }
+        flags = (short) input.readUnsignedByte();
+        PC = input.readUnsignedShort();
+        SP = input.readUnsignedShort();
+        INTE = input.readBoolean();
+        isINT = input.readBoolean();
+        b1 = (short) input.readUnsignedByte();
+        b2 = (short) input.readUnsignedByte();
+        b3 = (short) input.readUnsignedByte();
+        executedCycles.set(input.readLong());
+
+        BlockCache tmpCache = blockCache;
+        if (tmpCache != null) {
+            tmpCache.clear();
+        }
+        clearStepBackHistory();
+        currentRunState = CPU.RunState.STATE_STOPPED_BREAK;
+    }
+
+    private void clearStepBackHistory() {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null) {
+            tmpJournal.clear();
+        }
+    }
+
     public CPU.RunState step() throws Exception {
         currentRunState = CPU.RunState.STATE_STOPPED_BREAK;
         dispatch();
         return currentRunState;
     }
 
-    public CPU.RunState run(CPU cpu) {
-        long startTime, endTime;
-        int cycles_executed;
-        int checkTimeSlice = 100;
-        int cycles_to_execute = checkTimeSlice * context.getCPUFrequency();
-        int cycles;
-        long slice = checkTimeSlice * 1000000;
+    public CPU.RunState run(BreakpointBitmap breakpoints) {
+        Pacer pacer = this.pacer;
+        BlockCache blockCache = this.blockCache;
 
         currentRunState = CPU.RunState.STATE_RUNNING;
+        pacer.start();
         while (!Thread.currentThread().isInterrupted() && (currentRunState == CPU.RunState.STATE_RUNNING)) {
-            startTime = System.nanoTime();
-            cycles_executed = 0;
-            while ((cycles_executed < cycles_to_execute) && !Thread.currentThread().isInterrupted() && (currentRunState == CPU.RunState.STATE_RUNNING)) {
-                try {
-                    cycles = dispatch();
-                    cycles_executed += cycles;
-                    executedCycles += cycles;
-                    if (cpu.isBreakpointSet(PC)) {
-                        throw new Breakpoint();
+            long cyclesToExecute = pacer.getSliceCycles(context.getCPUFrequency());
+            long cyclesExecuted = 0;
+            try {
+                while ((cyclesExecuted < cyclesToExecute) && !Thread.currentThread().isInterrupted() && (currentRunState == CPU.RunState.STATE_RUNNING)) {
+                    if (blockCache != null && journal == null && dispatchListener == null && !isINT) {
+                        cyclesExecuted += executeBlock(blockCache, breakpoints);
+                    } else {
+                        cyclesExecuted += dispatch();
                     }
-                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                    LOGGER.debug("Unexpected error", e);
-                    if (e.getCause() != null && e.getCause() instanceof IndexOutOfBoundsException) {
-                        return CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
+                    if (breakpoints.isSet(PC)) {
+                        return CPU.RunState.STATE_STOPPED_BREAK;
                     }
-                    return CPU.RunState.STATE_STOPPED_BAD_INSTR;
-                } catch (IndexOutOfBoundsException e) {
-                    LOGGER.debug("Unexpected error", e);
-                    return CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
-                } catch (Breakpoint e) {
-                    return CPU.RunState.STATE_STOPPED_BREAK;
                 }
+            } catch (IOException e) {
+                LOGGER.debug("Unexpected error", e);
+                return CPU.RunState.STATE_STOPPED_BAD_INSTR;
+            } catch (IndexOutOfBoundsException e) {
+                LOGGER.debug("Unexpected error", e);
+                return CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
+            } finally {
+                executedCycles.addAndGet(cyclesExecuted);
             }
-            endTime = System.nanoTime() - startTime;
-            if (endTime < slice) {
-                // time correction
-                LockSupport.parkNanos(slice - endTime);
-            }
+            pacer.endSlice(cyclesToExecute, cyclesExecuted);
         }
         return currentRunState;
     }
@@ -165,7 +318,7 @@ public class EmulatorEngine implements CpuEngine {
     /* Get an 8080 register and return it */
     private int getreg(int reg) {
         if (reg == 6) {
-            return memory.read((regs[REG_H] << 8) | regs[REG_L]);
+            return readByte((regs[REG_H] << 8) | regs[REG_L]);
         }
         return regs[reg];
     }
@@ -173,7 +326,7 @@ public class EmulatorEngine implements CpuEngine {
     /* Put a value into an 8080 register from memory */
     private void putreg(int reg, int val) {
         if (reg == 6) {
-            memory.write((regs[REG_H] << 8) | regs[REG_L], (short) (val & 0xFF));
+            writeByte((regs[REG_H] << 8) | regs[REG_L], val & 0xFF);
         } else {
             regs[reg] = val & 0xFF;
         }
@@ -257,125 +410,144 @@ public class EmulatorEngine implements CpuEngine {
         }
     }
 
+    private void add(int value) {
+        int X = regs[REG_A];
+        regs[REG_A] += value;
+
+        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
+        auxCarry(X, value);
+
+        regs[REG_A] = regs[REG_A] & 0xFF;
+    }
+
+    private void adc(int value) {
+        if ((flags & FLAG_C) == FLAG_C) {
+            value++;
+        }
+        add(value);
+    }
+
+    private void sub(int value) {
+        int X = regs[REG_A];
+        regs[REG_A] -= value;
+
+        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
+        auxCarry(X, (-value) & 0xFF);
+
+        regs[REG_A] = regs[REG_A] & 0xFF;
+    }
+
+    private void sbb(int value) {
+        if ((flags & FLAG_C) != 0) {
+            value++;
+        }
+        sub(value);
+    }
+
+    private void ana(int value) {
+        regs[REG_A] &= value;
+        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
+    }
+
+    private void xra(int value) {
+        regs[REG_A] ^= value;
+        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
+    }
+
+    private void ora(int value) {
+        regs[REG_A] |= value;
+        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
+    }
+
+    private void cmp(int value) {
+        int X = regs[REG_A];
+        int DAR = X & 0xFF;
+        DAR -= value;
+
+        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[DAR & 0x1FF];
+        auxCarry(X, (-value) & 0xFF);
+    }
+
+    private void alu(int operation, int value) {
+        switch (operation) {
+            case BlockDecoder.ALU_ADD:
+                add(value);
+                break;
+            case BlockDecoder.ALU_ADC:
+                adc(value);
+                break;
+            case BlockDecoder.ALU_SUB:
+                sub(value);
+                break;
+            case BlockDecoder.ALU_SBB:
+                sbb(value);
+                break;
+            case BlockDecoder.ALU_ANA:
+                ana(value);
+                break;
+            case BlockDecoder.ALU_XRA:
+                xra(value);
+                break;
+            case BlockDecoder.ALU_ORA:
+                ora(value);
+                break;
+            default:
+                cmp(value);
+        }
+    }
+
+    private int readByte(int address) {
+        if (fastMemory != null) {
+            return fastMemory.readByte(address);
+        }
+        return memory.read(address);
+    }
+
+    private void writeByte(int address, int value) {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null) {
+            tmpJournal.recordWrite(address, readByte(address));
+        }
+        if (fastMemory != null) {
+            fastMemory.writeByte(address, value);
+        } else {
+            memory.write(address, (short) value);
+        }
+        invalidateBlocks(address);
+    }
+
     private int readWord(int address) {
+        if (fastMemory != null) {
+            return fastMemory.readWord16(address);
+        }
         Short[] read = memory.readWord(address);
         return (read[1] << 8) | read[0];
     }
 
     private void writeWord(int address, int value) {
-        memory.writeWord(address, new Short[]{(short) (value & 0xFF), (short) ((value >>> 8) & 0xFF)});
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null) {
+            tmpJournal.recordWrite(address, readByte(address));
+            tmpJournal.recordWrite((address + 1) & 0xFFFF, readByte((address + 1) & 0xFFFF));
+        }
+        if (fastMemory != null) {
+            fastMemory.writeWord16(address, value);
+        } else {
+            memory.writeWord(address, new Short[]{(short) (value & 0xFF), (short) ((value >>> 8) & 0xFF)});
+        }
+        invalidateBlocks(address);
+        invalidateBlocks((address + 1) & 0xFFFF);
     }
 
-    private static final Method[] DISPATCH_TABLE = new Method[256];
-
-    static {
-        try {
-            DISPATCH_TABLE[0] = EmulatorEngine.class.getDeclaredMethod("O0_NOP", short.class);
-            DISPATCH_TABLE[6] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[7] = EmulatorEngine.class.getDeclaredMethod("O7_RLC", short.class);
-            DISPATCH_TABLE[14] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[15] = EmulatorEngine.class.getDeclaredMethod("O15_RRC", short.class);
-            DISPATCH_TABLE[22] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[23] = EmulatorEngine.class.getDeclaredMethod("O23_RAL", short.class);
-            DISPATCH_TABLE[30] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[31] = EmulatorEngine.class.getDeclaredMethod("O31_RAR", short.class);
-            DISPATCH_TABLE[34] = EmulatorEngine.class.getDeclaredMethod("O34_SHLD", short.class);
-            DISPATCH_TABLE[38] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[39] = EmulatorEngine.class.getDeclaredMethod("O39_DAA", short.class);
-            DISPATCH_TABLE[42] = EmulatorEngine.class.getDeclaredMethod("O42_LHLD", short.class);
-            DISPATCH_TABLE[46] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[47] = EmulatorEngine.class.getDeclaredMethod("O47_CMA", short.class);
-            DISPATCH_TABLE[50] = EmulatorEngine.class.getDeclaredMethod("O50_STA", short.class);
-            DISPATCH_TABLE[54] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[55] = EmulatorEngine.class.getDeclaredMethod("O55_STC", short.class);
-            DISPATCH_TABLE[58] = EmulatorEngine.class.getDeclaredMethod("O58_LDA", short.class);
-            DISPATCH_TABLE[62] = EmulatorEngine.class.getDeclaredMethod("MC7_O6_MVI", short.class);
-            DISPATCH_TABLE[63] = EmulatorEngine.class.getDeclaredMethod("O63_CMC", short.class);
-            DISPATCH_TABLE[64] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[65] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[66] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[67] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[68] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[69] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[70] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[71] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[72] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[73] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[74] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[75] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[76] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[77] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[78] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[79] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[80] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[81] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[82] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[83] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[84] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[85] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[86] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[87] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[88] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[89] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[90] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[91] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[92] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[93] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[94] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[95] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[96] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[97] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[98] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[99] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[100] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[101] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[102] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[103] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[104] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[105] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[106] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[107] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[108] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[109] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[110] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[111] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[112] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[113] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[114] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[115] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[116] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[117] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[118] = EmulatorEngine.class.getDeclaredMethod("O118_HLT", short.class);
-            DISPATCH_TABLE[119] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[120] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[121] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[122] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[123] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[124] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[125] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[126] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[127] = EmulatorEngine.class.getDeclaredMethod("MC0_O40_MOV", short.class);
-            DISPATCH_TABLE[195] = EmulatorEngine.class.getDeclaredMethod("O195_JMP", short.class);
-            DISPATCH_TABLE[198] = EmulatorEngine.class.getDeclaredMethod("O198_ADI", short.class);
-            DISPATCH_TABLE[201] = EmulatorEngine.class.getDeclaredMethod("O201_RET", short.class);
-            DISPATCH_TABLE[205] = EmulatorEngine.class.getDeclaredMethod("O205_CALL", short.class);
-            DISPATCH_TABLE[206] = EmulatorEngine.class.getDeclaredMethod("O206_ACI", short.class);
-            DISPATCH_TABLE[211] = EmulatorEngine.class.getDeclaredMethod("O211_OUT", short.class);
-            DISPATCH_TABLE[214] = EmulatorEngine.class.getDeclaredMethod("O214_SUI", short.class);
-            DISPATCH_TABLE[219] = EmulatorEngine.class.getDeclaredMethod("O219_IN", short.class);
-            DISPATCH_TABLE[222] = EmulatorEngine.class.getDeclaredMethod("O222_SBI", short.class);
-            DISPATCH_TABLE[227] = EmulatorEngine.class.getDeclaredMethod("O227_XTHL", short.class);
-            DISPATCH_TABLE[230] = EmulatorEngine.class.getDeclaredMethod("O230_ANI", short.class);
-            DISPATCH_TABLE[233] = EmulatorEngine.class.getDeclaredMethod("O233_PCHL", short.class);
-            DISPATCH_TABLE[235] = EmulatorEngine.class.getDeclaredMethod("O235_XCHG", short.class);
-            DISPATCH_TABLE[238] = EmulatorEngine.class.getDeclaredMethod("O238_XRI", short.class);
-            DISPATCH_TABLE[243] = EmulatorEngine.class.getDeclaredMethod("O243_DI", short.class);
-            DISPATCH_TABLE[246] = EmulatorEngine.class.getDeclaredMethod("O246_ORI", short.class);
-            DISPATCH_TABLE[249] = EmulatorEngine.class.getDeclaredMethod("O249_SPHL", short.class);
-            DISPATCH_TABLE[251] = EmulatorEngine.class.getDeclaredMethod("O251_EI", short.class);
-            DISPATCH_TABLE[254] = EmulatorEngine.class.getDeclaredMethod("O254_CPI", short.class);
-        } catch (NoSuchMethodException e) {
-            LOGGER.error("Could not set up dispatch table. The emulator won't work correctly", e);
+    /**
+     * Drop cached blocks overlapping a written address right away, without waiting for the memory notification.
+     *
+     * @param address written address
+     */
+    private void invalidateBlocks(int address) {
+        BlockCache tmpCache = blockCache;
+        if (tmpCache != null) {
+            tmpCache.memoryChanged(address);
         }
     }
 
@@ -428,7 +600,7 @@ public class EmulatorEngine implements CpuEngine {
     private int O34_SHLD(short OP) {
         int DAR = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
-        memory.writeWord(DAR, new Short[]{(short) regs[REG_L], (short) regs[REG_H]});
+        writeWord(DAR, (regs[REG_H] << 8) | regs[REG_L]);
         return 16;
     }
 
@@ -463,8 +635,8 @@ public class EmulatorEngine implements CpuEngine {
     private int O42_LHLD(short OP) {
         int DAR = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
-        regs[REG_L] = memory.read(DAR);
-        regs[REG_H] = memory.read(DAR + 1);
+        regs[REG_L] = readByte(DAR);
+        regs[REG_H] = readByte(DAR + 1);
         return 16;
     }
 
@@ -477,7 +649,7 @@ public class EmulatorEngine implements CpuEngine {
     private int O50_STA(short OP) {
         int DAR = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
-        memory.write(DAR, (short) regs[REG_A]);
+        writeByte(DAR, regs[REG_A]);
         return 13;
     }
 
@@ -489,7 +661,7 @@ public class EmulatorEngine implements CpuEngine {
     private int O58_LDA(short OP) {
         int DAR = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
-        regs[REG_A] = memory.read(DAR);
+        regs[REG_A] = readByte(DAR);
         return 13;
     }
 
@@ -513,15 +685,8 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O198_ADI(short OP) {
-        int DAR = regs[REG_A];
-        int diff = memory.read(PC);
+        add(readByte(PC));
         PC = (PC + 1) & 0xFFFF;
-        regs[REG_A] += diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(DAR, diff);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
         return 7;
     }
 
@@ -539,61 +704,49 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O206_ACI(short OP) {
-        int X = regs[REG_A];
-        int diff = memory.read(PC);
+        adc(readByte(PC));
         PC = (PC + 1) & 0xFFFF;
-        if ((flags & FLAG_C) == FLAG_C) {
-            diff++;
-        }
-        regs[REG_A] += diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(X, diff);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
         return 7;
     }
 
     private int O211_OUT(short OP) throws IOException {
-        int DAR = memory.read(PC);
+        int DAR = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
-        context.fireIO(DAR, false, (short) regs[REG_A]);
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null || !tmpJournal.isReplaying()) {
+            context.fireIO(DAR, false, (short) regs[REG_A]);
+        }
         return 10;
     }
 
     private int O214_SUI(short OP) {
-        int DAR = regs[REG_A];
-        int diff = memory.read(PC);
+        sub(readByte(PC));
         PC = (PC + 1) & 0xFFFF;
-        regs[REG_A] -= diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(DAR, (-diff) & 0xFF);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
         return 7;
     }
 
     private int O219_IN(short OP) throws IOException {
-        int DAR = memory.read(PC);
+        int DAR = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
-        regs[REG_A] = context.fireIO(DAR, true, (short) 0);
+        regs[REG_A] = readPort(DAR);
         return 10;
     }
 
-    private int O222_SBI(short OP) {
-        int DAR = regs[REG_A];
-        int diff = memory.read(PC);
-        PC = (PC + 1) & 0xFFFF;
-        if ((flags & FLAG_C) != 0) {
-            diff++;
+    private short readPort(int port) throws IOException {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null) {
+            return context.fireIO(port, true, (short) 0);
+        } else if (tmpJournal.isReplaying()) {
+            return tmpJournal.replayInput();
         }
-        regs[REG_A] -= diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(DAR, (-diff) & 0xFF);
+        short value = context.fireIO(port, true, (short) 0);
+        tmpJournal.recordInput(value);
+        return value;
+    }
 
-        regs[REG_A] = regs[REG_A] & 0xFF;
+    private int O222_SBI(short OP) {
+        sbb(readByte(PC));
+        PC = (PC + 1) & 0xFFFF;
         return 7;
     }
 
@@ -606,9 +759,8 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O230_ANI(short OP) {
-        regs[REG_A] &= (memory.read(PC) & 0xFF);
+        ana(readByte(PC) & 0xFF);
         PC = (PC + 1) & 0xFFFF;
-        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
         return 7;
     }
 
@@ -628,9 +780,8 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O238_XRI(short OP) {
-        regs[REG_A] ^= (memory.read(PC) & 0xFF);
+        xra(readByte(PC) & 0xFF);
         PC = (PC + 1) & 0xFFFF;
-        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
         return 7;
     }
 
@@ -640,9 +791,8 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O246_ORI(short OP) {
-        regs[REG_A] |= (memory.read(PC) & 0xFF);
+        ora(readByte(PC) & 0xFF);
         PC = (PC + 1) & 0xFFFF;
-        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
         return 7;
     }
 
@@ -657,15 +807,8 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O254_CPI(short OP) {
-        int X = regs[REG_A];
-        int DAR = regs[REG_A] & 0xFF;
-        int diff = memory.read(PC);
+        cmp(readByte(PC));
         PC = (PC + 1) & 0xFFFF;
-        DAR -= diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[DAR & 0x1FF];
-        auxCarry(X, (-diff) & 0xFF);
-
         return 7;
     }
 
@@ -679,7 +822,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int MC7_O6_MVI(short OP) {
-        putreg((OP >>> 3) & 0x07, memory.read(PC));
+        putreg((OP >>> 3) & 0x07, readByte(PC));
         PC = (PC + 1) & 0xFFFF;
         if (((OP >>> 3) & 0x07) == 6) {
             return 10;
@@ -695,24 +838,17 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int MEF_0A_LDAX(short OP) {
-        putreg(7, memory.read(getpair((OP >>> 4) & 0x03)));
+        putreg(7, readByte(getpair((OP >>> 4) & 0x03)));
         return 7;
     }
 
     private int MEF_02_STAX(short OP) {
-        memory.write(getpair((OP >>> 4) & 0x03), (short) getreg(7));
+        writeByte(getpair((OP >>> 4) & 0x03), getreg(7));
         return 7;
     }
 
     private int MF8_B8_CMP(short OP) {
-        int X = regs[REG_A];
-        int DAR = X & 0xFF;
-        int diff = getreg(OP & 0x07);
-        DAR -= diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[DAR & 0x1FF];
-        auxCarry(X, (-diff) & 0xFF);
-
+        cmp(getreg(OP & 0x07));
         return ((OP & 0x07) == 6) ? 7 : 4;
     }
 
@@ -771,56 +907,22 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int MF8_80_ADD(short OP) {
-        int X = regs[REG_A];
-        int diff = getreg(OP & 0x07);
-        regs[REG_A] += diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(X, diff);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
+        add(getreg(OP & 0x07));
         return ((OP & 0x07) == 6) ? 7 : 4;
     }
 
     private int MF8_88_ADC(short OP) {
-        int X = regs[REG_A];
-        int diff = getreg(OP & 0x07);
-        if ((flags & FLAG_C) == FLAG_C) {
-            diff++;
-        }
-        regs[REG_A] += diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(X, diff);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
+        adc(getreg(OP & 0x07));
         return ((OP & 0x07) == 6) ? 7 : 4;
     }
 
     private int MF8_90_SUB(short OP) {
-        int X = regs[REG_A];
-        int diff = getreg(OP & 0x07);
-        regs[REG_A] -= diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(X, (-diff) & 0xFF);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
+        sub(getreg(OP & 0x07));
         return ((OP & 0x07) == 6) ? 7 : 4;
     }
 
     private int MF8_98_SBB(short OP) {
-        int X = regs[REG_A];
-        int diff = getreg(OP & 0x07);
-        if ((flags & FLAG_C) != 0) {
-            diff++;
-        }
-        regs[REG_A] -= diff;
-
-        flags = EmulatorTables.SIGN_ZERO_PARITY_CARRY_TABLE[regs[REG_A] & 0x1FF];
-        auxCarry(X, (-diff) & 0xFF);
-
-        regs[REG_A] = regs[REG_A] & 0xFF;
+        sbb(getreg(OP & 0x07));
         return ((OP & 0x07) == 6) ? 7 : 4;
     }
 
@@ -864,30 +966,119 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int MF8_A0_ANA(short OP) {
-        regs[REG_A] &= getreg(OP & 0x07);
-        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
+        ana(getreg(OP & 0x07));
         return 4;
     }
 
     private int MF8_A8_XRA(short OP) {
-        regs[REG_A] ^= getreg(OP & 0x07);
-        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
+        xra(getreg(OP & 0x07));
         return 4;
     }
 
     private int MF8_B0_ORA(short OP) {
-        regs[REG_A] |= getreg(OP & 0x07);
-        flags = EmulatorTables.SIGN_ZERO_PARITY_TABLE[regs[REG_A]];
+        ora(getreg(OP & 0x07));
         return 4;
     }
 
-    private int dispatch() throws InvocationTargetException, IllegalAccessException {
-        short OP;
+    private int dispatch() throws IOException {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null && tmpJournal.beginInstruction()) {
+            saveCheckpoint(tmpJournal);
+        }
 
         DispatchListener tmpListener = dispatchListener;
-        if (tmpListener != null) {
-            tmpListener.beforeDispatch();
+        if (tmpListener == null) {
+            return fetchAndExecute();
+        }
+
+        tmpListener.beforeDispatch();
+        int cycles = 0;
+        try {
+            cycles = fetchAndExecute();
+            return cycles;
+        } finally {
+            tmpListener.afterDispatch(cycles);
+        }
+    }
+
+    private void saveCheckpoint(UndoJournal journal) {
+        long registers = 0;
+        for (int i = 0; i < regs.length; i++) {
+            registers |= ((long) regs[i]) << (i * 8);
+        }
+        journal.putState(0, registers);
+        journal.putState(1, PC | ((long) SP << 16) | ((long) (flags & 0xFF) << 32)
+            | (INTE ? (1L << 40) : 0) | (isINT ? (1L << 41) : 0));
+    }
+
+    private void loadCheckpoint(UndoJournal journal) {
+        long registers = journal.getState(0);
+        for (int i = 0; i < regs.length; i++) {
+            regs[i] = (int) (registers >>> (i * 8)) & 0xFF;
+        }
+        long special = journal.getState(1);
+        PC = (int) special & 0xFFFF;
+        SP = (int) (special >>> 16) & 0xFFFF;
+        flags = (short) ((special >>> 32) & 0xFF);
+        INTE = (special & (1L << 40)) != 0;
+        isINT = (special & (1L << 41)) != 0;
+    }
+
+    /**
+     * Return to the state before given instruction, by replaying instructions from the nearest older checkpoint.
+     *
+     * @param journal     step-back history
+     * @param instruction number of the instruction; it must be possible to return to it
+     * @param breakpoints breakpoints, or null
+     * @return number of the last instruction (replayed or the given one) which starts at a breakpoint, or -1
+     */
+    private long replayTo(UndoJournal journal, long instruction, BreakpointBitmap breakpoints) {
+        int count = journal.startReplay(instruction, memoryRestorer);
+        loadCheckpoint(journal);
+
+        long hit = -1;
+        try {
+            for (int i = 0; i <= count; i++) {
+                replayInterrupt(journal);
+                if (breakpoints != null && breakpoints.isSet(PC)) {
+                    hit = instruction - count + i;
+                }
+                if (i < count) {
+                    if (journal.beginInstruction()) {
+                        saveCheckpoint(journal);
+                    }
+                    fetchAndExecute();
+                }
+            }
+        } catch (IOException e) {
+            // I/O is not performed while replaying
+            LOGGER.error("Unexpected error while stepping back", e);
+        } finally {
+            journal.endReplay();
         }
+        currentRunState = CPU.RunState.STATE_STOPPED_BREAK;
+        return hit;
+    }
+
+    private void replayInterrupt(UndoJournal journal) {
+        int data = journal.replayInterrupt();
+        isINT = (data >= 0);
+        if (isINT) {
+            b1 = (short) (data & 0xFF);
+            b2 = (short) ((data >>> 8) & 0xFF);
+            b3 = (short) ((data >>> 16) & 0xFF);
+        }
+    }
+
+    private void recordInterrupt() {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null && !tmpJournal.isReplaying()) {
+            tmpJournal.recordInterrupt((b1 & 0xFF) | ((b2 & 0xFF) << 8) | ((b3 & 0xFF) << 16));
+        }
+    }
+
+    private int fetchAndExecute() throws IOException {
+        short OP;
 
         /* if interrupt is waiting, instruction won't be read from memory
          * but from one or all of 3 bytes (b1,b2,b3) which represents either
@@ -896,11 +1087,13 @@ public class EmulatorEngine implements CpuEngine {
         if (isINT) {
             if (INTE) {
                 if ((b1 & 0xC7) == 0xC7) {                      /* RST */
+                    recordInterrupt();
                     SP = (SP - 2) & 0xFFFF;
                     writeWord(SP, PC);
                     PC = b1 & 0x38;
                     return 11;
                 } else if (b1 == 0315) {                        /* CALL */
+                    recordInterrupt();
                     SP = (SP - 2) & 0xFFFF;
                     writeWord(SP, (PC + 2) & 0xFFFF);
                     PC = ((b3 & 0xFF) << 8) | (b2 & 0xFF);
@@ -912,7 +1105,7 @@ public class EmulatorEngine implements CpuEngine {
 
         OP = 0;
         try {
-            OP = memory.read(PC);
+            OP = (short) readByte(PC);
         } catch (NullPointerException e) {
             LOGGER.error("NPE; PC=" + Integer.toHexString(PC), e);
             currentRunState = CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
@@ -920,65 +1113,331 @@ public class EmulatorEngine implements CpuEngine {
         }
         PC = (PC + 1) & 0xFFFF;
 
-        try {
-        /* Handle below all operations which refer to registers or register pairs.
-         After that, a large switch statement takes care of all other opcodes */
-            if ((OP & 0xCF) == 0x01) {                      /* LXI */
+        return execute(OP);
+    }
+
+    /**
+     * Execute a basic block starting at PC; decode and cache it if it is not cached yet.
+     * <p>
+     * Decoded operations are executed directly, without fetching opcodes and operands from memory. Instructions
+     * without a dedicated operation are executed by their opcode. The block is left early if a breakpoint is reached,
+     * or if the cache was invalidated after a memory write (the block might have modified itself). Instructions which
+     * can stop the CPU or change interrupt state end the block.
+     *
+     * @param cache       block cache
+     * @param breakpoints breakpoints
+     * @return number of cycles the executed instructions took
+     * @throws IOException if an I/O instruction failed
+     */
+    private int executeBlock(BlockCache cache, BreakpointBitmap breakpoints) throws IOException {
+        if (fastMemory != null) {
+            cache.setBank(fastMemory.getSelectedBank());
+        }
+
+        int generation = cache.getGeneration();
+        BlockCache.BasicBlock block = cache.get(PC);
+        if (block == null) {
+            block = BlockDecoder.decode(PC, memory.getSize(), this::readByte);
+            if (block == null) {
+                return dispatch();
+            }
+            cache.put(PC, block, generation);
+        }
+
+        int[] operations = block.operations;
+        int[] addresses = block.addresses;
+        int cycles = 0;
+        for (int i = 0; i < operations.length; i++) {
+            int operation = operations[i];
+            int argument = (operation >>> 8) & 0xFF;
+            int immediate = operation >>> 16;
+            boolean written = false;
+
+            PC = addresses[i + 1] & 0xFFFF;
+            switch (operation & 0xFF) {
+                case BlockDecoder.OP_NOP:
+                    cycles += 4;
+                    break;
+                case BlockDecoder.OP_MOV_RR:
+                    regs[argument & 0x07] = regs[argument >>> 3];
+                    cycles += 5;
+                    break;
+                case BlockDecoder.OP_MOV_RM:
+                    regs[argument] = readByte((regs[REG_H] << 8) | regs[REG_L]);
+                    cycles += 7;
+                    break;
+                case BlockDecoder.OP_MOV_MR:
+                    writeByte((regs[REG_H] << 8) | regs[REG_L], regs[argument]);
+                    written = true;
+                    cycles += 7;
+                    break;
+                case BlockDecoder.OP_MVI:
+                    regs[argument] = immediate;
+                    cycles += 7;
+                    break;
+                case BlockDecoder.OP_LXI:
+                    putpair(argument, immediate);
+                    cycles += 10;
+                    break;
+                case BlockDecoder.OP_ALU_R:
+                    alu(argument & 0x07, regs[argument >>> 3]);
+                    cycles += 4;
+                    break;
+                case BlockDecoder.OP_ALU_M:
+                    alu(argument, readByte((regs[REG_H] << 8) | regs[REG_L]));
+                    // logical operations with memory take 4 cycles, as when executed by opcode
+                    cycles += (argument >= BlockDecoder.ALU_ANA && argument <= BlockDecoder.ALU_ORA) ? 4 : 7;
+                    break;
+                case BlockDecoder.OP_ALU_I:
+                    alu(argument, immediate);
+                    cycles += 7;
+                    break;
+                case BlockDecoder.OP_INR:
+                    regs[argument] = (regs[argument] + 1) & 0xFF;
+                    flags = (short) (EmulatorTables.INC_TABLE[regs[argument]] | (flags & FLAG_C));
+                    cycles += 5;
+                    break;
+                case BlockDecoder.OP_DCR:
+                    regs[argument] = (regs[argument] - 1) & 0xFF;
+                    flags = (short) (EmulatorTables.DEC_TABLE[regs[argument]] | (flags & FLAG_C));
+                    cycles += 5;
+                    break;
+                case BlockDecoder.OP_INX:
+                    putpair(argument, (getpair(argument) + 1) & 0xFFFF);
+                    cycles += 5;
+                    break;
+                case BlockDecoder.OP_DCX:
+                    putpair(argument, (getpair(argument) - 1) & 0xFFFF);
+                    cycles += 5;
+                    break;
+                case BlockDecoder.OP_DAD:
+                    int sum = getpair(argument) + getpair(2);
+                    flags = (short) ((flags & ~FLAG_C) | ((sum >>> 16) & FLAG_C));
+                    putpair(2, sum & 0xFFFF);
+                    cycles += 10;
+                    break;
+                case BlockDecoder.OP_LDAX:
+                    regs[REG_A] = readByte(getpair(argument));
+                    cycles += 7;
+                    break;
+                case BlockDecoder.OP_STAX:
+                    writeByte(getpair(argument), regs[REG_A]);
+                    written = true;
+                    cycles += 7;
+                    break;
+                case BlockDecoder.OP_LDA:
+                    regs[REG_A] = readByte(immediate);
+                    cycles += 13;
+                    break;
+                case BlockDecoder.OP_STA:
+                    writeByte(immediate, regs[REG_A]);
+                    written = true;
+                    cycles += 13;
+                    break;
+                case BlockDecoder.OP_PUSH:
+                    SP = (SP - 2) & 0xFFFF;
+                    writeWord(SP, getpush(argument));
+                    written = true;
+                    cycles += 11;
+                    break;
+                case BlockDecoder.OP_POP:
+                    putpush(argument, readWord(SP));
+                    SP = (SP + 2) & 0xFFFF;
+                    cycles += 10;
+                    break;
+                case BlockDecoder.OP_XCHG:
+                    int h = regs[REG_H];
+                    int l = regs[REG_L];
+                    regs[REG_H] = regs[REG_D];
+                    regs[REG_L] = regs[REG_E];
+                    regs[REG_D] = h;
+                    regs[REG_E] = l;
+                    cycles += 4;
+                    break;
+                case BlockDecoder.OP_JMP:
+                    PC = immediate;
+                    cycles += 10;
+                    break;
+                case BlockDecoder.OP_JCC:
+                    if ((flags & CONDITION[argument]) == CONDITION_VALUES[argument]) {
+                        PC = immediate;
+                    }
+                    cycles += 10;
+                    break;
+                case BlockDecoder.OP_CALL:
+                    SP = (SP - 2) & 0xFFFF;
+                    writeWord(SP, PC);
+                    PC = immediate;
+                    cycles += 17;
+                    break;
+                case BlockDecoder.OP_CCC:
+                    if ((flags & CONDITION[argument]) == CONDITION_VALUES[argument]) {
+                        SP = (SP - 2) & 0xFFFF;
+                        writeWord(SP, PC);
+                        PC = immediate;
+                        cycles += 17;
+                    } else {
+                        cycles += 11;
+                    }
+                    break;
+                case BlockDecoder.OP_RET:
+                    PC = readWord(SP);
+                    SP = (SP + 2) & 0xFFFF;
+                    cycles += 10;
+                    break;
+                case BlockDecoder.OP_RCC:
+                    if ((flags & CONDITION[argument]) == CONDITION_VALUES[argument]) {
+                        PC = readWord(SP);
+                        SP = (SP + 2) & 0xFFFF;
+                    }
+                    cycles += 10;
+                    break;
+                default:
+                    PC = (addresses[i] + 1) & 0xFFFF;
+                    cycles += execute((short) argument);
+                    written = true;
+            }
+            if (breakpoints.isSet(PC) || (written && cache.getGeneration() != generation)) {
+                break;
+            }
+        }
+        return cycles;
+    }
+
+    /**
+     * Execute an instruction. PC must point right after the opcode.
+     *
+     * @param OP opcode
+     * @return number of cycles the instruction took
+     * @throws IOException if an I/O instruction failed
+     */
+    private int execute(short OP) throws IOException {
+        /* Every opcode is resolved by a single switch, so the JIT sees direct calls into the handlers */
+        switch (OP) {
+            case 0x00:
+                return O0_NOP(OP);
+            case 0x01: case 0x11: case 0x21: case 0x31:
                 return MCF_01_LXI(OP);
-            } else if ((OP & 0xEF) == 0x0A) {                      /* LDAX */
-                return MEF_0A_LDAX(OP);
-            } else if ((OP & 0xEF) == 0x02) {                      /* STAX */
+            case 0x02: case 0x12:
                 return MEF_02_STAX(OP);
-            } else if ((OP & 0xF8) == 0xB8) {                      /* CMP */
-                return MF8_B8_CMP(OP);
-            } else if ((OP & 0xC7) == 0xC2) {                      /* JMP <condition> */
-                return MC7_C2_JMP(OP);
-            } else if ((OP & 0xC7) == 0xC4) {                      /* CALL <condition> */
-                return MC7_C4_CALL(OP);
-            } else if ((OP & 0xC7) == 0xC0) {                      /* RET <condition> */
-                return MC7_C0_RET(OP);
-            } else if ((OP & 0xC7) == 0xC7) {                      /* RST */
-                return MC7_C7_RST(OP);
-            } else if ((OP & 0xCF) == 0xC5) {                      /* PUSH */
-                return MCF_C5_PUSH(OP);
-            } else if ((OP & 0xCF) == 0xC1) {                      /*POP */
-                return MCF_C1_POP(OP);
-            } else if ((OP & 0xF8) == 0x80) {                      /* ADD */
+            case 0x03: case 0x13: case 0x23: case 0x33:
+                return MCF_03_INX(OP);
+            case 0x04: case 0x0C: case 0x14: case 0x1C: case 0x24: case 0x2C: case 0x34: case 0x3C:
+                return MC7_04_INR(OP);
+            case 0x05: case 0x0D: case 0x15: case 0x1D: case 0x25: case 0x2D: case 0x35: case 0x3D:
+                return MC7_05_DCR(OP);
+            case 0x06: case 0x0E: case 0x16: case 0x1E: case 0x26: case 0x2E: case 0x36: case 0x3E:
+                return MC7_O6_MVI(OP);
+            case 0x07:
+                return O7_RLC(OP);
+            case 0x09: case 0x19: case 0x29: case 0x39:
+                return MCF_09_DAD(OP);
+            case 0x0A: case 0x1A:
+                return MEF_0A_LDAX(OP);
+            case 0x0B: case 0x1B: case 0x2B: case 0x3B:
+                return MCF_0B_DCX(OP);
+            case 0x0F:
+                return O15_RRC(OP);
+            case 0x17:
+                return O23_RAL(OP);
+            case 0x1F:
+                return O31_RAR(OP);
+            case 0x22:
+                return O34_SHLD(OP);
+            case 0x27:
+                return O39_DAA(OP);
+            case 0x2A:
+                return O42_LHLD(OP);
+            case 0x2F:
+                return O47_CMA(OP);
+            case 0x32:
+                return O50_STA(OP);
+            case 0x37:
+                return O55_STC(OP);
+            case 0x3A:
+                return O58_LDA(OP);
+            case 0x3F:
+                return O63_CMC(OP);
+            case 0x40: case 0x41: case 0x42: case 0x43: case 0x44: case 0x45: case 0x46: case 0x47:
+            case 0x48: case 0x49: case 0x4A: case 0x4B: case 0x4C: case 0x4D: case 0x4E: case 0x4F:
+            case 0x50: case 0x51: case 0x52: case 0x53: case 0x54: case 0x55: case 0x56: case 0x57:
+            case 0x58: case 0x59: case 0x5A: case 0x5B: case 0x5C: case 0x5D: case 0x5E: case 0x5F:
+            case 0x60: case 0x61: case 0x62: case 0x63: case 0x64: case 0x65: case 0x66: case 0x67:
+            case 0x68: case 0x69: case 0x6A: case 0x6B: case 0x6C: case 0x6D: case 0x6E: case 0x6F:
+            case 0x70: case 0x71: case 0x72: case 0x73: case 0x74: case 0x75: case 0x77: case 0x78:
+            case 0x79: case 0x7A: case 0x7B: case 0x7C: case 0x7D: case 0x7E: case 0x7F:
+                return MC0_O40_MOV(OP);
+            case 0x76:
+                return O118_HLT(OP);
+            case 0x80: case 0x81: case 0x82: case 0x83: case 0x84: case 0x85: case 0x86: case 0x87:
                 return MF8_80_ADD(OP);
-            } else if ((OP & 0xF8) == 0x88) {                      /* ADC */
+            case 0x88: case 0x89: case 0x8A: case 0x8B: case 0x8C: case 0x8D: case 0x8E: case 0x8F:
                 return MF8_88_ADC(OP);
-            } else if ((OP & 0xF8) == 0x90) {                      /* SUB */
+            case 0x90: case 0x91: case 0x92: case 0x93: case 0x94: case 0x95: case 0x96: case 0x97:
                 return MF8_90_SUB(OP);
-            } else if ((OP & 0xF8) == 0x98) {                      /* SBB */
+            case 0x98: case 0x99: case 0x9A: case 0x9B: case 0x9C: case 0x9D: case 0x9E: case 0x9F:
                 return MF8_98_SBB(OP);
-            } else if ((OP & 0xC7) == 0x04) {                      /* INR */
-                return MC7_04_INR(OP);
-            } else if ((OP & 0xC7) == 0x05) {                      /* DCR */
-                return MC7_05_DCR(OP);
-            } else if ((OP & 0xCF) == 0x03) {                      /* INX */
-                return MCF_03_INX(OP);
-            } else if ((OP & 0xCF) == 0x0B) {                      /* DCX */
-                return MCF_0B_DCX(OP);
-            } else if ((OP & 0xCF) == 0x09) {                      /* DAD */
-                return MCF_09_DAD(OP);
-            } else if ((OP & 0xF8) == 0xA0) {                      /* ANA */
+            case 0xA0: case 0xA1: case 0xA2: case 0xA3: case 0xA4: case 0xA5: case 0xA6: case 0xA7:
                 return MF8_A0_ANA(OP);
-            } else if ((OP & 0xF8) == 0xA8) {                      /* XRA */
+            case 0xA8: case 0xA9: case 0xAA: case 0xAB: case 0xAC: case 0xAD: case 0xAE: case 0xAF:
                 return MF8_A8_XRA(OP);
-            } else if ((OP & 0xF8) == 0xB0) {                      /* ORA */
+            case 0xB0: case 0xB1: case 0xB2: case 0xB3: case 0xB4: case 0xB5: case 0xB6: case 0xB7:
                 return MF8_B0_ORA(OP);
-            }
-            /* Dispatch Instruction */
-            Method instr = DISPATCH_TABLE[OP];
-            if (instr == null) {
+            case 0xB8: case 0xB9: case 0xBA: case 0xBB: case 0xBC: case 0xBD: case 0xBE: case 0xBF:
+                return MF8_B8_CMP(OP);
+            case 0xC0: case 0xC8: case 0xD0: case 0xD8: case 0xE0: case 0xE8: case 0xF0: case 0xF8:
+                return MC7_C0_RET(OP);
+            case 0xC1: case 0xD1: case 0xE1: case 0xF1:
+                return MCF_C1_POP(OP);
+            case 0xC2: case 0xCA: case 0xD2: case 0xDA: case 0xE2: case 0xEA: case 0xF2: case 0xFA:
+                return MC7_C2_JMP(OP);
+            case 0xC3:
+                return O195_JMP(OP);
+            case 0xC4: case 0xCC: case 0xD4: case 0xDC: case 0xE4: case 0xEC: case 0xF4: case 0xFC:
+                return MC7_C4_CALL(OP);
+            case 0xC5: case 0xD5: case 0xE5: case 0xF5:
+                return MCF_C5_PUSH(OP);
+            case 0xC6:
+                return O198_ADI(OP);
+            case 0xC7: case 0xCF: case 0xD7: case 0xDF: case 0xE7: case 0xEF: case 0xF7: case 0xFF:
+                return MC7_C7_RST(OP);
+            case 0xC9:
+                return O201_RET(OP);
+            case 0xCD:
+                return O205_CALL(OP);
+            case 0xCE:
+                return O206_ACI(OP);
+            case 0xD3:
+                return O211_OUT(OP);
+            case 0xD6:
+                return O214_SUI(OP);
+            case 0xDB:
+                return O219_IN(OP);
+            case 0xDE:
+                return O222_SBI(OP);
+            case 0xE3:
+                return O227_XTHL(OP);
+            case 0xE6:
+                return O230_ANI(OP);
+            case 0xE9:
+                return O233_PCHL(OP);
+            case 0xEB:
+                return O235_XCHG(OP);
+            case 0xEE:
+                return O238_XRI(OP);
+            case 0xF3:
+                return O243_DI(OP);
+            case 0xF6:
+                return O246_ORI(OP);
+            case 0xF9:
+                return O249_SPHL(OP);
+            case 0xFB:
+                return O251_EI(OP);
+            case 0xFE:
+                return O254_CPI(OP);
+            default:
                 currentRunState = CPU.RunState.STATE_STOPPED_BAD_INSTR;
                 return 0;
-            }
-            return (Integer) instr.invoke(this, OP);
-        } finally {
-            if (tmpListener != null) {
-                tmpListener.afterDispatch();
-            }
         }
     }
 
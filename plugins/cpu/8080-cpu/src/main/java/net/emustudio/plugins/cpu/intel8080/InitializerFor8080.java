@@ -26,25 +26,33 @@ import net.emustudio.emulib.runtime.ContextPool;
 import net.emustudio.emulib.runtime.PluginSettings;
 import net.emustudio.plugins.cpu.intel8080.api.DefaultInitializer;
 import net.emustudio.plugins.cpu.intel8080.api.DispatchListener;
+import net.emustudio.plugins.cpu.intel8080.api.TraceRecorder;
 import net.emustudio.plugins.cpu.intel8080.gui.DecoderImpl;
 import net.emustudio.plugins.cpu.intel8080.gui.DisassemblerImpl;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.Objects;
 
 public class InitializerFor8080 extends DefaultInitializer<EmulatorEngine> {
-    private final ContextImpl context;
+    public static final String BLOCK_CACHE = "blockCache";
 
+    private final ContextImpl context;
+    private final PluginSettings settings;
 
     public InitializerFor8080(Plugin plugin, long pluginId, ContextPool contextPool, PluginSettings settings,
                               ContextImpl context) {
         super(plugin, pluginId, contextPool, settings);
         this.context = Objects.requireNonNull(context);
+        this.settings = Objects.requireNonNull(settings);
     }
 
     @Override
     protected EmulatorEngine createEmulatorEngine(MemoryContext<Short> memory) {
-        return new EmulatorEngine(memory, context);
+        EmulatorEngine engine = new EmulatorEngine(memory, context);
+        engine.setBlockCacheEnabled(settings.getBoolean(BLOCK_CACHE, false));
+        return engine;
     }
 
     @Override
@@ -57,4 +65,10 @@ public class InitializerFor8080 extends DefaultInitializer<EmulatorEngine> {
     protected Disassembler createDisassembler(MemoryContext<Short> memory) {
         return new DisassemblerImpl(memory, new DecoderImpl(memory));
     }
+
+    @Override
+    protected TraceRecorder createTraceRecorder(EmulatorEngine engine, MemoryContext<Short> memory,
+                                                Path traceFile) throws IOException {
+        return new TraceRecorderFor8080(engine, memory, traceFile);
+    }
 }
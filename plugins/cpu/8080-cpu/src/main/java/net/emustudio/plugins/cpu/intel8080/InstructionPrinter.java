@@ -25,9 +25,8 @@ import net.emustudio.plugins.cpu.intel8080.api.DispatchListener;
 import net.jcip.annotations.ThreadSafe;
 
 import java.io.PrintStream;
-import java.util.List;
+import java.util.BitSet;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @ThreadSafe
@@ -36,7 +35,7 @@ public class InstructionPrinter implements DispatchListener {
     private final EmulatorEngine emulatorEngine;
     private final PrintStream writer;
 
-    private final List<Integer> cache = new CopyOnWriteArrayList<>();
+    private final BitSet cache = new BitSet(0x10000); // addresses of already printed instructions
     private final AtomicInteger numberOfMatch = new AtomicInteger();
     private volatile int matchPC;
     private final boolean useCache;
@@ -61,7 +60,7 @@ public class InstructionPrinter implements DispatchListener {
         try {
             DisassembledInstruction instr = disassembler.disassemble(emulatorEngine.PC);
 
-            if (useCache && !cache.contains(emulatorEngine.PC)) {
+            if (useCache && !cache.get(emulatorEngine.PC)) {
                 if (numberOfMatch.get() != 0) {
                     writer.println(String.format("%04d | Block from %04X to %04X; count=%d",
                         timeStamp, matchPC, emulatorEngine.PC, numberOfMatch.get())
@@ -70,7 +69,7 @@ public class InstructionPrinter implements DispatchListener {
                     matchPC = emulatorEngine.PC;
                 }
                 numberOfMatch.set(0);
-                cache.add(emulatorEngine.PC);
+                cache.set(emulatorEngine.PC);
             } else if (useCache) {
                 numberOfMatch.incrementAndGet();
             }
@@ -87,7 +86,7 @@ public class InstructionPrinter implements DispatchListener {
     }
 
     @Override
-    public void afterDispatch() {
+    public void afterDispatch(int cycles) {
         if (numberOfMatch.get() <= 1) {
             writer.println(String.format("|| regs=%s | flags=%s | SP=%04x | PC=%04x",
                 regsToString(), intToFlags(emulatorEngine.flags), emulatorEngine.SP, emulatorEngine.PC)
@@ -18,8 +18,9 @@
  */
 package net.emustudio.plugins.cpu.intel8080;
 
-public class Breakpoint extends Exception {
+public class Runner {
 
-    public Breakpoint() {
+    public static void main(String[] args) {
+        CommandLine.parse(args).ifPresent(Runnable::run);
     }
 }
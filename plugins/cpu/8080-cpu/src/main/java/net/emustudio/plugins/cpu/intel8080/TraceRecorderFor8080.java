@@ -0,0 +1,67 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.plugins.cpu.intel8080.api.TraceRecorder;
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter;
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter.Register;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import static net.emustudio.plugins.cpu.intel8080.EmulatorEngine.*;
+
+public class TraceRecorderFor8080 extends TraceRecorder {
+    public final static List<Register> REGISTERS = List.of(
+        Register.ofByte("A"), Register.ofByte("F"),
+        Register.ofByte("B"), Register.ofByte("C"),
+        Register.ofByte("D"), Register.ofByte("E"),
+        Register.ofByte("H"), Register.ofByte("L"),
+        Register.ofWord("SP")
+    );
+
+    private final EmulatorEngine engine;
+
+    public TraceRecorderFor8080(EmulatorEngine engine, MemoryContext<Short> memory, Path traceFile) throws IOException {
+        super(memory, new TraceWriter(traceFile, REGISTERS, TraceWriter.DEFAULT_RING_RECORDS), REGISTERS.size());
+        this.engine = Objects.requireNonNull(engine);
+    }
+
+    @Override
+    protected int getPC() {
+        return engine.PC;
+    }
+
+    @Override
+    protected void readRegisters(int[] registers) {
+        int[] regs = engine.regs;
+        registers[0] = regs[REG_A];
+        registers[1] = engine.flags;
+        registers[2] = regs[REG_B];
+        registers[3] = regs[REG_C];
+        registers[4] = regs[REG_D];
+        registers[5] = regs[REG_E];
+        registers[6] = regs[REG_H];
+        registers[7] = regs[REG_L];
+        registers[8] = engine.SP;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.emustudio.emulib.plugins.memory.Memory;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Cache of decoded basic blocks.
+ * <p>
+ * A basic block is a straight-line sequence of instructions. Which instructions end a block is decided by the CPU
+ * which decodes it. Blocks are keyed by the address of their first instruction.
+ * <p>
+ * The cache listens to memory changes; if a memory page with cached code is written (self-modifying code, loading
+ * a program), all blocks which could overlap the page are dropped. The CPU reports its own writes directly, so its
+ * blocks do not depend on when the memory delivers the notifications.
+ */
+@ThreadSafe
+public class BlockCache implements Memory.MemoryListener {
+    public final static int MAX_BLOCK_INSTRUCTIONS = 32;
+
+    private final static int PAGE_SIZE = 256;
+
+    public static class BasicBlock {
+        public final int[] operations;
+        public final int[] addresses;
+
+        /**
+         * Create new basic block.
+         * <p>
+         * Operations are decoded instructions, in a format given by the CPU which decodes them. There is one more
+         * address than operations: the last one is the address following the block.
+         *
+         * @param operations decoded instructions
+         * @param addresses  addresses of the instructions, followed by the address after the last instruction
+         */
+        public BasicBlock(int[] operations, int[] addresses) {
+            if (addresses.length != operations.length + 1) {
+                throw new IllegalArgumentException("Expected " + (operations.length + 1) + " addresses");
+            }
+            this.operations = operations;
+            this.addresses = addresses;
+        }
+    }
+
+    private final int maxBlockBytes;
+    private final BasicBlock[] blocks = new BasicBlock[0x10000];
+    private final AtomicIntegerArray codePages = new AtomicIntegerArray(0x10000 / PAGE_SIZE);
+
+    /**
+     * Incremented whenever blocks are dropped. The CPU uses it for leaving a block which might have just modified
+     * itself, and for not caching a block decoded from memory which was changed in the meantime.
+     */
+    private volatile int generation;
+    private int bank;
+
+    /**
+     * Create new block cache.
+     *
+     * @param maxInstructionLength maximal length of an instruction in bytes
+     */
+    public BlockCache(int maxInstructionLength) {
+        this.maxBlockBytes = MAX_BLOCK_INSTRUCTIONS * maxInstructionLength;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public BasicBlock get(int address) {
+        return blocks[address];
+    }
+
+    /**
+     * Cache a block.
+     *
+     * @param address    address of the first instruction
+     * @param block      decoded block
+     * @param generation generation of the cache obtained before the block was decoded
+     */
+    public synchronized void put(int address, BasicBlock block, int generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        int end = Math.min(blocks.length - 1, block.addresses[block.addresses.length - 1] - 1);
+
+        codePages.set(address / PAGE_SIZE, 1);
+        codePages.set(end / PAGE_SIZE, 1);
+        blocks[address] = block;
+    }
+
+    /**
+     * Drop all blocks if selected memory bank has changed since the blocks were decoded.
+     *
+     * @param bank currently selected memory bank
+     */
+    public void setBank(int bank) {
+        if (bank != this.bank) {
+            clear();
+            this.bank = bank;
+        }
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(blocks, null);
+        for (int i = 0; i < codePages.length(); i++) {
+            codePages.set(i, 0);
+        }
+        generation++;
+    }
+
+    @Override
+    public void memoryChanged(int memoryPosition) {
+        if (memoryPosition < 0 || memoryPosition >= blocks.length) {
+            clear();
+            return;
+        }
+
+        int page = memoryPosition / PAGE_SIZE;
+        if (codePages.get(page) != 0) {
+            synchronized (this) {
+                // blocks starting before the page can reach into it
+                int from = Math.max(0, page * PAGE_SIZE - maxBlockBytes);
+                int to = (page + 1) * PAGE_SIZE;
+                Arrays.fill(blocks, from, to, null);
+                codePages.set(page, 0);
+                generation++;
+            }
+        }
+    }
+
+    @Override
+    public void memorySizeChanged() {
+        clear();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Breakpoints of 16-bit address space, kept as a bitmap.
+ * <p>
+ * CPU keeps this bitmap in sync with breakpoints set in the {@code AbstractCPU}, so the run loop can check
+ * breakpoint after every instruction by testing a single bit, without boxing the address and asking a set.
+ * <p>
+ * Breakpoints are set by the GUI thread while the CPU thread is running, so the bitmap is thread-safe.
+ */
+public class BreakpointBitmap {
+    private static final int ADDRESS_SPACE = 0x10000;
+
+    private final AtomicLongArray bits = new AtomicLongArray(ADDRESS_SPACE / Long.SIZE);
+
+    public void set(int address) {
+        if (address >= 0 && address < ADDRESS_SPACE) {
+            long mask = 1L << address;
+            bits.getAndUpdate(address >>> 6, word -> word | mask);
+        }
+    }
+
+    public void unset(int address) {
+        if (address >= 0 && address < ADDRESS_SPACE) {
+            long mask = ~(1L << address);
+            bits.getAndUpdate(address >>> 6, word -> word & mask);
+        }
+    }
+
+    /**
+     * Determine if a breakpoint is set at given address.
+     *
+     * @param address memory address; must be in range 0-0xFFFF
+     * @return true if breakpoint is set, false otherwise
+     */
+    public boolean isSet(int address) {
+        return (bits.get(address >>> 6) & (1L << address)) != 0;
+    }
+}
@@ -26,4 +26,8 @@ public interface CpuEngine {
 
     void setDispatchListener(DispatchListener dispatchListener);
 
+    void setPacer(Pacer pacer);
+
+    void setStepBackHistory(int instructions);
+
 }
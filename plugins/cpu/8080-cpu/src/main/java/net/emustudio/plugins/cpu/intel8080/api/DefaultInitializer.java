@@ -26,6 +26,8 @@ import net.emustudio.emulib.plugins.memory.MemoryContext;
 import net.emustudio.emulib.runtime.ContextPool;
 import net.emustudio.emulib.runtime.InvalidContextException;
 import net.emustudio.emulib.runtime.PluginSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.*;
 import java.nio.file.Path;
@@ -33,9 +35,15 @@ import java.util.Objects;
 import java.util.Optional;
 
 public abstract class DefaultInitializer<Engine extends CpuEngine> {
+    private final static Logger LOGGER = LoggerFactory.getLogger(DefaultInitializer.class);
+
     public static final String PRINT_CODE = "printCode";
     public static final String PRINT_CODE_USE_CACHE = "printCodeUseCache";
     public static final String PRINT_CODE_FILE_NAME = "printCodeFileName";
+    public static final String TIME_SLICE = "timeSlice";
+    public static final String UNTHROTTLED = "unthrottled";
+    public static final String TRACE_FILE = "traceFile";
+    public static final String STEP_BACK_HISTORY = "stepBackHistory";
 
     private final Plugin plugin;
     private final long pluginId;
@@ -46,6 +54,7 @@ public abstract class DefaultInitializer<Engine extends CpuEngine> {
     private Engine engine;
     private boolean dumpInstructions;
     private PrintStream writer;
+    private TraceRecorder traceRecorder;
 
     public DefaultInitializer(Plugin plugin, long pluginId, ContextPool contextPool, PluginSettings settings) {
         this.plugin = Objects.requireNonNull(plugin);
@@ -68,9 +77,32 @@ public abstract class DefaultInitializer<Engine extends CpuEngine> {
             this.disassembler = createDisassembler(memory);
             this.engine = createEmulatorEngine(memory);
 
+            int timeSlice = settings.getInt(TIME_SLICE, Pacer.DEFAULT_SLICE_MILLIS);
+            if (timeSlice <= 0) {
+                throw new PluginInitializationException(plugin, "Time slice must be > 0 ms, but was: " + timeSlice);
+            }
+            engine.setPacer(new Pacer(timeSlice, !settings.getBoolean(UNTHROTTLED, false)));
+
+            int stepBackHistory = settings.getInt(STEP_BACK_HISTORY, 0);
+            if (stepBackHistory < 0 || stepBackHistory > UndoJournal.MAX_CAPACITY) {
+                throw new PluginInitializationException(
+                    plugin, "Step-back history must be 0 - " + UndoJournal.MAX_CAPACITY + " instructions, but was: "
+                    + stepBackHistory
+                );
+            }
+            engine.setStepBackHistory(stepBackHistory);
+
             boolean settingPrintCode = settings.getBoolean(PRINT_CODE, false);
             boolean printCodeUseCache = settings.getBoolean(PRINT_CODE_USE_CACHE, false);
 
+            String traceFile = settings.getString(TRACE_FILE, null);
+            if (traceFile != null) {
+                // execution trace replaces printing of instructions
+                settingPrintCode = false;
+                traceRecorder = createTraceRecorder(engine, memory, Path.of(traceFile));
+                engine.setDispatchListener(traceRecorder);
+            }
+
             this.dumpInstructions = settingPrintCode;
             if (settingPrintCode) {
                 String dumpFile = settings.getString(PRINT_CODE_FILE_NAME, "syserr");
@@ -79,11 +111,22 @@ public abstract class DefaultInitializer<Engine extends CpuEngine> {
             }
         } catch (FileNotFoundException e) {
             throw new PluginInitializationException(plugin, "Could not find file?", e);
+        } catch (IOException e) {
+            throw new PluginInitializationException(plugin, "Could not create execution trace file", e);
+        } catch (NumberFormatException e) {
+            throw new PluginInitializationException(plugin, "Could not parse time slice", e);
         }
     }
 
     public void destroy() {
         Optional.ofNullable(writer).ifPresent(PrintStream::close);
+        if (traceRecorder != null) {
+            try {
+                traceRecorder.close();
+            } catch (IOException e) {
+                LOGGER.error("Could not close execution trace file", e);
+            }
+        }
     }
 
     public Disassembler getDisassembler() {
@@ -104,4 +147,7 @@ public abstract class DefaultInitializer<Engine extends CpuEngine> {
                                                                  boolean useCache, PrintStream writer);
 
     protected abstract Disassembler createDisassembler(MemoryContext<Short> memory);
+
+    protected abstract TraceRecorder createTraceRecorder(Engine engine, MemoryContext<Short> memory,
+                                                         Path traceFile) throws IOException;
 }
@@ -19,8 +19,16 @@
 
 package net.emustudio.plugins.cpu.intel8080.api;
 
+/**
+ * Listener of instruction dispatching; it is called from the CPU thread before and after every executed instruction.
+ */
 public interface DispatchListener {
     void beforeDispatch();
 
-    void afterDispatch();
+    /**
+     * Called after an instruction was executed.
+     *
+     * @param cycles number of cycles the instruction took; 0 if the instruction failed
+     */
+    void afterDispatch(int cycles);
 }
@@ -30,6 +30,8 @@ public interface ExtendedContext extends CPUContext {
 
     /**
      * Attach a device into the CPU.
+     * <p>
+     * If the device implements also {@link IntPortHandler}, the CPU will use it for IN/OUT instructions.
      *
      * @param device the device
      * @param port   CPU port where the device should be attached
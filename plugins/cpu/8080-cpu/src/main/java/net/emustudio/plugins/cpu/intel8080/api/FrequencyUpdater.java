@@ -26,11 +26,12 @@ import java.util.Objects;
 public class FrequencyUpdater implements Runnable {
 
     private final CpuEngine cpu;
-    private long startTimeSaved = 0;
+    private long startTimeSaved;
     private float frequency;
 
     public FrequencyUpdater(CpuEngine cpu) {
         this.cpu = Objects.requireNonNull(cpu);
+        this.startTimeSaved = System.nanoTime();
     }
 
     @Override
@@ -42,8 +43,9 @@ public class FrequencyUpdater implements Runnable {
             long time = endTime - startTimeSaved;
             long executedCycles = cpu.getAndResetExecutedCycles();
 
-            if (executedCycles > 0) {
-                frequency = (float) (executedCycles / (time / 1000000.0));
+            if (executedCycles > 0 && time > 0) {
+                // cycles per millisecond = kHz
+                frequency = (float) (executedCycles * 1000000.0 / time);
                 startTimeSaved = endTime;
                 frequencyChanged = true;
             }
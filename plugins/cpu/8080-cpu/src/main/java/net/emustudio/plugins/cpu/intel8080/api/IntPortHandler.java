@@ -0,0 +1,47 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import java.io.IOException;
+
+/**
+ * Primitive handler of a CPU I/O port.
+ * <p>
+ * A device context attached to a CPU port (see {@link ExtendedContext#attachDevice}) can implement this interface
+ * in addition to {@code DeviceContext<Short>}. The CPU then performs IN/OUT instructions by calling these methods
+ * instead of {@code readData()}/{@code writeData()}, so no boxing is involved. Both ways must behave the same.
+ */
+public interface IntPortHandler {
+
+    /**
+     * Read data from the port (IN instruction).
+     *
+     * @return data read from the port
+     * @throws IOException if the data could not be read
+     */
+    int readPort() throws IOException;
+
+    /**
+     * Write data to the port (OUT instruction).
+     *
+     * @param data data to be written
+     * @throws IOException if the data could not be written
+     */
+    void writePort(int data) throws IOException;
+}
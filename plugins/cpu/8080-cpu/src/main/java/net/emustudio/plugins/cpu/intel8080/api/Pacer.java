@@ -0,0 +1,106 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.jcip.annotations.NotThreadSafe;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces emulation to the real time.
+ * <p>
+ * Run loop executes instructions in time slices. Each slice gets a budget of CPU cycles corresponding to the slice
+ * duration at current CPU frequency. After the budget is spent, the pacer parks the CPU thread until the slice deadline.
+ * <p>
+ * Deadlines are absolute, so a slice which overslept is compensated in the next one, and cycles executed over the
+ * budget (the last instruction usually overshoots) are subtracted from the next budget. If the emulation falls too
+ * much behind (e.g. the host was busy), the pacer does not try to catch up.
+ * <p>
+ * In unthrottled mode, the pacer never parks - emulation runs as fast as the host allows.
+ * <p>
+ * The pacer is meant to be used from the CPU thread only.
+ */
+@NotThreadSafe
+public class Pacer {
+    public static final int DEFAULT_SLICE_MILLIS = 10;
+    private static final long MAX_LAG_NANOS = 100_000_000L;
+
+    private final long sliceNanos;
+    private final boolean throttled;
+
+    private long deadline;
+    private long overshoot;
+
+    /**
+     * Create new pacer.
+     *
+     * @param sliceMillis time slice duration in milliseconds; must be > 0
+     * @param throttled   if false, the pacer won't slow down the emulation
+     */
+    public Pacer(int sliceMillis, boolean throttled) {
+        if (sliceMillis <= 0) {
+            throw new IllegalArgumentException("Time slice must be > 0 ms");
+        }
+        this.sliceNanos = sliceMillis * 1_000_000L;
+        this.throttled = throttled;
+    }
+
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    /**
+     * Start pacing. Should be called at the beginning of the run loop.
+     */
+    public void start() {
+        deadline = System.nanoTime();
+        overshoot = 0;
+    }
+
+    /**
+     * Get number of cycles the CPU should execute in the next time slice.
+     *
+     * @param frequencyKHz CPU frequency in kHz
+     * @return cycles budget of the time slice; at least 1
+     */
+    public long getSliceCycles(int frequencyKHz) {
+        return Math.max(1, sliceNanos * frequencyKHz / 1_000_000L - overshoot);
+    }
+
+    /**
+     * Finish the time slice and wait until its deadline.
+     *
+     * @param sliceCycles    cycles budget of the slice, as returned by {@link #getSliceCycles(int)}
+     * @param executedCycles cycles actually executed in the slice
+     */
+    public void endSlice(long sliceCycles, long executedCycles) {
+        overshoot = Math.max(0, executedCycles - sliceCycles);
+        if (!throttled) {
+            return;
+        }
+
+        deadline += sliceNanos;
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+        } else if (remaining < -MAX_LAG_NANOS) {
+            deadline = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.emustudio.emulib.plugins.device.DeviceContext;
+import net.jcip.annotations.ThreadSafe;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * I/O port bus of 8-bit port address space.
+ * <p>
+ * Devices are kept in a 256-entry array of port handlers, indexed directly by port number. The array is
+ * copy-on-write: attaching or detaching a device publishes a new array through a single volatile reference, so IN/OUT
+ * instructions are served without locking, hashing or boxing the port number. Devices which implement
+ * {@link IntPortHandler} are called directly; other devices are wrapped in an adapter which boxes the data.
+ */
+@ThreadSafe
+public class PortBus {
+    public final static int PORTS_COUNT = 256;
+
+    private final IntPortHandler unattached;
+    private volatile IntPortHandler[] handlers = new IntPortHandler[PORTS_COUNT];
+
+    /**
+     * Creates new port bus.
+     *
+     * @param unattachedValue value read from a port with no device attached
+     */
+    public PortBus(int unattachedValue) {
+        this.unattached = new UnattachedPort(unattachedValue);
+        Arrays.fill(handlers, unattached);
+    }
+
+    /**
+     * Attach a device to a port.
+     *
+     * @param device the device
+     * @param port   port number (0-255)
+     * @return true on success; false if the port is out of range or another device is already attached to it
+     */
+    public synchronized boolean attach(DeviceContext<Short> device, int port) {
+        Objects.requireNonNull(device);
+        if (port < 0 || port >= PORTS_COUNT || handlers[port] != unattached) {
+            return false;
+        }
+        IntPortHandler[] newHandlers = handlers.clone();
+        newHandlers[port] = (device instanceof IntPortHandler) ? (IntPortHandler) device : new BoxingPort(device);
+        handlers = newHandlers;
+        return true;
+    }
+
+    /**
+     * Detach a device from a port.
+     *
+     * @param port port number
+     * @return true if a device was detached; false if no device was attached to the port
+     */
+    public synchronized boolean detach(int port) {
+        if (port < 0 || port >= PORTS_COUNT || handlers[port] == unattached) {
+            return false;
+        }
+        IntPortHandler[] newHandlers = handlers.clone();
+        newHandlers[port] = unattached;
+        handlers = newHandlers;
+        return true;
+    }
+
+    /**
+     * Detach all devices.
+     */
+    public synchronized void clear() {
+        IntPortHandler[] newHandlers = new IntPortHandler[PORTS_COUNT];
+        Arrays.fill(newHandlers, unattached);
+        handlers = newHandlers;
+    }
+
+    /**
+     * Read data from a port.
+     *
+     * @param port port number (0-255)
+     * @return data read from the attached device, or "unattached value" if no device is attached to the port
+     * @throws IOException if the device could not read the data
+     */
+    public int read(int port) throws IOException {
+        return handlers[port].readPort();
+    }
+
+    /**
+     * Write data to a port. If no device is attached to the port, the data are lost.
+     *
+     * @param port port number (0-255)
+     * @param data data to be written
+     * @throws IOException if the device could not write the data
+     */
+    public void write(int port, int data) throws IOException {
+        handlers[port].writePort(data);
+    }
+
+    private final static class UnattachedPort implements IntPortHandler {
+        private final int value;
+
+        private UnattachedPort(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int readPort() {
+            return value;
+        }
+
+        @Override
+        public void writePort(int data) {
+
+        }
+    }
+
+    private final static class BoxingPort implements IntPortHandler {
+        private final DeviceContext<Short> device;
+
+        private BoxingPort(DeviceContext<Short> device) {
+            this.device = device;
+        }
+
+        @Override
+        public int readPort() throws IOException {
+            return device.readData();
+        }
+
+        @Override
+        public void writePort(int data) throws IOException {
+            device.writeData((short) data);
+        }
+    }
+}
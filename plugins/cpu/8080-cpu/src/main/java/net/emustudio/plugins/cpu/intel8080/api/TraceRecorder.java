@@ -0,0 +1,95 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
+import net.jcip.annotations.NotThreadSafe;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Records every executed instruction into a binary execution trace (see {@link TraceWriter}).
+ * <p>
+ * The state is recorded before the instruction is executed. Cycles are counted from the moment the recorder
+ * was attached to the CPU.
+ */
+@NotThreadSafe
+public abstract class TraceRecorder implements DispatchListener, AutoCloseable {
+    private final MemoryContext<Short> memory;
+    private final StandardMemoryContext fastMemory;
+    private final int memorySize;
+    private final TraceWriter writer;
+    private final int[] registers;
+
+    private long cycles;
+
+    protected TraceRecorder(MemoryContext<Short> memory, TraceWriter writer, int registersCount) {
+        this.memory = Objects.requireNonNull(memory);
+        this.fastMemory = (memory instanceof StandardMemoryContext) ? (StandardMemoryContext) memory : null;
+        this.memorySize = memory.getSize();
+        this.writer = Objects.requireNonNull(writer);
+        this.registers = new int[registersCount];
+    }
+
+    @Override
+    public void beforeDispatch() {
+        int pc = getPC();
+        readRegisters(registers);
+        writer.record(cycles, pc, readMemory(pc), registers);
+    }
+
+    @Override
+    public void afterDispatch(int cycles) {
+        this.cycles += cycles;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Get address of the instruction being dispatched.
+     *
+     * @return instruction address
+     */
+    protected abstract int getPC();
+
+    /**
+     * Read CPU registers, in the order given to the trace writer.
+     *
+     * @param registers array where the register values should be stored
+     */
+    protected abstract void readRegisters(int[] registers);
+
+    private int readMemory(int address) {
+        int result = 0;
+        for (int i = 3; i >= 0; i--) {
+            int location = (address + i) & 0xFFFF;
+            int value = 0;
+            if (location < memorySize) {
+                value = (fastMemory != null) ? fastMemory.readByte(location) : memory.read(location);
+            }
+            result = (result << 8) | (value & 0xFF);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes execution trace into a binary file.
+ * <p>
+ * The trace consists of fixed-width records, one per executed instruction: number of cycles executed before the
+ * instruction, PC, 4 bytes of memory at PC (the opcode and operands) and CPU registers. Which registers are recorded
+ * is decided by the CPU; they are described in the file header.
+ * <p>
+ * The CPU thread puts records into a ring buffer. A background thread drains the ring buffer into the file, which is
+ * memory-mapped in windows as it grows. If the ring buffer is full, the CPU waits until there is a free slot, so
+ * no record is lost.
+ * <p>
+ * File layout (all numbers are little-endian):
+ * <pre>
+ * header:
+ *   8 bytes  magic "EMUTRACE"
+ *   2 bytes  format version
+ *   2 bytes  registers count (N)
+ *   8 bytes  records count (0 if the trace was not closed properly; then it is computed from file size)
+ *   N * 5 bytes register descriptors: 4 bytes ASCII name (padded with zeroes), 1 byte size (1 or 2)
+ * record:
+ *   8 bytes  cycles
+ *   2 bytes  PC
+ *   4 bytes  memory content at PC
+ *   registers, each has its size
+ * </pre>
+ */
+@ThreadSafe
+public class TraceWriter implements AutoCloseable {
+    private final static Logger LOGGER = LoggerFactory.getLogger(TraceWriter.class);
+
+    public final static byte[] MAGIC = "EMUTRACE".getBytes(StandardCharsets.US_ASCII);
+    public final static int VERSION = 1;
+    public final static ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    public final static int RECORDS_COUNT_OFFSET = 12;
+    public final static int HEADER_FIXED_SIZE = 20;
+    public final static int REGISTER_NAME_LENGTH = 4;
+    public final static int REGISTER_DESCRIPTOR_SIZE = REGISTER_NAME_LENGTH + 1;
+    public final static int RECORD_FIXED_SIZE = 14;
+    public final static int DEFAULT_RING_RECORDS = 1 << 16;
+
+    private final static long WINDOW_BYTES = 64L << 20;
+    private final static long PRODUCER_PARK_NANOS = 10_000L;
+    private final static long DRAIN_PARK_NANOS = 100_000L;
+
+    /**
+     * Recorded CPU register.
+     */
+    public static final class Register {
+        public final String name;
+        public final int size;
+
+        private Register(String name, int size) {
+            if (name.isEmpty() || name.length() > REGISTER_NAME_LENGTH) {
+                throw new IllegalArgumentException("Register name must have 1-" + REGISTER_NAME_LENGTH + " characters");
+            }
+            this.name = name;
+            this.size = size;
+        }
+
+        public static Register ofByte(String name) {
+            return new Register(name, 1);
+        }
+
+        public static Register ofWord(String name) {
+            return new Register(name, 2);
+        }
+    }
+
+    private final FileChannel channel;
+    private final int[] registerSizes;
+    private final int headerSize;
+    private final int recordSize;
+    private final long windowSize;
+
+    private final ByteBuffer ring;
+    private final int ringMask;
+    private final AtomicLong head = new AtomicLong(); // records put by the CPU
+    private final AtomicLong tail = new AtomicLong(); // records written to the file
+    private long cachedTail; // CPU thread only
+
+    private final Thread drainThread;
+    private volatile boolean closed;
+    private volatile boolean failed;
+
+    /**
+     * Creates new trace file (or overwrites existing one) and starts the draining thread.
+     *
+     * @param file        trace file
+     * @param registers   recorded registers, in order
+     * @param ringRecords capacity of the ring buffer in records; must be a power of 2
+     * @throws IOException if the file could not be created
+     */
+    public TraceWriter(Path file, List<Register> registers, int ringRecords) throws IOException {
+        if (ringRecords <= 0 || Integer.bitCount(ringRecords) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of 2");
+        }
+        this.registerSizes = registers.stream().mapToInt(r -> r.size).toArray();
+        this.headerSize = HEADER_FIXED_SIZE + registers.size() * REGISTER_DESCRIPTOR_SIZE;
+        this.recordSize = RECORD_FIXED_SIZE + registers.stream().mapToInt(r -> r.size).sum();
+        this.windowSize = (WINDOW_BYTES / recordSize) * recordSize;
+        this.ring = ByteBuffer.allocateDirect(ringRecords * recordSize).order(BYTE_ORDER);
+        this.ringMask = ringRecords - 1;
+
+        this.channel = FileChannel.open(
+            Objects.requireNonNull(file), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE
+        );
+        try {
+            writeHeader(registers);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        this.drainThread = new Thread(this::drain, "Trace writer: " + file.getFileName());
+        drainThread.setDaemon(true);
+        drainThread.start();
+    }
+
+    public int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Puts a record into the trace. Must be called from one thread only (the CPU thread).
+     *
+     * @param cycles    number of cycles executed before the instruction
+     * @param pc        instruction address
+     * @param memory    4 bytes of memory at PC; byte at PC is the lowest one
+     * @param registers register values, in the same order as registers passed in the constructor
+     */
+    public void record(long cycles, int pc, int memory, int[] registers) {
+        if (closed) {
+            return;
+        }
+        long position = head.get();
+        if (position - cachedTail > ringMask) {
+            cachedTail = tail.get();
+            while (position - cachedTail > ringMask) {
+                if (closed || failed) {
+                    return;
+                }
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+                cachedTail = tail.get();
+            }
+        }
+
+        int offset = (int) (position & ringMask) * recordSize;
+        ring.putLong(offset, cycles);
+        ring.putShort(offset + 8, (short) pc);
+        ring.putInt(offset + 10, memory);
+        offset += RECORD_FIXED_SIZE;
+        for (int i = 0; i < registerSizes.length; i++) {
+            if (registerSizes[i] == 1) {
+                ring.put(offset, (byte) registers[i]);
+            } else {
+                ring.putShort(offset, (short) registers[i]);
+            }
+            offset += registerSizes[i];
+        }
+        head.lazySet(position + 1);
+    }
+
+    /**
+     * Writes all pending records to the file and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            drainThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            long recordsCount = tail.get();
+            ByteBuffer count = ByteBuffer.allocate(8).order(BYTE_ORDER).putLong(0, recordsCount);
+            channel.write(count, RECORDS_COUNT_OFFSET);
+            try {
+                channel.truncate(headerSize + recordsCount * recordSize);
+            } catch (IOException e) {
+                // the file might still be mapped on some platforms; records count in the header is enough
+                LOGGER.debug("Could not truncate trace file", e);
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeHeader(List<Register> registers) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(headerSize).order(BYTE_ORDER);
+        header.put(MAGIC);
+        header.putShort((short) VERSION);
+        header.putShort((short) registers.size());
+        header.putLong(0);
+        for (Register register : registers) {
+            byte[] name = register.name.getBytes(StandardCharsets.US_ASCII);
+            header.put(name);
+            header.put(new byte[REGISTER_NAME_LENGTH - name.length]);
+            header.put((byte) register.size);
+        }
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private void drain() {
+        long filePosition = headerSize;
+        MappedByteBuffer window = null;
+        ByteBuffer source = ring.duplicate();
+        try {
+            while (true) {
+                long position = tail.get();
+                long available = head.get() - position;
+                if (available == 0) {
+                    if (closed) {
+                        return;
+                    }
+                    LockSupport.parkNanos(DRAIN_PARK_NANOS);
+                    continue;
+                }
+                if (window == null || !window.hasRemaining()) {
+                    window = channel.map(FileChannel.MapMode.READ_WRITE, filePosition, windowSize);
+                    filePosition += windowSize;
+                }
+
+                int index = (int) (position & ringMask);
+                int count = (int) Math.min(available, ringMask + 1 - index);
+                count = Math.min(count, window.remaining() / recordSize);
+
+                source.limit((index + count) * recordSize).position(index * recordSize);
+                window.put(source);
+                tail.lazySet(position + count);
+            }
+        } catch (IOException e) {
+            failed = true;
+            LOGGER.error("Could not write execution trace", e);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.jcip.annotations.NotThreadSafe;
+
+/**
+ * Bounded history of executed instructions, used for stepping back.
+ * <p>
+ * Every {@link #CHECKPOINT_INTERVAL} instructions, the CPU stores its whole state (a checkpoint) as a fixed number
+ * of packed longs. In between, the journal remembers only old values of overwritten memory cells, values read from
+ * I/O ports and accepted interrupts. Stepping back restores the nearest older checkpoint, undoes memory writes done
+ * since then and re-executes instructions up to the target one. Inputs and interrupts are replayed from the
+ * journal, and outputs are suppressed, so devices are not affected.
+ * <p>
+ * Everything is kept in ring buffers of primitive arrays allocated up-front, so recording does not allocate. If a
+ * ring overflows, the oldest checkpoints cannot be used anymore and the history gets shorter than its capacity.
+ */
+@NotThreadSafe
+public class UndoJournal {
+    public final static int MAX_CAPACITY = 1 << 24;
+    public final static int CHECKPOINT_INTERVAL = 256;
+
+    private final static int CHECKPOINT_SHIFT = Integer.numberOfTrailingZeros(CHECKPOINT_INTERVAL);
+    private final static long INTERRUPT_EVENT = Long.MIN_VALUE;
+    private final static int EVENT_DATA_BITS = 24;
+    private final static long EVENT_INSTRUCTION_MASK = (1L << (63 - EVENT_DATA_BITS)) - 1;
+
+    @FunctionalInterface
+    public interface MemoryRestorer {
+
+        /**
+         * Write an old value back to memory.
+         *
+         * @param address memory address
+         * @param value   old value of the memory cell
+         */
+        void restore(int address, int value);
+    }
+
+    private final int stateWidth;
+    private final long[] checkpointStates;
+    private final long[] checkpointWrites;
+    private final long[] checkpointEvents;
+    private final int[] writes;
+    private final long[] events;
+    private final int checkpointMask;
+    private final int writeMask;
+    private final int eventMask;
+
+    private long instructions;
+    private long checkpoints;
+    private long oldestCheckpoint;
+    private long writesCount;
+    private long oldestWrite;
+    private long eventsCount;
+    private long oldestEvent;
+
+    private boolean replaying;
+    private long replayedEvent;
+    private long pendingInterruptEvent;
+    private int currentCheckpoint;
+
+    /**
+     * Create new journal.
+     *
+     * @param capacity   number of instructions which should be possible to undo; rounded up to a power of 2
+     * @param stateWidth number of longs the CPU state is packed into
+     */
+    public UndoJournal(int capacity, int stateWidth) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be in range 1 - " + MAX_CAPACITY + ", but was: " + capacity);
+        }
+        int instructionCapacity = Math.max(roundUpToPowerOf2(capacity), 4 * CHECKPOINT_INTERVAL);
+        // more checkpoints than needed; the history is limited by the rings of writes and events anyway
+        int checkpointCapacity = instructionCapacity / CHECKPOINT_INTERVAL * 2;
+        int eventCapacity = instructionCapacity / 2;
+
+        this.stateWidth = stateWidth;
+        this.checkpointStates = new long[checkpointCapacity * stateWidth];
+        this.checkpointWrites = new long[checkpointCapacity];
+        this.checkpointEvents = new long[checkpointCapacity];
+        this.writes = new int[instructionCapacity];
+        this.events = new long[eventCapacity];
+        this.checkpointMask = checkpointCapacity - 1;
+        this.writeMask = instructionCapacity - 1;
+        this.eventMask = eventCapacity - 1;
+    }
+
+    /**
+     * Start recording a new instruction.
+     * <p>
+     * If this method returns true, the CPU must store its state with {@link #putState(int, long)} right after the
+     * call.
+     *
+     * @return true if a checkpoint should be stored
+     */
+    public boolean beginInstruction() {
+        long instruction = instructions++;
+        if ((instruction & (CHECKPOINT_INTERVAL - 1)) != 0) {
+            return false;
+        }
+        int slot = (int) (checkpoints & checkpointMask);
+        checkpointWrites[slot] = writesCount;
+        checkpointEvents[slot] = replaying ? replayedEvent : eventsCount;
+        currentCheckpoint = slot * stateWidth;
+        checkpoints++;
+        if (checkpoints - oldestCheckpoint > checkpointWrites.length) {
+            oldestCheckpoint++;
+        }
+        return true;
+    }
+
+    /**
+     * Store a part of the CPU state into the current checkpoint.
+     *
+     * @param index index of the part; must be less than state width
+     * @param value packed state
+     */
+    public void putState(int index, long value) {
+        checkpointStates[currentCheckpoint + index] = value;
+    }
+
+    /**
+     * Get a part of the CPU state from the checkpoint restored by {@link #startReplay(long, MemoryRestorer)}.
+     *
+     * @param index index of the part; must be less than state width
+     * @return packed state
+     */
+    public long getState(int index) {
+        return checkpointStates[currentCheckpoint + index];
+    }
+
+    /**
+     * Remember old value of a memory cell which the current instruction is going to overwrite.
+     *
+     * @param address  memory address
+     * @param oldValue old value (8-bit)
+     */
+    public void recordWrite(int address, int oldValue) {
+        writes[(int) (writesCount & writeMask)] = (address << 8) | (oldValue & 0xFF);
+        writesCount++;
+        if (writesCount - oldestWrite > writes.length) {
+            oldestWrite++;
+        }
+    }
+
+    /**
+     * Remember a value which the current instruction has read from an I/O port.
+     *
+     * @param value the value
+     */
+    public void recordInput(short value) {
+        recordEvent(value & 0xFFFF);
+    }
+
+    /**
+     * Remember that the CPU has accepted an interrupt instead of executing the current instruction.
+     *
+     * @param data interrupt data needed for replaying it (at most 24 bits)
+     */
+    public void recordInterrupt(int data) {
+        recordEvent(INTERRUPT_EVENT | (((instructions - 1) & EVENT_INSTRUCTION_MASK) << EVENT_DATA_BITS) | data);
+    }
+
+    public boolean isReplaying() {
+        return replaying;
+    }
+
+    /**
+     * Get a value read from an I/O port by the replayed instruction.
+     *
+     * @return value recorded by {@link #recordInput(short)}
+     */
+    public short replayInput() {
+        return (short) events[(int) (replayedEvent++ & eventMask)];
+    }
+
+    /**
+     * Determine if the CPU accepted an interrupt instead of the instruction which is going to be replayed (or
+     * executed, if the replay ends there).
+     *
+     * @return interrupt data recorded by {@link #recordInterrupt(int)}, or -1 if there was no interrupt
+     */
+    public int replayInterrupt() {
+        if (replayedEvent >= eventsCount) {
+            return -1;
+        }
+        long event = events[(int) (replayedEvent & eventMask)];
+        if ((event & INTERRUPT_EVENT) == 0
+            || eventInstruction(replayedEvent) != (instructions & EVENT_INSTRUCTION_MASK)) {
+            return -1;
+        }
+        pendingInterruptEvent = replayedEvent++;
+        return (int) (event & ((1 << EVENT_DATA_BITS) - 1));
+    }
+
+    /**
+     * Get number of recorded instructions. It does not count instructions dropped by stepping back.
+     *
+     * @return number of instructions
+     */
+    public long getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Determine if the CPU can return to the state before given instruction.
+     *
+     * @param instruction instruction number, counted from 0
+     * @return true if the checkpoint before the instruction and all journal entries since then are remembered
+     */
+    public boolean canReturnTo(long instruction) {
+        if (instruction < 0 || instruction >= instructions) {
+            return false;
+        }
+        long checkpoint = instruction >>> CHECKPOINT_SHIFT;
+        if (checkpoint < oldestCheckpoint || checkpoint >= checkpoints) {
+            return false;
+        }
+        int slot = (int) (checkpoint & checkpointMask);
+        return checkpointWrites[slot] >= oldestWrite && checkpointEvents[slot] >= oldestEvent;
+    }
+
+    /**
+     * Return to the checkpoint before given instruction and start replaying.
+     * <p>
+     * Memory writes done since the checkpoint are undone, newest first. The CPU must then load its state by
+     * {@link #getState(int)}, replay returned number of instructions and call {@link #endReplay()}. While
+     * replaying, it records instructions as usual, but reads inputs and interrupts from the journal.
+     *
+     * @param instruction instruction number, counted from 0
+     * @param restorer    writes old values back to memory
+     * @return number of instructions to replay, or -1 if the instruction is not remembered
+     */
+    public int startReplay(long instruction, MemoryRestorer restorer) {
+        if (!canReturnTo(instruction)) {
+            return -1;
+        }
+        long checkpoint = instruction >>> CHECKPOINT_SHIFT;
+        int slot = (int) (checkpoint & checkpointMask);
+
+        long mark = checkpointWrites[slot];
+        while (writesCount > mark) {
+            writesCount--;
+            int write = writes[(int) (writesCount & writeMask)];
+            restorer.restore(write >>> 8, write & 0xFF);
+        }
+        currentCheckpoint = slot * stateWidth;
+        checkpoints = checkpoint;
+        instructions = checkpoint << CHECKPOINT_SHIFT;
+        replayedEvent = checkpointEvents[slot];
+        pendingInterruptEvent = -1;
+        replaying = true;
+        return (int) (instruction - instructions);
+    }
+
+    /**
+     * Stop replaying. Journal entries after the last replayed instruction are forgotten, including an interrupt
+     * accepted by the next instruction; it will be recorded again when the instruction is executed.
+     */
+    public void endReplay() {
+        if (replaying) {
+            replaying = false;
+            boolean interruptPending = pendingInterruptEvent >= 0 && pendingInterruptEvent == replayedEvent - 1
+                && eventInstruction(pendingInterruptEvent) == (instructions & EVENT_INSTRUCTION_MASK);
+            eventsCount = interruptPending ? pendingInterruptEvent : replayedEvent;
+        }
+    }
+
+    public void clear() {
+        instructions = 0;
+        checkpoints = 0;
+        oldestCheckpoint = 0;
+        writesCount = 0;
+        oldestWrite = 0;
+        eventsCount = 0;
+        oldestEvent = 0;
+        replaying = false;
+    }
+
+    private void recordEvent(long event) {
+        events[(int) (eventsCount & eventMask)] = event;
+        eventsCount++;
+        if (eventsCount - oldestEvent > events.length) {
+            oldestEvent++;
+        }
+    }
+
+    private long eventInstruction(long position) {
+        return (events[(int) (position & eventMask)] >>> EVENT_DATA_BITS) & EVENT_INSTRUCTION_MASK;
+    }
+
+    private static int roundUpToPowerOf2(int value) {
+        int highest = Integer.highestOneBit(value);
+        return (highest == value) ? value : highest << 1;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.trace;
+
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+public class DecodeCommand implements TraceCommand {
+    @Argument(required = true, metaVar = "trace file")
+    String fileName;
+
+    @Option(name = "--from", usage = "index of the first decoded record (default 0)", metaVar = "N")
+    long from = 0;
+
+    @Option(name = "--count", usage = "maximum number of printed records", metaVar = "N")
+    long count = Long.MAX_VALUE;
+
+    @Option(name = "--pc", usage = "print only records with PC in given range (hex, e.g. 0100-01FF)", metaVar = "X[-Y]")
+    String pcRange;
+
+    @Override
+    public void execute(PrintStream out) throws IOException {
+        int pcFrom = 0;
+        int pcTo = 0xFFFF;
+        if (pcRange != null) {
+            String[] range = pcRange.split("-", 2);
+            try {
+                pcFrom = Integer.parseInt(range[0].trim(), 16);
+                pcTo = (range.length > 1) ? Integer.parseInt(range[1].trim(), 16) : pcFrom;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid PC range: " + pcRange);
+            }
+        }
+
+        try (TraceReader reader = new TraceReader(Path.of(fileName))) {
+            TraceRecord record = reader.createRecord();
+            reader.seek(from);
+
+            long printed = 0;
+            while (printed < count && reader.next(record)) {
+                if (record.pc >= pcFrom && record.pc <= pcTo) {
+                    out.println(reader.format(record));
+                    printed++;
+                }
+            }
+        }
+    }
+}
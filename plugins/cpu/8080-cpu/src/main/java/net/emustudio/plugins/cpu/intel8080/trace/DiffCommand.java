@@ -0,0 +1,115 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.trace;
+
+import org.kohsuke.args4j.Argument;
+import org.kohsuke.args4j.Option;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the first record where two traces differ.
+ */
+public class DiffCommand implements TraceCommand {
+    @Argument(index = 0, required = true, metaVar = "first trace file")
+    String firstFileName;
+
+    @Argument(index = 1, required = true, metaVar = "second trace file")
+    String secondFileName;
+
+    @Option(name = "--ignore-cycles", usage = "do not compare cycles")
+    boolean ignoreCycles = false;
+
+    @Option(name = "--context", usage = "number of equal records printed before the difference (default 5)", metaVar = "N")
+    int context = 5;
+
+    @Override
+    public void execute(PrintStream out) throws IOException {
+        try (TraceReader first = new TraceReader(Path.of(firstFileName));
+             TraceReader second = new TraceReader(Path.of(secondFileName))) {
+
+            if (!first.getRegisterNames().equals(second.getRegisterNames())) {
+                out.println("Traces were recorded with different registers: " + first.getRegisterNames()
+                    + " vs. " + second.getRegisterNames());
+                return;
+            }
+
+            TraceRecord a = first.createRecord();
+            TraceRecord b = second.createRecord();
+            TraceRecord[] history = new TraceRecord[Math.max(0, context)];
+            for (int i = 0; i < history.length; i++) {
+                history[i] = first.createRecord();
+            }
+
+            long equalRecords = 0;
+            while (true) {
+                boolean hasFirst = first.next(a);
+                boolean hasSecond = second.next(b);
+                if (!hasFirst || !hasSecond) {
+                    if (hasFirst || hasSecond) {
+                        out.println("Traces are equal in " + equalRecords + " records; then the "
+                            + (hasFirst ? "first" : "second") + " trace continues");
+                    } else {
+                        out.println("Traces are equal (" + equalRecords + " records)");
+                    }
+                    return;
+                }
+
+                List<String> differences = compare(a, b, first);
+                if (!differences.isEmpty()) {
+                    long historyStart = Math.max(0, equalRecords - history.length);
+                    for (long i = historyStart; i < equalRecords; i++) {
+                        out.println("  " + first.format(history[(int) (i % history.length)]));
+                    }
+                    out.println("< " + first.format(a));
+                    out.println("> " + second.format(b));
+                    out.println("Traces differ at record " + a.index + " in: " + String.join(", ", differences));
+                    return;
+                }
+                if (history.length > 0) {
+                    history[(int) (equalRecords % history.length)].copyFrom(a);
+                }
+                equalRecords++;
+            }
+        }
+    }
+
+    private List<String> compare(TraceRecord a, TraceRecord b, TraceReader reader) {
+        List<String> differences = new ArrayList<>();
+        if (!ignoreCycles && a.cycles != b.cycles) {
+            differences.add("cycles");
+        }
+        if (a.pc != b.pc) {
+            differences.add("PC");
+        }
+        if (a.memory != b.memory) {
+            differences.add("memory");
+        }
+        for (int i = 0; i < a.registers.length; i++) {
+            if (a.registers[i] != b.registers[i]) {
+                differences.add(reader.getRegisterNames().get(i));
+            }
+        }
+        return differences;
+    }
+}
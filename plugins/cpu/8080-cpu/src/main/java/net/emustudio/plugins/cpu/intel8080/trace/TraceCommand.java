@@ -16,7 +16,12 @@
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
-package net.emustudio.plugins.cpu.zilogZ80;
+package net.emustudio.plugins.cpu.intel8080.trace;
 
-public class Breakpoint extends Exception {
+import java.io.IOException;
+import java.io.PrintStream;
+
+public interface TraceCommand {
+
+    void execute(PrintStream out) throws IOException;
 }
@@ -0,0 +1,188 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.trace;
+
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sequential reader of execution traces written by {@link TraceWriter}.
+ */
+public class TraceReader implements AutoCloseable {
+    private final static int BUFFER_RECORDS = 1 << 15;
+
+    private final FileChannel channel;
+    private final List<String> registerNames;
+    private final int[] registerSizes;
+    private final int headerSize;
+    private final int recordSize;
+    private final long recordsCount;
+    private final ByteBuffer buffer;
+
+    private long nextIndex;
+
+    public TraceReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = readFully(TraceWriter.HEADER_FIXED_SIZE, 0);
+            byte[] magic = new byte[TraceWriter.MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, TraceWriter.MAGIC)) {
+                throw new IOException("Not an execution trace: " + file);
+            }
+            int version = header.getShort();
+            if (version != TraceWriter.VERSION) {
+                throw new IOException("Unsupported trace version: " + version);
+            }
+            int registersCount = header.getShort();
+            long storedRecordsCount = header.getLong();
+
+            ByteBuffer descriptors = readFully(
+                registersCount * TraceWriter.REGISTER_DESCRIPTOR_SIZE, TraceWriter.HEADER_FIXED_SIZE
+            );
+            List<String> names = new ArrayList<>();
+            this.registerSizes = new int[registersCount];
+            int registersSize = 0;
+            for (int i = 0; i < registersCount; i++) {
+                byte[] name = new byte[TraceWriter.REGISTER_NAME_LENGTH];
+                descriptors.get(name);
+                names.add(new String(name, StandardCharsets.US_ASCII).trim());
+                registerSizes[i] = descriptors.get();
+                registersSize += registerSizes[i];
+            }
+            this.registerNames = Collections.unmodifiableList(names);
+            this.headerSize = TraceWriter.HEADER_FIXED_SIZE + registersCount * TraceWriter.REGISTER_DESCRIPTOR_SIZE;
+            this.recordSize = TraceWriter.RECORD_FIXED_SIZE + registersSize;
+
+            long recordsInFile = (channel.size() - headerSize) / recordSize;
+            this.recordsCount = (storedRecordsCount > 0) ? Math.min(storedRecordsCount, recordsInFile) : recordsInFile;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * recordSize).order(TraceWriter.BYTE_ORDER);
+            buffer.limit(0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<String> getRegisterNames() {
+        return registerNames;
+    }
+
+    public int getRegisterSize(int index) {
+        return registerSizes[index];
+    }
+
+    public long getRecordsCount() {
+        return recordsCount;
+    }
+
+    public TraceRecord createRecord() {
+        return new TraceRecord(registerSizes.length);
+    }
+
+    /**
+     * Move to the record with given index.
+     *
+     * @param index record index
+     */
+    public void seek(long index) {
+        nextIndex = Math.max(0, Math.min(index, recordsCount));
+        buffer.limit(0);
+    }
+
+    /**
+     * Read next record.
+     *
+     * @param record record where the data will be stored
+     * @return true if the record was read; false at the end of the trace
+     * @throws IOException if the trace could not be read
+     */
+    public boolean next(TraceRecord record) throws IOException {
+        if (nextIndex >= recordsCount) {
+            return false;
+        }
+        if (!buffer.hasRemaining()) {
+            fillBuffer();
+        }
+        record.index = nextIndex++;
+        record.cycles = buffer.getLong();
+        record.pc = buffer.getShort() & 0xFFFF;
+        record.memory = buffer.getInt();
+        for (int i = 0; i < registerSizes.length; i++) {
+            record.registers[i] = (registerSizes[i] == 1) ? (buffer.get() & 0xFF) : (buffer.getShort() & 0xFFFF);
+        }
+        return true;
+    }
+
+    /**
+     * Format a record in human-readable form.
+     *
+     * @param record the record
+     * @return formatted record
+     */
+    public String format(TraceRecord record) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%10d | %12d | PC=%04X | %02X %02X %02X %02X |", record.index, record.cycles, record.pc,
+            record.getMemoryByte(0), record.getMemoryByte(1), record.getMemoryByte(2), record.getMemoryByte(3)));
+        for (int i = 0; i < registerSizes.length; i++) {
+            sb.append(' ').append(registerNames.get(i)).append('=');
+            sb.append(String.format((registerSizes[i] == 1) ? "%02X" : "%04X", record.registers[i]));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void fillBuffer() throws IOException {
+        long records = Math.min(BUFFER_RECORDS, recordsCount - nextIndex);
+        buffer.clear().limit((int) records * recordSize);
+        long position = headerSize + nextIndex * recordSize;
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, position);
+            if (count < 0) {
+                throw new IOException("Unexpected end of trace file");
+            }
+            position += count;
+        }
+        buffer.flip();
+    }
+
+    private ByteBuffer readFully(int size, long position) throws IOException {
+        ByteBuffer result = ByteBuffer.allocate(size).order(TraceWriter.BYTE_ORDER);
+        while (result.hasRemaining()) {
+            if (channel.read(result, position + result.position()) < 0) {
+                throw new IOException("Unexpected end of trace file");
+            }
+        }
+        return result.flip();
+    }
+}
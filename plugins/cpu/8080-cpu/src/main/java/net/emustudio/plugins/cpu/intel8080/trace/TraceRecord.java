@@ -0,0 +1,52 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.trace;
+
+/**
+ * One decoded record of an execution trace.
+ */
+public class TraceRecord {
+    public long index;
+    public long cycles;
+    public int pc;
+    public int memory;
+    public final int[] registers;
+
+    public TraceRecord(int registersCount) {
+        this.registers = new int[registersCount];
+    }
+
+    public void copyFrom(TraceRecord other) {
+        index = other.index;
+        cycles = other.cycles;
+        pc = other.pc;
+        memory = other.memory;
+        System.arraycopy(other.registers, 0, registers, 0, registers.length);
+    }
+
+    /**
+     * Get byte of memory content recorded at PC.
+     *
+     * @param offset offset from PC (0-3)
+     * @return memory byte
+     */
+    public int getMemoryByte(int offset) {
+        return (memory >>> (offset * 8)) & 0xFF;
+    }
+}
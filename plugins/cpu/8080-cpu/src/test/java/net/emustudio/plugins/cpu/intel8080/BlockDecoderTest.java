@@ -0,0 +1,111 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.plugins.cpu.intel8080.api.BlockCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BlockDecoderTest {
+
+    @Test
+    public void testInstructionLengths() {
+        assertEquals(1, BlockDecoder.getInstructionLength(0x00)); // NOP
+        assertEquals(2, BlockDecoder.getInstructionLength(0x3E)); // MVI A
+        assertEquals(3, BlockDecoder.getInstructionLength(0x21)); // LXI H
+        assertEquals(3, BlockDecoder.getInstructionLength(0xFA)); // JM
+        assertEquals(3, BlockDecoder.getInstructionLength(0xFC)); // CM
+        assertEquals(0, BlockDecoder.getInstructionLength(0xCB));
+    }
+
+    @Test
+    public void testControlInstructionsEndBlock() {
+        assertTrue(BlockDecoder.isBlockEnd(0xC3)); // JMP
+        assertTrue(BlockDecoder.isBlockEnd(0xC8)); // RZ
+        assertTrue(BlockDecoder.isBlockEnd(0xFF)); // RST 7
+        assertTrue(BlockDecoder.isBlockEnd(0x76)); // HLT
+        assertTrue(BlockDecoder.isBlockEnd(0xD3)); // OUT
+        assertFalse(BlockDecoder.isBlockEnd(0x3E)); // MVI A
+        assertFalse(BlockDecoder.isBlockEnd(0x80)); // ADD B
+    }
+
+    @Test
+    public void testDecodeStopsAtJump() {
+        int[] memory = new int[]{0x3E, 0x05, 0x80, 0xC3, 0x34, 0x12, 0x00};
+
+        BlockCache.BasicBlock block = BlockDecoder.decode(0, memory.length, a -> memory[a]);
+
+        assertArrayEquals(new int[]{
+            operation(BlockDecoder.OP_MVI, EmulatorEngine.REG_A, 0x05),
+            operation(BlockDecoder.OP_ALU_R, BlockDecoder.ALU_ADD | (EmulatorEngine.REG_B << 3), 0),
+            operation(BlockDecoder.OP_JMP, 0, 0x1234)
+        }, block.operations);
+        assertArrayEquals(new int[]{0, 2, 3, 6}, block.addresses);
+    }
+
+    @Test
+    public void testDecodeStopsBeforeUndocumentedInstruction() {
+        int[] memory = new int[]{0x00, 0xCB, 0x00};
+
+        BlockCache.BasicBlock block = BlockDecoder.decode(0, memory.length, a -> memory[a]);
+
+        assertArrayEquals(new int[]{operation(BlockDecoder.OP_NOP, 0, 0)}, block.operations);
+        assertArrayEquals(new int[]{0, 1}, block.addresses);
+        assertNull(BlockDecoder.decode(1, memory.length, a -> memory[a]));
+    }
+
+    @Test
+    public void testDecodeStopsAtMemoryEnd() {
+        int[] memory = new int[]{0x00, 0x21, 0x00};
+
+        BlockCache.BasicBlock block = BlockDecoder.decode(0, memory.length, a -> memory[a]);
+
+        assertEquals(1, block.operations.length);
+    }
+
+    @Test
+    public void testDecodeMemoryOperands() {
+        assertEquals(operation(BlockDecoder.OP_MOV_RM, EmulatorEngine.REG_D, 0), BlockDecoder.decodeOperation(0x56, 0));
+        assertEquals(operation(BlockDecoder.OP_MOV_MR, EmulatorEngine.REG_A, 0), BlockDecoder.decodeOperation(0x77, 0));
+        assertEquals(operation(BlockDecoder.OP_ALU_M, BlockDecoder.ALU_CMP, 0), BlockDecoder.decodeOperation(0xBE, 0));
+        assertEquals(operation(BlockDecoder.OP_STA, 0, 0x8000), BlockDecoder.decodeOperation(0x32, 0x8000));
+    }
+
+    @Test
+    public void testDecodeConditionsAndPairs() {
+        assertEquals(operation(BlockDecoder.OP_JCC, 1, 0x0005), BlockDecoder.decodeOperation(0xCA, 0x0005)); // JZ
+        assertEquals(operation(BlockDecoder.OP_CCC, 7, 0x0100), BlockDecoder.decodeOperation(0xFC, 0x0100)); // CM
+        assertEquals(operation(BlockDecoder.OP_RCC, 2, 0), BlockDecoder.decodeOperation(0xD0, 0)); // RNC
+        assertEquals(operation(BlockDecoder.OP_LXI, 3, 0xFFFE), BlockDecoder.decodeOperation(0x31, 0xFFFE)); // LXI SP
+        assertEquals(operation(BlockDecoder.OP_PUSH, 3, 0), BlockDecoder.decodeOperation(0xF5, 0)); // PUSH PSW
+        assertEquals(operation(BlockDecoder.OP_ALU_I, BlockDecoder.ALU_ANA, 0x0F), BlockDecoder.decodeOperation(0xE6, 0x0F));
+    }
+
+    @Test
+    public void testInstructionsWithoutOperationAreGeneric() {
+        for (int opcode : new int[]{0x07, 0x22, 0x27, 0x34, 0x36, 0x76, 0xD3, 0xE3, 0xE9, 0xF3, 0xFF}) {
+            assertEquals(operation(BlockDecoder.OP_GENERIC, opcode, 0), BlockDecoder.decodeOperation(opcode, 0));
+        }
+    }
+
+    private static int operation(int type, int argument, int immediate) {
+        return type | (argument << 8) | (immediate << 16);
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
+import net.emustudio.plugins.cpu.intel8080.api.Pacer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Programs must give the same results when executed from cached blocks as when executed instruction by instruction.
+ */
+public class BlockExecutionTest {
+    private final static int DATA = 0x8000;
+    private final static int COUNTER = 0x9000;
+    private final static int LOOPS = 5;
+    private final static int SUBROUTINES = 0x0800;
+
+    private static class Result {
+        final CPU.RunState state;
+        final int[] regs;
+        final int flags;
+        final int PC;
+        final int SP;
+        final boolean INTE;
+        final long cycles;
+        final short[] memory;
+
+        Result(CPU.RunState state, EmulatorEngine engine, ShortMemoryStub memory) {
+            this.state = state;
+            this.regs = engine.regs.clone();
+            this.flags = engine.flags;
+            this.PC = engine.PC;
+            this.SP = engine.SP;
+            this.INTE = engine.INTE;
+            this.cycles = engine.getAndResetExecutedCycles();
+            this.memory = new short[0x10000];
+            for (int i = 0; i < this.memory.length; i++) {
+                this.memory[i] = memory.read(i);
+            }
+        }
+
+        void assertSameAs(Result expected, String message) {
+            assertEquals(message, expected.state, state);
+            assertArrayEquals(message, expected.regs, regs);
+            assertEquals(message, expected.flags, flags);
+            assertEquals(message, expected.PC, PC);
+            assertEquals(message, expected.SP, SP);
+            assertEquals(message, expected.INTE, INTE);
+            assertEquals(message, expected.cycles, cycles);
+            assertArrayEquals(message, expected.memory, memory);
+        }
+    }
+
+    private static Result run(short[] program, boolean blockCache, int breakpoint) {
+        short[] content = new short[0x10000];
+        System.arraycopy(program, 0, content, 0, program.length);
+        content[COUNTER] = LOOPS;
+
+        ShortMemoryStub memory = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        memory.setMemory(content);
+
+        EmulatorEngine engine = new EmulatorEngine(memory, new ContextImpl());
+        engine.setPacer(new Pacer(Pacer.DEFAULT_SLICE_MILLIS, false));
+        engine.setBlockCacheEnabled(blockCache);
+        engine.reset(0);
+
+        BreakpointBitmap breakpoints = new BreakpointBitmap();
+        if (breakpoint >= 0) {
+            breakpoints.set(breakpoint);
+        }
+        CPU.RunState state = engine.run(breakpoints);
+        return new Result(state, engine, memory);
+    }
+
+    private static void assertSameResults(short[] program, int breakpoint, String message) {
+        Result expected = run(program, false, breakpoint);
+        run(program, true, breakpoint).assertSameAs(expected, message);
+    }
+
+    @Test
+    public void testRandomPrograms() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            short[] program = new ProgramGenerator(random).generate();
+            assertSameResults(program, -1, "seed " + seed);
+        }
+    }
+
+    @Test
+    public void testRandomProgramsStopAtBreakpoint() {
+        for (int seed = 0; seed < 200; seed++) {
+            Random random = new Random(seed);
+            ProgramGenerator generator = new ProgramGenerator(random);
+            short[] program = generator.generate();
+            int breakpoint = generator.instructions.get(random.nextInt(generator.instructions.size()));
+            assertSameResults(program, breakpoint, "seed " + seed);
+        }
+    }
+
+    @Test
+    public void testCodeModifiedByAnotherBlockIsNotExecutedStale() {
+        short[] program = new short[]{
+            0x31, 0x00, 0x01, // 0000: LXI SP, 100h
+            0x3E, 0x00,       // 0003: MVI A, 0
+            0xCD, 0x20, 0x00, // 0005: CALL sub
+            0x3E, 0x3C,       // 0008: MVI A, 3Ch   ; INR A
+            0x32, 0x21, 0x00, // 000A: STA sub + 1
+            0xCD, 0x20, 0x00, // 000D: CALL sub
+            0x76,             // 0010: HLT
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            0x00,             // 0020: sub: NOP
+            0x00,             // 0021:      NOP         ; becomes INR A
+            0xC9              // 0022:      RET
+        };
+
+        Result result = run(program, true, -1);
+
+        assertEquals(0x3D, result.regs[EmulatorEngine.REG_A]);
+        result.assertSameAs(run(program, false, -1), "");
+    }
+
+    @Test
+    public void testBlockModifyingItselfIsLeft() {
+        short[] program = new short[]{
+            0x3E, 0x3C,       // 0000: MVI A, 3Ch   ; INR A
+            0x32, 0x06, 0x00, // 0002: STA 0006h
+            0x00,             // 0005: NOP
+            0x00,             // 0006: NOP          ; becomes INR A
+            0x76              // 0007: HLT
+        };
+
+        Result result = run(program, true, -1);
+
+        assertEquals(0x3D, result.regs[EmulatorEngine.REG_A]);
+        result.assertSameAs(run(program, false, -1), "");
+    }
+
+    /**
+     * Generator of random terminating programs.
+     * <p>
+     * The main body is executed LOOPS times. It consists of random instructions, forward conditional jumps, calls of
+     * random subroutines and instructions modifying the code. Memory operands are kept in the data area, so random
+     * writes do not hit the code or the stack.
+     */
+    private static class ProgramGenerator {
+        private final Random random;
+        private final List<Short> code = new ArrayList<>();
+        private final List<Integer> subroutines = new ArrayList<>();
+        private final List<Integer> placeholders = new ArrayList<>();
+        final List<Integer> instructions = new ArrayList<>();
+
+        ProgramGenerator(Random random) {
+            this.random = random;
+        }
+
+        short[] generate() {
+            for (int i = 0; i < 4; i++) {
+                subroutines.add(SUBROUTINES + i * 0x100);
+            }
+            emit(0x31, 0x00, 0xF0); // LXI SP, F000h
+            int start = code.size();
+            for (int i = 0; i < 60; i++) {
+                randomStatement(true);
+            }
+            emit(0xE5); // PUSH H
+            emit(0x21, COUNTER & 0xFF, COUNTER >>> 8); // LXI H, COUNTER
+            emit(0x35); // DCR M
+            emit(0xE1); // POP H
+            emit(0xC2, start & 0xFF, start >>> 8); // JNZ start
+            emit(0x76); // HLT
+
+            for (int subroutine : subroutines) {
+                while (code.size() < subroutine) {
+                    code.add((short) 0);
+                }
+                for (int i = 0; i < 15; i++) {
+                    randomStatement(false);
+                }
+                emit(0xC9); // RET
+            }
+
+            short[] program = new short[code.size()];
+            for (int i = 0; i < program.length; i++) {
+                program[i] = code.get(i);
+            }
+            return program;
+        }
+
+        private void emit(int... bytes) {
+            instructions.add(code.size());
+            for (int b : bytes) {
+                code.add((short) (b & 0xFF));
+            }
+        }
+
+        private int data() {
+            return DATA + random.nextInt(0xFF);
+        }
+
+        private int register() {
+            int register = random.nextInt(7);
+            return (register == 6) ? 7 : register;
+        }
+
+        private void randomStatement(boolean main) {
+            switch (random.nextInt(main ? 12 : 9)) {
+                case 0: // register transfer or arithmetic
+                    if (random.nextBoolean()) {
+                        emit(0x40 | (register() << 3) | register()); // MOV r, r
+                    } else {
+                        emit(0x80 | (random.nextInt(8) << 3) | register()); // ALU r
+                    }
+                    break;
+                case 1: // single-byte instructions
+                    int[] singles = new int[]{
+                        0x00, 0x07, 0x0F, 0x17, 0x1F, 0x27, 0x2F, 0x37, 0x3F, 0xEB, 0xF3, 0xFB,
+                        0x03, 0x13, 0x23, 0x0B, 0x1B, 0x2B, 0x09, 0x19, 0x29, 0x39
+                    };
+                    emit(singles[random.nextInt(singles.length)]);
+                    break;
+                case 2:
+                    if (random.nextBoolean()) {
+                        emit(0x04 | (register() << 3)); // INR r
+                    } else {
+                        emit(0x05 | (register() << 3)); // DCR r
+                    }
+                    break;
+                case 3: // immediate operands
+                    switch (random.nextInt(3)) {
+                        case 0:
+                            emit(0x06 | (register() << 3), random.nextInt(256)); // MVI r
+                            break;
+                        case 1:
+                            emit(0xC6 | (random.nextInt(8) << 3), random.nextInt(256)); // ALU immediate
+                            break;
+                        default:
+                            emit(0x01 | (random.nextInt(3) << 4), random.nextInt(256), random.nextInt(256)); // LXI
+                    }
+                    break;
+                case 4: // operations with memory addressed by HL
+                    int address = data();
+                    emit(0x21, address & 0xFF, address >>> 8); // LXI H, data
+                    int[] memoryOps = new int[]{
+                        0x46 | (register() << 3), // MOV r, M
+                        0x70 | register(), // MOV M, r
+                        0x86 | (random.nextInt(8) << 3), // ALU M
+                        0x34, 0x35 // INR M, DCR M
+                    };
+                    if (random.nextInt(6) == 0) {
+                        emit(0x36, random.nextInt(256)); // MVI M
+                    } else {
+                        emit(memoryOps[random.nextInt(memoryOps.length)]);
+                    }
+                    break;
+                case 5: // operations with memory addressed by BC or DE
+                    int pair = random.nextInt(2);
+                    address = data();
+                    emit(0x01 | (pair << 4), address & 0xFF, address >>> 8); // LXI B/D, data
+                    emit((random.nextBoolean() ? 0x0A : 0x02) | (pair << 4)); // LDAX / STAX
+                    break;
+                case 6: // direct addressing
+                    address = data();
+                    int[] directOps = new int[]{0x22, 0x2A, 0x32, 0x3A}; // SHLD, LHLD, STA, LDA
+                    emit(directOps[random.nextInt(directOps.length)], address & 0xFF, address >>> 8);
+                    break;
+                case 7: // skip the next instruction conditionally
+                    int jump = code.size();
+                    emit(0xC2 | (random.nextInt(8) << 3), 0, 0); // Jcc
+                    randomStatement(main);
+                    code.set(jump + 1, (short) (code.size() & 0xFF));
+                    code.set(jump + 2, (short) (code.size() >>> 8));
+                    break;
+                case 8:
+                    if (main) {
+                        modifyCode();
+                    } else {
+                        emit(0xC0 | (random.nextInt(8) << 3)); // Rcc
+                    }
+                    break;
+                case 9: // stack
+                    emit((random.nextBoolean() ? 0xC5 : 0xC1) | (random.nextInt(4) << 4)); // PUSH / POP
+                    break;
+                case 10: // subroutines
+                    int subroutine = subroutines.get(random.nextInt(subroutines.size()));
+                    if (random.nextBoolean()) {
+                        emit(0xCD, subroutine & 0xFF, subroutine >>> 8); // CALL
+                    } else {
+                        emit(0xC4 | (random.nextInt(8) << 3), subroutine & 0xFF, subroutine >>> 8); // Ccc
+                    }
+                    break;
+                default:
+                    placeholders.add(code.size());
+                    emit(0x00); // NOP, modified later
+            }
+        }
+
+        /**
+         * Write an "ADD r" instruction, with r given by the loop counter, to a placeholder. The placeholder might
+         * be in this block (not executed yet), or in a block executed before.
+         */
+        private void modifyCode() {
+            if (placeholders.isEmpty() || random.nextBoolean()) {
+                emit(0x3E, 0x80 | register()); // MVI A, ADD r
+                int placeholder = code.size() + 3;
+                emit(0x32, placeholder & 0xFF, placeholder >>> 8); // STA placeholder
+                emit(0x00);
+            } else {
+                int placeholder = placeholders.get(random.nextInt(placeholders.size()));
+                emit(0x3A, COUNTER & 0xFF, COUNTER >>> 8); // LDA COUNTER
+                emit(0xE6, 0x07); // ANI 7
+                emit(0xF6, 0x80); // ORI 80h
+                emit(0x32, placeholder & 0xFF, placeholder >>> 8); // STA placeholder
+            }
+        }
+    }
+}
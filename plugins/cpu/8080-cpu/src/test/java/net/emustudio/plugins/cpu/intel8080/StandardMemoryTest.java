@@ -0,0 +1,152 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
+import net.emustudio.plugins.cpu.intel8080.api.Pacer;
+import net.emustudio.plugins.memory.standard.MemoryContextImpl;
+import net.emustudio.plugins.memory.standard.RangeTree;
+import net.emustudio.plugins.memory.standard.StandardMemoryFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The CPU accesses standard memory by primitive reads and writes; they must respect banks and ROM.
+ * <p>
+ * Memory has two banks below 8000h; programs are placed in the common area at 8000h. ROM is at 7000h - 70FFh, and
+ * contains 55h at 7000h.
+ */
+public class StandardMemoryTest {
+    private final static int PROGRAM = 0x8000;
+
+    private MemoryContextImpl memory;
+    private EmulatorEngine engine;
+
+    @Before
+    public void setUp() {
+        memory = StandardMemoryFixture.create(0x10000, 2, 0x8000);
+        memory.write(0x7000, (short) 0x55, 0);
+        memory.setReadOnly(new RangeTree.Range(0x7000, 0x70FF));
+
+        engine = new EmulatorEngine(memory, new ContextImpl());
+        engine.setPacer(new Pacer(Pacer.DEFAULT_SLICE_MILLIS, false));
+    }
+
+    private void load(int address, int... bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            memory.write(address + i, (short) bytes[i], 0);
+        }
+    }
+
+    private void runProgram(int start, int... program) {
+        load(start, program);
+        engine.reset(start);
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, engine.run(new BreakpointBitmap()));
+    }
+
+    @Test
+    public void testReadFromSelectedBank() {
+        memory.write(0x100, (short) 0x11, 0);
+        memory.write(0x100, (short) 0x22, 1);
+
+        memory.selectBank((short) 1);
+        runProgram(PROGRAM, 0x3A, 0x00, 0x01, 0x76); // LDA 0100h; HLT
+        assertEquals(0x22, engine.regs[EmulatorEngine.REG_A]);
+
+        memory.selectBank((short) 0);
+        runProgram(PROGRAM, 0x3A, 0x00, 0x01, 0x76);
+        assertEquals(0x11, engine.regs[EmulatorEngine.REG_A]);
+    }
+
+    @Test
+    public void testWriteToSelectedBank() {
+        memory.selectBank((short) 1);
+        runProgram(PROGRAM, 0x3E, 0x42, 0x32, 0x00, 0x01, 0x76); // MVI A, 42h; STA 0100h; HLT
+
+        assertEquals(0x42, (int) memory.read(0x100, 1));
+        assertEquals(0, (int) memory.read(0x100, 0));
+    }
+
+    @Test
+    public void testCommonAreaIsSharedByBanks() {
+        memory.selectBank((short) 1);
+        runProgram(PROGRAM, 0x21, 0x34, 0x12, 0x22, 0x00, 0x90, 0x76); // LXI H, 1234h; SHLD 9000h; HLT
+
+        assertEquals(0x1234, memory.readWord16(0x9000));
+        assertEquals(0x34, (int) memory.read(0x9000, 0));
+        assertEquals(0x12, (int) memory.read(0x9001, 0));
+    }
+
+    @Test
+    public void testWriteToRomIsIgnored() {
+        runProgram(PROGRAM, 0x3E, 0x42, 0x32, 0x00, 0x70, 0x3A, 0x00, 0x70, 0x76); // MVI A, 42h; STA 7000h; LDA 7000h; HLT
+
+        assertEquals(0x55, engine.regs[EmulatorEngine.REG_A]);
+        assertEquals(0x55, memory.readByte(0x7000));
+    }
+
+    @Test
+    public void testWordWriteWithHighByteInRom() {
+        runProgram(PROGRAM, 0x21, 0x34, 0x12, 0x22, 0xFF, 0x6F, 0x76); // LXI H, 1234h; SHLD 6FFFh; HLT
+
+        assertEquals(0x34, memory.readByte(0x6FFF));
+        assertEquals(0x55, memory.readByte(0x7000));
+    }
+
+    @Test
+    public void testStackInSelectedBank() {
+        memory.selectBank((short) 1);
+        runProgram(PROGRAM,
+            0x31, 0x00, 0x02, // LXI SP, 0200h
+            0x01, 0xCD, 0xAB, // LXI B, ABCDh
+            0xC5,             // PUSH B
+            0xD1,             // POP D
+            0x76              // HLT
+        );
+
+        assertEquals(0xAB, engine.regs[EmulatorEngine.REG_D]);
+        assertEquals(0xCD, engine.regs[EmulatorEngine.REG_E]);
+        assertEquals(0xCD, (int) memory.read(0x1FE, 1));
+        assertEquals(0xAB, (int) memory.read(0x1FF, 1));
+        assertEquals(0, (int) memory.read(0x1FE, 0));
+    }
+
+    @Test
+    public void testCachedBlocksFollowBankSwitch() {
+        memory.write(0x100, (short) 0x3E, 0); // MVI A, 1; HLT
+        memory.write(0x101, (short) 0x01, 0);
+        memory.write(0x102, (short) 0x76, 0);
+        memory.write(0x100, (short) 0x3E, 1); // MVI A, 2; HLT
+        memory.write(0x101, (short) 0x02, 1);
+        memory.write(0x102, (short) 0x76, 1);
+        engine.setBlockCacheEnabled(true);
+
+        engine.reset(0x100);
+        engine.run(new BreakpointBitmap());
+        assertEquals(1, engine.regs[EmulatorEngine.REG_A]);
+
+        memory.selectBank((short) 1);
+        engine.reset(0x100);
+        engine.run(new BreakpointBitmap());
+        assertEquals(2, engine.regs[EmulatorEngine.REG_A]);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080;
+
+import net.emustudio.cpu.testsuite.memory.ShortMemoryStub;
+import net.emustudio.emulib.runtime.helpers.NumberUtils;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StepBackTest {
+    private ShortMemoryStub memory;
+    private EmulatorEngine engine;
+
+    @Before
+    public void setUp() {
+        short[] program = new short[0x100];
+        short[] code = new short[]{
+            0x31, 0x00, 0x01, // LXI SP, 100h
+            0x3E, 0x42,       // MVI A, 42h
+            0x32, 0x80, 0x00, // STA 80h
+            0xCD, 0x0D, 0x00, // CALL 0Dh
+            0x76,             // HLT
+            0x00,
+            0x3C,             // INR A
+            0xC9              // RET
+        };
+        System.arraycopy(code, 0, program, 0, code.length);
+        program[0x80] = 0x11;
+
+        memory = new ShortMemoryStub(NumberUtils.Strategy.LITTLE_ENDIAN);
+        memory.setMemory(program);
+
+        engine = new EmulatorEngine(memory, new ContextImpl());
+        engine.setStepBackHistory(100);
+        engine.reset(0);
+    }
+
+    @Test
+    public void testStepBackRestoresRegistersAndMemory() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            engine.step();
+        }
+        assertEquals(0x0B, engine.PC);
+        assertEquals(0x43, engine.regs[EmulatorEngine.REG_A]);
+        assertEquals(0x42, (int) memory.read(0x80));
+
+        for (int i = 0; i < 6; i++) {
+            assertTrue(engine.stepBack());
+        }
+        assertFalse(engine.stepBack());
+
+        assertEquals(0, engine.PC);
+        assertEquals(0, engine.SP);
+        assertEquals(0, engine.regs[EmulatorEngine.REG_A]);
+        assertEquals(0x11, (int) memory.read(0x80));
+        assertEquals(0, (int) memory.read(0xFE));
+        assertEquals(0, (int) memory.read(0xFF));
+    }
+
+    @Test
+    public void testStepBackAndStepAgainGivesSameState() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            engine.step();
+        }
+        int a = engine.regs[EmulatorEngine.REG_A];
+        int flags = engine.flags;
+        int pc = engine.PC;
+
+        engine.stepBack();
+        engine.stepBack();
+        engine.step();
+        engine.step();
+
+        assertEquals(a, engine.regs[EmulatorEngine.REG_A]);
+        assertEquals(flags, engine.flags);
+        assertEquals(pc, engine.PC);
+    }
+
+    @Test
+    public void testStepBackToBreakpoint() throws Exception {
+        for (int i = 0; i < 6; i++) {
+            engine.step();
+        }
+        BreakpointBitmap breakpoints = new BreakpointBitmap();
+        breakpoints.set(5);
+
+        assertEquals(4, engine.stepBackToBreakpoint(breakpoints));
+        assertEquals(5, engine.PC);
+        assertEquals(0x11, (int) memory.read(0x80));
+    }
+
+    @Test
+    public void testResetClearsHistory() throws Exception {
+        engine.step();
+        engine.reset(0);
+
+        assertFalse(engine.stepBack());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BlockCacheTest {
+
+    private static BlockCache.BasicBlock block(int... addresses) {
+        return new BlockCache.BasicBlock(new int[addresses.length - 1], addresses);
+    }
+
+    @Test
+    public void testWriteIntoCodePageDropsBlocks() {
+        BlockCache cache = new BlockCache(3);
+        BlockCache.BasicBlock block = block(0x1FE, 0x1FF, 0x202); // NOP; JMP reaching into page 2
+
+        cache.put(0x1FE, block, cache.getGeneration());
+        assertSame(block, cache.get(0x1FE));
+
+        cache.memoryChanged(0x201);
+        assertNull(cache.get(0x1FE));
+    }
+
+    @Test
+    public void testWriteIntoOtherPageKeepsBlocks() {
+        BlockCache cache = new BlockCache(3);
+        BlockCache.BasicBlock block = block(0x100, 0x101, 0x102);
+
+        cache.put(0x100, block, cache.getGeneration());
+        int generation = cache.getGeneration();
+        cache.memoryChanged(0x800);
+
+        assertSame(block, cache.get(0x100));
+        assertEquals(generation, cache.getGeneration());
+    }
+
+    @Test
+    public void testBlockDecodedBeforeInvalidationIsNotCached() {
+        BlockCache cache = new BlockCache(3);
+        int generation = cache.getGeneration();
+
+        cache.memoryChanged(-1);
+        cache.put(0x100, block(0x100, 0x101), generation);
+
+        assertNull(cache.get(0x100));
+    }
+
+    @Test
+    public void testBankSwitchDropsBlocks() {
+        BlockCache cache = new BlockCache(3);
+        cache.put(0x100, block(0x100, 0x101), cache.getGeneration());
+
+        cache.setBank(0);
+        assertNotNull(cache.get(0x100));
+
+        cache.setBank(1);
+        assertNull(cache.get(0x100));
+    }
+}
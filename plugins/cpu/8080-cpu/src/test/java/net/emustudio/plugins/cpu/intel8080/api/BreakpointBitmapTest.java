@@ -0,0 +1,77 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class BreakpointBitmapTest {
+
+    @Test
+    public void testSetAndUnset() {
+        BreakpointBitmap breakpoints = new BreakpointBitmap();
+
+        breakpoints.set(0);
+        breakpoints.set(63);
+        breakpoints.set(64);
+        breakpoints.set(0xFFFF);
+        breakpoints.unset(63);
+
+        assertTrue(breakpoints.isSet(0));
+        assertFalse(breakpoints.isSet(63));
+        assertTrue(breakpoints.isSet(64));
+        assertFalse(breakpoints.isSet(65));
+        assertTrue(breakpoints.isSet(0xFFFF));
+    }
+
+    @Test
+    public void testAddressesOutOfRangeAreIgnored() {
+        BreakpointBitmap breakpoints = new BreakpointBitmap();
+
+        breakpoints.set(-1);
+        breakpoints.set(0x10000);
+
+        for (int i = 0; i <= 0xFFFF; i++) {
+            assertFalse(breakpoints.isSet(i));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testBreakpointSetByOtherThreadIsVisible() throws InterruptedException {
+        BreakpointBitmap breakpoints = new BreakpointBitmap();
+        AtomicBoolean started = new AtomicBoolean();
+
+        Thread cpu = new Thread(() -> {
+            started.set(true);
+            while (!breakpoints.isSet(0x1234)) {
+                // busy wait, as the CPU run loop does
+            }
+        });
+        cpu.start();
+        while (!started.get()) {
+            Thread.yield();
+        }
+
+        breakpoints.set(0x1234);
+        cpu.join();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PacerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroTimeSliceIsRejected() {
+        new Pacer(0, true);
+    }
+
+    @Test
+    public void testSliceCyclesCorrespondToFrequency() {
+        Pacer pacer = new Pacer(10, true);
+        pacer.start();
+
+        assertEquals(20000, pacer.getSliceCycles(2000));
+        assertEquals(1, pacer.getSliceCycles(0));
+    }
+
+    @Test
+    public void testOvershootIsSubtractedFromNextSlice() {
+        Pacer pacer = new Pacer(1, false);
+        pacer.start();
+
+        long sliceCycles = pacer.getSliceCycles(2000);
+        pacer.endSlice(sliceCycles, sliceCycles + 7);
+
+        assertEquals(sliceCycles - 7, pacer.getSliceCycles(2000));
+    }
+
+    @Test
+    public void testUnthrottledPacerDoesNotWait() {
+        Pacer pacer = new Pacer(1000, false);
+        pacer.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            pacer.endSlice(100, 100);
+        }
+
+        assertFalse(pacer.isThrottled());
+        assertTrue(System.nanoTime() - start < 1_000_000_000L);
+    }
+
+    @Test
+    public void testThrottledPacerWaitsForSliceDeadline() {
+        Pacer pacer = new Pacer(5, true);
+        pacer.start();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            pacer.endSlice(100, 100);
+        }
+
+        assertTrue(System.nanoTime() - start >= 20_000_000L);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import net.emustudio.emulib.plugins.device.DeviceContext;
+import org.junit.Test;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class PortBusTest {
+
+    private interface IntPortDevice extends DeviceContext<Short>, IntPortHandler {
+
+    }
+
+    @Test
+    public void testUnattachedPortReturnsDefaultValue() throws Exception {
+        PortBus bus = new PortBus(0xFF);
+
+        assertEquals(0xFF, bus.read(0));
+        assertEquals(0xFF, bus.read(0xFF));
+        bus.write(0x10, 5);
+    }
+
+    @Test
+    public void testAttachToOccupiedOrInvalidPortFails() {
+        PortBus bus = new PortBus(0);
+        DeviceContext<Short> device = createNiceMock(DeviceContext.class);
+        replay(device);
+
+        assertTrue(bus.attach(device, 1));
+        assertFalse(bus.attach(device, 1));
+        assertFalse(bus.attach(device, -1));
+        assertFalse(bus.attach(device, PortBus.PORTS_COUNT));
+    }
+
+    @Test
+    public void testDeviceContextIsCalled() throws Exception {
+        DeviceContext<Short> device = createMock(DeviceContext.class);
+        expect(device.readData()).andReturn((short) 0x42).once();
+        device.writeData((short) 0x24);
+        expectLastCall().once();
+        replay(device);
+
+        PortBus bus = new PortBus(0);
+        bus.attach(device, 0x10);
+
+        assertEquals(0x42, bus.read(0x10));
+        bus.write(0x10, 0x24);
+        verify(device);
+    }
+
+    @Test
+    public void testIntPortHandlerIsCalledInsteadOfDeviceContext() throws Exception {
+        IntPortDevice device = createMock(IntPortDevice.class);
+        expect(device.readPort()).andReturn(0x42).once();
+        device.writePort(0x24);
+        expectLastCall().once();
+        replay(device);
+
+        PortBus bus = new PortBus(0);
+        bus.attach(device, 0x10);
+
+        assertEquals(0x42, bus.read(0x10));
+        bus.write(0x10, 0x24);
+        verify(device);
+    }
+
+    @Test
+    public void testDetachedPortReturnsDefaultValue() throws Exception {
+        DeviceContext<Short> device = createNiceMock(DeviceContext.class);
+        expect(device.readData()).andReturn((short) 0x42).anyTimes();
+        replay(device);
+
+        PortBus bus = new PortBus(0xFF);
+        bus.attach(device, 0x10);
+        bus.attach(device, 0x11);
+
+        assertTrue(bus.detach(0x10));
+        assertFalse(bus.detach(0x10));
+        assertEquals(0xFF, bus.read(0x10));
+        assertEquals(0x42, bus.read(0x11));
+
+        bus.clear();
+        assertEquals(0xFF, bus.read(0x11));
+        assertTrue(bus.attach(device, 0x11));
+    }
+}
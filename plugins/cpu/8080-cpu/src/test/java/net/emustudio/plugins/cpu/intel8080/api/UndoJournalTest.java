@@ -0,0 +1,150 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class UndoJournalTest {
+    private final static int INTERVAL = UndoJournal.CHECKPOINT_INTERVAL;
+
+    private static void record(UndoJournal journal, int count) {
+        for (int i = 0; i < count; i++) {
+            if (journal.beginInstruction()) {
+                journal.putState(0, journal.getInstructions() - 1);
+            }
+        }
+    }
+
+    @Test
+    public void testCheckpointIsStoredEveryInterval() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 1);
+        assertTrue(journal.beginInstruction());
+        for (int i = 1; i < INTERVAL; i++) {
+            assertFalse(journal.beginInstruction());
+        }
+        assertTrue(journal.beginInstruction());
+    }
+
+    @Test
+    public void testStartReplayReturnsToCheckpointAndUndoesWritesNewestFirst() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 1);
+        record(journal, INTERVAL + 5);
+        journal.recordWrite(0x1234, 0xAB);
+        journal.recordWrite(0x1234, 0xCD);
+        record(journal, 1);
+
+        List<Integer> restored = new ArrayList<>();
+        int count = journal.startReplay(INTERVAL + 3, (address, value) -> {
+            restored.add(address);
+            restored.add(value);
+        });
+        journal.endReplay();
+
+        assertEquals(3, count);
+        assertEquals(INTERVAL, journal.getState(0));
+        assertEquals(INTERVAL, journal.getInstructions());
+        assertEquals(List.of(0x1234, 0xCD, 0x1234, 0xAB), restored);
+    }
+
+    @Test
+    public void testInputsAndInterruptsAreReplayed() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 1);
+        record(journal, 3);
+        journal.recordInput((short) 0x42);
+        journal.recordInterrupt(0xC7);
+        record(journal, 1);
+        journal.recordInterrupt(0xCF);
+
+        journal.startReplay(3, (address, value) -> fail());
+        assertTrue(journal.isReplaying());
+        assertEquals(-1, journal.replayInterrupt());
+        record(journal, 2);
+        assertEquals(0x42, journal.replayInput());
+        assertEquals(0xC7, journal.replayInterrupt());
+        record(journal, 1);
+        assertEquals(0xCF, journal.replayInterrupt());
+        journal.endReplay();
+
+        assertFalse(journal.isReplaying());
+    }
+
+    @Test
+    public void testInterruptOfNextInstructionIsForgottenAfterReplay() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 1);
+        record(journal, 2);
+        journal.recordInterrupt(0xC7);
+        record(journal, 1);
+        journal.recordInput((short) 0x42);
+
+        int count = journal.startReplay(1, (address, value) -> fail());
+        record(journal, count);
+        assertEquals(0xC7, journal.replayInterrupt());
+        journal.endReplay();
+
+        // the interrupt is recorded again by the instruction
+        record(journal, 1);
+        journal.recordInterrupt(0xCF);
+        journal.startReplay(1, (address, value) -> fail());
+        record(journal, 1);
+        assertEquals(0xCF, journal.replayInterrupt());
+    }
+
+    @Test
+    public void testOldestInstructionsAreForgotten() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 1);
+        record(journal, 100 * INTERVAL);
+
+        assertTrue(journal.canReturnTo(100 * INTERVAL - 1));
+        assertFalse(journal.canReturnTo(0));
+        assertFalse(journal.canReturnTo(100 * INTERVAL));
+    }
+
+    @Test
+    public void testOverflowOfWritesShortensHistory() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 1);
+        record(journal, 1);
+        for (int i = 0; i <= 4 * INTERVAL; i++) {
+            journal.recordWrite(i, 0);
+        }
+        record(journal, INTERVAL);
+
+        assertFalse(journal.canReturnTo(0));
+        assertTrue(journal.canReturnTo(INTERVAL));
+    }
+
+    @Test
+    public void testClear() {
+        UndoJournal journal = new UndoJournal(4 * INTERVAL, 2);
+        record(journal, 10);
+        journal.clear();
+
+        assertEquals(0, journal.getInstructions());
+        assertFalse(journal.canReturnTo(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacityIsRejected() {
+        new UndoJournal(0, 1);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.intel8080.trace;
+
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter;
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter.Register;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TraceReaderTest {
+    private final static List<Register> REGISTERS = List.of(Register.ofByte("A"), Register.ofWord("SP"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path writeTrace(int recordsCount, int divergeAt) throws IOException {
+        Path file = folder.newFile().toPath();
+        try (TraceWriter writer = new TraceWriter(file, REGISTERS, 4)) {
+            for (int i = 0; i < recordsCount; i++) {
+                int a = (i == divergeAt) ? 0xFF : i & 0xFF;
+                writer.record(i * 4L, i & 0xFFFF, 0x04030201, new int[]{a, 0xFFFF - i});
+            }
+        }
+        return file;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRingCapacityMustBePowerOfTwo() throws IOException {
+        new TraceWriter(folder.newFile().toPath(), REGISTERS, 3);
+    }
+
+    @Test
+    public void testRecordsAreReadBack() throws IOException {
+        Path file = writeTrace(1000, -1);
+        assertEquals(20 + 2 * 5 + 1000 * (14 + 3), Files.size(file));
+
+        try (TraceReader reader = new TraceReader(file)) {
+            assertEquals(List.of("A", "SP"), reader.getRegisterNames());
+            assertEquals(1000, reader.getRecordsCount());
+
+            TraceRecord record = reader.createRecord();
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(reader.next(record));
+                assertEquals(i, record.index);
+                assertEquals(i * 4L, record.cycles);
+                assertEquals(i, record.pc);
+                assertEquals(1, record.getMemoryByte(0));
+                assertEquals(4, record.getMemoryByte(3));
+                assertEquals(i & 0xFF, record.registers[0]);
+                assertEquals(0xFFFF - i, record.registers[1]);
+            }
+            assertFalse(reader.next(record));
+        }
+    }
+
+    @Test
+    public void testSeek() throws IOException {
+        try (TraceReader reader = new TraceReader(writeTrace(100, -1))) {
+            TraceRecord record = reader.createRecord();
+            reader.seek(42);
+            assertTrue(reader.next(record));
+            assertEquals(42, record.pc);
+        }
+    }
+
+    @Test
+    public void testFormat() throws IOException {
+        try (TraceReader reader = new TraceReader(writeTrace(2, -1))) {
+            TraceRecord record = reader.createRecord();
+            reader.next(record);
+            reader.next(record);
+            assertEquals("         1 |            4 | PC=0001 | 01 02 03 04 | A=01 SP=FFFE", reader.format(record));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidFileIsRejected() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[100]);
+        new TraceReader(file);
+    }
+
+    @Test
+    public void testDiffFindsFirstDifference() throws IOException {
+        DiffCommand diff = new DiffCommand();
+        diff.firstFileName = writeTrace(100, -1).toString();
+        diff.secondFileName = writeTrace(100, 50).toString();
+        diff.context = 2;
+
+        String output = execute(diff);
+        assertTrue(output.contains("Traces differ at record 50 in: A"));
+        assertTrue(output.contains("        48 |"));
+        assertFalse(output.contains("        47 |"));
+    }
+
+    @Test
+    public void testDiffOfEqualTraces() throws IOException {
+        DiffCommand diff = new DiffCommand();
+        diff.firstFileName = writeTrace(100, -1).toString();
+        diff.secondFileName = writeTrace(100, -1).toString();
+
+        assertEquals("Traces are equal (100 records)", execute(diff).trim());
+    }
+
+    @Test
+    public void testDecodeFiltersPC() throws IOException {
+        DecodeCommand decode = new DecodeCommand();
+        decode.fileName = writeTrace(100, -1).toString();
+        decode.pcRange = "10-11";
+
+        String[] lines = execute(decode).trim().split("\\R");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("PC=0010"));
+        assertTrue(lines[1].contains("PC=0011"));
+    }
+
+    private String execute(TraceCommand command) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        command.execute(new PrintStream(output, true));
+        return output.toString();
+    }
+}
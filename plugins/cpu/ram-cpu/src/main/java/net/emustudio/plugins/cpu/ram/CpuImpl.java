@@ -142,26 +142,32 @@ public class CpuImpl extends AbstractCPU {
 
     @Override
     public RunState call() {
-        while (!Thread.currentThread().isInterrupted()) {
-            try {
-                if (isBreakpointSet(engine.IP)) {
-                    throw new Breakpoint();
-                }
-                RunState tmpRunState = stepInternal();
-                if (tmpRunState != RunState.STATE_STOPPED_BREAK) {
-                    return tmpRunState;
+        // registers are written to the storage tape when the run stops
+        engine.beginRun();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    if (isBreakpointSet(engine.IP)) {
+                        throw new Breakpoint();
+                    }
+                    RunState tmpRunState = engine.stepDecoded();
+                    if (tmpRunState != RunState.STATE_STOPPED_BREAK) {
+                        return tmpRunState;
+                    }
+                } catch (IndexOutOfBoundsException ex) {
+                    LOGGER.debug("Unexpected error", ex);
+                    return RunState.STATE_STOPPED_ADDR_FALLOUT;
+                } catch (IOException ex) {
+                    LOGGER.error("Unexpected error while reading/writing to the tape", ex);
+                    return RunState.STATE_STOPPED_BAD_INSTR;
+                } catch (Breakpoint breakpoint) {
+                    return RunState.STATE_STOPPED_BREAK;
                 }
-            } catch (IndexOutOfBoundsException ex) {
-                LOGGER.debug("Unexpected error", ex);
-                return RunState.STATE_STOPPED_ADDR_FALLOUT;
-            } catch (IOException ex) {
-                LOGGER.error("Unexpected error while reading/writing to the tape", ex);
-                return RunState.STATE_STOPPED_BAD_INSTR;
-            } catch (Breakpoint breakpoint) {
-                return RunState.STATE_STOPPED_BREAK;
             }
+            return RunState.STATE_STOPPED_NORMAL;
+        } finally {
+            engine.endRun();
         }
-        return RunState.STATE_STOPPED_NORMAL;
     }
 
     @Override
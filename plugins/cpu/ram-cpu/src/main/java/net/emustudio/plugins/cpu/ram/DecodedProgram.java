@@ -0,0 +1,90 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.ram;
+
+import net.emustudio.plugins.memory.ram.api.RAMInstruction;
+import net.emustudio.plugins.memory.ram.api.RAMMemoryContext;
+
+/**
+ * RAM program decoded into an int array, so it can be interpreted without casting and unboxing operands.
+ * <p>
+ * Each instruction takes {@link #INSTRUCTION_SIZE} ints: instruction code, operand mode and operand. The operand is
+ * a register number, a jump address, or an index of direct operand in {@link #constants}. Instructions which could
+ * not be decoded have code 0.
+ */
+class DecodedProgram {
+    final static int INSTRUCTION_SIZE = 3;
+
+    final static int MODE_REGISTER = 0;
+    final static int MODE_DIRECT = 1;
+    final static int MODE_INDIRECT = 2;
+
+    final int[] code;
+    final RegisterFile constants = new RegisterFile();
+
+    DecodedProgram(RAMMemoryContext memory) {
+        int size = memory.getSize();
+        code = new int[size * INSTRUCTION_SIZE];
+
+        for (int i = 0; i < size; i++) {
+            RAMInstruction instruction = memory.read(i);
+            if (instruction != null) {
+                decode(instruction, i * INSTRUCTION_SIZE);
+            }
+        }
+    }
+
+    int size() {
+        return code.length / INSTRUCTION_SIZE;
+    }
+
+    private void decode(RAMInstruction instruction, int index) {
+        int instrCode = instruction.getCode();
+        Object operand = instruction.getOperand();
+
+        int mode;
+        switch (instruction.getDirection()) {
+            case DIRECT:
+                mode = MODE_DIRECT;
+                break;
+            case INDIRECT:
+                mode = MODE_INDIRECT;
+                break;
+            default:
+                mode = MODE_REGISTER;
+        }
+
+        boolean isJump = instrCode == RAMInstruction.JMP || instrCode == RAMInstruction.JZ
+            || instrCode == RAMInstruction.JGTZ;
+        if (mode == MODE_DIRECT && !isJump) {
+            int constant = constants.size();
+            constants.setText(constant, String.valueOf(operand));
+            operand = constant;
+        } else if (!(operand instanceof Integer)) {
+            if (instrCode != RAMInstruction.HALT) {
+                return;
+            }
+            operand = 0;
+        }
+
+        code[index] = instrCode;
+        code[index + 1] = mode;
+        code[index + 2] = (Integer) operand;
+    }
+}
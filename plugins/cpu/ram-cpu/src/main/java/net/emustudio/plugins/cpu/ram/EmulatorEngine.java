@@ -27,37 +27,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.function.DoubleBinaryOperator;
-import java.util.function.IntBinaryOperator;
 
 public class EmulatorEngine {
     private static final Logger LOGGER = LoggerFactory.getLogger(EmulatorEngine.class);
 
-    private enum ArithOp {ADD, SUB, MUL, DIV}
-
-    private final static Map<ArithOp, IntBinaryOperator> INT_ARITH_OPS = new HashMap<>();
-    private final static Map<ArithOp, DoubleBinaryOperator> DBL_ARITH_OPS = new HashMap<>();
-
     private final RAMContext context;
     private final RAMMemoryContext memory;
+    private final RegisterFile registers = new RegisterFile();
+    private DecodedProgram program;
     public int IP;
 
-    static {
-        INT_ARITH_OPS.put(ArithOp.ADD, Integer::sum);
-        INT_ARITH_OPS.put(ArithOp.SUB, (a, b) -> a - b);
-        INT_ARITH_OPS.put(ArithOp.MUL, (a, b) -> a * b);
-        INT_ARITH_OPS.put(ArithOp.DIV, (a, b) -> a / b);
-
-        DBL_ARITH_OPS.put(ArithOp.ADD, Double::sum);
-        DBL_ARITH_OPS.put(ArithOp.SUB, (a, b) -> a - b);
-        DBL_ARITH_OPS.put(ArithOp.MUL, (a, b) -> a * b);
-        DBL_ARITH_OPS.put(ArithOp.DIV, (a, b) -> a / b);
-    }
-
     public EmulatorEngine(RAMContext context, RAMMemoryContext memory) {
         this.memory = Objects.requireNonNull(memory);
         this.context = Objects.requireNonNull(context);
@@ -99,7 +80,7 @@ public class EmulatorEngine {
                 return operand;
             case INDIRECT:
                 try {
-                    operand = Integer.decode(context.getStorage().getSymbolAt(operand));
+                    operand = getIntAt(context.getStorage(), operand);
                     if (operand < 0) {
                         throw new IOException("[" + instruction + "] Indirect operand must be > 0");
                     }
@@ -111,30 +92,89 @@ public class EmulatorEngine {
         throw new IOException("[" + instruction + "] Instruction cannot have DIRECT operand!");
     }
 
-    private String arithmetic(String sym0, String sym1, ArithOp op) throws IOException {
+    /**
+     * Get register value as an integer, as if it was decoded by {@link Integer#decode(String)}.
+     *
+     * @throws NumberFormatException if the register does not contain an integer
+     */
+    private static int getIntAt(AbstractTapeContext storage, int register) {
+        long value = storage.getLongAt(register);
+        if ((int) value != value) {
+            throw new NumberFormatException("Integer out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    private static int applyInt(int instrCode, int a, int b) {
+        switch (instrCode) {
+            case RAMInstruction.ADD:
+                return a + b;
+            case RAMInstruction.SUB:
+                return a - b;
+            case RAMInstruction.MUL:
+                return a * b;
+            case RAMInstruction.DIV:
+                return a / b;
+        }
+        throw new IllegalArgumentException("Not an arithmetic instruction: " + instrCode);
+    }
+
+    private static double applyDouble(int instrCode, double a, double b) {
+        switch (instrCode) {
+            case RAMInstruction.ADD:
+                return a + b;
+            case RAMInstruction.SUB:
+                return a - b;
+            case RAMInstruction.MUL:
+                return a * b;
+            case RAMInstruction.DIV:
+                return a / b;
+        }
+        throw new IllegalArgumentException("Not an arithmetic instruction: " + instrCode);
+    }
+
+    private void arithmetic(RAMInstruction in) throws IOException {
+        AbstractTapeContext storage = context.getStorage();
+        boolean direct = in.getDirection() == RAMInstruction.Direction.DIRECT;
+        Object directOperand = in.getOperand();
+        int register = direct ? 0 : getIntegerOperand(in);
+
         try {
-            return String.valueOf(
-                INT_ARITH_OPS.get(op).applyAsInt(Integer.decode(sym0), Integer.decode(sym1))
-            );
+            int num0 = getIntAt(storage, 0);
+            int num1;
+            if (!direct) {
+                num1 = getIntAt(storage, register);
+            } else if (directOperand instanceof Integer) {
+                num1 = (Integer) directOperand;
+            } else {
+                num1 = Integer.decode(String.valueOf(directOperand));
+            }
+            storage.setLongAt(0, applyInt(in.getCode(), num0, num1));
         } catch (NumberFormatException e) {
             try {
-                return String.valueOf(
-                    DBL_ARITH_OPS.get(op).applyAsDouble(Double.parseDouble(sym0), Double.parseDouble(sym1))
-                );
+                double num0 = storage.getDoubleAt(0);
+                double num1 = direct ? Double.parseDouble(String.valueOf(directOperand)) : storage.getDoubleAt(register);
+                storage.setDoubleAt(0, applyDouble(in.getCode(), num0, num1));
             } catch (NumberFormatException x) {
-                throw new IOException("Could not parse numbers " + sym0 + " and/or " + sym1, e);
+                String sym1 = direct ? String.valueOf(directOperand) : storage.getSymbolAt(register);
+                throw new IOException("Could not parse numbers " + storage.getSymbolAt(0) + " and/or " + sym1, e);
             }
         }
     }
 
-    private Number decode(String num) {
-        if (num == null || num.isEmpty()) {
-            return 0;
-        }
+    private int decodeIntAt(AbstractTapeContext storage, int register) {
         try {
-            return Integer.decode(num);
+            return getIntAt(storage, register);
         } catch (NumberFormatException e) {
-            return Double.parseDouble(num);
+            try {
+                return (int) storage.getDoubleAt(register);
+            } catch (NumberFormatException x) {
+                String symbol = storage.getSymbolAt(register);
+                if (symbol == null || symbol.isEmpty()) {
+                    return 0;
+                }
+                throw x;
+            }
         }
     }
 
@@ -147,7 +187,6 @@ public class EmulatorEngine {
         }
 
         int operand;
-        String sym0, sym1;
 
         switch (in.getCode()) {
             case RAMInstruction.READ:
@@ -170,76 +209,139 @@ public class EmulatorEngine {
                     storage.setSymbolAt(0, String.valueOf(in.getOperand()));
                 } else {
                     operand = getIntegerOperand(in);
-                    storage.setSymbolAt(0, storage.getSymbolAt(operand));
+                    storage.copySymbol(operand, 0);
                 }
                 break;
             case RAMInstruction.STORE:
                 operand = getIntegerOperand(in);
-                storage.setSymbolAt(operand, storage.getSymbolAt(0));
+                storage.copySymbol(0, operand);
                 break;
             case RAMInstruction.ADD:
-                sym0 = storage.getSymbolAt(0);
-
-                if (in.getDirection() == RAMInstruction.Direction.DIRECT) {
-                    sym1 = String.valueOf(in.getOperand());
-                } else {
-                    sym1 = storage.getSymbolAt(getIntegerOperand(in));
+            case RAMInstruction.SUB:
+            case RAMInstruction.MUL:
+            case RAMInstruction.DIV:
+                arithmetic(in);
+                break;
+            case RAMInstruction.JMP:
+                IP = (Integer) in.getOperand();
+                break;
+            case RAMInstruction.JZ: {
+                try {
+                    if (decodeIntAt(storage, 0) == 0) {
+                        IP = (Integer) in.getOperand();
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.error("[pos={}, JZ {}] Cannot parse operand (expected integer)", IP, storage.getSymbolAt(0));
+                    return CPU.RunState.STATE_STOPPED_BAD_INSTR;
                 }
-                storage.setSymbolAt(0, arithmetic(sym0, sym1, ArithOp.ADD));
                 break;
-            case RAMInstruction.SUB:
-                sym0 = storage.getSymbolAt(0);
-
-                if (in.getDirection() == RAMInstruction.Direction.DIRECT) {
-                    sym1 = String.valueOf(in.getOperand());
-                } else {
-                    sym1 = storage.getSymbolAt(getIntegerOperand(in));
+            }
+            case RAMInstruction.JGTZ:
+                try {
+                    if (decodeIntAt(storage, 0) > 0) {
+                        IP = (Integer) in.getOperand();
+                    }
+                } catch (NumberFormatException e) {
+                    LOGGER.error("[pos={}, JGTZ {}] Cannot parse operand (expected integer)", IP, storage.getSymbolAt(0));
+                    return CPU.RunState.STATE_STOPPED_BAD_INSTR;
                 }
-                storage.setSymbolAt(0, arithmetic(sym0, sym1, ArithOp.SUB));
                 break;
-            case RAMInstruction.MUL:
-                sym0 = storage.getSymbolAt(0);
+            case RAMInstruction.HALT:
+                return CPU.RunState.STATE_STOPPED_NORMAL;
+            default:
+                return CPU.RunState.STATE_STOPPED_BAD_INSTR;
+        }
+        return CPU.RunState.STATE_STOPPED_BREAK;
+    }
 
-                if (in.getDirection() == RAMInstruction.Direction.DIRECT) {
-                    sym1 = String.valueOf(in.getOperand());
+    /**
+     * Prepare for running the program with {@link #stepDecoded()}.
+     * <p>
+     * The program is decoded from memory and registers are loaded from the storage tape. Until {@link #endRun()}
+     * is called, registers are kept in a register file and the storage tape is not updated.
+     */
+    public void beginRun() {
+        program = new DecodedProgram(memory);
+        registers.load(context.getStorage());
+    }
+
+    /**
+     * Write changed registers back to the storage tape and forget the decoded program.
+     */
+    public void endRun() {
+        registers.flush(context.getStorage());
+        program = null;
+    }
+
+    /**
+     * Execute one instruction of the decoded program. Must be called between {@link #beginRun()} and
+     * {@link #endRun()}.
+     * <p>
+     * The behavior is the same as of {@link #step()}.
+     *
+     * @return CPU run state after the instruction
+     * @throws IOException if an operand is invalid
+     */
+    public CPU.RunState stepDecoded() throws IOException {
+        int[] code = program.code;
+        int index = IP++ * DecodedProgram.INSTRUCTION_SIZE;
+
+        int instrCode = code[index];
+        int mode = code[index + 1];
+        int operand = code[index + 2];
+
+        switch (instrCode) {
+            case RAMInstruction.READ: {
+                int register = getRegister(mode, operand);
+                String input = context.getInput().readData();
+                context.getInput().moveRight();
+                registers.setText(register, input);
+                break;
+            }
+            case RAMInstruction.WRITE:
+                if (mode == DecodedProgram.MODE_DIRECT) {
+                    context.getOutput().writeData(program.constants.getText(operand));
                 } else {
-                    sym1 = storage.getSymbolAt(getIntegerOperand(in));
+                    context.getOutput().writeData(registers.getText(getRegister(mode, operand)));
                 }
-                storage.setSymbolAt(0, arithmetic(sym0, sym1, ArithOp.MUL));
+                context.getOutput().moveRight();
                 break;
-            case RAMInstruction.DIV:
-                sym0 = storage.getSymbolAt(0);
-
-                if (in.getDirection() == RAMInstruction.Direction.DIRECT) {
-                    sym1 = String.valueOf(in.getOperand());
+            case RAMInstruction.LOAD:
+                if (mode == DecodedProgram.MODE_DIRECT) {
+                    registers.copy(program.constants, operand, 0);
                 } else {
-                    sym1 = storage.getSymbolAt(getIntegerOperand(in));
+                    registers.copy(registers, getRegister(mode, operand), 0);
                 }
-                storage.setSymbolAt(0, arithmetic(sym0, sym1, ArithOp.DIV));
+                break;
+            case RAMInstruction.STORE:
+                registers.copy(registers, 0, getRegister(mode, operand));
+                break;
+            case RAMInstruction.ADD:
+            case RAMInstruction.SUB:
+            case RAMInstruction.MUL:
+            case RAMInstruction.DIV:
+                arithmeticDecoded(instrCode, mode, operand);
                 break;
             case RAMInstruction.JMP:
-                IP = (Integer) in.getOperand();
+                IP = operand;
                 break;
-            case RAMInstruction.JZ: {
-                String r0 = storage.getSymbolAt(0);
+            case RAMInstruction.JZ:
                 try {
-                    if (decode(r0).intValue() == 0) {
-                        IP = (Integer) in.getOperand();
+                    if (decodeRegister(0) == 0) {
+                        IP = operand;
                     }
                 } catch (NumberFormatException e) {
-                    LOGGER.error("[pos={}, JZ {}] Cannot parse operand (expected integer)", IP, r0);
+                    LOGGER.error("[pos={}, JZ {}] Cannot parse operand (expected integer)", IP, registers.getText(0));
                     return CPU.RunState.STATE_STOPPED_BAD_INSTR;
                 }
                 break;
-            }
             case RAMInstruction.JGTZ:
-                String r0 = storage.getSymbolAt(0);
                 try {
-                    if (decode(r0).intValue() > 0) {
-                        IP = (Integer) in.getOperand();
+                    if (decodeRegister(0) > 0) {
+                        IP = operand;
                     }
                 } catch (NumberFormatException e) {
-                    LOGGER.error("[pos={}, JGTZ {}] Cannot parse operand (expected integer)", IP, r0);
+                    LOGGER.error("[pos={}, JGTZ {}] Cannot parse operand (expected integer)", IP, registers.getText(0));
                     return CPU.RunState.STATE_STOPPED_BAD_INSTR;
                 }
                 break;
@@ -250,4 +352,52 @@ public class EmulatorEngine {
         }
         return CPU.RunState.STATE_STOPPED_BREAK;
     }
+
+    private int getRegister(int mode, int operand) throws IOException {
+        switch (mode) {
+            case DecodedProgram.MODE_REGISTER:
+                return operand;
+            case DecodedProgram.MODE_INDIRECT:
+                if (!registers.isInt(operand)) {
+                    throw new IOException("[" + memory.read(IP - 1) + "] Could not parse number");
+                }
+                int register = (int) registers.getLong(operand);
+                if (register < 0) {
+                    throw new IOException("[" + memory.read(IP - 1) + "] Indirect operand must be > 0");
+                }
+                return register;
+        }
+        throw new IOException("[" + memory.read(IP - 1) + "] Instruction cannot have DIRECT operand!");
+    }
+
+    private void arithmeticDecoded(int instrCode, int mode, int operand) throws IOException {
+        boolean direct = mode == DecodedProgram.MODE_DIRECT;
+        RegisterFile source = direct ? program.constants : registers;
+        int register = direct ? operand : getRegister(mode, operand);
+
+        if (registers.isInt(0) && source.isInt(register)) {
+            int num0 = (int) registers.getLong(0);
+            int num1 = (int) source.getLong(register);
+            registers.setLong(0, applyInt(instrCode, num0, num1));
+        } else if (registers.isDouble(0) && source.isDouble(register)) {
+            registers.setDouble(0, applyDouble(instrCode, registers.getDouble(0), source.getDouble(register)));
+        } else {
+            throw new IOException(
+                "Could not parse numbers " + registers.getText(0) + " and/or " + source.getText(register)
+            );
+        }
+    }
+
+    private int decodeRegister(int register) {
+        if (registers.isInt(register)) {
+            return (int) registers.getLong(register);
+        } else if (registers.isDouble(register)) {
+            return (int) registers.getDouble(register);
+        }
+        String symbol = registers.getText(register);
+        if (symbol.isEmpty()) {
+            return 0;
+        }
+        throw new NumberFormatException("Not a number: " + symbol);
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.ram;
+
+import net.emustudio.plugins.device.abstracttape.api.AbstractTapeContext;
+import net.emustudio.plugins.device.abstracttape.api.TapeCells;
+
+import java.util.BitSet;
+
+/**
+ * RAM registers used while the program is running.
+ * <p>
+ * Registers are kept in {@link TapeCells}, so they hold string symbols, integers or floating-point numbers in the
+ * same way as storage tape cells do. Changed registers are marked dirty and written back to the storage tape by
+ * {@link #flush(AbstractTapeContext)}.
+ * <p>
+ * Registers which were never set are empty, i.e. they contain an empty symbol.
+ * <p>
+ * The class is not thread-safe.
+ */
+class RegisterFile {
+    private final TapeCells cells = new TapeCells();
+    private final BitSet dirty = new BitSet();
+
+    int size() {
+        return cells.size();
+    }
+
+    void clear() {
+        cells.clear();
+        dirty.clear();
+    }
+
+    /**
+     * Replace all registers with symbols of given tape.
+     *
+     * @param tape storage tape
+     */
+    void load(AbstractTapeContext tape) {
+        dirty.clear();
+        tape.copyTo(cells);
+    }
+
+    /**
+     * Write dirty registers to given tape.
+     *
+     * @param tape storage tape
+     */
+    void flush(AbstractTapeContext tape) {
+        for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+            if (cells.hasText(i)) {
+                tape.setSymbolAt(i, getText(i));
+            } else if (cells.isLong(i)) {
+                tape.setLongAt(i, cells.getLong(i));
+            } else {
+                tape.setDoubleAt(i, cells.getDouble(i));
+            }
+        }
+        dirty.clear();
+    }
+
+    String getText(int register) {
+        if (register >= cells.size()) {
+            return "";
+        }
+        String text = cells.getText(register);
+        return (text == null) ? "" : text;
+    }
+
+    void setText(int register, String symbol) {
+        cells.growTo(register + 1);
+        cells.setText(register, symbol);
+        dirty.set(register);
+    }
+
+    /**
+     * Determine if the register holds an integer, as decided by {@link Long#decode(String)}.
+     *
+     * @param register register number
+     * @return true if {@link #getLong(int)} can be called
+     */
+    boolean isLong(int register) {
+        return register < cells.size() && cells.isLong(register);
+    }
+
+    /**
+     * Determine if the register holds an integer which fits into int.
+     *
+     * @param register register number
+     * @return true if {@link #getLong(int)} can be called and the result can be cast to int
+     */
+    boolean isInt(int register) {
+        if (!isLong(register)) {
+            return false;
+        }
+        long value = cells.getLong(register);
+        return (int) value == value;
+    }
+
+    /**
+     * Get the register as an integer. Valid only if {@link #isLong(int)} returns true.
+     *
+     * @param register register number
+     * @return integer value of the register
+     */
+    long getLong(int register) {
+        return cells.getLong(register);
+    }
+
+    void setLong(int register, long value) {
+        cells.growTo(register + 1);
+        cells.setLong(register, value);
+        dirty.set(register);
+    }
+
+    /**
+     * Determine if the register holds a number, as decided by {@link Double#parseDouble(String)}.
+     *
+     * @param register register number
+     * @return true if {@link #getDouble(int)} can be called
+     */
+    boolean isDouble(int register) {
+        return register < cells.size() && cells.isDouble(register);
+    }
+
+    /**
+     * Get the register as a floating-point number. Valid only if {@link #isDouble(int)} returns true.
+     *
+     * @param register register number
+     * @return floating-point value of the register
+     */
+    double getDouble(int register) {
+        return cells.getDouble(register);
+    }
+
+    void setDouble(int register, double value) {
+        cells.growTo(register + 1);
+        cells.setDouble(register, value);
+        dirty.set(register);
+    }
+
+    /**
+     * Copy a register, including already parsed numbers.
+     *
+     * @param from source register file
+     * @param fromRegister source register number
+     * @param toRegister target register number in this register file
+     */
+    void copy(RegisterFile from, int fromRegister, int toRegister) {
+        cells.growTo(toRegister + 1);
+        if (fromRegister >= from.cells.size()) {
+            cells.setText(toRegister, "");
+        } else {
+            cells.copy(from.cells, fromRegister, toRegister);
+        }
+        dirty.set(toRegister);
+    }
+}
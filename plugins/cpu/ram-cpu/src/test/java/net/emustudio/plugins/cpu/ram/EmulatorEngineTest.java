@@ -31,9 +31,10 @@ import java.io.IOException;
 import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyInt;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.*;
 
 public class EmulatorEngineTest {
 
@@ -59,10 +60,137 @@ public class EmulatorEngineTest {
         assertEquals(0, engine.IP);
     }
 
+    @Test
+    public void testDecodedJZwithFloatingPoint() throws Exception {
+        EmulatorEngine engine = createEngineForInputTest(
+            "5.5", new RAMInstructionImpl(RAMInstruction.JZ, RAMInstruction.Direction.REGISTER, 0)
+        );
+
+        engine.beginRun();
+        assertEquals(CPU.RunState.STATE_STOPPED_BREAK, engine.stepDecoded());
+        assertEquals(CPU.RunState.STATE_STOPPED_BREAK, engine.stepDecoded());
+        engine.endRun();
+        assertEquals(2, engine.IP);
+    }
+
+    @Test
+    public void testDecodedJGTZwithFloatingPoint() throws Exception {
+        EmulatorEngine engine = createEngineForInputTest(
+            "5.5", new RAMInstructionImpl(RAMInstruction.JGTZ, RAMInstruction.Direction.REGISTER, 0)
+        );
+
+        engine.beginRun();
+        assertEquals(CPU.RunState.STATE_STOPPED_BREAK, engine.stepDecoded());
+        assertEquals(CPU.RunState.STATE_STOPPED_BREAK, engine.stepDecoded());
+        engine.endRun();
+        assertEquals(0, engine.IP);
+    }
+
+    @Test
+    public void testDecodedIntegerArithmeticIsStoredAtEndOfRun() throws Exception {
+        AbstractTapeContext storageT = mock(AbstractTapeContext.class);
+        EmulatorEngine engine = new EmulatorEngine(mockContext(storageT, mock(AbstractTapeContext.class)), mockMemory(
+            new RAMInstruction[]{
+                new RAMInstructionImpl(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "5"),
+                new RAMInstructionImpl(RAMInstruction.ADD, RAMInstruction.Direction.DIRECT, "3"),
+                new RAMInstructionImpl(RAMInstruction.STORE, RAMInstruction.Direction.REGISTER, 1),
+                new RAMInstructionImpl(RAMInstruction.MUL, RAMInstruction.Direction.REGISTER, 1),
+                new RAMInstructionImpl(RAMInstruction.HALT, RAMInstruction.Direction.REGISTER, null)
+            }
+        ));
+
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, runDecoded(engine));
+        verify(storageT, never()).setLongAt(anyInt(), anyLong());
+
+        engine.endRun();
+        verify(storageT).setLongAt(0, 64);
+        verify(storageT).setLongAt(1, 8);
+    }
+
+    @Test
+    public void testDecodedFloatingPointArithmetic() throws Exception {
+        AbstractTapeContext storageT = mock(AbstractTapeContext.class);
+        EmulatorEngine engine = new EmulatorEngine(mockContext(storageT, mock(AbstractTapeContext.class)), mockMemory(
+            new RAMInstruction[]{
+                new RAMInstructionImpl(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "1.5"),
+                new RAMInstructionImpl(RAMInstruction.ADD, RAMInstruction.Direction.DIRECT, "1"),
+                new RAMInstructionImpl(RAMInstruction.HALT, RAMInstruction.Direction.REGISTER, null)
+            }
+        ));
+
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, runDecoded(engine));
+        engine.endRun();
+        verify(storageT).setDoubleAt(0, 2.5);
+    }
+
+    @Test
+    public void testDecodedIndirectStore() throws Exception {
+        AbstractTapeContext storageT = mock(AbstractTapeContext.class);
+        EmulatorEngine engine = new EmulatorEngine(mockContext(storageT, mock(AbstractTapeContext.class)), mockMemory(
+            new RAMInstruction[]{
+                new RAMInstructionImpl(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "3"),
+                new RAMInstructionImpl(RAMInstruction.STORE, RAMInstruction.Direction.REGISTER, 2),
+                new RAMInstructionImpl(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "abc"),
+                new RAMInstructionImpl(RAMInstruction.STORE, RAMInstruction.Direction.INDIRECT, 2),
+                new RAMInstructionImpl(RAMInstruction.HALT, RAMInstruction.Direction.REGISTER, null)
+            }
+        ));
+
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, runDecoded(engine));
+        engine.endRun();
+        verify(storageT).setSymbolAt(2, "3");
+        verify(storageT).setSymbolAt(3, "abc");
+    }
+
+    @Test
+    public void testDecodedArithmeticWithTextFails() throws Exception {
+        AbstractTapeContext storageT = mock(AbstractTapeContext.class);
+        EmulatorEngine engine = new EmulatorEngine(mockContext(storageT, mock(AbstractTapeContext.class)), mockMemory(
+            new RAMInstruction[]{
+                new RAMInstructionImpl(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "abc"),
+                new RAMInstructionImpl(RAMInstruction.ADD, RAMInstruction.Direction.DIRECT, "1")
+            }
+        ));
+
+        engine.beginRun();
+        engine.stepDecoded();
+        try {
+            engine.stepDecoded();
+            fail("Expected IOException");
+        } catch (IOException ignored) {
+        }
+        engine.endRun();
+        verify(storageT).setSymbolAt(0, "abc");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testDecodedJumpOutOfProgram() throws Exception {
+        EmulatorEngine engine = new EmulatorEngine(
+            mockContext(mock(AbstractTapeContext.class), mock(AbstractTapeContext.class)),
+            mockMemory(new RAMInstruction[]{
+                new RAMInstructionImpl(RAMInstruction.JMP, RAMInstruction.Direction.REGISTER, 5)
+            })
+        );
+
+        engine.beginRun();
+        engine.stepDecoded();
+        engine.stepDecoded();
+    }
+
+    private CPU.RunState runDecoded(EmulatorEngine engine) throws IOException {
+        engine.beginRun();
+        CPU.RunState state;
+        do {
+            state = engine.stepDecoded();
+        } while (state == CPU.RunState.STATE_STOPPED_BREAK);
+        return state;
+    }
 
     private EmulatorEngine createEngineForInputTest(String input, RAMInstruction testedInstruction) throws IOException {
         AbstractTapeContext storageT = mock(AbstractTapeContext.class);
         when(storageT.getSymbolAt(0)).thenReturn(input);
+        when(storageT.getLongAt(0)).thenThrow(new NumberFormatException());
+        when(storageT.getDoubleAt(0)).thenReturn(Double.parseDouble(input));
 
         AbstractTapeContext inputT = mock(AbstractTapeContext.class);
         when(inputT.readData()).thenReturn(input);
@@ -93,6 +221,7 @@ public class EmulatorEngineTest {
 
         when(context.getInputs()).thenReturn(Arrays.asList(inputs));
         when(context.getLabel(anyInt())).thenReturn("");
+        when(context.getSize()).thenReturn(program.length);
 
         for (int i = 0; i < program.length; i++) {
             when(context.read(i)).thenReturn(program[i]);
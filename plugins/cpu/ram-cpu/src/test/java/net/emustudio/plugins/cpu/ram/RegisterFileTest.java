@@ -0,0 +1,188 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.ram;
+
+import net.emustudio.plugins.device.abstracttape.api.AbstractTapeContext;
+import net.emustudio.plugins.device.abstracttape.api.TapeCells;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class RegisterFileTest {
+
+    @Test
+    public void testUnsetRegisterIsEmpty() {
+        RegisterFile registers = new RegisterFile();
+
+        assertEquals("", registers.getText(5));
+        assertFalse(registers.isLong(5));
+        assertFalse(registers.isDouble(5));
+    }
+
+    @Test
+    public void testTextIsDecodedAsInteger() {
+        RegisterFile registers = new RegisterFile();
+        registers.setText(0, "0x10");
+
+        assertTrue(registers.isInt(0));
+        assertEquals(16, registers.getLong(0));
+        assertEquals("0x10", registers.getText(0));
+    }
+
+    @Test
+    public void testLongOutOfIntRangeIsNotInt() {
+        RegisterFile registers = new RegisterFile();
+        registers.setLong(0, Integer.MAX_VALUE + 1L);
+
+        assertTrue(registers.isLong(0));
+        assertFalse(registers.isInt(0));
+        assertTrue(registers.isDouble(0));
+        assertEquals(Integer.MAX_VALUE + 1.0, registers.getDouble(0), 0);
+    }
+
+    @Test
+    public void testFloatingPointTextIsNotInteger() {
+        RegisterFile registers = new RegisterFile();
+        registers.setText(0, "5.5");
+
+        assertFalse(registers.isLong(0));
+        assertTrue(registers.isDouble(0));
+        assertEquals(5.5, registers.getDouble(0), 0);
+    }
+
+    @Test
+    public void testNumbersAreConvertedToText() {
+        RegisterFile registers = new RegisterFile();
+        registers.setLong(0, 42);
+        registers.setDouble(1, 2.5);
+
+        assertEquals("42", registers.getText(0));
+        assertEquals("2.5", registers.getText(1));
+        assertFalse(registers.isLong(1));
+    }
+
+    @Test
+    public void testCopyKeepsParsedValue() {
+        RegisterFile constants = new RegisterFile();
+        constants.setText(0, "0x10");
+        assertTrue(constants.isLong(0));
+
+        RegisterFile registers = new RegisterFile();
+        registers.copy(constants, 0, 3);
+
+        assertEquals(4, registers.size());
+        assertEquals("0x10", registers.getText(3));
+        assertEquals(16, registers.getLong(3));
+    }
+
+    @Test
+    public void testCopyOfUnsetRegisterIsEmpty() {
+        RegisterFile registers = new RegisterFile();
+        registers.setLong(0, 1);
+        registers.copy(registers, 100, 0);
+
+        assertEquals("", registers.getText(0));
+        assertFalse(registers.isLong(0));
+    }
+
+    @Test
+    public void testRegistersGrow() {
+        RegisterFile registers = new RegisterFile();
+        registers.setLong(1000, 7);
+
+        assertEquals(1001, registers.size());
+        assertEquals(7, registers.getLong(1000));
+        assertEquals("", registers.getText(999));
+    }
+
+    private AbstractTapeContext mockTape(TapeCells content) {
+        AbstractTapeContext tape = mock(AbstractTapeContext.class);
+        doAnswer(invocation -> {
+            ((TapeCells) invocation.getArguments()[0]).setAll(content);
+            return null;
+        }).when(tape).copyTo(any(TapeCells.class));
+        return tape;
+    }
+
+    @Test
+    public void testLoadKeepsNumbers() {
+        TapeCells content = new TapeCells();
+        content.growTo(2);
+        content.setLong(0, 7);
+        content.setDouble(1, 2.5);
+        AbstractTapeContext tape = mockTape(content);
+
+        RegisterFile registers = new RegisterFile();
+        registers.setText(5, "x");
+        registers.load(tape);
+
+        assertEquals(2, registers.size());
+        assertTrue(registers.isInt(0));
+        assertEquals(7, registers.getLong(0));
+        assertFalse(registers.isLong(1));
+        assertEquals(2.5, registers.getDouble(1), 0);
+        verify(tape, never()).getSymbolAt(anyInt());
+
+        registers.flush(tape);
+        verify(tape, never()).setSymbolAt(anyInt(), anyString());
+    }
+
+    @Test
+    public void testFlushWritesOnlyChangedRegisters() {
+        TapeCells content = new TapeCells();
+        content.addLast("1");
+        content.addLast("abc");
+        content.addLast("2.5");
+        AbstractTapeContext tape = mockTape(content);
+
+        RegisterFile registers = new RegisterFile();
+        registers.load(tape);
+        assertEquals("abc", registers.getText(1));
+        assertTrue(registers.isLong(0));
+
+        registers.setLong(0, 5);
+        registers.setDouble(4, 1.5);
+        registers.copy(registers, 1, 3);
+        registers.flush(tape);
+
+        verify(tape).setLongAt(0, 5);
+        verify(tape).setDoubleAt(4, 1.5);
+        verify(tape).setSymbolAt(3, "abc");
+        verify(tape, never()).setSymbolAt(eq(1), anyString());
+        verify(tape, never()).setSymbolAt(eq(2), anyString());
+        verify(tape, never()).setLongAt(eq(2), anyLong());
+    }
+
+    @Test
+    public void testFlushClearsChanges() {
+        AbstractTapeContext tape = mock(AbstractTapeContext.class);
+
+        RegisterFile registers = new RegisterFile();
+        registers.setLong(0, 5);
+        registers.flush(tape);
+        registers.flush(tape);
+
+        verify(tape, times(1)).setLongAt(0, 5);
+    }
+}
@@ -20,19 +20,18 @@ package net.emustudio.plugins.cpu.zilogZ80;
 
 import net.emustudio.emulib.plugins.device.DeviceContext;
 import net.emustudio.plugins.cpu.intel8080.api.ExtendedContext;
+import net.emustudio.plugins.cpu.intel8080.api.PortBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 public final class ContextImpl implements ExtendedContext {
     private final static int NO_DATA = 0xFF;
     public final static int DEFAULT_FREQUENCY_KHZ = 20000;
 
     private final static Logger LOGGER = LoggerFactory.getLogger(ContextImpl.class);
-    private final ConcurrentMap<Integer, DeviceContext<Short>> devices = new ConcurrentHashMap<>();
+    private final PortBus ports = new PortBus(NO_DATA);
 
     private volatile EmulatorEngine cpu;
     private volatile int clockFrequency = DEFAULT_FREQUENCY_KHZ;
@@ -44,39 +43,30 @@ public final class ContextImpl implements ExtendedContext {
     // device mapping = only one device can be attached to one port
     @Override
     public boolean attachDevice(DeviceContext<Short> device, int port) {
-        if (devices.containsKey(port)) {
-            return false;
-        }
-        if (devices.putIfAbsent(port, device) == null) {
+        if (ports.attach(device, port)) {
             LOGGER.debug("[port={}] Attached device: {}", port, device);
+            return true;
         }
-        return true;
+        return false;
     }
 
     @Override
     public void detachDevice(int port) {
-        if (devices.remove(port) != null) {
+        if (ports.detach(port)) {
             LOGGER.debug("Detached device from port " + port);
         }
     }
 
     void clearDevices() {
-        devices.clear();
+        ports.clear();
     }
 
     void writeIO(int port, int val) throws IOException {
-        DeviceContext<Short> device = devices.get(port);
-        if (device != null) {
-            device.writeData((short) val);
-        }
+        ports.write(port, val);
     }
 
     short readIO(int port) throws IOException {
-        DeviceContext<Short> device = devices.get(port);
-        if (device != null) {
-            return device.readData();
-        }
-        return NO_DATA;
+        return (short) ports.read(port);
     }
 
     @Override
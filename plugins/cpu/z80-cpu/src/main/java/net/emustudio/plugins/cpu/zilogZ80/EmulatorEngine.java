@@ -22,20 +22,24 @@ import net.emustudio.emulib.plugins.cpu.CPU;
 import net.emustudio.emulib.plugins.cpu.CPU.RunState;
 import net.emustudio.emulib.plugins.device.DeviceContext;
 import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
 import net.emustudio.plugins.cpu.intel8080.api.CpuEngine;
 import net.emustudio.plugins.cpu.intel8080.api.DispatchListener;
 import net.emustudio.plugins.cpu.intel8080.api.FrequencyChangedListener;
+import net.emustudio.plugins.cpu.intel8080.api.Pacer;
+import net.emustudio.plugins.cpu.intel8080.api.UndoJournal;
+import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Main implementation class for CPU emulation CPU works in a separate thread
@@ -57,6 +61,7 @@ public class EmulatorEngine implements CpuEngine {
 
     private final ContextImpl context;
     private final MemoryContext<Short> memory;
+    private final StandardMemoryContext fastMemory;
     private final List<FrequencyChangedListener> frequencyChangedListeners = new CopyOnWriteArrayList<>();
 
     public final int[] regs = new int[8];
@@ -83,13 +88,18 @@ public class EmulatorEngine implements CpuEngine {
     private DeviceContext<?> interruptDevice;
 
     private RunState currentRunState = RunState.STATE_STOPPED_NORMAL;
-    private long executedCycles = 0;
+    private final AtomicLong executedCycles = new AtomicLong();
 
     private volatile DispatchListener dispatchListener;
+    private volatile Pacer pacer = new Pacer(Pacer.DEFAULT_SLICE_MILLIS, true);
+    private volatile UndoJournal journal;
+    private final UndoJournal.MemoryRestorer memoryRestorer;
 
     public EmulatorEngine(MemoryContext<Short> memory, ContextImpl context) {
         this.memory = Objects.requireNonNull(memory);
+        this.fastMemory = (memory instanceof StandardMemoryContext) ? (StandardMemoryContext) memory : null;
         this.context = Objects.requireNonNull(context);
+        this.memoryRestorer = (address, value) -> memory.write(address, (short) value);
     }
 
     @Override
@@ -97,11 +107,14 @@ public class EmulatorEngine implements CpuEngine {
         this.dispatchListener = dispatchListener;
     }
 
+    @Override
+    public void setPacer(Pacer pacer) {
+        this.pacer = Objects.requireNonNull(pacer);
+    }
+
     @Override
     public long getAndResetExecutedCycles() {
-        long tmpExecutedCycles = executedCycles;
-        executedCycles = 0;
-        return tmpExecutedCycles;
+        return executedCycles.getAndSet(0);
     }
 
     public void addFrequencyChangedListener(FrequencyChangedListener listener) {
@@ -119,6 +132,158 @@ public class EmulatorEngine implements CpuEngine {
         }
     }
 
+    /**
+     * Enable or disable remembering executed instructions for stepping back.
+     *
+     * @param instructions number of instructions which should be possible to undo; 0 disables the history
+     */
+    @Override
+    public void setStepBackHistory(int instructions) {
+        journal = (instructions > 0) ? new UndoJournal(instructions, 4) : null;
+    }
+
+    /**
+     * Undo the last executed instruction. The CPU must not be running.
+     * <p>
+     * The CPU returns to the nearest older checkpoint and replays instructions from there, with inputs and
+     * interrupts taken from the history. Devices are not affected. Changes done by the user (e.g. in memory) are
+     * not undone.
+     *
+     * @return true if the instruction was undone; false if there is no history
+     */
+    boolean stepBack() {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null || !tmpJournal.canReturnTo(tmpJournal.getInstructions() - 1)) {
+            return false;
+        }
+        replayTo(tmpJournal, tmpJournal.getInstructions() - 1, null);
+        return true;
+    }
+
+    /**
+     * Undo executed instructions until a breakpoint is reached or the history is exhausted. The CPU must not be
+     * running.
+     *
+     * @param breakpoints breakpoints
+     * @return number of undone instructions
+     */
+    int stepBackToBreakpoint(BreakpointBitmap breakpoints) {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null) {
+            return 0;
+        }
+        long current = tmpJournal.getInstructions();
+        long target = current - 1;
+        while (tmpJournal.canReturnTo(target)) {
+            long hit = replayTo(tmpJournal, target, breakpoints);
+            if (hit >= 0) {
+                if (hit != target) {
+                    replayTo(tmpJournal, hit, null);
+                }
+                break;
+            }
+            long checkpoint = target & -UndoJournal.CHECKPOINT_INTERVAL;
+            if (!tmpJournal.canReturnTo(checkpoint - 1)) {
+                replayTo(tmpJournal, checkpoint, null);
+                break;
+            }
+            target = checkpoint - 1;
+        }
+        return (int) (current - tmpJournal.getInstructions());
+    }
+
+    private void saveCheckpoint(UndoJournal journal) {
+        long registers = 0;
+        long registers2 = 0;
+        for (int i = 0; i < regs.length; i++) {
+            registers |= ((long) (regs[i] & 0xFF)) << (i * 8);
+            registers2 |= ((long) (regs2[i] & 0xFF)) << (i * 8);
+        }
+        journal.putState(0, registers);
+        journal.putState(1, registers2);
+        journal.putState(2, PC | ((long) SP << 16) | ((long) IX << 32) | ((long) IY << 48));
+        journal.putState(3, (flags & 0xFF) | ((flags2 & 0xFF) << 8) | ((I & 0xFF) << 16)
+            | ((long) (R & 0xFF) << 24) | ((long) (intMode & 3) << 32) | (IFF[0] ? (1L << 34) : 0)
+            | (IFF[1] ? (1L << 35) : 0) | (noWait ? (1L << 36) : 0) | (isINT ? (1L << 37) : 0));
+    }
+
+    private void loadCheckpoint(UndoJournal journal) {
+        long registers = journal.getState(0);
+        long registers2 = journal.getState(1);
+        for (int i = 0; i < regs.length; i++) {
+            regs[i] = (int) (registers >>> (i * 8)) & 0xFF;
+            regs2[i] = (int) (registers2 >>> (i * 8)) & 0xFF;
+        }
+        long pointers = journal.getState(2);
+        PC = (int) pointers & 0xFFFF;
+        SP = (int) (pointers >>> 16) & 0xFFFF;
+        IX = (int) (pointers >>> 32) & 0xFFFF;
+        IY = (int) (pointers >>> 48) & 0xFFFF;
+        long special = journal.getState(3);
+        flags = (int) special & 0xFF;
+        flags2 = (int) (special >>> 8) & 0xFF;
+        I = (int) (special >>> 16) & 0xFF;
+        R = (int) (special >>> 24) & 0xFF;
+        intMode = (byte) ((special >>> 32) & 3);
+        IFF[0] = (special & (1L << 34)) != 0;
+        IFF[1] = (special & (1L << 35)) != 0;
+        noWait = (special & (1L << 36)) != 0;
+        isINT = (special & (1L << 37)) != 0;
+    }
+
+    /**
+     * Return to the state before given instruction, by replaying instructions from the nearest older checkpoint.
+     *
+     * @param journal     step-back history
+     * @param instruction number of the instruction; it must be possible to return to it
+     * @param breakpoints breakpoints, or null
+     * @return number of the last instruction (replayed or the given one) which starts at a breakpoint, or -1
+     */
+    private long replayTo(UndoJournal journal, long instruction, BreakpointBitmap breakpoints) {
+        int count = journal.startReplay(instruction, memoryRestorer);
+        loadCheckpoint(journal);
+
+        long hit = -1;
+        try {
+            for (int i = 0; i <= count; i++) {
+                replayInterrupt(journal);
+                if (breakpoints != null && breakpoints.isSet(PC)) {
+                    hit = instruction - count + i;
+                }
+                if (i < count) {
+                    if (journal.beginInstruction()) {
+                        saveCheckpoint(journal);
+                    }
+                    short opcode = (short) readByte(PC);
+                    PC = (PC + 1) & 0xFFFF;
+                    execute(opcode);
+                }
+            }
+        } catch (IOException e) {
+            // I/O is not performed while replaying
+            LOGGER.error("Unexpected error while stepping back", e);
+        } finally {
+            journal.endReplay();
+        }
+        currentRunState = RunState.STATE_STOPPED_BREAK;
+        return hit;
+    }
+
+    private void replayInterrupt(UndoJournal journal) {
+        int data = journal.replayInterrupt();
+        isINT = (data >= 0);
+        if (isINT) {
+            interruptVector = data;
+        }
+    }
+
+    private void clearStepBackHistory() {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null) {
+            tmpJournal.clear();
+        }
+    }
+
     void reset(int startPos) {
         SP = IX = IY = 0;
         I = R = 0;
@@ -131,6 +296,70 @@ public class EmulatorEngine implements CpuEngine {
         PC = startPos;
         interruptPending = 0;
         isINT = noWait = false;
+        clearStepBackHistory();
+        currentRunState = RunState.STATE_STOPPED_BREAK;
+    }
+
+    /**
+     * Save CPU state into a snapshot. The CPU must not be running.
+     * <p>
+     * The device which requested a pending interrupt is not saved, only the interrupt itself.
+     *
+     * @param output snapshot output
+     * @throws IOException if the state could not be written
+     */
+    void saveState(DataOutput output) throws IOException {
+        for (int i = 0; i < regs.length; i++) {
+            output.writeByte(regs[i]);
+            output.writeByte(regs2[i]);
+        }
+        output.writeByte(flags);
+        output.writeByte(flags2);
+        output.writeShort(PC);
+        output.writeShort(SP);
+        output.writeShort(IX);
+        output.writeShort(IY);
+        output.writeByte(I);
+        output.writeByte(R);
+        output.writeByte(intMode);
+        output.writeBoolean(IFF[0]);
+        output.writeBoolean(IFF[1]);
+        output.writeBoolean(noWait);
+        output.writeBoolean(isINT);
+        output.writeInt(interruptVector);
+        output.writeInt(interruptPending);
+        output.writeLong(executedCycles.get());
+    }
+
+    /**
+     * Restore CPU state from a snapshot. The CPU must not be running.
+     *
+     * @param input snapshot input
+     * @throws IOException if the state could not be read
+     */
+    void loadState(DataInput input) throws IOException {
+        for (int i = 0; i < regs.length; i++) {
+            regs[i] = input.readUnsignedByte();
+            regs2[i] = input.readUnsignedByte();
+        }
+        flags = input.readUnsignedByte();
+        flags2 = input.readUnsignedByte();
+        PC = input.readUnsignedShort();
+        SP = input.readUnsignedShort();
+        IX = input.readUnsignedShort();
+        IY = input.readUnsignedShort();
+        I = input.readUnsignedByte();
+        R = input.readUnsignedByte();
+        intMode = input.readByte();
+        IFF[0] = input.readBoolean();
+        IFF[1] = input.readBoolean();
+        noWait = input.readBoolean();
+        isINT = input.readBoolean();
+        interruptVector = input.readInt();
+        interruptPending = input.readInt();
+        executedCycles.set(input.readLong());
+
+        clearStepBackHistory();
         currentRunState = RunState.STATE_STOPPED_BREAK;
     }
 
@@ -138,7 +367,11 @@ public class EmulatorEngine implements CpuEngine {
         boolean oldIFF = IFF[0];
         noWait = false;
         currentRunState = CPU.RunState.STATE_STOPPED_BREAK;
-        short opcode = memory.read(PC);
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null && tmpJournal.beginInstruction()) {
+            saveCheckpoint(tmpJournal);
+        }
+        short opcode = (short) readByte(PC);
         PC = (PC + 1) & 0xFFFF;
         dispatch(opcode);
         isINT = (interruptPending != 0) && oldIFF && IFF[0];
@@ -149,49 +382,37 @@ public class EmulatorEngine implements CpuEngine {
         return currentRunState;
     }
 
-    public CPU.RunState run(CPU cpu) {
-        long startTime, endTime;
-        int cycles_executed;
-        int checkTimeSlice = 100;
-        int cycles_to_execute = checkTimeSlice * context.getCPUFrequency();
-        int cycles;
-        long slice = checkTimeSlice * 1000000;
+    public CPU.RunState run(BreakpointBitmap breakpoints) {
+        Pacer pacer = this.pacer;
+        UndoJournal journal = this.journal;
 
         currentRunState = CPU.RunState.STATE_RUNNING;
+        pacer.start();
         while (!Thread.currentThread().isInterrupted() && (currentRunState == CPU.RunState.STATE_RUNNING)) {
-            startTime = System.nanoTime();
-            cycles_executed = 0;
-            while ((cycles_executed < cycles_to_execute) && !Thread.currentThread().isInterrupted() && (currentRunState == CPU.RunState.STATE_RUNNING)) {
-                try {
-                    short opcode = memory.read(PC);
-                    PC = (PC + 1) & 0xFFFF;
-                    cycles = dispatch(opcode);
-                    cycles_executed += cycles;
-                    executedCycles += cycles;
-                    if (cpu.isBreakpointSet(PC)) {
-                        throw new Breakpoint();
+            long cyclesToExecute = pacer.getSliceCycles(context.getCPUFrequency());
+            long cyclesExecuted = 0;
+            try {
+                while ((cyclesExecuted < cyclesToExecute) && !Thread.currentThread().isInterrupted() && (currentRunState == CPU.RunState.STATE_RUNNING)) {
+                    if (journal != null && journal.beginInstruction()) {
+                        saveCheckpoint(journal);
                     }
-                } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-                    LOGGER.debug("Unexpected error", e);
-                    if (e.getCause() != null && e.getCause() instanceof IndexOutOfBoundsException) {
-                        return CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
+                    short opcode = (short) readByte(PC);
+                    PC = (PC + 1) & 0xFFFF;
+                    cyclesExecuted += dispatch(opcode);
+                    if (breakpoints.isSet(PC)) {
+                        return CPU.RunState.STATE_STOPPED_BREAK;
                     }
-                    return CPU.RunState.STATE_STOPPED_BAD_INSTR;
-                } catch (IndexOutOfBoundsException e) {
-                    LOGGER.debug("Unexpected error", e);
-                    return CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
-                } catch (IOException e) {
-                    LOGGER.error("Unexpected error", e);
-                    return RunState.STATE_STOPPED_BAD_INSTR;
-                } catch (Breakpoint e) {
-                    return CPU.RunState.STATE_STOPPED_BREAK;
                 }
+            } catch (IndexOutOfBoundsException e) {
+                LOGGER.debug("Unexpected error", e);
+                return CPU.RunState.STATE_STOPPED_ADDR_FALLOUT;
+            } catch (IOException e) {
+                LOGGER.error("Unexpected error", e);
+                return RunState.STATE_STOPPED_BAD_INSTR;
+            } finally {
+                executedCycles.addAndGet(cyclesExecuted);
             }
-            endTime = System.nanoTime() - startTime;
-            if (endTime < slice) {
-                // time correction
-                LockSupport.parkNanos(slice - endTime);
-            }
+            pacer.endSlice(cyclesToExecute, cyclesExecuted);
         }
         return currentRunState;
     }
@@ -216,7 +437,7 @@ public class EmulatorEngine implements CpuEngine {
 
     private int getreg(int reg) {
         if (reg == 6) {
-            return memory.read((regs[REG_H] << 8) | regs[REG_L]);
+            return readByte((regs[REG_H] << 8) | regs[REG_L]);
         }
         return regs[reg];
     }
@@ -230,7 +451,7 @@ public class EmulatorEngine implements CpuEngine {
 
     private void putreg(int reg, int val) {
         if (reg == 6) {
-            memory.write((regs[REG_H] << 8) | regs[REG_L], (short) val);
+            writeByte((regs[REG_H] << 8) | regs[REG_L], val);
         } else {
             regs[reg] = val;
         }
@@ -318,17 +539,71 @@ public class EmulatorEngine implements CpuEngine {
         return 0;
     }
 
+    private int readByte(int address) {
+        if (fastMemory != null) {
+            return fastMemory.readByte(address);
+        }
+        return memory.read(address);
+    }
+
+    private void writeByte(int address, int value) {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null) {
+            tmpJournal.recordWrite(address, readByte(address));
+        }
+        if (fastMemory != null) {
+            fastMemory.writeByte(address, value);
+        } else {
+            memory.write(address, (short) value);
+        }
+    }
+
     private int readWord(int address) {
+        if (fastMemory != null) {
+            return fastMemory.readWord16(address);
+        }
         Short[] read = memory.readWord(address);
         return (read[1] << 8) | read[0];
     }
 
     private void writeWord(int address, int value) {
-        memory.writeWord(address, new Short[]{(short) (value & 0xFF), (short) ((value >>> 8) & 0xFF)});
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null) {
+            tmpJournal.recordWrite(address, readByte(address));
+            tmpJournal.recordWrite((address + 1) & 0xFFFF, readByte((address + 1) & 0xFFFF));
+        }
+        if (fastMemory != null) {
+            fastMemory.writeWord16(address, value);
+        } else {
+            memory.writeWord(address, new Short[]{(short) (value & 0xFF), (short) ((value >>> 8) & 0xFF)});
+        }
     }
 
-    private int doInterrupt() throws IOException, InvocationTargetException, IllegalAccessException {
+    private short readPort(int port) throws IOException {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null) {
+            return context.readIO(port);
+        } else if (tmpJournal.isReplaying()) {
+            return tmpJournal.replayInput();
+        }
+        short value = context.readIO(port);
+        tmpJournal.recordInput(value);
+        return value;
+    }
+
+    private void writePort(int port, int value) throws IOException {
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal == null || !tmpJournal.isReplaying()) {
+            context.writeIO(port, value);
+        }
+    }
+
+    private int doInterrupt() throws IOException {
         isINT = false;
+        UndoJournal tmpJournal = journal;
+        if (tmpJournal != null && !tmpJournal.isReplaying()) {
+            tmpJournal.recordInterrupt(interruptVector & 0xFF);
+        }
         int cycles = 0;
 
         if (!noWait) {
@@ -342,7 +617,7 @@ public class EmulatorEngine implements CpuEngine {
             case 0:  // rst p (interruptVector)
                 cycles += 11;
                 RunState old_runstate = currentRunState;
-                dispatch((short) interruptVector); // must ignore halt
+                dispatch((short) (interruptVector & 0xFF)); // must ignore halt
                 if (currentRunState == RunState.STATE_STOPPED_NORMAL) {
                     currentRunState = old_runstate;
                 }
@@ -454,361 +729,733 @@ public class EmulatorEngine implements CpuEngine {
     }
 
 
-    private final static Method[] DISPATCH_TABLE = new Method[256];
-    private final static Method[] DISPATCH_TABLE_ED = new Method[256];
-    private final static Method[] DISPATCH_TABLE_DD_FD = new Method[256];
-
-    static {
-        try {
-            DISPATCH_TABLE[0x00] = EmulatorEngine.class.getDeclaredMethod("O0_NOP", short.class);
-            DISPATCH_TABLE[0x02] = EmulatorEngine.class.getDeclaredMethod("O2_LD_LPAR_BC_RPAR__A", short.class);
-            DISPATCH_TABLE[0x03] = EmulatorEngine.class.getDeclaredMethod("INC_SS", short.class);
-            DISPATCH_TABLE[0x13] = EmulatorEngine.class.getDeclaredMethod("INC_SS", short.class);
-            DISPATCH_TABLE[0x23] = EmulatorEngine.class.getDeclaredMethod("INC_SS", short.class);
-            DISPATCH_TABLE[0x33] = EmulatorEngine.class.getDeclaredMethod("INC_SS", short.class);
-
-            DISPATCH_TABLE[0x09] = EmulatorEngine.class.getDeclaredMethod("ADD_HL_SS", short.class);
-            DISPATCH_TABLE[0x19] = EmulatorEngine.class.getDeclaredMethod("ADD_HL_SS", short.class);
-            DISPATCH_TABLE[0x29] = EmulatorEngine.class.getDeclaredMethod("ADD_HL_SS", short.class);
-            DISPATCH_TABLE[0x39] = EmulatorEngine.class.getDeclaredMethod("ADD_HL_SS", short.class);
-
-            DISPATCH_TABLE[0x01] = EmulatorEngine.class.getDeclaredMethod("LD_SS_NN", short.class);
-            DISPATCH_TABLE[0x11] = EmulatorEngine.class.getDeclaredMethod("LD_SS_NN", short.class);
-            DISPATCH_TABLE[0x21] = EmulatorEngine.class.getDeclaredMethod("LD_SS_NN", short.class);
-            DISPATCH_TABLE[0x31] = EmulatorEngine.class.getDeclaredMethod("LD_SS_NN", short.class);
-
-            DISPATCH_TABLE[0x0B] = EmulatorEngine.class.getDeclaredMethod("DEC_SS", short.class);
-            DISPATCH_TABLE[0x1B] = EmulatorEngine.class.getDeclaredMethod("DEC_SS", short.class);
-            DISPATCH_TABLE[0x2B] = EmulatorEngine.class.getDeclaredMethod("DEC_SS", short.class);
-            DISPATCH_TABLE[0x3B] = EmulatorEngine.class.getDeclaredMethod("DEC_SS", short.class);
-
-            DISPATCH_TABLE[0xC1] = EmulatorEngine.class.getDeclaredMethod("POP_QQ", short.class);
-            DISPATCH_TABLE[0xD1] = EmulatorEngine.class.getDeclaredMethod("POP_QQ", short.class);
-            DISPATCH_TABLE[0xE1] = EmulatorEngine.class.getDeclaredMethod("POP_QQ", short.class);
-            DISPATCH_TABLE[0xF1] = EmulatorEngine.class.getDeclaredMethod("POP_QQ", short.class);
-
-            DISPATCH_TABLE[0xC5] = EmulatorEngine.class.getDeclaredMethod("PUSH_QQ", short.class);
-            DISPATCH_TABLE[0xD5] = EmulatorEngine.class.getDeclaredMethod("PUSH_QQ", short.class);
-            DISPATCH_TABLE[0xE5] = EmulatorEngine.class.getDeclaredMethod("PUSH_QQ", short.class);
-            DISPATCH_TABLE[0xF5] = EmulatorEngine.class.getDeclaredMethod("PUSH_QQ", short.class);
-
-            DISPATCH_TABLE[0x06] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x0E] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x16] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x1E] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x26] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x2E] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x36] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-            DISPATCH_TABLE[0x3E] = EmulatorEngine.class.getDeclaredMethod("LD_R_N", short.class);
-
-            DISPATCH_TABLE[0x04] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x0C] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x14] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x1C] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x24] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x2C] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x34] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-            DISPATCH_TABLE[0x3C] = EmulatorEngine.class.getDeclaredMethod("INC_R", short.class);
-
-            DISPATCH_TABLE[0x05] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x0D] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x15] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x1D] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x25] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x2D] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x35] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-            DISPATCH_TABLE[0x3D] = EmulatorEngine.class.getDeclaredMethod("DEC_R", short.class);
-
-            DISPATCH_TABLE[0xC0] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xC8] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xD0] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xD8] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xE0] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xE8] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xF0] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-            DISPATCH_TABLE[0xF8] = EmulatorEngine.class.getDeclaredMethod("RET_CC", short.class);
-
-            DISPATCH_TABLE[0xC2] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xCA] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xD2] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xDA] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xE2] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xEA] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xF2] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-            DISPATCH_TABLE[0xFA] = EmulatorEngine.class.getDeclaredMethod("JP_CC_NN", short.class);
-
-            DISPATCH_TABLE[0xC4] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xCC] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xD4] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xDC] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xE4] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xEC] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xF4] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-            DISPATCH_TABLE[0xFC] = EmulatorEngine.class.getDeclaredMethod("CALL_CC_NN", short.class);
-
-            DISPATCH_TABLE[0xC7] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xCF] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xD7] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xDF] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xE7] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xEF] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xF7] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-            DISPATCH_TABLE[0xFF] = EmulatorEngine.class.getDeclaredMethod("RST_P", short.class);
-
-            DISPATCH_TABLE[0x80] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x81] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x82] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x83] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x84] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x85] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x86] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-            DISPATCH_TABLE[0x87] = EmulatorEngine.class.getDeclaredMethod("ADD_A_R", short.class);
-
-            DISPATCH_TABLE[0x88] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x89] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x8A] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x8B] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x8C] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x8D] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x8E] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-            DISPATCH_TABLE[0x8F] = EmulatorEngine.class.getDeclaredMethod("ADC_A_R", short.class);
-
-            DISPATCH_TABLE[0x90] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x91] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x92] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x93] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x94] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x95] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x96] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-            DISPATCH_TABLE[0x97] = EmulatorEngine.class.getDeclaredMethod("SUB_R", short.class);
-
-            DISPATCH_TABLE[0x98] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x99] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x9A] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x9B] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x9C] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x9D] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x9E] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-            DISPATCH_TABLE[0x9F] = EmulatorEngine.class.getDeclaredMethod("SBC_A_R", short.class);
-
-            DISPATCH_TABLE[0xA0] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA1] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA2] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA3] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA4] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA5] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA6] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-            DISPATCH_TABLE[0xA7] = EmulatorEngine.class.getDeclaredMethod("AND_R", short.class);
-
-            DISPATCH_TABLE[0xA8] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xA9] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xAA] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xAB] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xAC] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xAD] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xAE] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-            DISPATCH_TABLE[0xAF] = EmulatorEngine.class.getDeclaredMethod("XOR_R", short.class);
-
-            DISPATCH_TABLE[0xB0] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB1] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB2] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB3] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB4] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB5] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB6] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-            DISPATCH_TABLE[0xB7] = EmulatorEngine.class.getDeclaredMethod("OR_R", short.class);
-
-            DISPATCH_TABLE[0xB8] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xB9] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xBA] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xBB] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xBC] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xBD] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xBE] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-            DISPATCH_TABLE[0xBF] = EmulatorEngine.class.getDeclaredMethod("CP_R", short.class);
-
-            DISPATCH_TABLE[0x07] = EmulatorEngine.class.getDeclaredMethod("O7_RLCA", short.class);
-            DISPATCH_TABLE[0x08] = EmulatorEngine.class.getDeclaredMethod("O8_EX_AF_AFF", short.class);
-            DISPATCH_TABLE[0x0A] = EmulatorEngine.class.getDeclaredMethod("OA_LD_A_LPAR_BC_RPAR", short.class);
-            DISPATCH_TABLE[0x0F] = EmulatorEngine.class.getDeclaredMethod("OF_RRCA", short.class);
-            DISPATCH_TABLE[0x10] = EmulatorEngine.class.getDeclaredMethod("O10_DJNZ", short.class);
-            DISPATCH_TABLE[0x12] = EmulatorEngine.class.getDeclaredMethod("O12_LD_LPAR_DE_RPAR_A", short.class);
-            DISPATCH_TABLE[0x17] = EmulatorEngine.class.getDeclaredMethod("O17_RLA", short.class);
-            DISPATCH_TABLE[0x18] = EmulatorEngine.class.getDeclaredMethod("O18_JR_E", short.class);
-            DISPATCH_TABLE[0x1A] = EmulatorEngine.class.getDeclaredMethod("O1A_LD_A_LPAR_DE_RPAR", short.class);
-            DISPATCH_TABLE[0x1F] = EmulatorEngine.class.getDeclaredMethod("O1F_RRA", short.class);
-            DISPATCH_TABLE[0x22] = EmulatorEngine.class.getDeclaredMethod("O22_LD_LPAR_NN_RPAR_HL", short.class);
-            DISPATCH_TABLE[0x2A] = EmulatorEngine.class.getDeclaredMethod("O2A_LD_HL_LPAR_NN_RPAR", short.class);
-            DISPATCH_TABLE[0x32] = EmulatorEngine.class.getDeclaredMethod("O32_LD_LPAR_NN_RPAR_A", short.class);
-            DISPATCH_TABLE[0x3A] = EmulatorEngine.class.getDeclaredMethod("O3A_LD_A_LPAR_NN_RPAR", short.class);
-            DISPATCH_TABLE[0xC3] = EmulatorEngine.class.getDeclaredMethod("C3_JP_NN", short.class);
-            DISPATCH_TABLE[0xC6] = EmulatorEngine.class.getDeclaredMethod("C6_ADD_A_d", short.class);
-            DISPATCH_TABLE[0xCD] = EmulatorEngine.class.getDeclaredMethod("CD_CALL_NN", short.class);
-            DISPATCH_TABLE[0xD3] = EmulatorEngine.class.getDeclaredMethod("D3_OUT_LPAR_D_RPAR_A", short.class);
-            DISPATCH_TABLE[0xD6] = EmulatorEngine.class.getDeclaredMethod("D6_SUB_d", short.class);
-            DISPATCH_TABLE[0xDB] = EmulatorEngine.class.getDeclaredMethod("DB_IN_A_LPAR_d_RPAR", short.class);
-            DISPATCH_TABLE[0xDE] = EmulatorEngine.class.getDeclaredMethod("DE_SBC_A_d", short.class);
-            DISPATCH_TABLE[0xE6] = EmulatorEngine.class.getDeclaredMethod("E6_AND_d", short.class);
-            DISPATCH_TABLE[0xEE] = EmulatorEngine.class.getDeclaredMethod("EE_XOR_d", short.class);
-            DISPATCH_TABLE[0xF6] = EmulatorEngine.class.getDeclaredMethod("F6_OR_d", short.class);
-            DISPATCH_TABLE[0xFE] = EmulatorEngine.class.getDeclaredMethod("FE_CP_d", short.class);
-
-            DISPATCH_TABLE[0x20] = EmulatorEngine.class.getDeclaredMethod("JR_CC_D", short.class);
-            DISPATCH_TABLE[0x28] = EmulatorEngine.class.getDeclaredMethod("JR_CC_D", short.class);
-            DISPATCH_TABLE[0x30] = EmulatorEngine.class.getDeclaredMethod("JR_CC_D", short.class);
-            DISPATCH_TABLE[0x38] = EmulatorEngine.class.getDeclaredMethod("JR_CC_D", short.class);
-
-            DISPATCH_TABLE[0x27] = EmulatorEngine.class.getDeclaredMethod("O27_DAA", short.class);
-            DISPATCH_TABLE[0x2F] = EmulatorEngine.class.getDeclaredMethod("O2F_CPL", short.class);
-            DISPATCH_TABLE[0x37] = EmulatorEngine.class.getDeclaredMethod("O37_SCF", short.class);
-            DISPATCH_TABLE[0x3F] = EmulatorEngine.class.getDeclaredMethod("O3F_CCF", short.class);
-            DISPATCH_TABLE[0xC9] = EmulatorEngine.class.getDeclaredMethod("C9_RET", short.class);
-            DISPATCH_TABLE[0xCE] = EmulatorEngine.class.getDeclaredMethod("CE_ADC_A_d", short.class);
-            DISPATCH_TABLE[0xD9] = EmulatorEngine.class.getDeclaredMethod("D9_EXX", short.class);
-            DISPATCH_TABLE[0xE3] = EmulatorEngine.class.getDeclaredMethod("E3_EX_LPAR_SP_RPAR_HL", short.class);
-            DISPATCH_TABLE[0xE9] = EmulatorEngine.class.getDeclaredMethod("E9_JP_LPAR_HL_RPAR", short.class);
-            DISPATCH_TABLE[0xEB] = EmulatorEngine.class.getDeclaredMethod("EB_EX_DE_HL", short.class);
-            DISPATCH_TABLE[0xF3] = EmulatorEngine.class.getDeclaredMethod("F3_DI", short.class);
-            DISPATCH_TABLE[0xF9] = EmulatorEngine.class.getDeclaredMethod("F9_LD_SP_HL", short.class);
-            DISPATCH_TABLE[0xFB] = EmulatorEngine.class.getDeclaredMethod("FB_EI", short.class);
-            DISPATCH_TABLE[0xED] = EmulatorEngine.class.getDeclaredMethod("ED_DISPATCH", short.class);
-
-            DISPATCH_TABLE_ED[0x77] = EmulatorEngine.class.getDeclaredMethod("O0_NOP", short.class);
-            DISPATCH_TABLE_ED[0x7F] = EmulatorEngine.class.getDeclaredMethod("O0_NOP", short.class);
-
-            DISPATCH_TABLE_ED[0x40] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x48] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x50] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x58] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x60] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x68] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x78] = EmulatorEngine.class.getDeclaredMethod("IN_r_LPAR_C_RPAR", short.class);
-
-            DISPATCH_TABLE_ED[0x41] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-            DISPATCH_TABLE_ED[0x49] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-            DISPATCH_TABLE_ED[0x51] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-            DISPATCH_TABLE_ED[0x59] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-            DISPATCH_TABLE_ED[0x61] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-            DISPATCH_TABLE_ED[0x69] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-            DISPATCH_TABLE_ED[0x79] = EmulatorEngine.class.getDeclaredMethod("OUT_LPAR_C_RPAR_r", short.class);
-
-            DISPATCH_TABLE_ED[0x42] = EmulatorEngine.class.getDeclaredMethod("SBC_HL_SS", short.class);
-            DISPATCH_TABLE_ED[0x52] = EmulatorEngine.class.getDeclaredMethod("SBC_HL_SS", short.class);
-            DISPATCH_TABLE_ED[0x62] = EmulatorEngine.class.getDeclaredMethod("SBC_HL_SS", short.class);
-            DISPATCH_TABLE_ED[0x72] = EmulatorEngine.class.getDeclaredMethod("SBC_HL_SS", short.class);
-
-            DISPATCH_TABLE_ED[0x4A] = EmulatorEngine.class.getDeclaredMethod("ADC_HL_SS", short.class);
-            DISPATCH_TABLE_ED[0x5A] = EmulatorEngine.class.getDeclaredMethod("ADC_HL_SS", short.class);
-            DISPATCH_TABLE_ED[0x6A] = EmulatorEngine.class.getDeclaredMethod("ADC_HL_SS", short.class);
-            DISPATCH_TABLE_ED[0x7A] = EmulatorEngine.class.getDeclaredMethod("ADC_HL_SS", short.class);
-
-            DISPATCH_TABLE_ED[0x44] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x4C] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x54] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x5C] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x64] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x6C] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x74] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-            DISPATCH_TABLE_ED[0x7C] = EmulatorEngine.class.getDeclaredMethod("NEG", short.class);
-
-            DISPATCH_TABLE_ED[0x45] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-            DISPATCH_TABLE_ED[0x55] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-            DISPATCH_TABLE_ED[0x5D] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-            DISPATCH_TABLE_ED[0x65] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-            DISPATCH_TABLE_ED[0x6D] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-            DISPATCH_TABLE_ED[0x75] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-            DISPATCH_TABLE_ED[0x7D] = EmulatorEngine.class.getDeclaredMethod("RETN", short.class);
-
-            DISPATCH_TABLE_ED[0x46] = EmulatorEngine.class.getDeclaredMethod("IM_0", short.class);
-            DISPATCH_TABLE_ED[0x4E] = EmulatorEngine.class.getDeclaredMethod("IM_0", short.class);
-            DISPATCH_TABLE_ED[0x66] = EmulatorEngine.class.getDeclaredMethod("IM_0", short.class);
-            DISPATCH_TABLE_ED[0x6E] = EmulatorEngine.class.getDeclaredMethod("IM_0", short.class);
-
-            DISPATCH_TABLE_ED[0x47] = EmulatorEngine.class.getDeclaredMethod("O47_LD_I_A", short.class);
-            DISPATCH_TABLE_ED[0x4D] = EmulatorEngine.class.getDeclaredMethod("O4D_RETI", short.class);
-            DISPATCH_TABLE_ED[0x4F] = EmulatorEngine.class.getDeclaredMethod("O4F_LD_R_A", short.class);
-
-            DISPATCH_TABLE_ED[0x56] = EmulatorEngine.class.getDeclaredMethod("IM_1", short.class);
-            DISPATCH_TABLE_ED[0x76] = EmulatorEngine.class.getDeclaredMethod("IM_1", short.class);
-
-            DISPATCH_TABLE_ED[0x57] = EmulatorEngine.class.getDeclaredMethod("O57_LD_A_I", short.class);
-
-            DISPATCH_TABLE_ED[0x5E] = EmulatorEngine.class.getDeclaredMethod("IM_2", short.class);
-            DISPATCH_TABLE_ED[0x7E] = EmulatorEngine.class.getDeclaredMethod("IM_2", short.class);
-
-            DISPATCH_TABLE_ED[0x5F] = EmulatorEngine.class.getDeclaredMethod("O5F_LD_A_R", short.class);
-            DISPATCH_TABLE_ED[0x67] = EmulatorEngine.class.getDeclaredMethod("O67_RRD", short.class);
-            DISPATCH_TABLE_ED[0x6F] = EmulatorEngine.class.getDeclaredMethod("O6F_RLD", short.class);
-            DISPATCH_TABLE_ED[0x70] = EmulatorEngine.class.getDeclaredMethod("O70_IN_LPAR_C_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x71] = EmulatorEngine.class.getDeclaredMethod("O71_OUT_LPAR_C_RPAR_0", short.class);
-            DISPATCH_TABLE_ED[0xA0] = EmulatorEngine.class.getDeclaredMethod("A0_LDI", short.class);
-            DISPATCH_TABLE_ED[0xA1] = EmulatorEngine.class.getDeclaredMethod("A1_CPI", short.class);
-            DISPATCH_TABLE_ED[0xA2] = EmulatorEngine.class.getDeclaredMethod("A2_INI", short.class);
-            DISPATCH_TABLE_ED[0xA3] = EmulatorEngine.class.getDeclaredMethod("A3_OUTI", short.class);
-            DISPATCH_TABLE_ED[0xA8] = EmulatorEngine.class.getDeclaredMethod("A8_LDD", short.class);
-            DISPATCH_TABLE_ED[0xA9] = EmulatorEngine.class.getDeclaredMethod("A9_CPD", short.class);
-            DISPATCH_TABLE_ED[0xAA] = EmulatorEngine.class.getDeclaredMethod("AA_IND", short.class);
-            DISPATCH_TABLE_ED[0xAB] = EmulatorEngine.class.getDeclaredMethod("AB_OUTD", short.class);
-            DISPATCH_TABLE_ED[0xB0] = EmulatorEngine.class.getDeclaredMethod("B0_LDIR", short.class);
-            DISPATCH_TABLE_ED[0xB1] = EmulatorEngine.class.getDeclaredMethod("B1_CPIR", short.class);
-            DISPATCH_TABLE_ED[0xB2] = EmulatorEngine.class.getDeclaredMethod("B2_INIR", short.class);
-            DISPATCH_TABLE_ED[0xB3] = EmulatorEngine.class.getDeclaredMethod("B3_OTIR", short.class);
-            DISPATCH_TABLE_ED[0xB8] = EmulatorEngine.class.getDeclaredMethod("B8_LDDR", short.class);
-            DISPATCH_TABLE_ED[0xB9] = EmulatorEngine.class.getDeclaredMethod("B9_CPDR", short.class);
-            DISPATCH_TABLE_ED[0xBA] = EmulatorEngine.class.getDeclaredMethod("BA_INDR", short.class);
-            DISPATCH_TABLE_ED[0xBB] = EmulatorEngine.class.getDeclaredMethod("BB_OTDR", short.class);
-
-            DISPATCH_TABLE_ED[0x43] = EmulatorEngine.class.getDeclaredMethod("LD_LPAR_N_RPAR_SS", short.class);
-            DISPATCH_TABLE_ED[0x53] = EmulatorEngine.class.getDeclaredMethod("LD_LPAR_N_RPAR_SS", short.class);
-            DISPATCH_TABLE_ED[0x63] = EmulatorEngine.class.getDeclaredMethod("LD_LPAR_N_RPAR_SS", short.class);
-            DISPATCH_TABLE_ED[0x73] = EmulatorEngine.class.getDeclaredMethod("LD_LPAR_N_RPAR_SS", short.class);
-
-            DISPATCH_TABLE_ED[0x4B] = EmulatorEngine.class.getDeclaredMethod("LD_SS_LPAR_N_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x5B] = EmulatorEngine.class.getDeclaredMethod("LD_SS_LPAR_N_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x6B] = EmulatorEngine.class.getDeclaredMethod("LD_SS_LPAR_N_RPAR", short.class);
-            DISPATCH_TABLE_ED[0x7B] = EmulatorEngine.class.getDeclaredMethod("LD_SS_LPAR_N_RPAR", short.class);
-
-
-        } catch (NoSuchMethodException | SecurityException e) {
-            LOGGER.error("Could not set up dispatch table. The emulator won't work correctly", e);
-        }
-    }
-
-
-    private int ED_DISPATCH(short OP) throws InvocationTargetException, IllegalAccessException {
-        OP = memory.read(PC);
+    private int ED_DISPATCH(short OP) throws IOException {
+        OP = (short) readByte(PC);
         incrementR();
         PC = (PC + 1) & 0xFFFF;
 
-        Method instr = DISPATCH_TABLE_ED[OP];
-        if (instr != null) {
-            return (Integer) instr.invoke(this, OP);
+        switch (OP) {
+            case 0x40: case 0x48: case 0x50: case 0x58: case 0x60: case 0x68: case 0x78:
+                return IN_r_LPAR_C_RPAR(OP);
+            case 0x41: case 0x49: case 0x51: case 0x59: case 0x61: case 0x69: case 0x79:
+                return OUT_LPAR_C_RPAR_r(OP);
+            case 0x42: case 0x52: case 0x62: case 0x72:
+                return SBC_HL_SS(OP);
+            case 0x43: case 0x53: case 0x63: case 0x73:
+                return LD_LPAR_N_RPAR_SS(OP);
+            case 0x44: case 0x4C: case 0x54: case 0x5C: case 0x64: case 0x6C: case 0x74: case 0x7C:
+                return NEG(OP);
+            case 0x45: case 0x55: case 0x5D: case 0x65: case 0x6D: case 0x75: case 0x7D:
+                return RETN(OP);
+            case 0x46: case 0x4E: case 0x66: case 0x6E:
+                return IM_0(OP);
+            case 0x47:
+                return O47_LD_I_A(OP);
+            case 0x4A: case 0x5A: case 0x6A: case 0x7A:
+                return ADC_HL_SS(OP);
+            case 0x4B: case 0x5B: case 0x6B: case 0x7B:
+                return LD_SS_LPAR_N_RPAR(OP);
+            case 0x4D:
+                return O4D_RETI(OP);
+            case 0x4F:
+                return O4F_LD_R_A(OP);
+            case 0x56: case 0x76:
+                return IM_1(OP);
+            case 0x57:
+                return O57_LD_A_I(OP);
+            case 0x5E: case 0x7E:
+                return IM_2(OP);
+            case 0x5F:
+                return O5F_LD_A_R(OP);
+            case 0x67:
+                return O67_RRD(OP);
+            case 0x6F:
+                return O6F_RLD(OP);
+            case 0x70:
+                return O70_IN_LPAR_C_RPAR(OP);
+            case 0x71:
+                return O71_OUT_LPAR_C_RPAR_0(OP);
+            case 0x77: case 0x7F:
+                return O0_NOP(OP);
+            case 0xA0:
+                return A0_LDI(OP);
+            case 0xA1:
+                return A1_CPI(OP);
+            case 0xA2:
+                return A2_INI(OP);
+            case 0xA3:
+                return A3_OUTI(OP);
+            case 0xA8:
+                return A8_LDD(OP);
+            case 0xA9:
+                return A9_CPD(OP);
+            case 0xAA:
+                return AA_IND(OP);
+            case 0xAB:
+                return AB_OUTD(OP);
+            case 0xB0:
+                return B0_LDIR(OP);
+            case 0xB1:
+                return B1_CPIR(OP);
+            case 0xB2:
+                return B2_INIR(OP);
+            case 0xB3:
+                return B3_OTIR(OP);
+            case 0xB8:
+                return B8_LDDR(OP);
+            case 0xB9:
+                return B9_CPDR(OP);
+            case 0xBA:
+                return BA_INDR(OP);
+            case 0xBB:
+                return BB_OTDR(OP);
         }
         currentRunState = RunState.STATE_STOPPED_BAD_INSTR;
         return 0;
     }
 
-    private int DD_FD_DISPATCH(short OP) throws InvocationTargetException, IllegalAccessException {
-        int special = OP;
-        OP = memory.read(PC);
+    private int DD_FD_DISPATCH(short special) {
+        int tmp, tmp1, tmp2, tmp3;
+
+        short OP = (short) readByte(PC);
         PC = (PC + 1) & 0xFFFF;
         incrementR();
+        switch (OP) {
+            /* ADD ii,pp */
+            case 0x09:
+            case 0x19:
+            case 0x29:
+            case 0x39:
+                tmp = getspecial(special);
+                tmp1 = getpair(special, (OP >>> 4) & 0x03);
+
+                carry15(tmp, tmp1);
+                halfCarry11(tmp, tmp1);
+                flags &= (~(FLAG_N | FLAG_S | FLAG_Z));
+
+                tmp += tmp1;
+                flags |= ((tmp & 0x8000) == 0x8000) ? FLAG_S : 0;
+                flags |= (tmp == 0) ? FLAG_Z : 0;
+                putspecial(special, tmp);
+                return 15;
+            case 0x23: /* INC ii */
+                if (special == 0xDD) {
+                    IX = (IX + 1) & 0xFFFF;
+                } else {
+                    IY = (IY + 1) & 0xFFFF;
+                }
+                return 10;
+            case 0x2B: /* DEC ii */
+                if (special == 0xDD) {
+                    IX = (IX - 1) & 0xFFFF;
+                } else {
+                    IY = (IY - 1) & 0xFFFF;
+                }
+                return 10;
+            case 0xE1: /* POP ii */
+                if (special == 0xDD) {
+                    IX = readWord(SP);
+                } else {
+                    IY = readWord(SP);
+                }
+                SP = (SP + 2) & 0xFFFF;
+                return 14;
+            case 0xE3: /* EX (SP),ii */
+                tmp = readWord(SP);
+                if (special == 0xDD) {
+                    tmp1 = IX;
+                    IX = tmp;
+                } else {
+                    tmp1 = IY;
+                    IY = tmp;
+                }
+                writeWord(SP, tmp1);
+                return 23;
+            case 0xE5: /* PUSH ii */
+                SP = (SP - 2) & 0xFFFF;
+                if (special == 0xDD) {
+                    writeWord(SP, IX);
+                } else {
+                    writeWord(SP, IY);
+                }
+                return 15;
+            case 0xE9: /* JP (ii) */
+                if (special == 0xDD) {
+                    PC = IX;
+                } else {
+                    PC = IY;
+                }
+                return 8;
+            case 0xF9: /* LD SP,ii */
+                SP = (special == 0xDD) ? IX : IY;
+                return 10;
+        }
+
+        tmp = readByte(PC);
+        PC = (PC + 1) & 0xFFFF;
+        switch (OP) {
+            case 0x76:
+                break;
+            /* LD r,(ii+d) */
+            case 0x46:
+            case 0x4E:
+            case 0x56:
+            case 0x5E:
+            case 0x66:
+            case 0x6E:
+            case 0x7E:
+                tmp1 = (OP >>> 3) & 7;
+                putreg2(tmp1, readByte((getspecial(special) + (byte) tmp) & 0xFFFF));
+                return 19;
+            /* LD (ii+d),r */
+            case 0x70:
+            case 0x71:
+            case 0x72:
+            case 0x73:
+            case 0x74:
+            case 0x75:
+            case 0x77:
+                tmp1 = (OP & 7);
+                tmp2 = (getspecial(special) + (byte) tmp) & 0xFFFF;
+                writeByte(tmp2, getreg2(tmp1));
+                return 19;
+            case 0x34: /* INC (ii+d) */
+                tmp1 = (getspecial(special) + (byte) tmp) & 0xFFFF;
+                tmp2 = (readByte(tmp1) + 1) & 0xFF;
+
+                writeByte(tmp1, tmp2);
+                flags = EmulatorTables.INC_TABLE[tmp2] | (flags & FLAG_C);
+                return 23;
+            case 0x35: /* DEC (ii+d) */
+                tmp1 = (getspecial(special) + (byte) tmp) & 0xFFFF;
+                tmp2 = (readByte(tmp1) - 1) & 0xFF;
+                writeByte(tmp1, tmp2);
+                flags = EmulatorTables.DEC_TABLE[tmp2] | (flags & FLAG_C);
+                return 23;
+            case 0x86: /* ADD A,(ii+d) */
+                tmp1 = regs[REG_A];
+                tmp2 = readByte((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF;
+
+                regs[REG_A] += tmp2;
+                flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF];
+                regs[REG_A] = regs[REG_A] & 0xFF;
+
+                auxCarry(tmp1, tmp2);
+                overflow(tmp1, tmp2, regs[REG_A]);
+
+                return 19;
+            case 0x8E: /* ADC A,(ii+d) */
+                tmp1 = regs[REG_A];
+                tmp2 = readByte((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF;
+                if ((flags & FLAG_C) == FLAG_C) {
+                    tmp2++;
+                }
+                regs[REG_A] += tmp2;
+                flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF];
+                regs[REG_A] = regs[REG_A] & 0xFF;
+
+                auxCarry(tmp1, tmp2);
+                overflow(tmp1, tmp2, regs[REG_A]);
+
+                return 19;
+            case 0x96: /* SUB (ii+d) */
+                tmp1 = regs[REG_A];
+                tmp2 = -(readByte((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF);
+
+                regs[REG_A] += tmp2;
+                tmp2 &= 0xFF;
+
+                flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF] | FLAG_N;
+                regs[REG_A] = (short) (regs[REG_A] & 0xFF);
+
+                auxCarry(tmp1, tmp2);
+                overflow(tmp1, tmp2, regs[REG_A]);
+
+                return 19;
+            case 0x9E: /* SBC A,(ii+d) */
+                tmp1 = regs[REG_A];
+                tmp2 = -(readByte((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF);
+                if ((flags & FLAG_C) == FLAG_C) {
+                    tmp2--;
+                }
+                regs[REG_A] += tmp2;
+                tmp2 &= 0xFF;
+
+                flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF] | FLAG_N;
+                regs[REG_A] = regs[REG_A] & 0xFF;
+
+                auxCarry(tmp1, tmp2);
+                overflow(tmp1, tmp2, regs[REG_A]);
+
+                return 19;
+            case 0xA6: /* AND (ii+d) */
+                tmp1 = readByte((getspecial(special) + (byte) tmp) & 0xFFFF);
+                regs[REG_A] = (regs[REG_A] & tmp1) & 0xFF;
+                flags = EmulatorTables.AND_OR_XOR_TABLE[regs[REG_A]];
+                return 19;
+            case 0xAE: /* XOR (ii+d) */
+                tmp1 = readByte((getspecial(special) + (byte) tmp) & 0xFFFF);
+                regs[REG_A] = ((regs[REG_A] ^ tmp1) & 0xff);
+                flags = EmulatorTables.AND_OR_XOR_TABLE[regs[REG_A]];
+                return 19;
+            case 0xB6: /* OR (ii+d) */
+                tmp1 = readByte((getspecial(special) + (byte) tmp) & 0xFFFF);
+                regs[REG_A] = ((regs[REG_A] | tmp1) & 0xff);
+                flags = EmulatorTables.AND_OR_XOR_TABLE[regs[REG_A]];
+                return 19;
+            case 0xBE: /* CP (ii+d) */
+                int diff = -readByte((getspecial(special) + (byte) tmp) & 0xFFFF);
+                tmp2 = regs[REG_A] + diff;
+                diff &= 0xFF;
+
+                flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[tmp2 & 0x1FF] | FLAG_N;
+                auxCarry(regs[REG_A], diff);
+                overflow(regs[REG_A], diff, tmp2 & 0xFF);
+
+                return 19;
+        }
+        tmp |= ((readByte(PC)) << 8);
+        PC = (PC + 1) & 0xFFFF;
+        switch (OP) {
+            case 0x21: /* LD ii,nn */
+                putspecial(special, tmp);
+                return 14;
+            case 0x22: /* LD (nn),ii */
+                writeWord(tmp, getspecial(special));
+                return 16;
+            case 0x2A: /* LD ii,(nn) */
+                tmp1 = readWord(tmp);
+                putspecial(special, tmp1);
+                return 20;
+            case 0x36: /* LD (ii+d),n */
+                writeByte((getspecial(special) + (byte) (tmp & 0xFF)) & 0xFFFF, tmp >>> 8);
+                return 19;
+            case 0xCB:
+                OP = (short) ((tmp >>> 8) & 0xff);
+                tmp &= 0xff;
+                switch (OP) {
+                    /* BIT b,(ii+d) */
+                    case 0x46:
+                    case 0x4E:
+                    case 0x56:
+                    case 0x5E:
+                    case 0x66:
+                    case 0x6E:
+                    case 0x76:
+                    case 0x7E:
+                        tmp2 = (OP >>> 3) & 7;
+                        tmp1 = readByte((getspecial(special) + (byte) tmp) & 0xffff);
+                        flags = ((flags & FLAG_C) | FLAG_H | (((tmp1 & (1 << tmp2)) == 0) ? (FLAG_Z | FLAG_PV) : 0));
+                        if (tmp2 == 7) {
+                            flags |= (((tmp1 & (1 << 7)) == 0x80) ? FLAG_S : 0);
+                        }
+                        return 20;
+                    case 0x78: // undocumented BIT 7,(ii+d)
+                    case 0x79:
+                    case 0x7A:
+                    case 0x7B:
+                    case 0x7C:
+                    case 0x7D:
+                    case 0x7F:
+                        tmp1 = readByte((getspecial(special) + (byte) tmp) & 0xffff);
+                        flags = ((flags & FLAG_C) | FLAG_H | (((tmp1 & (1 << 7)) == 0) ? (FLAG_Z | FLAG_PV) : 0))
+                            | (((tmp1 & (1 << 7)) == 0x80) ? FLAG_S : 0);
+                        return 20;
+                    /* RES b,(ii+d) */
+                    case 0x86:
+                    case 0x8E:
+                    case 0x96:
+                    case 0x9E:
+                    case 0xA6:
+                    case 0xAE:
+                    case 0xB6:
+                    case 0xBE:
+                        tmp2 = (OP >>> 3) & 7;
+                        tmp3 = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp3);
+                        tmp1 = (tmp1 & (~(1 << tmp2)));
+                        writeByte(tmp3, tmp1 & 0xff);
+                        return 23;
+                    /* SET b,(ii+d) */
+                    case 0xC6:
+                    case 0xCE:
+                    case 0xD6:
+                    case 0xDE:
+                    case 0xE6:
+                    case 0xEE:
+                    case 0xF6:
+                    case 0xFE:
+                        tmp2 = (OP >>> 3) & 7;
+                        tmp3 = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp3);
+                        tmp1 = (tmp1 | (1 << tmp2));
+                        writeByte(tmp3, tmp1 & 0xff);
+                        return 23;
+                    /* SET 0,(ii+d),reg (undocumented) */
+                    case 0xC0:
+                    case 0xC1:
+                    case 0xC2:
+                    case 0xC3:
+                    case 0xC4:
+                    case 0xC5:
+                    case 0xC7:
+                        tmp2 = (OP >>> 3) & 7;
+                        tmp3 = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp3);
+                        tmp1 = (tmp1 | (1 << tmp2));
+                        writeByte(tmp3, tmp1 & 0xff);
+                        regs[OP & 7] = tmp1 & 0xFF;
+                        return 23;
+                    case 0x06: /* RLC (ii+d) */
+                    case 0: // undocumented
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = (tmp1 >>> 7) & 1;
+                        tmp1 = ((((tmp1 << 1) & 0xFF) | tmp2) & 0xFF);
+
+                        writeByte(tmp, tmp1 & 0xFF);
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        if (OP == 0) {
+                            regs[REG_B] = (short) (tmp1 & 0xFF);
+                        }
+                        return 23;
+                    case 0x0E: /* RRC (ii+d) */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = tmp1 & 1;
+                        tmp1 = (((tmp1 >>> 1) & 0x7F) | (tmp2 << 7)) & 0xFF;
+
+                        writeByte(tmp, tmp1 & 0xFF);
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                    case 0x16: /* RL (ii+d) */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = (tmp1 >>> 7) & 1;
+                        tmp1 = ((((tmp1 << 1) & 0xFF) | flags & FLAG_C) & 0xFF);
+                        writeByte(tmp, tmp1 & 0xFF);
+
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                    case 0x1E: /* RR (ii+d) */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = tmp1 & 1;
+                        tmp1 = ((((tmp1 >> 1) & 0xFF) | (flags & FLAG_C) << 7) & 0xFF);
+                        writeByte(tmp, tmp1 & 0xFF);
+
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                    case 0x26: /* SLA (ii+d) */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = (tmp1 >>> 7) & 1;
+                        tmp1 = (tmp1 << 1) & 0xFE;
+                        writeByte(tmp, tmp1);
+
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                    case 0x2E: /* SRA (ii+d) */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = tmp1 & 1;
+                        tmp1 = (tmp1 >> 1) & 0xFF | (tmp1 & 0x80);
+                        writeByte(tmp, tmp1);
+
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                    case 0x36: /* SLL (ii+d) unsupported */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = (tmp1 >>> 7) & 1;
+                        tmp1 = (tmp1 << 1) & 0xFF | tmp1 & 1;
+                        writeByte(tmp, tmp1);
+
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                    case 0x3E: /* SRL (ii+d) */
+                        tmp = (getspecial(special) + (byte) tmp) & 0xffff;
+                        tmp1 = readByte(tmp);
+
+                        tmp2 = tmp1 & 1;
+                        tmp1 = (tmp1 >>> 1) & 0x7F;
+                        writeByte(tmp, tmp1);
+
+                        flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                        return 23;
+                }
+                currentRunState = RunState.STATE_STOPPED_BAD_INSTR;
+                return 0;
+        }
+        currentRunState = RunState.STATE_STOPPED_BAD_INSTR;
+        return 0;
+    }
+
+    private int CB_DISPATCH() {
+        int tmp, tmp1, tmp2;
 
-        Method instr = DISPATCH_TABLE_DD_FD[OP];
-        if (instr != null) {
-            return (Integer) instr.invoke(this, OP, special);
+        short OP = (short) readByte(PC);
+        PC = (PC + 1) & 0xFFFF;
+        incrementR();
+        switch (OP) {
+            /* RLC r */
+            case 0x00:
+            case 0x01:
+            case 0x02:
+            case 0x03:
+            case 0x04:
+            case 0x05:
+            case 0x06:
+            case 0x07:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = (tmp1 >>> 7) & 1;
+                tmp1 = (((tmp1 << 1) & 0xFF) | tmp2) & 0xFF;
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* RRC r */
+            case 0x08:
+            case 0x09:
+            case 0x0A:
+            case 0x0B:
+            case 0x0C:
+            case 0x0D:
+            case 0x0E:
+            case 0x0F:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = tmp1 & 1;
+                tmp1 = (((tmp1 >>> 1) & 0x7F) | (tmp2 << 7)) & 0xFF;
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* RL r */
+            case 0x10:
+            case 0x11:
+            case 0x12:
+            case 0x13:
+            case 0x14:
+            case 0x15:
+            case 0x16:
+            case 0x17:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = (tmp1 >>> 7) & 1;
+                tmp1 = ((((tmp1 << 1) & 0xFF) | flags & FLAG_C) & 0xFF);
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* RR r */
+            case 0x18:
+            case 0x19:
+            case 0x1A:
+            case 0x1B:
+            case 0x1C:
+            case 0x1D:
+            case 0x1E:
+            case 0x1F:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = tmp1 & 1;
+                tmp1 = ((((tmp1 >> 1) & 0x7F) | (flags & FLAG_C) << 7) & 0xFF);
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* SLA r */
+            case 0x20:
+            case 0x21:
+            case 0x22:
+            case 0x23:
+            case 0x24:
+            case 0x25:
+            case 0x26:
+            case 0x27:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = (tmp1 >>> 7) & 1;
+                tmp1 = (tmp1 << 1) & 0xFE;
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* SRA r */
+            case 0x28:
+            case 0x29:
+            case 0x2A:
+            case 0x2B:
+            case 0x2C:
+            case 0x2D:
+            case 0x2E:
+            case 0x2F:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = tmp1 & 1;
+                tmp1 = (tmp1 >> 1) & 0xFF | (tmp1 & 0x80);
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* SLL r - unsupported */
+            case 0x30:
+            case 0x31:
+            case 0x32:
+            case 0x33:
+            case 0x34:
+            case 0x35:
+            case 0x36:
+            case 0x37:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = (tmp1 >>> 7) & 1;
+                tmp1 = (tmp1 << 1) & 0xFF | tmp1 & 1;
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+                /* SRL r */
+            case 0x38:
+            case 0x39:
+            case 0x3A:
+            case 0x3B:
+            case 0x3C:
+            case 0x3D:
+            case 0x3E:
+            case 0x3F:
+                tmp = OP & 7;
+                tmp1 = getreg(tmp);
+
+                tmp2 = tmp1 & 1;
+                tmp1 = (tmp1 >>> 1) & 0x7F;
+                putreg(tmp, tmp1);
+
+                flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
+
+                if (tmp == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+        }
+        switch (OP & 0xC0) {
+            case 0x40: /* BIT b,r */
+                tmp = (OP >>> 3) & 7;
+                tmp2 = OP & 7;
+                tmp1 = getreg(tmp2);
+                flags = ((flags & FLAG_C) | FLAG_H | (((tmp1 & (1 << tmp)) == 0) ? (FLAG_Z | FLAG_PV) : 0));
+                if (tmp == 7) {
+                    flags |= (((tmp1 & (1 << tmp)) == 0x80) ? FLAG_S : 0);
+                }
+                if (tmp2 == 6) {
+                    return 12;
+                } else {
+                    return 8;
+                }
+            case 0x80: /* RES b,r */
+                tmp = (OP >>> 3) & 7;
+                tmp2 = OP & 7;
+                tmp1 = getreg(tmp2);
+                tmp1 = (tmp1 & (~(1 << tmp)));
+                putreg(tmp2, tmp1);
+                if (tmp2 == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
+            case 0xC0: /* SET b,r */
+                tmp = (OP >>> 3) & 7;
+                tmp2 = OP & 7;
+                tmp1 = getreg(tmp2);
+                tmp1 = (tmp1 | (1 << tmp));
+                putreg(tmp2, tmp1);
+                if (tmp2 == 6) {
+                    return 15;
+                } else {
+                    return 8;
+                }
         }
         currentRunState = RunState.STATE_STOPPED_BAD_INSTR;
         return 0;
     }
 
+    private int LD_R_R(short OP) {
+        int tmp = (OP >>> 3) & 0x07;
+        int tmp1 = OP & 0x07;
+        putreg(tmp, (short) getreg(tmp1));
+        if ((tmp1 == 6) || (tmp == 6)) {
+            return 7;
+        } else {
+            return 4;
+        }
+    }
 
     private int O0_NOP(short OP) {
         return 4;
     }
 
     private int O2_LD_LPAR_BC_RPAR__A(short OP) {
-        memory.write(getpair(0, false), (short) regs[REG_A]);
+        writeByte(getpair(0, false), regs[REG_A]);
         return 7;
     }
 
@@ -856,7 +1503,7 @@ public class EmulatorEngine implements CpuEngine {
 
     private int LD_R_N(short OP) {
         int tmp = (OP >>> 3) & 0x07;
-        putreg(tmp, memory.read(PC));
+        putreg(tmp, readByte(PC));
         PC = (PC + 1) & 0xFFFF;
         if (tmp == 6) {
             return 10;
@@ -1010,7 +1657,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int OA_LD_A_LPAR_BC_RPAR(short OP) {
-        regs[REG_A] = memory.read(getpair(0, false));
+        regs[REG_A] = readByte(getpair(0, false));
         return 7;
     }
 
@@ -1021,7 +1668,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O10_DJNZ(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
         regs[REG_B]--;
         regs[REG_B] &= 0xFF;
@@ -1034,7 +1681,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O12_LD_LPAR_DE_RPAR_A(short OP) {
-        memory.write(getpair(1, false), (short) regs[REG_A]);
+        writeByte(getpair(1, false), regs[REG_A]);
         return 7;
     }
 
@@ -1046,7 +1693,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O1A_LD_A_LPAR_DE_RPAR(short OP) {
-        int tmp = memory.read(getpair(1, false));
+        int tmp = readByte(getpair(1, false));
         regs[REG_A] = (tmp & 0xff);
         return 7;
     }
@@ -1153,11 +1800,11 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int E3_EX_LPAR_SP_RPAR_HL(short OP) {
-        int tmp = memory.read(SP);
+        int tmp = readByte(SP);
         int x = (SP + 1) & 0xFFFF;
-        int tmp1 = memory.read(x);
-        memory.write(SP, (short) regs[REG_L]);
-        memory.write(x, (short) regs[REG_H]);
+        int tmp1 = readByte(x);
+        writeByte(SP, regs[REG_L]);
+        writeByte(x, regs[REG_H]);
         regs[REG_L] = tmp & 0xFF;
         regs[REG_H] = tmp1 & 0xFF;
         return 19;
@@ -1195,14 +1842,14 @@ public class EmulatorEngine implements CpuEngine {
 
     private int IN_r_LPAR_C_RPAR(short OP) throws IOException {
         int tmp = (OP >>> 3) & 0x7;
-        putreg(tmp, context.readIO(regs[REG_C]));
+        putreg(tmp, readPort(regs[REG_C]));
         flags = (flags & FLAG_C) | EmulatorTables.SIGN_ZERO_TABLE[regs[tmp]] | EmulatorTables.PARITY_TABLE[regs[tmp]];
         return 12;
     }
 
     private int OUT_LPAR_C_RPAR_r(short OP) throws IOException {
         int tmp = (OP >>> 3) & 0x7;
-        context.writeIO(regs[REG_C], (short) getreg(tmp));
+        writePort(regs[REG_C], (short) getreg(tmp));
         return 12;
     }
 
@@ -1324,32 +1971,32 @@ public class EmulatorEngine implements CpuEngine {
 
     private int O67_RRD(short OP) {
         int tmp = regs[REG_A] & 0x0F;
-        int tmp1 = memory.read((regs[REG_H] << 8) | regs[REG_L]);
+        int tmp1 = readByte((regs[REG_H] << 8) | regs[REG_L]);
         regs[REG_A] = ((regs[REG_A] & 0xF0) | (tmp1 & 0x0F));
         tmp1 = ((tmp1 >>> 4) & 0x0F) | (tmp << 4);
-        memory.write(((regs[REG_H] << 8) | regs[REG_L]), (short) (tmp1 & 0xff));
+        writeByte(((regs[REG_H] << 8) | regs[REG_L]), tmp1 & 0xff);
         flags = EmulatorTables.SIGN_ZERO_TABLE[regs[REG_A]] | EmulatorTables.PARITY_TABLE[regs[REG_A]] | (flags & FLAG_C);
         return 18;
     }
 
     private int O6F_RLD(short OP) {
-        int tmp = memory.read((regs[REG_H] << 8) | regs[REG_L]);
+        int tmp = readByte((regs[REG_H] << 8) | regs[REG_L]);
         int tmp1 = (tmp >>> 4) & 0x0F;
         tmp = ((tmp << 4) & 0xF0) | (regs[REG_A] & 0x0F);
         regs[REG_A] = ((regs[REG_A] & 0xF0) | tmp1);
-        memory.write((regs[REG_H] << 8) | regs[REG_L], (short) (tmp & 0xff));
+        writeByte((regs[REG_H] << 8) | regs[REG_L], tmp & 0xff);
         flags = EmulatorTables.SIGN_ZERO_TABLE[regs[REG_A]] | EmulatorTables.PARITY_TABLE[regs[REG_A]] | (flags & FLAG_C);
         return 18;
     }
 
     private int O70_IN_LPAR_C_RPAR(short OP) throws IOException {
-        int tmp = (context.readIO(regs[REG_C]) & 0xFF);
+        int tmp = (readPort(regs[REG_C]) & 0xFF);
         flags = EmulatorTables.SIGN_ZERO_TABLE[tmp] | EmulatorTables.PARITY_TABLE[tmp] | (flags & FLAG_C);
         return 12;
     }
 
     private int O71_OUT_LPAR_C_RPAR_0(short OP) throws IOException {
-        context.writeIO(regs[REG_C], 0);
+        writePort(regs[REG_C], 0);
         return 12;
     }
 
@@ -1358,7 +2005,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp2 = getpair(1, false);
         int tmp = getpair(0, false);
 
-        memory.write(tmp2, memory.read(tmp1));
+        writeByte(tmp2, readByte(tmp1));
 
         tmp1 = (tmp1 + 1) & 0xFFFF;
         tmp2 = (tmp2 + 1) & 0xFFFF;
@@ -1381,7 +2028,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = (regs[REG_B] << 8) | regs[REG_C];
 
-        int tmp = memory.read(tmp1);
+        int tmp = readByte(tmp1);
         tmp1 = (tmp1 + 1) & 0xFFFF;
         tmp2 = (tmp2 - 1) & 0xFFFF;
 
@@ -1400,11 +2047,11 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int A2_INI(short OP) throws IOException {
-        int tmp = context.readIO(regs[REG_C]) & 0xFF;
+        int tmp = readPort(regs[REG_C]) & 0xFF;
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = tmp + (regs[REG_C] + 1) & 0xFF;
 
-        memory.write(tmp1, (short) tmp);
+        writeByte(tmp1, tmp);
         tmp1 = (tmp1 + 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1422,9 +2069,9 @@ public class EmulatorEngine implements CpuEngine {
 
     private int A3_OUTI(short OP) throws IOException {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
-        int tmp2 = memory.read(tmp1) & 0xFF;
+        int tmp2 = readByte(tmp1) & 0xFF;
 
-        context.writeIO(regs[REG_C], tmp2);
+        writePort(regs[REG_C], tmp2);
         tmp1 = (tmp1 + 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1444,7 +2091,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp2 = (regs[REG_D] << 8) | regs[REG_E];
         int tmp = (regs[REG_B] << 8) | regs[REG_C];
 
-        memory.write(tmp2, memory.read(tmp1));
+        writeByte(tmp2, readByte(tmp1));
 
         tmp1 = (tmp1 - 1) & 0xFFFF;
         tmp2 = (tmp2 - 1) & 0xFFFF;
@@ -1467,7 +2114,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = (regs[REG_B] << 8) | regs[REG_C];
 
-        int tmp = memory.read(tmp1);
+        int tmp = readByte(tmp1);
         tmp1 = (tmp1 - 1) & 0xFFFF;
         tmp2 = (tmp2 - 1) & 0xFFFF;
 
@@ -1486,11 +2133,11 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int AA_IND(short OP) throws IOException {
-        int tmp = context.readIO(regs[REG_C]) & 0xFF;
+        int tmp = readPort(regs[REG_C]) & 0xFF;
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = tmp + ((regs[REG_C] - 1) & 0xFF);
 
-        memory.write(tmp1, (short) tmp);
+        writeByte(tmp1, tmp);
         tmp1 = (tmp1 - 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1509,9 +2156,9 @@ public class EmulatorEngine implements CpuEngine {
 
     private int AB_OUTD(short OP) throws IOException {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
-        int tmp2 = memory.read(tmp1) & 0xFF;
+        int tmp2 = readByte(tmp1) & 0xFF;
 
-        context.writeIO(regs[REG_C], tmp2);
+        writePort(regs[REG_C], tmp2);
         tmp1 = (tmp1 - 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1532,7 +2179,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp2 = (regs[REG_D] << 8) | regs[REG_E];
         int tmp = (regs[REG_B] << 8) | regs[REG_C];
 
-        memory.write(tmp2, memory.read(tmp1));
+        writeByte(tmp2, readByte(tmp1));
 
         tmp1 = (tmp1 + 1) & 0xFFFF;
         tmp2 = (tmp2 + 1) & 0xFFFF;
@@ -1558,7 +2205,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = (regs[REG_B] << 8) | regs[REG_C];
 
-        int tmp = memory.read(tmp1);
+        int tmp = readByte(tmp1);
         tmp1 = (tmp1 + 1) & 0xFFFF;
         tmp2 = (tmp2 - 1) & 0xFFFF;
 
@@ -1582,11 +2229,11 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int B2_INIR(short OP) throws IOException {
-        int tmp = context.readIO(regs[REG_C]) & 0xFF;
+        int tmp = readPort(regs[REG_C]) & 0xFF;
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = tmp + (regs[REG_C] + 1) & 0xFF;
 
-        memory.write(tmp1, (short) tmp);
+        writeByte(tmp1, tmp);
         tmp1 = (tmp1 + 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1609,9 +2256,9 @@ public class EmulatorEngine implements CpuEngine {
 
     private int B3_OTIR(short OP) throws IOException {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
-        int tmp2 = memory.read(tmp1) & 0xFF;
+        int tmp2 = readByte(tmp1) & 0xFF;
 
-        context.writeIO(regs[REG_C], tmp2);
+        writePort(regs[REG_C], tmp2);
         tmp1 = (tmp1 + 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1635,7 +2282,7 @@ public class EmulatorEngine implements CpuEngine {
     private int B8_LDDR(short OP) {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = (regs[REG_D] << 8) | regs[REG_E];
-        memory.write(tmp2, memory.read(tmp1));
+        writeByte(tmp2, readByte(tmp1));
         tmp1 = (tmp1 - 1) & 0xFFFF;
         tmp2 = (tmp2 - 1) & 0xFFFF;
         int tmp = (((regs[REG_B] << 8) | regs[REG_C]) - 1) & 0xFFFF;
@@ -1659,7 +2306,7 @@ public class EmulatorEngine implements CpuEngine {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = (regs[REG_B] << 8) | regs[REG_C];
 
-        int tmp = memory.read(tmp1);
+        int tmp = readByte(tmp1);
         tmp1 = (tmp1 - 1) & 0xFFFF;
         tmp2 = (tmp2 - 1) & 0xFFFF;
 
@@ -1683,11 +2330,11 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int BA_INDR(short OP) throws IOException {
-        int tmp = context.readIO(regs[REG_C]) & 0xFF;
+        int tmp = readPort(regs[REG_C]) & 0xFF;
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
         int tmp2 = tmp + ((regs[REG_C] - 1) & 0xFF);
 
-        memory.write(tmp1, (short) tmp);
+        writeByte(tmp1, tmp);
         tmp1 = (tmp1 - 1) & 0xFFFF;
         regs[REG_H] = ((tmp1 >>> 8) & 0xff);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1710,9 +2357,9 @@ public class EmulatorEngine implements CpuEngine {
 
     private int BB_OTDR(short OP) throws IOException {
         int tmp1 = (regs[REG_H] << 8) | regs[REG_L];
-        int tmp2 = memory.read(tmp1) & 0xFF;
+        int tmp2 = readByte(tmp1) & 0xFF;
 
-        context.writeIO(regs[REG_C], tmp2);
+        writePort(regs[REG_C], tmp2);
         tmp1 = (tmp1 - 1) & 0xFFFF;
         regs[REG_H] = (tmp1 >>> 8);
         regs[REG_L] = (tmp1 & 0xFF);
@@ -1752,7 +2399,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int JR_CC_D(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         if (getCC1((OP >>> 3) & 3)) {
@@ -1764,7 +2411,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O18_JR_E(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         PC += (byte) tmp;
@@ -1773,7 +2420,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int C6_ADD_A_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         int DAR = regs[REG_A];
@@ -1789,7 +2436,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int CE_ADC_A_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         int DAR = regs[REG_A];
@@ -1809,15 +2456,15 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int D3_OUT_LPAR_D_RPAR_A(short OP) throws IOException {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
-        context.writeIO(tmp, (short) regs[REG_A]);
+        writePort(tmp, (short) regs[REG_A]);
         return 11;
     }
 
     private int D6_SUB_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         int tmp1 = regs[REG_A];
@@ -1835,15 +2482,15 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int DB_IN_A_LPAR_d_RPAR(short OP) throws IOException {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
-        regs[REG_A] = (context.readIO(tmp) & 0xFF);
+        regs[REG_A] = (readPort(tmp) & 0xFF);
         return 11;
     }
 
     private int DE_SBC_A_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         int tmp2 = regs[REG_A];
@@ -1864,7 +2511,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int E6_AND_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         regs[REG_A] = (regs[REG_A] & tmp) & 0xFF;
@@ -1873,7 +2520,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int EE_XOR_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         regs[REG_A] = ((regs[REG_A] ^ tmp) & 0xFF);
@@ -1882,7 +2529,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int F6_OR_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         regs[REG_A] = (regs[REG_A] | tmp) & 0xFF;
@@ -1891,7 +2538,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int FE_CP_d(short OP) {
-        int tmp = memory.read(PC);
+        int tmp = readByte(PC);
         PC = (PC + 1) & 0xFFFF;
 
         tmp = -tmp;
@@ -1906,8 +2553,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int LD_SS_NN(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         putpair((OP >>> 4) & 3, tmp, true);
@@ -1915,8 +2561,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int JP_CC_NN(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         int tmp1 = (OP >>> 3) & 7;
@@ -1927,8 +2572,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int CALL_CC_NN(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         int tmp1 = (OP >>> 3) & 7;
@@ -1942,8 +2586,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O22_LD_LPAR_NN_RPAR_HL(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         int tmp1 = getpair(2, false);
@@ -1952,8 +2595,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O2A_LD_HL_LPAR_NN_RPAR(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         int tmp1 = readWord(tmp);
@@ -1962,26 +2604,23 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int O32_LD_LPAR_NN_RPAR_A(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
-        memory.write(tmp, (short) regs[REG_A]);
+        writeByte(tmp, regs[REG_A]);
         return 13;
     }
 
     private int O3A_LD_A_LPAR_NN_RPAR(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
-        regs[REG_A] = (memory.read(tmp) & 0xff);
+        regs[REG_A] = (readByte(tmp) & 0xff);
         return 13;
     }
 
     private int C3_JP_NN(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         PC = tmp;
@@ -1989,8 +2628,7 @@ public class EmulatorEngine implements CpuEngine {
     }
 
     private int CD_CALL_NN(short OP) {
-        Short[] word = memory.readWord(PC);
-        int tmp = word[0] | (word[1] << 8);
+        int tmp = readWord(PC);
         PC = (PC + 2) & 0xFFFF;
 
         SP = (SP - 2) & 0xffff;
@@ -2000,679 +2638,180 @@ public class EmulatorEngine implements CpuEngine {
     }
 
 
-    private int dispatch(short OP) throws IOException, InvocationTargetException, IllegalAccessException {
-        int tmp, tmp1, tmp2, tmp3;
-        short special = 0; // prefix if available = 0xDD or 0xFD
-
+    private int dispatch(short OP) throws IOException {
         DispatchListener tmpListener = dispatchListener;
-        if (tmpListener != null) {
-            tmpListener.beforeDispatch();
+        if (tmpListener == null) {
+            return execute(OP);
         }
 
+        tmpListener.beforeDispatch();
+        int cycles = 0;
         try {
-            /* if interrupt is waiting, instruction won't be read from memory
-             * but from one or all of 3 bytes (b1,b2,b3) which represents either
-             * rst or call instruction incomed from external peripheral device
-             */
-            if (isINT) {
-                return doInterrupt();
-            }
-            incrementR();
-            if (OP == 0x76) { /* HALT */
-                currentRunState = RunState.STATE_STOPPED_NORMAL;
-                return 4;
-            }
-
-        /* Handle below all operations which refer to registers or register pairs.
-         After that, a large switch statement takes care of all other opcodes */
-            switch (OP & 0xC0) {
-                case 0x40: /* LD r,r' */
-                    tmp = (OP >>> 3) & 0x07;
-                    tmp1 = OP & 0x07;
-                    putreg(tmp, (short) getreg(tmp1));
-                    if ((tmp1 == 6) || (tmp == 6)) {
-                        return 7;
-                    } else {
-                        return 4;
-                    }
-            }
-
-            /* Dispatch Instruction */
-            Method instr = DISPATCH_TABLE[OP];
-            if (instr != null) {
-                return (Integer) instr.invoke(this, OP);
-            }
-
-            switch (OP) {
-                case 0xDD:
-                    special = 0xDD;
-                case 0xFD:
-                    if (OP == 0xFD) {
-                        special = 0xFD;
-                    }
-                    OP = memory.read(PC);
-                    PC = (PC + 1) & 0xFFFF;
-                    incrementR();
-                    switch (OP) {
-                        /* ADD ii,pp */
-                        case 0x09:
-                        case 0x19:
-                        case 0x29:
-                        case 0x39:
-                            tmp = getspecial(special);
-                            tmp1 = getpair(special, (OP >>> 4) & 0x03);
-
-                            carry15(tmp, tmp1);
-                            halfCarry11(tmp, tmp1);
-                            flags &= (~(FLAG_N | FLAG_S | FLAG_Z));
-
-                            tmp += tmp1;
-                            flags |= ((tmp & 0x8000) == 0x8000) ? FLAG_S : 0;
-                            flags |= (tmp == 0) ? FLAG_Z : 0;
-                            putspecial(special, tmp);
-                            return 15;
-                        case 0x23: /* INC ii */
-                            if (special == 0xDD) {
-                                IX = (IX + 1) & 0xFFFF;
-                            } else {
-                                IY = (IY + 1) & 0xFFFF;
-                            }
-                            return 10;
-                        case 0x2B: /* DEC ii */
-                            if (special == 0xDD) {
-                                IX = (IX - 1) & 0xFFFF;
-                            } else {
-                                IY = (IY - 1) & 0xFFFF;
-                            }
-                            return 10;
-                        case 0xE1: /* POP ii */
-                            if (special == 0xDD) {
-                                IX = readWord(SP);
-                            } else {
-                                IY = readWord(SP);
-                            }
-                            SP = (SP + 2) & 0xFFFF;
-                            return 14;
-                        case 0xE3: /* EX (SP),ii */
-                            tmp = readWord(SP);
-                            if (special == 0xDD) {
-                                tmp1 = IX;
-                                IX = tmp;
-                            } else {
-                                tmp1 = IY;
-                                IY = tmp;
-                            }
-                            writeWord(SP, tmp1);
-                            return 23;
-                        case 0xE5: /* PUSH ii */
-                            SP = (SP - 2) & 0xFFFF;
-                            if (special == 0xDD) {
-                                writeWord(SP, IX);
-                            } else {
-                                writeWord(SP, IY);
-                            }
-                            return 15;
-                        case 0xE9: /* JP (ii) */
-                            if (special == 0xDD) {
-                                PC = IX;
-                            } else {
-                                PC = IY;
-                            }
-                            return 8;
-                        case 0xF9: /* LD SP,ii */
-                            SP = (special == 0xDD) ? IX : IY;
-                            return 10;
-                    }
+            cycles = execute(OP);
+            return cycles;
+        } finally {
+            tmpListener.afterDispatch(cycles);
+        }
+    }
 
-                    tmp = memory.read(PC);
-                    PC = (PC + 1) & 0xFFFF;
-                    switch (OP) {
-                        case 0x76:
-                            break;
-                        /* LD r,(ii+d) */
-                        case 0x46:
-                        case 0x4E:
-                        case 0x56:
-                        case 0x5E:
-                        case 0x66:
-                        case 0x6E:
-                        case 0x7E:
-                            tmp1 = (OP >>> 3) & 7;
-                            putreg2(tmp1, memory.read((getspecial(special) + (byte) tmp) & 0xFFFF));
-                            return 19;
-                        /* LD (ii+d),r */
-                        case 0x70:
-                        case 0x71:
-                        case 0x72:
-                        case 0x73:
-                        case 0x74:
-                        case 0x75:
-                        case 0x77:
-                            tmp1 = (OP & 7);
-                            tmp2 = (getspecial(special) + (byte) tmp) & 0xFFFF;
-                            memory.write(tmp2, (short) getreg2(tmp1));
-                            return 19;
-                        case 0x34: /* INC (ii+d) */
-                            tmp1 = (getspecial(special) + (byte) tmp) & 0xFFFF;
-                            tmp2 = (memory.read(tmp1) + 1) & 0xFF;
-
-                            memory.write(tmp1, (short) tmp2);
-                            flags = EmulatorTables.INC_TABLE[tmp2] | (flags & FLAG_C);
-                            return 23;
-                        case 0x35: /* DEC (ii+d) */
-                            tmp1 = (getspecial(special) + (byte) tmp) & 0xFFFF;
-                            tmp2 = (memory.read(tmp1) - 1) & 0xFF;
-                            memory.write(tmp1, (short) tmp2);
-                            flags = EmulatorTables.DEC_TABLE[tmp2] | (flags & FLAG_C);
-                            return 23;
-                        case 0x86: /* ADD A,(ii+d) */
-                            tmp1 = regs[REG_A];
-                            tmp2 = memory.read((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF;
-
-                            regs[REG_A] += tmp2;
-                            flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF];
-                            regs[REG_A] = regs[REG_A] & 0xFF;
-
-                            auxCarry(tmp1, tmp2);
-                            overflow(tmp1, tmp2, regs[REG_A]);
-
-                            return 19;
-                        case 0x8E: /* ADC A,(ii+d) */
-                            tmp1 = regs[REG_A];
-                            tmp2 = memory.read((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF;
-                            if ((flags & FLAG_C) == FLAG_C) {
-                                tmp2++;
-                            }
-                            regs[REG_A] += tmp2;
-                            flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF];
-                            regs[REG_A] = regs[REG_A] & 0xFF;
-
-                            auxCarry(tmp1, tmp2);
-                            overflow(tmp1, tmp2, regs[REG_A]);
-
-                            return 19;
-                        case 0x96: /* SUB (ii+d) */
-                            tmp1 = regs[REG_A];
-                            tmp2 = -(memory.read((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF);
-
-                            regs[REG_A] += tmp2;
-                            tmp2 &= 0xFF;
-
-                            flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF] | FLAG_N;
-                            regs[REG_A] = (short) (regs[REG_A] & 0xFF);
-
-                            auxCarry(tmp1, tmp2);
-                            overflow(tmp1, tmp2, regs[REG_A]);
-
-                            return 19;
-                        case 0x9E: /* SBC A,(ii+d) */
-                            tmp1 = regs[REG_A];
-                            tmp2 = -(memory.read((getspecial(special) + (byte) tmp) & 0xFFFF) & 0xFF);
-                            if ((flags & FLAG_C) == FLAG_C) {
-                                tmp2--;
-                            }
-                            regs[REG_A] += tmp2;
-                            tmp2 &= 0xFF;
-
-                            flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[regs[REG_A] & 0x1FF] | FLAG_N;
-                            regs[REG_A] = regs[REG_A] & 0xFF;
-
-                            auxCarry(tmp1, tmp2);
-                            overflow(tmp1, tmp2, regs[REG_A]);
-
-                            return 19;
-                        case 0xA6: /* AND (ii+d) */
-                            tmp1 = memory.read((getspecial(special) + (byte) tmp) & 0xFFFF);
-                            regs[REG_A] = (regs[REG_A] & tmp1) & 0xFF;
-                            flags = EmulatorTables.AND_OR_XOR_TABLE[regs[REG_A]];
-                            return 19;
-                        case 0xAE: /* XOR (ii+d) */
-                            tmp1 = memory.read((getspecial(special) + (byte) tmp) & 0xFFFF);
-                            regs[REG_A] = ((regs[REG_A] ^ tmp1) & 0xff);
-                            flags = EmulatorTables.AND_OR_XOR_TABLE[regs[REG_A]];
-                            return 19;
-                        case 0xB6: /* OR (ii+d) */
-                            tmp1 = memory.read((getspecial(special) + (byte) tmp) & 0xFFFF);
-                            regs[REG_A] = ((regs[REG_A] | tmp1) & 0xff);
-                            flags = EmulatorTables.AND_OR_XOR_TABLE[regs[REG_A]];
-                            return 19;
-                        case 0xBE: /* CP (ii+d) */
-                            int diff = -memory.read((getspecial(special) + (byte) tmp) & 0xFFFF);
-                            tmp2 = regs[REG_A] + diff;
-                            diff &= 0xFF;
-
-                            flags = EmulatorTables.SIGN_ZERO_CARRY_TABLE[tmp2 & 0x1FF] | FLAG_N;
-                            auxCarry(regs[REG_A], diff);
-                            overflow(regs[REG_A], diff, tmp2 & 0xFF);
-
-                            return 19;
-                    }
-                    tmp |= ((memory.read(PC)) << 8);
-                    PC = (PC + 1) & 0xFFFF;
-                    switch (OP) {
-                        case 0x21: /* LD ii,nn */
-                            putspecial(special, tmp);
-                            return 14;
-                        case 0x22: /* LD (nn),ii */
-                            writeWord(tmp, getspecial(special));
-                            return 16;
-                        case 0x2A: /* LD ii,(nn) */
-                            tmp1 = readWord(tmp);
-                            putspecial(special, tmp1);
-                            return 20;
-                        case 0x36: /* LD (ii+d),n */
-                            memory.write((getspecial(special) + (byte) (tmp & 0xFF)) & 0xFFFF, (short) ((tmp >>> 8)));
-                            return 19;
-                        case 0xCB:
-                            OP = (short) ((tmp >>> 8) & 0xff);
-                            tmp &= 0xff;
-                            switch (OP) {
-                                /* BIT b,(ii+d) */
-                                case 0x46:
-                                case 0x4E:
-                                case 0x56:
-                                case 0x5E:
-                                case 0x66:
-                                case 0x6E:
-                                case 0x76:
-                                case 0x7E:
-                                    tmp2 = (OP >>> 3) & 7;
-                                    tmp1 = memory.read((getspecial(special) + (byte) tmp) & 0xffff);
-                                    flags = ((flags & FLAG_C) | FLAG_H | (((tmp1 & (1 << tmp2)) == 0) ? (FLAG_Z | FLAG_PV) : 0));
-                                    if (tmp2 == 7) {
-                                        flags |= (((tmp1 & (1 << 7)) == 0x80) ? FLAG_S : 0);
-                                    }
-                                    return 20;
-                                case 0x78: // undocumented BIT 7,(ii+d)
-                                case 0x79:
-                                case 0x7A:
-                                case 0x7B:
-                                case 0x7C:
-                                case 0x7D:
-                                case 0x7F:
-                                    tmp1 = memory.read((getspecial(special) + (byte) tmp) & 0xffff);
-                                    flags = ((flags & FLAG_C) | FLAG_H | (((tmp1 & (1 << 7)) == 0) ? (FLAG_Z | FLAG_PV) : 0))
-                                        | (((tmp1 & (1 << 7)) == 0x80) ? FLAG_S : 0);
-                                    return 20;
-                                /* RES b,(ii+d) */
-                                case 0x86:
-                                case 0x8E:
-                                case 0x96:
-                                case 0x9E:
-                                case 0xA6:
-                                case 0xAE:
-                                case 0xB6:
-                                case 0xBE:
-                                    tmp2 = (OP >>> 3) & 7;
-                                    tmp3 = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp3);
-                                    tmp1 = (tmp1 & (~(1 << tmp2)));
-                                    memory.write(tmp3, (short) (tmp1 & 0xff));
-                                    return 23;
-                                /* SET b,(ii+d) */
-                                case 0xC6:
-                                case 0xCE:
-                                case 0xD6:
-                                case 0xDE:
-                                case 0xE6:
-                                case 0xEE:
-                                case 0xF6:
-                                case 0xFE:
-                                    tmp2 = (OP >>> 3) & 7;
-                                    tmp3 = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp3);
-                                    tmp1 = (tmp1 | (1 << tmp2));
-                                    memory.write(tmp3, (short) (tmp1 & 0xff));
-                                    return 23;
-                                /* SET 0,(ii+d),reg (undocumented) */
-                                case 0xC0:
-                                case 0xC1:
-                                case 0xC2:
-                                case 0xC3:
-                                case 0xC4:
-                                case 0xC5:
-                                case 0xC7:
-                                    tmp2 = (OP >>> 3) & 7;
-                                    tmp3 = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp3);
-                                    tmp1 = (tmp1 | (1 << tmp2));
-                                    memory.write(tmp3, (short) (tmp1 & 0xff));
-                                    regs[OP & 7] = tmp1 & 0xFF;
-                                    return 23;
-                                case 0x06: /* RLC (ii+d) */
-                                case 0: // undocumented
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = (tmp1 >>> 7) & 1;
-                                    tmp1 = ((((tmp1 << 1) & 0xFF) | tmp2) & 0xFF);
-
-                                    memory.write(tmp, (short) (tmp1 & 0xFF));
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    if (OP == 0) {
-                                        regs[REG_B] = (short) (tmp1 & 0xFF);
-                                    }
-                                    return 23;
-                                case 0x0E: /* RRC (ii+d) */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = tmp1 & 1;
-                                    tmp1 = (((tmp1 >>> 1) & 0x7F) | (tmp2 << 7)) & 0xFF;
-
-                                    memory.write(tmp, (short) (tmp1 & 0xFF));
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                                case 0x16: /* RL (ii+d) */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = (tmp1 >>> 7) & 1;
-                                    tmp1 = ((((tmp1 << 1) & 0xFF) | flags & FLAG_C) & 0xFF);
-                                    memory.write(tmp, (short) (tmp1 & 0xFF));
-
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                                case 0x1E: /* RR (ii+d) */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = tmp1 & 1;
-                                    tmp1 = ((((tmp1 >> 1) & 0xFF) | (flags & FLAG_C) << 7) & 0xFF);
-                                    memory.write(tmp, (short) (tmp1 & 0xFF));
-
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                                case 0x26: /* SLA (ii+d) */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = (tmp1 >>> 7) & 1;
-                                    tmp1 = (tmp1 << 1) & 0xFE;
-                                    memory.write(tmp, (short) tmp1);
-
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                                case 0x2E: /* SRA (ii+d) */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = tmp1 & 1;
-                                    tmp1 = (tmp1 >> 1) & 0xFF | (tmp1 & 0x80);
-                                    memory.write(tmp, (short) tmp1);
-
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                                case 0x36: /* SLL (ii+d) unsupported */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = (tmp1 >>> 7) & 1;
-                                    tmp1 = (tmp1 << 1) & 0xFF | tmp1 & 1;
-                                    memory.write(tmp, (short) tmp1);
-
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                                case 0x3E: /* SRL (ii+d) */
-                                    tmp = (getspecial(special) + (byte) tmp) & 0xffff;
-                                    tmp1 = memory.read(tmp);
-
-                                    tmp2 = tmp1 & 1;
-                                    tmp1 = (tmp1 >>> 1) & 0x7F;
-                                    memory.write(tmp, (short) tmp1);
-
-                                    flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                                    return 23;
-                            }
-                            currentRunState = RunState.STATE_STOPPED_BAD_INSTR;
-                            return 0;
-                    }
-                    currentRunState = RunState.STATE_STOPPED_BAD_INSTR;
-                    return 0;
-                case 0xCB:
-                    OP = memory.read(PC);
-                    PC = (PC + 1) & 0xFFFF;
-                    incrementR();
-                    switch (OP) {
-                        /* RLC r */
-                        case 0x00:
-                        case 0x01:
-                        case 0x02:
-                        case 0x03:
-                        case 0x04:
-                        case 0x05:
-                        case 0x06:
-                        case 0x07:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = (tmp1 >>> 7) & 1;
-                            tmp1 = (((tmp1 << 1) & 0xFF) | tmp2) & 0xFF;
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* RRC r */
-                        case 0x08:
-                        case 0x09:
-                        case 0x0A:
-                        case 0x0B:
-                        case 0x0C:
-                        case 0x0D:
-                        case 0x0E:
-                        case 0x0F:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = tmp1 & 1;
-                            tmp1 = (((tmp1 >>> 1) & 0x7F) | (tmp2 << 7)) & 0xFF;
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* RL r */
-                        case 0x10:
-                        case 0x11:
-                        case 0x12:
-                        case 0x13:
-                        case 0x14:
-                        case 0x15:
-                        case 0x16:
-                        case 0x17:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = (tmp1 >>> 7) & 1;
-                            tmp1 = ((((tmp1 << 1) & 0xFF) | flags & FLAG_C) & 0xFF);
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* RR r */
-                        case 0x18:
-                        case 0x19:
-                        case 0x1A:
-                        case 0x1B:
-                        case 0x1C:
-                        case 0x1D:
-                        case 0x1E:
-                        case 0x1F:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = tmp1 & 1;
-                            tmp1 = ((((tmp1 >> 1) & 0x7F) | (flags & FLAG_C) << 7) & 0xFF);
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* SLA r */
-                        case 0x20:
-                        case 0x21:
-                        case 0x22:
-                        case 0x23:
-                        case 0x24:
-                        case 0x25:
-                        case 0x26:
-                        case 0x27:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = (tmp1 >>> 7) & 1;
-                            tmp1 = (tmp1 << 1) & 0xFE;
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* SRA r */
-                        case 0x28:
-                        case 0x29:
-                        case 0x2A:
-                        case 0x2B:
-                        case 0x2C:
-                        case 0x2D:
-                        case 0x2E:
-                        case 0x2F:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = tmp1 & 1;
-                            tmp1 = (tmp1 >> 1) & 0xFF | (tmp1 & 0x80);
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* SLL r - unsupported */
-                        case 0x30:
-                        case 0x31:
-                        case 0x32:
-                        case 0x33:
-                        case 0x34:
-                        case 0x35:
-                        case 0x36:
-                        case 0x37:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = (tmp1 >>> 7) & 1;
-                            tmp1 = (tmp1 << 1) & 0xFF | tmp1 & 1;
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                            /* SRL r */
-                        case 0x38:
-                        case 0x39:
-                        case 0x3A:
-                        case 0x3B:
-                        case 0x3C:
-                        case 0x3D:
-                        case 0x3E:
-                        case 0x3F:
-                            tmp = OP & 7;
-                            tmp1 = getreg(tmp);
-
-                            tmp2 = tmp1 & 1;
-                            tmp1 = (tmp1 >>> 1) & 0x7F;
-                            putreg(tmp, tmp1);
-
-                            flags = EmulatorTables.SIGN_ZERO_TABLE[tmp1] | EmulatorTables.PARITY_TABLE[tmp1] | tmp2;
-
-                            if (tmp == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                    }
-                    switch (OP & 0xC0) {
-                        case 0x40: /* BIT b,r */
-                            tmp = (OP >>> 3) & 7;
-                            tmp2 = OP & 7;
-                            tmp1 = getreg(tmp2);
-                            flags = ((flags & FLAG_C) | FLAG_H | (((tmp1 & (1 << tmp)) == 0) ? (FLAG_Z | FLAG_PV) : 0));
-                            if (tmp == 7) {
-                                flags |= (((tmp1 & (1 << tmp)) == 0x80) ? FLAG_S : 0);
-                            }
-                            if (tmp2 == 6) {
-                                return 12;
-                            } else {
-                                return 8;
-                            }
-                        case 0x80: /* RES b,r */
-                            tmp = (OP >>> 3) & 7;
-                            tmp2 = OP & 7;
-                            tmp1 = getreg(tmp2);
-                            tmp1 = (tmp1 & (~(1 << tmp)));
-                            putreg(tmp2, tmp1);
-                            if (tmp2 == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                        case 0xC0: /* SET b,r */
-                            tmp = (OP >>> 3) & 7;
-                            tmp2 = OP & 7;
-                            tmp1 = getreg(tmp2);
-                            tmp1 = (tmp1 | (1 << tmp));
-                            putreg(tmp2, tmp1);
-                            if (tmp2 == 6) {
-                                return 15;
-                            } else {
-                                return 8;
-                            }
-                    }
-            }
+    private int execute(short OP) throws IOException {
+        /* if interrupt is waiting, instruction won't be read from memory
+         * but from one or all of 3 bytes (b1,b2,b3) which represents either
+         * rst or call instruction incomed from external peripheral device
+         */
+        if (isINT) {
+            return doInterrupt();
+        }
+        incrementR();
 
-            currentRunState = CPU.RunState.STATE_STOPPED_BAD_INSTR;
-        } finally {
-            if (tmpListener != null) {
-                tmpListener.afterDispatch();
-            }
+        /* Prefixed opcodes are decoded by their own dispatchers, all other opcodes are handled directly */
+        switch (OP) {
+            case 0x76: /* HALT */
+                currentRunState = RunState.STATE_STOPPED_NORMAL;
+                return 4;
+            case 0xCB:
+                return CB_DISPATCH();
+            case 0xDD: case 0xFD:
+                return DD_FD_DISPATCH(OP);
+            case 0xED:
+                return ED_DISPATCH(OP);
+            case 0x00:
+                return O0_NOP(OP);
+            case 0x01: case 0x11: case 0x21: case 0x31:
+                return LD_SS_NN(OP);
+            case 0x02:
+                return O2_LD_LPAR_BC_RPAR__A(OP);
+            case 0x03: case 0x13: case 0x23: case 0x33:
+                return INC_SS(OP);
+            case 0x04: case 0x0C: case 0x14: case 0x1C: case 0x24: case 0x2C: case 0x34: case 0x3C:
+                return INC_R(OP);
+            case 0x05: case 0x0D: case 0x15: case 0x1D: case 0x25: case 0x2D: case 0x35: case 0x3D:
+                return DEC_R(OP);
+            case 0x06: case 0x0E: case 0x16: case 0x1E: case 0x26: case 0x2E: case 0x36: case 0x3E:
+                return LD_R_N(OP);
+            case 0x07:
+                return O7_RLCA(OP);
+            case 0x08:
+                return O8_EX_AF_AFF(OP);
+            case 0x09: case 0x19: case 0x29: case 0x39:
+                return ADD_HL_SS(OP);
+            case 0x0A:
+                return OA_LD_A_LPAR_BC_RPAR(OP);
+            case 0x0B: case 0x1B: case 0x2B: case 0x3B:
+                return DEC_SS(OP);
+            case 0x0F:
+                return OF_RRCA(OP);
+            case 0x10:
+                return O10_DJNZ(OP);
+            case 0x12:
+                return O12_LD_LPAR_DE_RPAR_A(OP);
+            case 0x17:
+                return O17_RLA(OP);
+            case 0x18:
+                return O18_JR_E(OP);
+            case 0x1A:
+                return O1A_LD_A_LPAR_DE_RPAR(OP);
+            case 0x1F:
+                return O1F_RRA(OP);
+            case 0x20: case 0x28: case 0x30: case 0x38:
+                return JR_CC_D(OP);
+            case 0x22:
+                return O22_LD_LPAR_NN_RPAR_HL(OP);
+            case 0x27:
+                return O27_DAA(OP);
+            case 0x2A:
+                return O2A_LD_HL_LPAR_NN_RPAR(OP);
+            case 0x2F:
+                return O2F_CPL(OP);
+            case 0x32:
+                return O32_LD_LPAR_NN_RPAR_A(OP);
+            case 0x37:
+                return O37_SCF(OP);
+            case 0x3A:
+                return O3A_LD_A_LPAR_NN_RPAR(OP);
+            case 0x3F:
+                return O3F_CCF(OP);
+            case 0x40: case 0x41: case 0x42: case 0x43: case 0x44: case 0x45: case 0x46: case 0x47:
+            case 0x48: case 0x49: case 0x4A: case 0x4B: case 0x4C: case 0x4D: case 0x4E: case 0x4F:
+            case 0x50: case 0x51: case 0x52: case 0x53: case 0x54: case 0x55: case 0x56: case 0x57:
+            case 0x58: case 0x59: case 0x5A: case 0x5B: case 0x5C: case 0x5D: case 0x5E: case 0x5F:
+            case 0x60: case 0x61: case 0x62: case 0x63: case 0x64: case 0x65: case 0x66: case 0x67:
+            case 0x68: case 0x69: case 0x6A: case 0x6B: case 0x6C: case 0x6D: case 0x6E: case 0x6F:
+            case 0x70: case 0x71: case 0x72: case 0x73: case 0x74: case 0x75: case 0x77: case 0x78:
+            case 0x79: case 0x7A: case 0x7B: case 0x7C: case 0x7D: case 0x7E: case 0x7F:
+                return LD_R_R(OP);
+            case 0x80: case 0x81: case 0x82: case 0x83: case 0x84: case 0x85: case 0x86: case 0x87:
+                return ADD_A_R(OP);
+            case 0x88: case 0x89: case 0x8A: case 0x8B: case 0x8C: case 0x8D: case 0x8E: case 0x8F:
+                return ADC_A_R(OP);
+            case 0x90: case 0x91: case 0x92: case 0x93: case 0x94: case 0x95: case 0x96: case 0x97:
+                return SUB_R(OP);
+            case 0x98: case 0x99: case 0x9A: case 0x9B: case 0x9C: case 0x9D: case 0x9E: case 0x9F:
+                return SBC_A_R(OP);
+            case 0xA0: case 0xA1: case 0xA2: case 0xA3: case 0xA4: case 0xA5: case 0xA6: case 0xA7:
+                return AND_R(OP);
+            case 0xA8: case 0xA9: case 0xAA: case 0xAB: case 0xAC: case 0xAD: case 0xAE: case 0xAF:
+                return XOR_R(OP);
+            case 0xB0: case 0xB1: case 0xB2: case 0xB3: case 0xB4: case 0xB5: case 0xB6: case 0xB7:
+                return OR_R(OP);
+            case 0xB8: case 0xB9: case 0xBA: case 0xBB: case 0xBC: case 0xBD: case 0xBE: case 0xBF:
+                return CP_R(OP);
+            case 0xC0: case 0xC8: case 0xD0: case 0xD8: case 0xE0: case 0xE8: case 0xF0: case 0xF8:
+                return RET_CC(OP);
+            case 0xC1: case 0xD1: case 0xE1: case 0xF1:
+                return POP_QQ(OP);
+            case 0xC2: case 0xCA: case 0xD2: case 0xDA: case 0xE2: case 0xEA: case 0xF2: case 0xFA:
+                return JP_CC_NN(OP);
+            case 0xC3:
+                return C3_JP_NN(OP);
+            case 0xC4: case 0xCC: case 0xD4: case 0xDC: case 0xE4: case 0xEC: case 0xF4: case 0xFC:
+                return CALL_CC_NN(OP);
+            case 0xC5: case 0xD5: case 0xE5: case 0xF5:
+                return PUSH_QQ(OP);
+            case 0xC6:
+                return C6_ADD_A_d(OP);
+            case 0xC7: case 0xCF: case 0xD7: case 0xDF: case 0xE7: case 0xEF: case 0xF7: case 0xFF:
+                return RST_P(OP);
+            case 0xC9:
+                return C9_RET(OP);
+            case 0xCD:
+                return CD_CALL_NN(OP);
+            case 0xCE:
+                return CE_ADC_A_d(OP);
+            case 0xD3:
+                return D3_OUT_LPAR_D_RPAR_A(OP);
+            case 0xD6:
+                return D6_SUB_d(OP);
+            case 0xD9:
+                return D9_EXX(OP);
+            case 0xDB:
+                return DB_IN_A_LPAR_d_RPAR(OP);
+            case 0xDE:
+                return DE_SBC_A_d(OP);
+            case 0xE3:
+                return E3_EX_LPAR_SP_RPAR_HL(OP);
+            case 0xE6:
+                return E6_AND_d(OP);
+            case 0xE9:
+                return E9_JP_LPAR_HL_RPAR(OP);
+            case 0xEB:
+                return EB_EX_DE_HL(OP);
+            case 0xEE:
+                return EE_XOR_d(OP);
+            case 0xF3:
+                return F3_DI(OP);
+            case 0xF6:
+                return F6_OR_d(OP);
+            case 0xF9:
+                return F9_LD_SP_HL(OP);
+            case 0xFB:
+                return FB_EI(OP);
+            case 0xFE:
+                return FE_CP_d(OP);
+            default:
+                currentRunState = CPU.RunState.STATE_STOPPED_BAD_INSTR;
+                return 0;
         }
-        return 0;
     }
 
 }
@@ -26,10 +26,13 @@ import net.emustudio.emulib.runtime.ContextPool;
 import net.emustudio.emulib.runtime.PluginSettings;
 import net.emustudio.plugins.cpu.intel8080.api.DefaultInitializer;
 import net.emustudio.plugins.cpu.intel8080.api.DispatchListener;
+import net.emustudio.plugins.cpu.intel8080.api.TraceRecorder;
 import net.emustudio.plugins.cpu.zilogZ80.gui.DecoderImpl;
 import net.emustudio.plugins.cpu.zilogZ80.gui.DisassemblerImpl;
 
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.Objects;
 
 public class InitializerForZ80 extends DefaultInitializer<EmulatorEngine> {
@@ -56,4 +59,10 @@ public class InitializerForZ80 extends DefaultInitializer<EmulatorEngine> {
     protected Disassembler createDisassembler(MemoryContext<Short> memory) {
         return new DisassemblerImpl(memory, new DecoderImpl(memory));
     }
+
+    @Override
+    protected TraceRecorder createTraceRecorder(EmulatorEngine engine, MemoryContext<Short> memory,
+                                                Path traceFile) throws IOException {
+        return new TraceRecorderForZ80(engine, memory, traceFile);
+    }
 }
@@ -25,9 +25,8 @@ import net.emustudio.plugins.cpu.intel8080.api.DispatchListener;
 import net.jcip.annotations.ThreadSafe;
 
 import java.io.PrintStream;
-import java.util.List;
+import java.util.BitSet;
 import java.util.Objects;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.emustudio.plugins.cpu.zilogZ80.EmulatorEngine.*;
@@ -38,7 +37,7 @@ public class InstructionPrinter implements DispatchListener {
     private final EmulatorEngine emulatorEngine;
     private final PrintStream writer;
 
-    private final List<Integer> cache = new CopyOnWriteArrayList<>();
+    private final BitSet cache = new BitSet(0x10000); // addresses of already printed instructions
     private final AtomicInteger numberOfMatch = new AtomicInteger();
     private volatile int matchPC;
     private final boolean useCache;
@@ -64,7 +63,7 @@ public class InstructionPrinter implements DispatchListener {
         try {
             DisassembledInstruction instr = disassembler.disassemble(PC);
 
-            if (useCache && !cache.contains(PC)) {
+            if (useCache && !cache.get(PC)) {
                 if (numberOfMatch.get() != 0) {
                     writer.println(String.format("%04d | Block from %04X to %04X; count=%d",
                         timeStamp, matchPC, PC, numberOfMatch.get())
@@ -73,7 +72,7 @@ public class InstructionPrinter implements DispatchListener {
                     matchPC = PC;
                 }
                 numberOfMatch.set(0);
-                cache.add(PC);
+                cache.set(PC);
             } else if (useCache) {
                 numberOfMatch.incrementAndGet();
             }
@@ -89,7 +88,7 @@ public class InstructionPrinter implements DispatchListener {
     }
 
     @Override
-    public void afterDispatch() {
+    public void afterDispatch(int cycles) {
         if (numberOfMatch.get() <= 1) {
             writer.println(String.format("|| regs=%s IX=%04x IY=%04x IFF=%1x I=%02x R=%02x | flags=%s | SP=%04x | PC=%04x",
                 regsToString(), emulatorEngine.IX, emulatorEngine.IY,
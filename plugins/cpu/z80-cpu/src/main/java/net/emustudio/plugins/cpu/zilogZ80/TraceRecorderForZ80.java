@@ -0,0 +1,78 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.zilogZ80;
+
+import net.emustudio.emulib.plugins.memory.MemoryContext;
+import net.emustudio.plugins.cpu.intel8080.api.TraceRecorder;
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter;
+import net.emustudio.plugins.cpu.intel8080.api.TraceWriter.Register;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+
+import static net.emustudio.plugins.cpu.zilogZ80.EmulatorEngine.*;
+
+public class TraceRecorderForZ80 extends TraceRecorder {
+    public final static List<Register> REGISTERS = List.of(
+        Register.ofByte("A"), Register.ofByte("F"),
+        Register.ofByte("B"), Register.ofByte("C"),
+        Register.ofByte("D"), Register.ofByte("E"),
+        Register.ofByte("H"), Register.ofByte("L"),
+        Register.ofByte("A'"), Register.ofByte("F'"),
+        Register.ofByte("B'"), Register.ofByte("C'"),
+        Register.ofByte("D'"), Register.ofByte("E'"),
+        Register.ofByte("H'"), Register.ofByte("L'"),
+        Register.ofWord("IX"), Register.ofWord("IY"),
+        Register.ofWord("SP"),
+        Register.ofByte("I"), Register.ofByte("R")
+    );
+    private final static int[] REGISTER_ORDER = new int[]{REG_B, REG_C, REG_D, REG_E, REG_H, REG_L};
+
+    private final EmulatorEngine engine;
+
+    public TraceRecorderForZ80(EmulatorEngine engine, MemoryContext<Short> memory, Path traceFile) throws IOException {
+        super(memory, new TraceWriter(traceFile, REGISTERS, TraceWriter.DEFAULT_RING_RECORDS), REGISTERS.size());
+        this.engine = Objects.requireNonNull(engine);
+    }
+
+    @Override
+    protected int getPC() {
+        // the opcode is already fetched when the instruction is dispatched
+        return (engine.PC - 1) & 0xFFFF;
+    }
+
+    @Override
+    protected void readRegisters(int[] registers) {
+        registers[0] = engine.regs[REG_A];
+        registers[1] = engine.flags;
+        registers[8] = engine.regs2[REG_A];
+        registers[9] = engine.flags2;
+        for (int i = 0; i < REGISTER_ORDER.length; i++) {
+            registers[2 + i] = engine.regs[REGISTER_ORDER[i]];
+            registers[10 + i] = engine.regs2[REGISTER_ORDER[i]];
+        }
+        registers[16] = engine.IX;
+        registers[17] = engine.IY;
+        registers[18] = engine.SP;
+        registers[19] = engine.I;
+        registers[20] = engine.R;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.cpu.zilogZ80;
+
+import net.emustudio.emulib.plugins.cpu.CPU;
+import net.emustudio.plugins.cpu.intel8080.api.BreakpointBitmap;
+import net.emustudio.plugins.cpu.intel8080.api.Pacer;
+import net.emustudio.plugins.memory.standard.MemoryContextImpl;
+import net.emustudio.plugins.memory.standard.RangeTree;
+import net.emustudio.plugins.memory.standard.StandardMemoryFixture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The CPU accesses standard memory by primitive reads and writes; they must respect banks and ROM.
+ * <p>
+ * Memory has two banks below 8000h; programs are placed in the common area at 8000h. ROM is at 7000h - 70FFh, and
+ * contains 55h at 7000h.
+ */
+public class StandardMemoryTest {
+    private final static int PROGRAM = 0x8000;
+
+    private MemoryContextImpl memory;
+    private EmulatorEngine engine;
+
+    @Before
+    public void setUp() {
+        memory = StandardMemoryFixture.create(0x10000, 2, 0x8000);
+        memory.write(0x7000, (short) 0x55, 0);
+        memory.setReadOnly(new RangeTree.Range(0x7000, 0x70FF));
+
+        engine = new EmulatorEngine(memory, new ContextImpl());
+        engine.setPacer(new Pacer(Pacer.DEFAULT_SLICE_MILLIS, false));
+    }
+
+    private void runProgram(int... program) {
+        for (int i = 0; i < program.length; i++) {
+            memory.write(PROGRAM + i, (short) program[i], 0);
+        }
+        engine.reset(PROGRAM);
+        assertEquals(CPU.RunState.STATE_STOPPED_NORMAL, engine.run(new BreakpointBitmap()));
+    }
+
+    @Test
+    public void testReadFromSelectedBank() {
+        memory.write(0x105, (short) 0x11, 0);
+        memory.write(0x105, (short) 0x22, 1);
+
+        memory.selectBank((short) 1);
+        runProgram(0xDD, 0x21, 0x00, 0x01, 0xDD, 0x7E, 0x05, 0x76); // LD IX, 0100h; LD A, (IX+5); HALT
+        assertEquals(0x22, engine.regs[EmulatorEngine.REG_A]);
+
+        memory.selectBank((short) 0);
+        runProgram(0xDD, 0x21, 0x00, 0x01, 0xDD, 0x7E, 0x05, 0x76);
+        assertEquals(0x11, engine.regs[EmulatorEngine.REG_A]);
+    }
+
+    @Test
+    public void testWriteToSelectedBank() {
+        memory.selectBank((short) 1);
+        runProgram(0x3E, 0x42, 0x32, 0x00, 0x01, 0x76); // LD A, 42h; LD (0100h), A; HALT
+
+        assertEquals(0x42, (int) memory.read(0x100, 1));
+        assertEquals(0, (int) memory.read(0x100, 0));
+    }
+
+    @Test
+    public void testCommonAreaIsSharedByBanks() {
+        memory.selectBank((short) 1);
+        runProgram(0x11, 0x34, 0x12, 0xED, 0x53, 0x00, 0x90, 0x76); // LD DE, 1234h; LD (9000h), DE; HALT
+
+        assertEquals(0x1234, memory.readWord16(0x9000));
+        assertEquals(0x34, (int) memory.read(0x9000, 0));
+        assertEquals(0x12, (int) memory.read(0x9001, 0));
+    }
+
+    @Test
+    public void testWriteToRomIsIgnored() {
+        runProgram(0x3E, 0x42, 0x32, 0x00, 0x70, 0x3A, 0x00, 0x70, 0x76); // LD A, 42h; LD (7000h), A; LD A, (7000h); HALT
+
+        assertEquals(0x55, engine.regs[EmulatorEngine.REG_A]);
+        assertEquals(0x55, memory.readByte(0x7000));
+    }
+
+    @Test
+    public void testWordWriteWithHighByteInRom() {
+        runProgram(0x21, 0x34, 0x12, 0x22, 0xFF, 0x6F, 0x76); // LD HL, 1234h; LD (6FFFh), HL; HALT
+
+        assertEquals(0x34, memory.readByte(0x6FFF));
+        assertEquals(0x55, memory.readByte(0x7000));
+    }
+
+    @Test
+    public void testStackInSelectedBank() {
+        memory.selectBank((short) 1);
+        runProgram(
+            0x31, 0x00, 0x02, // LD SP, 0200h
+            0x01, 0xCD, 0xAB, // LD BC, ABCDh
+            0xC5,             // PUSH BC
+            0xD1,             // POP DE
+            0x76              // HALT
+        );
+
+        assertEquals(0xAB, engine.regs[EmulatorEngine.REG_D]);
+        assertEquals(0xCD, engine.regs[EmulatorEngine.REG_E]);
+        assertEquals(0xCD, (int) memory.read(0x1FE, 1));
+        assertEquals(0xAB, (int) memory.read(0x1FF, 1));
+        assertEquals(0, (int) memory.read(0x1FE, 0));
+    }
+}
@@ -33,10 +33,13 @@ import net.emustudio.plugins.device.mits88disk.gui.SettingsDialog;
 import net.emustudio.plugins.device.mits88disk.ports.ControlPort;
 import net.emustudio.plugins.device.mits88disk.ports.DataPort;
 import net.emustudio.plugins.device.mits88disk.ports.StatusPort;
+import net.emustudio.snapshot.Snapshottable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.*;
@@ -46,8 +49,9 @@ import java.util.*;
     title = "MITS 88-DISK device"
 )
 @SuppressWarnings("unused")
-public class DeviceImpl extends AbstractDevice {
+public class DeviceImpl extends AbstractDevice implements Snapshottable {
     private final static Logger LOGGER = LoggerFactory.getLogger(DeviceImpl.class);
+    private final static int SNAPSHOT_VERSION = 1;
 
     private final static int DRIVES_COUNT = 16;
     public final static int DEFAULT_CPU_PORT1 = 0x8;
@@ -138,6 +142,7 @@ public class DeviceImpl extends AbstractDevice {
             cpuContext.detachDevice(0x9);
             cpuContext.detachDevice(0xA);
         }
+        drives.forEach(Drive::umount);
         drives.clear();
     }
 
@@ -148,6 +153,36 @@ public class DeviceImpl extends AbstractDevice {
         }
     }
 
+    @Override
+    public int getSnapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void saveSnapshot(DataOutput output) throws IOException {
+        output.writeInt(currentDrive);
+        output.writeInt(drives.size());
+        for (Drive drive : drives) {
+            drive.saveState(output);
+        }
+    }
+
+    @Override
+    public void loadSnapshot(DataInput input) throws IOException {
+        int drive = input.readInt();
+        int drivesCount = input.readInt();
+        if (drivesCount != drives.size()) {
+            throw new IOException("Snapshot has " + drivesCount + " drives, but the device has " + drives.size());
+        }
+        if (drive < 0 || drive >= drivesCount) {
+            throw new IOException("Invalid current drive in snapshot: " + drive);
+        }
+        for (Drive d : drives) {
+            d.loadState(input);
+        }
+        currentDrive = drive;
+    }
+
     public Drive getCurrentDrive() {
         return drives.get(currentDrive);
     }
@@ -22,6 +22,8 @@ import net.jcip.annotations.Immutable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -31,6 +33,7 @@ import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -54,7 +57,13 @@ public class Drive {
     private boolean selected = false;
 
     private volatile DriveListener listener;
-    private final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(1);
+
+    // Buffer of the sector being transferred. Bytes are served from memory and written back to the image only
+    // when the head leaves the sector, or when the drive is deselected or un-mounted.
+    private ByteBuffer sectorBuffer = ByteBuffer.allocate(DEFAULT_SECTOR_LENGTH);
+    private long sectorBufferPosition = -1; // position of buffered sector in the image; -1 if nothing is buffered
+    private int sectorBufferLength; // number of bytes which were read from the image
+    private int sectorBufferDirtyLength; // 0 if buffer is clean; otherwise last written offset + 1
 
     private final int index;
 
@@ -121,6 +130,7 @@ public class Drive {
         if (sectorsCount <= 0) {
             throw new IllegalArgumentException("[drive=" + index + "] Sectors count must be > 0");
         }
+        flush();
         this.sectorsCount = sectorsCount;
         init();
     }
@@ -129,7 +139,10 @@ public class Drive {
         if (sectorLength <= 0) {
             throw new IllegalArgumentException("[drive=" + index + "] Sector length must be > 0");
         }
+        flush();
         this.sectorLength = sectorLength;
+        this.sectorBuffer = ByteBuffer.allocate(sectorLength);
+        this.sectorBufferPosition = -1;
         init();
     }
 
@@ -187,6 +200,7 @@ public class Drive {
     }
 
     public void deselect() {
+        flush();
         selected = false;
         port1status = 0xE7;
         port2status = 0xC1;
@@ -212,10 +226,13 @@ public class Drive {
         if (selected) {
             deselect();
         }
+        flush();
         mountedFloppy = null;
+        sectorBufferPosition = -1;
         try {
             if (imageChannel != null) {
                 imageChannel.close();
+                imageChannel = null;
             }
         } catch (IOException e) {
             LOGGER.error("[drive={}] Could not un-mount disk image", index, e);
@@ -235,6 +252,9 @@ public class Drive {
     }
 
     public void writeToPort2(short val) {
+        if ((val & 0x0B) != 0) { /* Head is going to leave current sector */
+            flush();
+        }
         if ((val & 0x01) != 0) { /* Step head in */
             track++;
             sector = 0;
@@ -273,6 +293,7 @@ public class Drive {
 
     public void nextSectorIfHeadIsLoaded() {
         if (((~port1status) & 0x04) != 0) { /* head loaded? */
+            flush();
             sector = (short) ((sector + 1) % 32);
             sectorOffset = 0;
             port2status = (short) ((sector << 1) & 0x3E | 0xC0);
@@ -283,20 +304,116 @@ public class Drive {
         notifyParamsChanged();
     }
 
-    public void writeData(int data) throws IOException {
-        byteBuffer.clear();
-        byteBuffer.put((byte) (data & 0xFF));
-        byteBuffer.flip();
+    /**
+     * Writes buffered sector back to the disk image, if it was modified.
+     * <p>
+     * It is called automatically when the head leaves the sector, or when the drive is deselected or un-mounted.
+     */
+    public void flush() {
+        if (sectorBufferDirtyLength == 0 || imageChannel == null) {
+            return;
+        }
+        try {
+            sectorBuffer.clear();
+            sectorBuffer.limit(Math.max(sectorBufferLength, sectorBufferDirtyLength));
+            imageChannel.position(sectorBufferPosition);
+            while (sectorBuffer.hasRemaining()) {
+                imageChannel.write(sectorBuffer);
+            }
+            sectorBufferLength = sectorBuffer.limit();
+            sectorBufferDirtyLength = 0;
+        } catch (IOException e) {
+            LOGGER.error("[drive={}, position={}] Could not write sector to disk image", index, sectorBufferPosition, e);
+        }
+    }
+
+    /**
+     * Save drive state into a snapshot.
+     * <p>
+     * Buffered sector is written to the disk image first. The image content itself is not part of the snapshot.
+     *
+     * @param output snapshot output
+     * @throws IOException if the state could not be written
+     */
+    void saveState(DataOutput output) throws IOException {
+        flush();
+        output.writeUTF(mountedFloppy == null ? "" : mountedFloppy.toString());
+        output.writeBoolean(selected);
+        output.writeInt(track);
+        output.writeInt(sector);
+        output.writeInt(sectorOffset);
+        output.writeShort(port1status);
+        output.writeShort(port2status);
+    }
+
+    /**
+     * Restore drive state from a snapshot.
+     * <p>
+     * If the snapshot was taken with a different disk image, the image is mounted.
+     *
+     * @param input snapshot input
+     * @throws IOException if the state could not be read or the disk image could not be mounted
+     */
+    void loadState(DataInput input) throws IOException {
+        String image = input.readUTF();
+        Path imagePath = image.isEmpty() ? null : Path.of(image);
+        if (!Objects.equals(imagePath, mountedFloppy)) {
+            if (imagePath == null) {
+                umount();
+            } else {
+                mount(imagePath);
+            }
+        }
+        flush();
+        sectorBufferPosition = -1;
+
+        selected = input.readBoolean();
+        track = input.readInt();
+        sector = input.readInt();
+        sectorOffset = input.readInt();
+        port1status = input.readShort();
+        port2status = input.readShort();
+        notifyDiskSelected();
+        notifyParamsChanged();
+    }
 
+    private void loadSector() throws IOException {
+        long position = (long) sectorsCount * sectorLength * track + (long) sectorLength * sector;
+        if (position == sectorBufferPosition) {
+            return;
+        }
+        flush();
+
+        sectorBufferPosition = -1;
+        sectorBuffer.clear();
+        imageChannel.position(position);
+        int bytesRead = 0;
+        while (sectorBuffer.hasRemaining()) {
+            int count = imageChannel.read(sectorBuffer);
+            if (count < 0) {
+                break;
+            }
+            bytesRead += count;
+        }
+        sectorBufferLength = bytesRead;
+        sectorBufferDirtyLength = 0;
+        sectorBufferPosition = position;
+    }
+
+    public void writeData(int data) throws IOException {
+        int offset = sectorOffset;
         try {
-            imageChannel.position(sectorsCount * sectorLength * track + sectorLength * sector + sectorOffset);
-            imageChannel.write(byteBuffer);
+            loadSector();
+            sectorBuffer.put(offset, (byte) (data & 0xFF));
+            sectorBufferDirtyLength = Math.max(sectorBufferDirtyLength, offset + 1);
         } finally {
-            sectorOffset = (short) ((sectorOffset + 1) % sectorLength);
+            sectorOffset = (short) ((offset + 1) % sectorLength);
             if (sectorOffset == 0) {
                 port1status |= 1; /* ENWD off */
             }
-            notifyParamsChanged();
+            if (offset == 0 || sectorOffset == 0) {
+                notifyParamsChanged(); // notify only at sector start and end, not for every byte
+            }
         }
     }
 
@@ -304,21 +421,18 @@ public class Drive {
         if (mountedFloppy == null) {
             return 0;
         }
-//        LOGGER.info("[T={}, S={}, O={}, imagePos={}] Reading", track, sector, sectorOffset,
-//            sectorsPerTrack * sectorLength * track + sectorLength * sector + sectorOffset
-//        );
-        imageChannel.position(sectorsCount * sectorLength * track + sectorLength * sector + sectorOffset);
+        int offset = sectorOffset;
         try {
-            byteBuffer.clear();
-            int bytesRead = imageChannel.read(byteBuffer);
-            if (bytesRead != byteBuffer.capacity()) {
+            loadSector();
+            if (offset >= Math.max(sectorBufferLength, sectorBufferDirtyLength)) {
                 throw new IOException("[drive=" + index + "] Could not read data from disk image");
             }
-            byteBuffer.flip();
-            return (short) (byteBuffer.get() & 0xFF);
+            return (short) (sectorBuffer.get(offset) & 0xFF);
         } finally {
-            sectorOffset = (short) ((sectorOffset + 1) % sectorLength);
-            notifyParamsChanged();
+            sectorOffset = (short) ((offset + 1) % sectorLength);
+            if (offset == 0) {
+                notifyParamsChanged(); // notify only at sector start, not for every byte
+            }
         }
     }
 
@@ -19,6 +19,7 @@
 package net.emustudio.plugins.device.mits88disk.ports;
 
 import net.emustudio.emulib.plugins.device.DeviceContext;
+import net.emustudio.plugins.cpu.intel8080.api.IntPortHandler;
 import net.emustudio.plugins.device.mits88disk.DeviceImpl;
 import net.emustudio.plugins.device.mits88disk.Drive;
 
@@ -30,7 +31,7 @@ import java.util.Objects;
  * IN: sector pos
  * OUT: set flags
  */
-public class ControlPort implements DeviceContext<Short> {
+public class ControlPort implements DeviceContext<Short>, IntPortHandler {
     private final DeviceImpl disk;
 
     public ControlPort(DeviceImpl disk) {
@@ -39,6 +40,16 @@ public class ControlPort implements DeviceContext<Short> {
 
     @Override
     public Short readData() {
+        return (short) readPort();
+    }
+
+    @Override
+    public void writeData(Short data) {
+        writePort(data);
+    }
+
+    @Override
+    public int readPort() {
         Drive currentDrive = disk.getCurrentDrive();
         currentDrive.nextSectorIfHeadIsLoaded();
 
@@ -46,8 +57,8 @@ public class ControlPort implements DeviceContext<Short> {
     }
 
     @Override
-    public void writeData(Short val) {
-        disk.getCurrentDrive().writeToPort2(val);
+    public void writePort(int val) {
+        disk.getCurrentDrive().writeToPort2((short) val);
     }
 
     @Override
@@ -19,6 +19,7 @@
 package net.emustudio.plugins.device.mits88disk.ports;
 
 import net.emustudio.emulib.plugins.device.DeviceContext;
+import net.emustudio.plugins.cpu.intel8080.api.IntPortHandler;
 import net.emustudio.plugins.device.mits88disk.DeviceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +32,7 @@ import java.util.Objects;
  * IN: read data
  * OUT: write data
  */
-public class DataPort implements DeviceContext<Short> {
+public class DataPort implements DeviceContext<Short>, IntPortHandler {
     private final static Logger LOGGER = LoggerFactory.getLogger(DataPort.class);
 
     private final DeviceImpl disk;
@@ -42,6 +43,16 @@ public class DataPort implements DeviceContext<Short> {
 
     @Override
     public Short readData() {
+        return (short) readPort();
+    }
+
+    @Override
+    public void writeData(Short data) {
+        writePort(data);
+    }
+
+    @Override
+    public int readPort() {
         short data = 0;
         try {
             data = disk.getCurrentDrive().readData();
@@ -52,7 +63,7 @@ public class DataPort implements DeviceContext<Short> {
     }
 
     @Override
-    public void writeData(Short data) {
+    public void writePort(int data) {
         try {
             disk.getCurrentDrive().writeData(data);
         } catch (Exception e) {
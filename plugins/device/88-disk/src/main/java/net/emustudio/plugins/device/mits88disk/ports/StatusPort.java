@@ -19,6 +19,7 @@
 package net.emustudio.plugins.device.mits88disk.ports;
 
 import net.emustudio.emulib.plugins.device.DeviceContext;
+import net.emustudio.plugins.cpu.intel8080.api.IntPortHandler;
 import net.emustudio.plugins.device.mits88disk.DeviceImpl;
 import net.emustudio.plugins.device.mits88disk.Drive;
 
@@ -30,7 +31,7 @@ import java.util.Objects;
  * IN: disk flags
  * OUT: select/unselect drive
  */
-public class StatusPort implements DeviceContext<Short> {
+public class StatusPort implements DeviceContext<Short>, IntPortHandler {
     private final DeviceImpl disk;
 
     public StatusPort(DeviceImpl disk) {
@@ -39,12 +40,22 @@ public class StatusPort implements DeviceContext<Short> {
 
     @Override
     public Short readData() {
+        return (short) readPort();
+    }
+
+    @Override
+    public void writeData(Short data) {
+        writePort(data);
+    }
+
+    @Override
+    public int readPort() {
         // interpret port1 status
         return disk.getCurrentDrive().getPort1status();
     }
 
     @Override
-    public void writeData(Short value) {
+    public void writePort(int value) {
         // select device
         disk.setCurrentDrive(value & 0x0F);
         Drive drive = disk.getCurrentDrive();
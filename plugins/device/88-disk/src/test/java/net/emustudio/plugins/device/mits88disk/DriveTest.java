@@ -24,8 +24,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
-import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.*;
 import java.nio.file.Path;
 
 import static org.easymock.EasyMock.*;
@@ -58,6 +57,14 @@ public class DriveTest {
         }
     }
 
+    private void assertImageBytes(int... expected) throws Exception {
+        try (RandomAccessFile raf = new RandomAccessFile(testImageFile.toFile(), "r")) {
+            for (int value : expected) {
+                assertEquals(value, raf.read());
+            }
+        }
+    }
+
     @Test
     public void testInitialDriveParameters() {
         Drive drive = new Drive(0);
@@ -335,4 +342,117 @@ public class DriveTest {
 
         verify(listener);
     }
+
+    @Test
+    public void testDriveListenerIsNotCalledForEveryReadByte() throws Exception {
+        Drive.DriveListener listener = EasyMock.createMock(Drive.DriveListener.class);
+        listener.driveParamsChanged(anyObject(Drive.DriveParameters.class));
+        expectLastCall().once();
+        replay(listener);
+
+        Drive drive = new Drive(0);
+        drive.setSectorsCount(SECTORS_COUNT);
+        drive.setSectorLength(SECTOR_SIZE);
+        drive.mount(testImageFile);
+        drive.select();
+        drive.writeToPort2((short) 0x04);
+        drive.setDriveListener(listener);
+        for (int i = 0; i < SECTOR_SIZE; i++) {
+            drive.readData();
+        }
+
+        verify(listener);
+    }
+
+    @Test
+    public void testWrittenDataAreReadBackFromSameSector() throws Exception {
+        Drive drive = new Drive(0);
+        drive.setSectorsCount(SECTORS_COUNT);
+        drive.setSectorLength(SECTOR_SIZE);
+        drive.mount(testImageFile);
+        drive.select();
+        drive.writeToPort2((short) 0x04);
+        drive.writeToPort2((short) 0x80);
+        drive.writeData(0xAB);
+        drive.writeData(0xCD);
+
+        assertEquals(0, drive.getOffset());
+        assertEquals(0xAB, drive.readData());
+        assertEquals(0xCD, drive.readData());
+    }
+
+    @Test
+    public void testWrittenSectorIsFlushedOnDeselect() throws Exception {
+        Drive drive = new Drive(0);
+        drive.setSectorsCount(SECTORS_COUNT);
+        drive.setSectorLength(SECTOR_SIZE);
+        drive.mount(testImageFile);
+        drive.select();
+        drive.writeToPort2((short) 0x04);
+        drive.writeToPort2((short) 0x80);
+        drive.writeData(0xAB);
+        drive.deselect();
+
+        try (RandomAccessFile raf = new RandomAccessFile(testImageFile.toFile(), "r")) {
+            assertEquals(0xAB, raf.read());
+            assertEquals(1, raf.read());
+        }
+    }
+
+    @Test
+    public void testWrittenSectorIsFlushedOnUmount() throws Exception {
+        Drive drive = new Drive(0);
+        drive.setSectorsCount(SECTORS_COUNT);
+        drive.setSectorLength(SECTOR_SIZE);
+        drive.mount(testImageFile);
+        drive.select();
+        drive.writeToPort2((short) 0x04);
+        drive.nextSectorIfHeadIsLoaded();
+        drive.writeToPort2((short) 0x80);
+        drive.writeData(0xAB);
+        drive.umount();
+
+        assertImageBytes(0, 1, 0xAB, 3, 4, 5, 6, 7);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadBeyondImageEndThrows() throws Exception {
+        Drive drive = new Drive(0);
+        drive.setSectorsCount(SECTORS_COUNT);
+        drive.setSectorLength(SECTOR_SIZE);
+        drive.mount(testImageFile);
+        drive.select();
+        for (int i = 0; i < TRACKS_COUNT; i++) {
+            drive.writeToPort2((short) 0x01);
+        }
+        drive.writeToPort2((short) 0x04);
+        drive.readData();
+    }
+
+    @Test
+    public void testSnapshotRestoresMountedImageAndHeadPosition() throws Exception {
+        Drive drive = new Drive(0);
+        drive.setSectorsCount(SECTORS_COUNT);
+        drive.setSectorLength(SECTOR_SIZE);
+        drive.mount(testImageFile);
+        drive.select();
+        drive.writeToPort2((short) 0x01);
+        drive.writeToPort2((short) 0x04);
+        drive.nextSectorIfHeadIsLoaded();
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        drive.saveState(new DataOutputStream(snapshot));
+        drive.umount();
+
+        Drive restored = new Drive(0);
+        restored.setSectorsCount(SECTORS_COUNT);
+        restored.setSectorLength(SECTOR_SIZE);
+        restored.loadState(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        assertEquals(testImageFile, restored.getImagePath());
+        assertTrue(restored.isSelected());
+        assertEquals(1, restored.getTrack());
+        assertEquals(1, restored.getSector());
+        assertEquals(6, restored.readData());
+    }
 }
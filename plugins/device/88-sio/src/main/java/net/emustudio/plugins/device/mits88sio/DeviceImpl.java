@@ -28,10 +28,14 @@ import net.emustudio.plugins.cpu.intel8080.api.ExtendedContext;
 import net.emustudio.plugins.device.mits88sio.ports.*;
 import net.emustudio.plugins.device.mits88sio.gui.SettingsDialog;
 import net.emustudio.plugins.device.mits88sio.gui.SioGui;
+import net.emustudio.snapshot.Snapshottable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -41,8 +45,9 @@ import java.util.ResourceBundle;
     title = "MITS 88-SIO serial board"
 )
 @SuppressWarnings("unused")
-public class DeviceImpl extends AbstractDevice implements SIOSettings.ChangedObserver {
+public class DeviceImpl extends AbstractDevice implements SIOSettings.ChangedObserver, Snapshottable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceImpl.class);
+    private static final int SNAPSHOT_VERSION = 1;
 
     private final Transmitter transmitter = new Transmitter();
     private final CpuStatusPort cpuStatusPort = new CpuStatusPort(transmitter);
@@ -126,6 +131,7 @@ public class DeviceImpl extends AbstractDevice implements SIOSettings.ChangedObs
     public void destroy() {
         cpuPorts.destroy();
         transmitter.setDevice(null);
+        transmitter.destroy();
         if (gui != null) {
             gui.dispose();
             gui = null;
@@ -133,6 +139,21 @@ public class DeviceImpl extends AbstractDevice implements SIOSettings.ChangedObs
         sioSettings.removeChangedObserver(this);
     }
 
+    @Override
+    public int getSnapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void saveSnapshot(DataOutput output) throws IOException {
+        transmitter.saveState(output);
+    }
+
+    @Override
+    public void loadSnapshot(DataInput input) throws IOException {
+        transmitter.loadState(input);
+    }
+
     @Override
     public void showSettings(JFrame parent) {
         if (!sioSettings.isGuiNotSupported()) {
@@ -24,13 +24,17 @@ import net.jcip.annotations.ThreadSafe;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Status port IN:
@@ -43,20 +47,37 @@ import java.util.concurrent.locks.ReentrantLock;
  * 2 - 1 - parity error; 0 - OK
  * 1 - 1 - transmitter buffer empty (i.e. ready for receive data from CPU)
  * 0 - 1 - data from input device is ready to be read
+ * <p>
+ * Data from the device are kept in a bounded ring buffer with a single producer (the attached device, calling
+ * {@link #writeFromDevice(short)}) and a single consumer (the CPU, calling {@link #readBuffer()}). If the buffer
+ * is full, incoming data are dropped and the "data overflow" bit is set. Bit 0 of the status is derived from the
+ * buffer itself.
+ * <p>
+ * Observers are not notified on every change; changes are collected and dispatched periodically on a separate
+ * thread.
  */
 @ThreadSafe
 public class Transmitter {
     private final static Logger LOGGER = LoggerFactory.getLogger(Transmitter.class);
+    final static int BUFFER_CAPACITY = 1 << 16;
+    final static long NOTIFY_PERIOD_MILLIS = 50;
+
+    private final static int STATUS_INPUT_READY = 0x01;
+    private final static int STATUS_OVERFLOW = 0x10;
+    private final static int BUFFER_MASK = BUFFER_CAPACITY - 1;
 
-    private final Queue<Short> buffer = new ConcurrentLinkedQueue<>();
-    private final Lock bufferAndStatusLock = new ReentrantLock();
+    private final short[] buffer = new short[BUFFER_CAPACITY];
+    private final AtomicLong head = new AtomicLong(); // next position to read, written by the consumer only
+    private final AtomicLong tail = new AtomicLong(); // next position to write, written by the producer only
+    private final AtomicInteger status = new AtomicInteger(0x2);
+    private final AtomicBoolean changed = new AtomicBoolean();
 
     private volatile DeviceContext<Short> device;
-    private volatile short status = 0x2;
     private volatile boolean inputInterruptEnabled;
     private volatile boolean outputInterruptEnabled;
 
-    private final List<Observer> observers = new ArrayList<>();
+    private final List<Observer> observers = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService dispatcher;
 
     void setDevice(DeviceContext<Short> device) {
         this.device = device;
@@ -73,52 +94,29 @@ public class Transmitter {
     }
 
     void reset() {
-        buffer.clear();
+        head.set(tail.get());
         writeToStatus((short) 0); // disable interrupts
     }
 
     public void writeToStatus(short value) {
-        int newStatus = status;
+        // TODO: Wrong implementation; buffer SHOULD be emptied.
+        // However, it messes up the automation.
+        inputInterruptEnabled = (value & 1) == 1;
+        outputInterruptEnabled = (value & 2) == 2;
 
-        bufferAndStatusLock.lock();
-        try {
-            // TODO: Wrong implementation; buffer SHOULD be emptied.
-            // However, it messes up the automation.
-            inputInterruptEnabled = (value & 1) == 1;
-            outputInterruptEnabled = (value & 2) == 2;
-
-            if (buffer.isEmpty()) {
-                this.status = 2;
-            } else {
-                this.status = 3;
-            }
-            newStatus = this.status;
-        } finally {
-            bufferAndStatusLock.unlock();
-            notifyStatusChanged(newStatus);
-        }
+        status.set(2);
+        changed.set(true);
     }
 
     public void writeFromDevice(short data) {
-        boolean wasEmpty = false;
-        int newStatus = status;
-
-        bufferAndStatusLock.lock();
-        try {
-            if (buffer.isEmpty()) {
-                wasEmpty = true;
-            }
-            buffer.add(data);
-            status = (short) (status | 1);
-            newStatus = status;
-        } finally {
-            bufferAndStatusLock.unlock();
-
-            if (wasEmpty) {
-                notifyNewData(data);
-            }
-            notifyStatusChanged(newStatus);
+        long position = tail.get();
+        if (position - head.get() >= BUFFER_CAPACITY) {
+            status.getAndUpdate(s -> s | STATUS_OVERFLOW);
+        } else {
+            buffer[(int) (position & BUFFER_MASK)] = data;
+            tail.lazySet(position + 1);
         }
+        changed.set(true);
     }
 
     public void writeToDevice(short data) throws IOException {
@@ -129,54 +127,122 @@ public class Transmitter {
     }
 
     public short readBuffer() {
-        int newData = 0;
-        boolean isNotEmpty = false;
-        int newStatus = status; // what to do..
-
-        bufferAndStatusLock.lock();
-        try {
-            Short result = buffer.poll();
-
-            isNotEmpty = !buffer.isEmpty();
-            status = isNotEmpty ? (short) (status | 1) : (short) (status & 0xFE);
-            newStatus = status;
-
-            if (isNotEmpty) {
-                newData = buffer.peek();
-            }
-
-            return result == null ? 0 : result;
-        } finally {
-            bufferAndStatusLock.unlock();
-
-            if (isNotEmpty) {
-                notifyNewData(newData);
-            } else {
-                notifyNoData();
-            }
-            notifyStatusChanged(newStatus);
+        long position = head.get();
+        if (position == tail.get()) {
+            return 0;
         }
+        short result = buffer[(int) (position & BUFFER_MASK)];
+        head.lazySet(position + 1);
+        changed.set(true);
+        return result;
     }
 
     public short readStatus() {
-        return status;
+        int tmpStatus = status.get();
+        if (head.get() != tail.get()) {
+            tmpStatus |= STATUS_INPUT_READY;
+        }
+        return (short) tmpStatus;
     }
 
+    /**
+     * Save status and buffered data into a snapshot.
+     *
+     * @param output snapshot output
+     * @throws IOException if the state could not be written
+     */
+    void saveState(DataOutput output) throws IOException {
+        long from = head.get();
+        long to = tail.get();
+
+        output.writeShort(readStatus());
+        output.writeBoolean(inputInterruptEnabled);
+        output.writeBoolean(outputInterruptEnabled);
+        output.writeInt((int) (to - from));
+        for (long i = from; i < to; i++) {
+            output.writeShort(buffer[(int) (i & BUFFER_MASK)]);
+        }
+    }
 
-    public void addObserver(Observer observer) {
-        observers.add(observer);
+    /**
+     * Restore status and buffered data from a snapshot.
+     * <p>
+     * Must not be called concurrently with the producer or the consumer.
+     *
+     * @param input snapshot input
+     * @throws IOException if the state could not be read
+     */
+    void loadState(DataInput input) throws IOException {
+        status.set(input.readShort() & ~STATUS_INPUT_READY);
+        inputInterruptEnabled = input.readBoolean();
+        outputInterruptEnabled = input.readBoolean();
+
+        long position = tail.get();
+        head.set(position);
+        int count = input.readInt();
+        for (int i = 0; i < count; i++) {
+            short data = input.readShort();
+            if (i < BUFFER_CAPACITY) {
+                buffer[(int) (position++ & BUFFER_MASK)] = data;
+            }
+        }
+        tail.set(position);
+        changed.set(true);
     }
 
-    private void notifyStatusChanged(int status) {
-        observers.forEach(o -> o.statusChanged(status));
+    /**
+     * Add an observer. Observers are notified from a separate thread at most every
+     * {@link #NOTIFY_PERIOD_MILLIS} milliseconds.
+     *
+     * @param observer observer
+     */
+    public void addObserver(Observer observer) {
+        observers.add(observer);
+        changed.set(true);
+        synchronized (observers) {
+            if (dispatcher == null) {
+                dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "88-SIO observers");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                dispatcher.scheduleWithFixedDelay(
+                    this::dispatchChanges, NOTIFY_PERIOD_MILLIS, NOTIFY_PERIOD_MILLIS, TimeUnit.MILLISECONDS
+                );
+            }
+        }
     }
 
-    private void notifyNewData(int data) {
-        observers.forEach(o -> o.dataAvailable(data));
+    void destroy() {
+        synchronized (observers) {
+            if (dispatcher != null) {
+                dispatcher.shutdownNow();
+                dispatcher = null;
+            }
+        }
+        observers.clear();
     }
 
-    private void notifyNoData() {
-        observers.forEach(Observer::noData);
+    /**
+     * Notify observers if something has changed since the last notification.
+     */
+    void dispatchChanges() {
+        if (!changed.getAndSet(false)) {
+            return;
+        }
+        int tmpStatus = readStatus();
+        long position = head.get();
+        boolean hasData = position != tail.get();
+        int data = buffer[(int) (position & BUFFER_MASK)];
+
+        for (Observer observer : observers) {
+            if (hasData) {
+                observer.dataAvailable(data);
+            } else {
+                observer.noData();
+            }
+            observer.statusChanged(tmpStatus);
+        }
     }
 
     public interface Observer {
@@ -42,17 +42,17 @@ public class SioGui extends JDialog {
         transmitter.addObserver(new Transmitter.Observer() {
             @Override
             public void statusChanged(int status) {
-                txtStatus.setText(String.format("0x%x", status));
+                SwingUtilities.invokeLater(() -> txtStatus.setText(String.format("0x%x", status)));
             }
 
             @Override
             public void dataAvailable(int data) {
-                txtData.setText(String.format("0x%x", data));
+                SwingUtilities.invokeLater(() -> txtData.setText(String.format("0x%x", data)));
             }
 
             @Override
             public void noData() {
-                txtData.setText("N/A");
+                SwingUtilities.invokeLater(() -> txtData.setText("N/A"));
             }
         });
     }
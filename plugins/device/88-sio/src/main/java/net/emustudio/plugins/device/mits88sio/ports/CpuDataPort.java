@@ -19,6 +19,7 @@
 package net.emustudio.plugins.device.mits88sio.ports;
 
 import net.emustudio.emulib.plugins.device.DeviceContext;
+import net.emustudio.plugins.cpu.intel8080.api.IntPortHandler;
 import net.emustudio.plugins.device.mits88sio.Transmitter;
 
 import java.io.IOException;
@@ -32,7 +33,7 @@ import java.util.Objects;
  * A read to the data port gets the buffered character, a write to the data port
  * writes the character to the device.
  */
-public class CpuDataPort implements DeviceContext<Short> {
+public class CpuDataPort implements DeviceContext<Short>, IntPortHandler {
     private final Transmitter transmitter;
 
     public CpuDataPort(Transmitter transmitter) {
@@ -41,7 +42,12 @@ public class CpuDataPort implements DeviceContext<Short> {
 
     @Override
     public void writeData(Short data) throws IOException {
-        transmitter.writeToDevice(data);
+        writePort(data);
+    }
+
+    @Override
+    public void writePort(int data) throws IOException {
+        transmitter.writeToDevice((short) data);
     }
 
     @Override
@@ -54,6 +60,11 @@ public class CpuDataPort implements DeviceContext<Short> {
         return transmitter.readBuffer();
     }
 
+    @Override
+    public int readPort() {
+        return transmitter.readBuffer();
+    }
+
     @Override
     public String toString() {
         return "88-SIO Data Port";
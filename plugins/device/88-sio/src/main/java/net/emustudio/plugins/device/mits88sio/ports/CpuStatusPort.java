@@ -20,6 +20,7 @@ package net.emustudio.plugins.device.mits88sio.ports;
 
 import net.emustudio.emulib.plugins.annotations.PluginContext;
 import net.emustudio.emulib.plugins.device.DeviceContext;
+import net.emustudio.plugins.cpu.intel8080.api.IntPortHandler;
 import net.emustudio.plugins.device.mits88sio.Transmitter;
 
 import java.util.Objects;
@@ -28,7 +29,7 @@ import java.util.Objects;
  * This is the status port of 88-SIO card.
  */
 @PluginContext(id = "Status port")
-public class CpuStatusPort implements DeviceContext<Short> {
+public class CpuStatusPort implements DeviceContext<Short>, IntPortHandler {
     private final Transmitter transmitter;
 
     public CpuStatusPort(Transmitter transmitter) {
@@ -40,9 +41,19 @@ public class CpuStatusPort implements DeviceContext<Short> {
         return transmitter.readStatus();
     }
 
+    @Override
+    public int readPort() {
+        return transmitter.readStatus();
+    }
+
     @Override
     public void writeData(Short data) {
-        transmitter.writeToStatus(data);
+        writePort(data);
+    }
+
+    @Override
+    public void writePort(int data) {
+        transmitter.writeToStatus((short) data);
     }
 
     @Override
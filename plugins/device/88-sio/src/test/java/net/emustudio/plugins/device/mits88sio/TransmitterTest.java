@@ -20,6 +20,15 @@ package net.emustudio.plugins.device.mits88sio;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -81,4 +90,104 @@ public class TransmitterTest {
         assertEquals(2, transmitter.readBuffer());
         assertEquals(3, transmitter.readBuffer());
     }
+
+    @Test
+    public void testSnapshotRestoresBufferAndStatus() throws Exception {
+        Transmitter transmitter = new Transmitter();
+        transmitter.writeFromDevice((short) 1);
+        transmitter.writeFromDevice((short) 2);
+
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        transmitter.saveState(new DataOutputStream(snapshot));
+
+        Transmitter restored = new Transmitter();
+        restored.loadState(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+
+        assertEquals(transmitter.readStatus(), restored.readStatus());
+        assertEquals(1, restored.readBuffer());
+        assertEquals(2, restored.readBuffer());
+        assertEquals(0, restored.readStatus() & 0x01);
+    }
+
+    @Test
+    public void testReadEmptyBufferReturnsZero() {
+        assertEquals(0, new Transmitter().readBuffer());
+    }
+
+    @Test
+    public void testBufferOverflowSetsStatusAndDropsData() {
+        Transmitter transmitter = new Transmitter();
+        for (int i = 0; i < Transmitter.BUFFER_CAPACITY; i++) {
+            transmitter.writeFromDevice((short) (i & 0xFF));
+        }
+        assertEquals(0, transmitter.readStatus() & 0x10);
+
+        transmitter.writeFromDevice((short) 0xAA);
+        assertEquals(0x10, transmitter.readStatus() & 0x10);
+
+        for (int i = 0; i < Transmitter.BUFFER_CAPACITY; i++) {
+            assertEquals(i & 0xFF, transmitter.readBuffer());
+        }
+        assertEquals(0, transmitter.readStatus() & 0x01);
+    }
+
+    @Test
+    public void testWriteToStatusClearsOverflow() {
+        Transmitter transmitter = new Transmitter();
+        for (int i = 0; i <= Transmitter.BUFFER_CAPACITY; i++) {
+            transmitter.writeFromDevice((short) 1);
+        }
+        transmitter.writeToStatus((short) 0);
+        assertEquals(0x03, transmitter.readStatus());
+    }
+
+    @Test
+    public void testResetEmptiesBuffer() {
+        Transmitter transmitter = new Transmitter();
+        transmitter.writeFromDevice((short) 5);
+        transmitter.reset();
+
+        assertEquals(0x02, transmitter.readStatus());
+        assertEquals(0, transmitter.readBuffer());
+    }
+
+    @Test
+    public void testObserversAreNotifiedOnceForManyChanges() {
+        Transmitter transmitter = new Transmitter();
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        transmitter.addObserver(new Transmitter.Observer() {
+            @Override
+            public void statusChanged(int status) {
+                events.add("status " + status);
+            }
+
+            @Override
+            public void dataAvailable(int data) {
+                events.add("data " + data);
+            }
+
+            @Override
+            public void noData() {
+                events.add("no data");
+            }
+        });
+        try {
+            transmitter.dispatchChanges();
+            events.clear();
+
+            transmitter.writeFromDevice((short) 7);
+            transmitter.writeFromDevice((short) 8);
+            transmitter.writeFromDevice((short) 9);
+            transmitter.readBuffer();
+
+            transmitter.dispatchChanges();
+            int count = events.size();
+            transmitter.dispatchChanges();
+
+            assertEquals(count, events.size());
+            assertEquals(Arrays.asList("data 8", "status 3"), events.subList(count - 2, count));
+        } finally {
+            transmitter.destroy();
+        }
+    }
 }
@@ -19,16 +19,18 @@
 package net.emustudio.plugins.device.abstracttape;
 
 import net.emustudio.plugins.device.abstracttape.api.AbstractTapeContext;
+import net.emustudio.plugins.device.abstracttape.api.TapeCells;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.*;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Writer;
-import java.util.ArrayList;
 import java.util.EventListener;
-import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Tape used by abstract machines.
@@ -45,14 +47,21 @@ import java.util.List;
  * The CPU must assign all the details to this tape using the tape context.
  * <p>
  * By default, the tape is unbounded. However, it is possible to change.
+ * <p>
+ * Changes are not announced to the listener one by one; they are coalesced and the listener is notified on the
+ * event dispatch thread at most every {@link #CHANGE_PERIOD_MILLIS} milliseconds.
  */
 public class AbstractTapeContextImpl implements AbstractTapeContext {
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTapeContextImpl.class);
-    private final List<String> tape; // tape is an array of strings
+    static final int CHANGE_PERIOD_MILLIS = 50;
+
+    private final TapeCells tape = new TapeCells();
+    private final AtomicBoolean changePending = new AtomicBoolean();
+    private final Timer changeTimer;
     private int currentPosition; // actual tape position
     private boolean bounded; // tape is bounded form the left?
     private boolean editable; // if tape is editable by user
-    private TapeListener listener;
+    private volatile TapeListener listener;
     private boolean highlightCurrentPosition;
     private boolean clearAtReset = true;
     private final DeviceImpl abst;
@@ -67,11 +76,19 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
     AbstractTapeContextImpl(DeviceImpl abst) {
         this.abst = abst;
         listener = null;
-        tape = new ArrayList<>();
         currentPosition = 0;
         bounded = false;
         editable = true;
         highlightCurrentPosition = true;
+
+        changeTimer = new Timer(CHANGE_PERIOD_MILLIS, e -> {
+            changePending.set(false);
+            TapeListener tmpListener = listener;
+            if (tmpListener != null) {
+                tmpListener.tapeChanged();
+            }
+        });
+        changeTimer.setRepeats(false);
     }
 
     @Override
@@ -94,13 +111,13 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
      * Clears tape and set head position to 0
      */
     @Override
-    public void clear() {
+    public synchronized void clear() {
         tape.clear();
         currentPosition = 0;
         fireChange();
     }
 
-    void reset() {
+    synchronized void reset() {
         currentPosition = 0;
         if (clearAtReset) {
             clear();
@@ -119,14 +136,14 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
     }
 
     @Override
-    public boolean moveLeft() {
+    public synchronized boolean moveLeft() {
         if (currentPosition > 0) {
             currentPosition--;
             fireChange();
             return true;
         } else if (!bounded) {
             currentPosition = 0;
-            tape.add(0, "");
+            tape.addFirst("");
             fireChange();
             return true;
         }
@@ -134,37 +151,37 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
     }
 
     @Override
-    public void moveRight() {
+    public synchronized void moveRight() {
         currentPosition++;
         if (currentPosition >= tape.size()) {
-            tape.add("");
+            tape.addLast("");
         }
         fireChange();
     }
 
-    public void addSymbolFirst(String symbol) {
+    public synchronized void addSymbolFirst(String symbol) {
         if (bounded) {
             return;
         }
         if (symbol == null) {
             symbol = "";
         }
-        tape.add(0, symbol);
+        tape.addFirst(symbol);
         writeSymbol(0, symbol);
         currentPosition++;
         fireChange();
     }
 
-    public void addSymbolLast(String symbol) {
+    public synchronized void addSymbolLast(String symbol) {
         if (symbol == null) {
             symbol = "";
         }
-        tape.add(symbol);
+        tape.addLast(symbol);
         writeSymbol(tape.size() - 1, symbol);
         fireChange();
     }
 
-    public void removeSymbol(int pos) {
+    public synchronized void removeSymbol(int pos) {
         if (pos >= tape.size()) {
             return;
         }
@@ -177,14 +194,14 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
         fireChange();
     }
 
-    public void editSymbol(int pos, String symbol) {
+    public synchronized void editSymbol(int pos, String symbol) {
         if (pos >= tape.size()) {
             return;
         }
         if (symbol == null) {
             symbol = "";
         }
-        tape.set(pos, symbol);
+        tape.setText(pos, symbol);
         writeSymbol(pos, symbol);
         fireChange();
     }
@@ -199,28 +216,84 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
     }
 
     @Override
-    public String getSymbolAt(int pos) {
+    public synchronized String getSymbolAt(int pos) {
         if (pos >= tape.size() || (pos < 0)) {
             return "";
         }
-        return tape.get(pos);
+        return tape.getText(pos);
     }
 
     @Override
-    public void setSymbolAt(int pos, String symbol) {
-        if (pos >= tape.size()) {
-            while (pos > tape.size()) {
-                tape.add("");
-            }
-            tape.add(symbol);
-            writeSymbol(pos, symbol);
-        } else if (pos >= 0) {
-            tape.set(pos, symbol);
+    public synchronized void setSymbolAt(int pos, String symbol) {
+        if (pos >= 0) {
+            tape.growTo(pos + 1);
+            tape.setText(pos, symbol);
             writeSymbol(pos, symbol);
         }
         fireChange();
     }
 
+    @Override
+    public synchronized void copySymbol(int fromPos, int toPos) {
+        if (fromPos >= tape.size() || fromPos < 0) {
+            setSymbolAt(toPos, "");
+            return;
+        }
+        if (toPos >= 0) {
+            tape.growTo(toPos + 1);
+            tape.copy(fromPos, toPos);
+            if (outw != null) {
+                writeSymbol(toPos, tape.getText(toPos));
+            }
+        }
+        fireChange();
+    }
+
+    @Override
+    public synchronized void copyTo(TapeCells cells) {
+        cells.setAll(tape);
+    }
+
+    @Override
+    public synchronized long getLongAt(int pos) {
+        if (pos >= tape.size() || (pos < 0)) {
+            throw new NumberFormatException("Empty symbol at position " + pos);
+        }
+        return tape.getLong(pos);
+    }
+
+    @Override
+    public synchronized double getDoubleAt(int pos) {
+        if (pos >= tape.size() || (pos < 0)) {
+            throw new NumberFormatException("Empty symbol at position " + pos);
+        }
+        return tape.getDouble(pos);
+    }
+
+    @Override
+    public synchronized void setLongAt(int pos, long value) {
+        if (pos >= 0) {
+            tape.growTo(pos + 1);
+            tape.setLong(pos, value);
+            if (outw != null) {
+                writeSymbol(pos, tape.getText(pos));
+            }
+        }
+        fireChange();
+    }
+
+    @Override
+    public synchronized void setDoubleAt(int pos, double value) {
+        if (pos >= 0) {
+            tape.growTo(pos + 1);
+            tape.setDouble(pos, value);
+            if (outw != null) {
+                writeSymbol(pos, tape.getText(pos));
+            }
+        }
+        fireChange();
+    }
+
     @Override
     public void setHighlightHeadPosition(boolean visible) {
         highlightCurrentPosition = visible;
@@ -236,35 +309,32 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
     }
 
     @Override
-    public int getSize() {
+    public synchronized int getSize() {
         return tape.size();
     }
 
     @Override
-    public int getHeadPosition() {
+    public synchronized int getHeadPosition() {
         return currentPosition;
     }
 
     @Override
-    public boolean isEmpty() {
-        return tape.isEmpty();
+    public synchronized boolean isEmpty() {
+        return tape.size() == 0;
     }
 
     @Override
-    public String readData() {
+    public synchronized String readData() {
         if (currentPosition >= tape.size() || (currentPosition < 0)) {
             return "";
         }
-        return tape.get(currentPosition);
+        return tape.getText(currentPosition);
     }
 
     @Override
-    public void writeData(String data) {
-        if (currentPosition >= tape.size()) {
-            tape.add(currentPosition, data);
-        } else {
-            tape.set(currentPosition, data);
-        }
+    public synchronized void writeData(String data) {
+        tape.growTo(currentPosition + 1);
+        tape.setText(currentPosition, data);
         writeSymbol(currentPosition, data);
         fireChange();
     }
@@ -279,7 +349,6 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
             try {
                 outw.write(position + " ");
                 outw.write(symbol + "\n");
-                outw.flush();
             } catch (IOException e) {
                 LOGGER.error("Could not write to the output file", e);
             }
@@ -296,7 +365,7 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
      *
      * @param verbose set/reset/unset verbose mode
      */
-    void setVerbose(boolean verbose) {
+    synchronized void setVerbose(boolean verbose) {
         if (outw != null) {
             try {
                 outw.close();
@@ -310,7 +379,7 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
             LOGGER.info("Being verbose. Writing to file:" + fileName + ".out");
             File f = new File(fileName + ".out");
             try {
-                outw = new FileWriter(f);
+                outw = new BufferedWriter(new FileWriter(f));
             } catch (IOException e) {
                 LOGGER.error("Could not create FileWriter", e);
             }
@@ -322,8 +391,8 @@ public class AbstractTapeContextImpl implements AbstractTapeContext {
     }
 
     private void fireChange() {
-        if (listener != null) {
-            listener.tapeChanged();
+        if (listener != null && changePending.compareAndSet(false, true)) {
+            changeTimer.restart();
         }
     }
 }
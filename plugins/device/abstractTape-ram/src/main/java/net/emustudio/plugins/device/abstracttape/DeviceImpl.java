@@ -125,6 +125,7 @@ public class DeviceImpl extends AbstractDevice {
             gui.dispose();
             gui = null;
         }
+        context.setVerbose(false);
     }
 
     @Override
@@ -96,6 +96,89 @@ public interface AbstractTapeContext extends DeviceContext<String> {
      */
     void setSymbolAt(int pos, String symbol);
 
+    /**
+     * Get integer symbol at the specified position.
+     * <p>
+     * Symbols are decoded in the same way as {@link Long#decode(String)} does. Implementations may store numbers
+     * natively, so this method is preferred over parsing result of {@link #getSymbolAt(int)}.
+     *
+     * @param pos position in the tape, starting from 0
+     * @return integer value of the symbol
+     * @throws NumberFormatException if the symbol is not an integer, or the position is out of bounds
+     */
+    default long getLongAt(int pos) {
+        return Long.decode(getSymbolAt(pos));
+    }
+
+    /**
+     * Get floating-point symbol at the specified position.
+     * <p>
+     * Symbols are parsed in the same way as {@link Double#parseDouble(String)} does. Implementations may store
+     * numbers natively, so this method is preferred over parsing result of {@link #getSymbolAt(int)}.
+     *
+     * @param pos position in the tape, starting from 0
+     * @return floating-point value of the symbol
+     * @throws NumberFormatException if the symbol is not a number, or the position is out of bounds
+     */
+    default double getDoubleAt(int pos) {
+        return Double.parseDouble(getSymbolAt(pos));
+    }
+
+    /**
+     * Set integer symbol at the specified position.
+     * <p>
+     * The symbol is seen as {@link String#valueOf(long)} by {@link #getSymbolAt(int)}. Otherwise the method behaves
+     * like {@link #setSymbolAt(int, String)}.
+     *
+     * @param pos   position in the tape, starting from 0
+     * @param value symbol value
+     */
+    default void setLongAt(int pos, long value) {
+        setSymbolAt(pos, String.valueOf(value));
+    }
+
+    /**
+     * Set floating-point symbol at the specified position.
+     * <p>
+     * The symbol is seen as {@link String#valueOf(double)} by {@link #getSymbolAt(int)}. Otherwise the method
+     * behaves like {@link #setSymbolAt(int, String)}.
+     *
+     * @param pos   position in the tape, starting from 0
+     * @param value symbol value
+     */
+    default void setDoubleAt(int pos, double value) {
+        setSymbolAt(pos, String.valueOf(value));
+    }
+
+    /**
+     * Copy symbol from one position to another.
+     * <p>
+     * It behaves like {@code setSymbolAt(toPos, getSymbolAt(fromPos))}, but implementations may copy numbers
+     * without converting them to strings.
+     *
+     * @param fromPos source position in the tape, starting from 0
+     * @param toPos   target position in the tape, starting from 0
+     */
+    default void copySymbol(int fromPos, int toPos) {
+        setSymbolAt(toPos, getSymbolAt(fromPos));
+    }
+
+    /**
+     * Replace content of given cells with all symbols of the tape.
+     * <p>
+     * Implementations which store numbers natively copy them as numbers, so they are not converted to strings
+     * and parsed again.
+     *
+     * @param cells target cells
+     */
+    default void copyTo(TapeCells cells) {
+        cells.clear();
+        int size = getSize();
+        for (int i = 0; i < size; i++) {
+            cells.addLast(getSymbolAt(i));
+        }
+    }
+
     /**
      * Sets whether the symbol at which the head is pointing should be "highlighted" in GUI.
      *
@@ -0,0 +1,293 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.device.abstracttape.api;
+
+import java.util.Arrays;
+
+/**
+ * Tape cells kept in a circular array, so the tape can grow at both ends in amortized O(1).
+ * <p>
+ * A cell holds a string symbol, an integer or a floating-point number. Numbers are converted to strings only
+ * when the string form is needed, and parsed numbers are remembered, so numeric access does not parse the same
+ * symbol again.
+ * <p>
+ * Besides the tape itself, the cells are used by CPUs which keep a copy of the tape while they run.
+ * <p>
+ * The class is not thread-safe.
+ */
+public class TapeCells {
+    private final static int INITIAL_CAPACITY = 16;
+
+    private final static byte HAS_TEXT = 1;
+    private final static byte HAS_LONG = 2;
+    private final static byte HAS_DOUBLE = 4;
+    private final static byte NOT_LONG = 8;
+    private final static byte NOT_DOUBLE = 16;
+
+    private String[] texts = new String[INITIAL_CAPACITY];
+    private long[] longs = new long[INITIAL_CAPACITY];
+    private double[] doubles = new double[INITIAL_CAPACITY];
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+
+    private int head;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(texts, null);
+        head = 0;
+        size = 0;
+    }
+
+    public void addFirst(String symbol) {
+        ensureCapacity(size + 1);
+        head = (head - 1) & (texts.length - 1);
+        size++;
+        setText(0, symbol);
+    }
+
+    public void addLast(String symbol) {
+        ensureCapacity(size + 1);
+        size++;
+        setText(size - 1, symbol);
+    }
+
+    /**
+     * Make sure the tape has given size, by adding empty symbols to the end.
+     *
+     * @param newSize required size
+     */
+    public void growTo(int newSize) {
+        if (newSize > size) {
+            ensureCapacity(newSize);
+            while (size < newSize) {
+                addLast("");
+            }
+        }
+    }
+
+    public void remove(int position) {
+        for (int i = position; i < size - 1; i++) {
+            int to = index(i);
+            int from = index(i + 1);
+            texts[to] = texts[from];
+            longs[to] = longs[from];
+            doubles[to] = doubles[from];
+            kinds[to] = kinds[from];
+        }
+        texts[index(size - 1)] = null;
+        size--;
+    }
+
+    public void copy(int fromPosition, int toPosition) {
+        copy(this, fromPosition, toPosition);
+    }
+
+    /**
+     * Copy a cell, including already parsed numbers.
+     *
+     * @param from         source cells
+     * @param fromPosition source cell position
+     * @param toPosition   target cell position in these cells
+     */
+    public void copy(TapeCells from, int fromPosition, int toPosition) {
+        int f = from.index(fromPosition);
+        int to = index(toPosition);
+        texts[to] = from.texts[f];
+        longs[to] = from.longs[f];
+        doubles[to] = from.doubles[f];
+        kinds[to] = from.kinds[f];
+    }
+
+    /**
+     * Replace all cells with copies of given cells.
+     *
+     * @param from source cells
+     */
+    public void setAll(TapeCells from) {
+        if (from == this) {
+            return;
+        }
+        clear();
+        ensureCapacity(from.size);
+        size = from.size;
+        for (int i = 0; i < size; i++) {
+            copy(from, i, i);
+        }
+    }
+
+    public String getText(int position) {
+        int i = index(position);
+        byte kind = kinds[i];
+        if ((kind & HAS_TEXT) == 0) {
+            texts[i] = ((kind & HAS_LONG) != 0) ? String.valueOf(longs[i]) : String.valueOf(doubles[i]);
+            kinds[i] = (byte) (kind | HAS_TEXT);
+        }
+        return texts[i];
+    }
+
+    public void setText(int position, String symbol) {
+        int i = index(position);
+        texts[i] = symbol;
+        kinds[i] = HAS_TEXT;
+    }
+
+    /**
+     * Determine if the cell holds a symbol, i.e. it was not set as a number or its string form was already needed.
+     *
+     * @param position cell position
+     * @return true if the cell holds a symbol; false if it holds only a number
+     */
+    public boolean hasText(int position) {
+        return (kinds[index(position)] & HAS_TEXT) != 0;
+    }
+
+    /**
+     * Determine if the cell holds an integer, as decided by {@link Long#decode(String)}.
+     *
+     * @param position cell position
+     * @return true if {@link #getLong(int)} will not throw
+     */
+    public boolean isLong(int position) {
+        int i = index(position);
+        byte kind = kinds[i];
+        if ((kind & HAS_LONG) != 0) {
+            return true;
+        }
+        if ((kind & (NOT_LONG | HAS_TEXT)) != HAS_TEXT || texts[i] == null) {
+            return false;
+        }
+        try {
+            longs[i] = Long.decode(texts[i]);
+            kinds[i] = (byte) (kind | HAS_LONG);
+            return true;
+        } catch (NumberFormatException e) {
+            kinds[i] = (byte) (kind | NOT_LONG);
+            return false;
+        }
+    }
+
+    /**
+     * Get the cell as an integer.
+     *
+     * @param position cell position
+     * @return integer value of the cell
+     * @throws NumberFormatException if the cell is not an integer, as decided by {@link Long#decode(String)}
+     */
+    public long getLong(int position) {
+        if (!isLong(position)) {
+            throw new NumberFormatException("Not an integer: " + getText(position));
+        }
+        return longs[index(position)];
+    }
+
+    public void setLong(int position, long value) {
+        int i = index(position);
+        texts[i] = null;
+        longs[i] = value;
+        kinds[i] = HAS_LONG;
+    }
+
+    /**
+     * Determine if the cell holds a number, as decided by {@link Double#parseDouble(String)}.
+     *
+     * @param position cell position
+     * @return true if {@link #getDouble(int)} will not throw
+     */
+    public boolean isDouble(int position) {
+        int i = index(position);
+        byte kind = kinds[i];
+        if ((kind & HAS_DOUBLE) != 0) {
+            return true;
+        }
+        if ((kind & HAS_TEXT) == 0) {
+            // integer without a string form
+            return (kind & HAS_LONG) != 0;
+        }
+        if ((kind & NOT_DOUBLE) != 0 || texts[i] == null) {
+            return false;
+        }
+        try {
+            doubles[i] = Double.parseDouble(texts[i]);
+            kinds[i] = (byte) (kind | HAS_DOUBLE);
+            return true;
+        } catch (NumberFormatException e) {
+            kinds[i] = (byte) (kind | NOT_DOUBLE);
+            return false;
+        }
+    }
+
+    /**
+     * Get the cell as a floating-point number.
+     *
+     * @param position cell position
+     * @return floating-point value of the cell
+     * @throws NumberFormatException if the cell is not a number, as decided by {@link Double#parseDouble(String)}
+     */
+    public double getDouble(int position) {
+        if (!isDouble(position)) {
+            throw new NumberFormatException("Not a number: " + getText(position));
+        }
+        int i = index(position);
+        return ((kinds[i] & HAS_DOUBLE) != 0) ? doubles[i] : longs[i];
+    }
+
+    public void setDouble(int position, double value) {
+        int i = index(position);
+        texts[i] = null;
+        doubles[i] = value;
+        kinds[i] = HAS_DOUBLE | NOT_LONG;
+    }
+
+    private int index(int position) {
+        return (head + position) & (texts.length - 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        int oldCapacity = texts.length;
+        if (capacity <= oldCapacity) {
+            return;
+        }
+        int newCapacity = Integer.highestOneBit(capacity - 1) << 1;
+
+        String[] newTexts = new String[newCapacity];
+        long[] newLongs = new long[newCapacity];
+        double[] newDoubles = new double[newCapacity];
+        byte[] newKinds = new byte[newCapacity];
+
+        int firstPart = Math.min(size, oldCapacity - head);
+        System.arraycopy(texts, head, newTexts, 0, firstPart);
+        System.arraycopy(texts, 0, newTexts, firstPart, size - firstPart);
+        System.arraycopy(longs, head, newLongs, 0, firstPart);
+        System.arraycopy(longs, 0, newLongs, firstPart, size - firstPart);
+        System.arraycopy(doubles, head, newDoubles, 0, firstPart);
+        System.arraycopy(doubles, 0, newDoubles, firstPart, size - firstPart);
+        System.arraycopy(kinds, head, newKinds, 0, firstPart);
+        System.arraycopy(kinds, 0, newKinds, firstPart, size - firstPart);
+
+        texts = newTexts;
+        longs = newLongs;
+        doubles = newDoubles;
+        kinds = newKinds;
+        head = 0;
+    }
+}
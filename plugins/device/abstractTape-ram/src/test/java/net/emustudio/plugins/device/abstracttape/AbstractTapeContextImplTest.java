@@ -0,0 +1,167 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.device.abstracttape;
+
+import net.emustudio.plugins.device.abstracttape.api.TapeCells;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AbstractTapeContextImplTest {
+
+    private AbstractTapeContextImpl createTape(String... symbols) {
+        AbstractTapeContextImpl tape = new AbstractTapeContextImpl(null);
+        for (String symbol : symbols) {
+            tape.addSymbolLast(symbol);
+        }
+        return tape;
+    }
+
+    private String contentOf(AbstractTapeContextImpl tape) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < tape.getSize(); i++) {
+            content.append(tape.getSymbolAt(i)).append(';');
+        }
+        return content.toString();
+    }
+
+    @Test
+    public void testMoveLeftOnUnboundedTapeExtendsTape() {
+        AbstractTapeContextImpl tape = createTape("a", "b");
+        for (int i = 0; i < 100; i++) {
+            tape.moveLeft();
+        }
+        assertEquals(102, tape.getSize());
+        assertEquals(0, tape.getHeadPosition());
+        assertEquals("a", tape.getSymbolAt(100));
+        assertEquals("b", tape.getSymbolAt(101));
+    }
+
+    @Test
+    public void testAddSymbolFirstAndLastKeepOrder() {
+        AbstractTapeContextImpl tape = createTape();
+        for (int i = 0; i < 20; i++) {
+            tape.addSymbolFirst("f" + i);
+            tape.addSymbolLast("l" + i);
+        }
+        assertEquals("f19", tape.getSymbolAt(0));
+        assertEquals("f0", tape.getSymbolAt(19));
+        assertEquals("l0", tape.getSymbolAt(20));
+        assertEquals("l19", tape.getSymbolAt(39));
+        assertEquals(20, tape.getHeadPosition());
+    }
+
+    @Test
+    public void testRemoveSymbol() {
+        AbstractTapeContextImpl tape = createTape("a", "b", "c");
+        tape.removeSymbol(1);
+        assertEquals("a;c;", contentOf(tape));
+    }
+
+    @Test
+    public void testSetSymbolAtExtendsTape() {
+        AbstractTapeContextImpl tape = createTape();
+        tape.setSymbolAt(3, "x");
+        assertEquals(";;;x;", contentOf(tape));
+    }
+
+    @Test
+    public void testNumbersAreSeenAsStrings() {
+        AbstractTapeContextImpl tape = createTape();
+        tape.setLongAt(0, -42);
+        tape.setDoubleAt(1, 2.5);
+        assertEquals("-42;2.5;", contentOf(tape));
+    }
+
+    @Test
+    public void testStringsAreDecodedAsNumbers() {
+        AbstractTapeContextImpl tape = createTape("0x10", "010", "5.5", "7");
+        assertEquals(16, tape.getLongAt(0));
+        assertEquals(8, tape.getLongAt(1));
+        assertEquals(5.5, tape.getDoubleAt(2), 0);
+        assertEquals(7.0, tape.getDoubleAt(3), 0);
+        assertEquals("0x10", tape.getSymbolAt(0));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testDoubleIsNotLong() {
+        AbstractTapeContextImpl tape = createTape();
+        tape.setDoubleAt(0, 2.0);
+        tape.getLongAt(0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testEmptySymbolIsNotLong() {
+        createTape("").getLongAt(0);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testPositionOutOfBoundsIsNotLong() {
+        createTape().getLongAt(5);
+    }
+
+    @Test
+    public void testLongIsDouble() {
+        AbstractTapeContextImpl tape = createTape();
+        tape.setLongAt(0, 3);
+        assertEquals(3.0, tape.getDoubleAt(0), 0);
+    }
+
+    @Test
+    public void testCopySymbolKeepsNumbers() {
+        AbstractTapeContextImpl tape = createTape();
+        tape.setLongAt(0, 12);
+        tape.copySymbol(0, 4);
+        assertEquals(12, tape.getLongAt(4));
+        assertEquals("12;;;;12;", contentOf(tape));
+    }
+
+    @Test
+    public void testCopySymbolOutOfBoundsCopiesEmptySymbol() {
+        AbstractTapeContextImpl tape = createTape("a");
+        tape.copySymbol(3, 0);
+        assertEquals(";", contentOf(tape));
+    }
+
+    @Test
+    public void testCopyToKeepsNumbers() {
+        AbstractTapeContextImpl tape = createTape("a");
+        tape.setLongAt(1, 7);
+        tape.setDoubleAt(2, 2.5);
+
+        TapeCells cells = new TapeCells();
+        cells.addLast("old");
+        tape.copyTo(cells);
+
+        assertEquals(3, cells.size());
+        assertEquals("a", cells.getText(0));
+        assertFalse(cells.hasText(1));
+        assertEquals(7, cells.getLong(1));
+        assertFalse(cells.hasText(2));
+        assertEquals(2.5, cells.getDouble(2), 0);
+    }
+
+    @Test
+    public void testClearEmptiesTape() {
+        AbstractTapeContextImpl tape = createTape("a", "b");
+        tape.clear();
+        assertEquals(0, tape.getSize());
+        assertEquals("", tape.getSymbolAt(0));
+    }
+}
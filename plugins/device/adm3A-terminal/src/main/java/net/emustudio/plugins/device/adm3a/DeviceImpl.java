@@ -27,10 +27,14 @@ import net.emustudio.emulib.runtime.*;
 import net.emustudio.plugins.device.adm3a.gui.ConfigDialog;
 import net.emustudio.plugins.device.adm3a.gui.TerminalWindow;
 import net.emustudio.plugins.device.adm3a.interaction.*;
+import net.emustudio.snapshot.Snapshottable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.ResourceBundle;
@@ -40,8 +44,9 @@ import java.util.ResourceBundle;
     title = "LSI ADM-3A terminal"
 )
 @SuppressWarnings("unused")
-public class DeviceImpl extends AbstractDevice implements TerminalSettings.ChangedObserver {
+public class DeviceImpl extends AbstractDevice implements TerminalSettings.ChangedObserver, Snapshottable {
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceImpl.class);
+    private static final int SNAPSHOT_VERSION = 1;
     private static final int COLUMNS_COUNT = 80;
     private static final int ROWS_COUNT = 24;
 
@@ -141,6 +146,21 @@ public class DeviceImpl extends AbstractDevice implements TerminalSettings.Chang
         display.destroy();
     }
 
+    @Override
+    public int getSnapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void saveSnapshot(DataOutput output) throws IOException {
+        display.saveState(output);
+    }
+
+    @Override
+    public void loadSnapshot(DataInput input) throws IOException {
+        display.loadState(input);
+    }
+
     @Override
     public void showSettings(JFrame parent) {
         if (isShowSettingsSupported()) {
@@ -31,11 +31,14 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.font.LineMetrics;
 import java.awt.geom.Rectangle2D;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Terminal can interpret ASCII codes from 0-127. Some have special purpose (0-31).
@@ -48,6 +51,8 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
     static final Color FOREGROUND = new Color(0, 255, 0);
     static final Color BACKGROUND = Color.BLACK;
     private static final String TERMINAL_FONT_PATH = "/net/emustudio/plugins/device/adm3a/gui/terminal.ttf";
+    private static final int FRAME_MILLIS = 1000 / 60;
+    private static final long ALL_ROWS = -1L;
     private final Font terminalFont;
 
     private final char[] videoMemory;
@@ -61,11 +66,13 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
 
     private final LoadCursorPosition loadCursorPosition;
     private final Timer cursorTimer = new Timer(800, this);
+    private final Timer repaintTimer = new Timer(FRAME_MILLIS, this);
+    private final AtomicLong damagedRows = new AtomicLong();
 
     private volatile DisplayParameters displayParameters;
     private volatile Dimension size;
 
-    private FileWriter outputWriter = null;
+    private volatile OutputSink outputWriter = null;
 
     public Display(Cursor cursor, TerminalSettings settings) {
         this.settings = Objects.requireNonNull(settings);
@@ -105,10 +112,12 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
 
     public synchronized void startCursor() {
         cursorTimer.restart();
+        repaintTimer.restart();
     }
 
     public synchronized void destroy() {
         cursorTimer.stop();
+        repaintTimer.stop();
         settings.removeChangedObserver(this);
         closeOutputWriter();
     }
@@ -116,7 +125,51 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
     public final void clearScreen() {
         fillWithSpaces();
         cursor.home();
-        repaint();
+        damage(ALL_ROWS);
+    }
+
+    /**
+     * Save video memory and cursor position into a snapshot.
+     *
+     * @param output snapshot output
+     * @throws IOException if the state could not be written
+     */
+    public void saveState(DataOutput output) throws IOException {
+        Point cursorPoint = cursor.getCursorPoint();
+        output.writeInt(columns);
+        output.writeInt(rows);
+        output.writeInt(cursorPoint.x);
+        output.writeInt(cursorPoint.y);
+        synchronized (videoMemory) {
+            for (char c : videoMemory) {
+                output.writeChar(c);
+            }
+        }
+    }
+
+    /**
+     * Restore video memory and cursor position from a snapshot.
+     *
+     * @param input snapshot input
+     * @throws IOException if the state could not be read or the display size does not match
+     */
+    public void loadState(DataInput input) throws IOException {
+        int snapshotColumns = input.readInt();
+        int snapshotRows = input.readInt();
+        if (snapshotColumns != columns || snapshotRows != rows) {
+            throw new IOException(
+                "Display snapshot has size " + snapshotColumns + "x" + snapshotRows + ", expected " + columns + "x" + rows
+            );
+        }
+        int cursorX = input.readInt();
+        int cursorY = input.readInt();
+        synchronized (videoMemory) {
+            for (int i = 0; i < videoMemory.length; i++) {
+                videoMemory[i] = input.readChar();
+            }
+        }
+        cursor.set(cursorX, cursorY);
+        damage(ALL_ROWS);
     }
 
     @Override
@@ -157,7 +210,16 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
         int lineHeight = graphics.getFontMetrics().getHeight();
         graphics.setColor(FOREGROUND);
         Graphics2D g2d = (Graphics2D) graphics;
-        for (y = 0; y < rows; y++) {
+
+        // paint only rows intersecting the damaged region
+        int firstRow = 0;
+        int lastRow = rows - 1;
+        Rectangle clip = graphics.getClipBounds();
+        if (clip != null && lineHeight > 0) {
+            firstRow = Math.max(0, clip.y / lineHeight - 1);
+            lastRow = Math.min(rows - 1, (clip.y + clip.height) / lineHeight);
+        }
+        for (y = firstRow; y <= lastRow; y++) {
             t_y = (y + 1) * lineHeight;
             temp = y * columns;
             for (x = 0; x < columns; x++) {
@@ -187,7 +249,7 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
                 videoMemory[i] = ' ';
             }
         }
-        repaint();
+        damage(ALL_ROWS);
     }
 
     /**
@@ -196,6 +258,7 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
     @Override
     public void writeData(Short data) {
         writeToOutput(data);
+        damageCursorRow();
         /*
          * if it is special char, interpret it. else just add to "video memory"
          */
@@ -236,7 +299,7 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
             drawChar((char) (data & 0xFF));
             cursor.moveForwardsRolling(this);
         }
-        repaint();
+        damageCursorRow();
     }
 
     @Override
@@ -252,10 +315,10 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
     }
 
     private void writeToOutput(short val) {
-        if (outputWriter != null) {
+        OutputSink tmpOutputWriter = outputWriter;
+        if (tmpOutputWriter != null) {
             try {
-                outputWriter.write((char) val);
-                outputWriter.flush();
+                tmpOutputWriter.write((char) val);
             } catch (IOException e) {
                 LOGGER.error("Could not write to file: " + settings.getOutputPath(), e);
             }
@@ -277,16 +340,17 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
 
     private void openOutputWriter() {
         try {
-            outputWriter = new FileWriter(settings.getOutputPath().toFile());
+            outputWriter = new OutputSink(new FileWriter(settings.getOutputPath().toFile()));
         } catch (IOException e) {
             LOGGER.error("Could not open file for writing output: {}", settings.getOutputPath(), e);
         }
     }
 
     private void closeOutputWriter() {
-        if (outputWriter != null) {
+        OutputSink tmpOutputWriter = outputWriter;
+        if (tmpOutputWriter != null) {
             try {
-                outputWriter.close();
+                tmpOutputWriter.close();
             } catch (IOException ignored) {
             }
         }
@@ -341,10 +405,43 @@ public class Display extends JPanel implements DeviceContext<Short>, TerminalSet
         return new DisplayParameters(maxWidth, maxHeight);
     }
 
+    private void damageCursorRow() {
+        damage(1L << Math.min(63, cursor.getCursorPoint().y));
+    }
+
+    /**
+     * Mark rows as changed. They will be repainted with the next frame.
+     *
+     * @param rowsMask bit mask of changed rows (bit 0 = row 0); rows beyond 63 share bit 63
+     */
+    private void damage(long rowsMask) {
+        damagedRows.getAndUpdate(rowsBefore -> rowsBefore | rowsMask);
+    }
+
+    private void repaintDamagedRows() {
+        long rowsMask = damagedRows.getAndSet(0);
+        if (rowsMask == 0) {
+            return;
+        }
+        if (rowsMask == ALL_ROWS || rows > 63) {
+            repaint();
+            return;
+        }
+        int firstRow = Long.numberOfTrailingZeros(rowsMask);
+        int lastRow = 63 - Long.numberOfLeadingZeros(rowsMask);
+        int lineHeight = getFontMetrics(getFont()).getHeight();
+        repaint(0, firstRow * lineHeight, size.width, (lastRow - firstRow + 2) * lineHeight);
+    }
+
     @Override
     public void actionPerformed(ActionEvent e) {
-        if (e.getSource() != null && e.getSource() == cursorTimer) {
-            repaint();
+        if (e.getSource() == null) {
+            return;
+        }
+        if (e.getSource() == cursorTimer) {
+            damageCursorRow();
+        } else if (e.getSource() == repaintTimer) {
+            repaintDamagedRows();
         }
     }
 }
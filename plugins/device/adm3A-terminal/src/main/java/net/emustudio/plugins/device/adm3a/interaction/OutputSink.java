@@ -0,0 +1,99 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.device.adm3a.interaction;
+
+import net.jcip.annotations.ThreadSafe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffered terminal output.
+ * <p>
+ * Characters are collected in a buffer which is written out on new line, when it gets full, when no character
+ * was written for {@link #IDLE_FLUSH_MILLIS} milliseconds, or when the sink is closed.
+ */
+@ThreadSafe
+class OutputSink implements AutoCloseable {
+    private final static Logger LOGGER = LoggerFactory.getLogger(OutputSink.class);
+    final static int BUFFER_SIZE = 8192;
+    final static long IDLE_FLUSH_MILLIS = 100;
+
+    private final Writer writer;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final ScheduledExecutorService idleFlusher;
+
+    private int length;
+    private boolean written;
+
+    OutputSink(Writer writer) {
+        this.writer = Objects.requireNonNull(writer);
+        this.idleFlusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ADM-3A output");
+            thread.setDaemon(true);
+            return thread;
+        });
+        idleFlusher.scheduleWithFixedDelay(this::flushIfIdle, IDLE_FLUSH_MILLIS, IDLE_FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void write(char c) throws IOException {
+        buffer[length++] = c;
+        written = true;
+        if (c == '\n' || length == BUFFER_SIZE) {
+            flush();
+        }
+    }
+
+    synchronized void flush() throws IOException {
+        if (length > 0) {
+            writer.write(buffer, 0, length);
+            length = 0;
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        idleFlusher.shutdownNow();
+        synchronized (this) {
+            try {
+                flush();
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
+    private synchronized void flushIfIdle() {
+        if (!written && length > 0) {
+            try {
+                flush();
+            } catch (IOException e) {
+                LOGGER.error("Could not write terminal output", e);
+            }
+        }
+        written = false;
+    }
+}
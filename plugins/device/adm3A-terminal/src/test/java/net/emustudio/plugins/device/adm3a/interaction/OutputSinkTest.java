@@ -0,0 +1,79 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.device.adm3a.interaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+
+public class OutputSinkTest {
+    private StringWriter writer;
+    private OutputSink sink;
+
+    @Before
+    public void setUp() {
+        writer = new StringWriter();
+        sink = new OutputSink(writer);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        sink.close();
+    }
+
+    @Test
+    public void testOutputIsBufferedUntilNewLine() throws IOException {
+        sink.write('a');
+        sink.write('b');
+        assertEquals("", writer.toString());
+
+        sink.write('\n');
+        assertEquals("ab\n", writer.toString());
+    }
+
+    @Test
+    public void testFullBufferIsFlushed() throws IOException {
+        for (int i = 0; i < OutputSink.BUFFER_SIZE; i++) {
+            sink.write('x');
+        }
+        assertEquals(OutputSink.BUFFER_SIZE, writer.toString().length());
+    }
+
+    @Test
+    public void testCloseFlushesOutput() throws IOException {
+        sink.write('a');
+        sink.close();
+        assertEquals("a", writer.toString());
+    }
+
+    @Test
+    public void testIdleOutputIsFlushed() throws Exception {
+        sink.write('a');
+        long deadline = System.currentTimeMillis() + 100 * OutputSink.IDLE_FLUSH_MILLIS;
+        while (writer.toString().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(OutputSink.IDLE_FLUSH_MILLIS / 2);
+        }
+        assertEquals("a", writer.toString());
+    }
+}
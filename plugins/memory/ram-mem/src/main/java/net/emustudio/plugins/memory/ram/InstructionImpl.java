@@ -0,0 +1,115 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.ram;
+
+import net.emustudio.plugins.memory.ram.api.RAMInstruction;
+
+import java.util.Objects;
+
+/**
+ * RAM instruction loaded from a compiled program file.
+ */
+public class InstructionImpl implements RAMInstruction {
+    private final int code;
+    private final Direction direction;
+    private final Object operand;
+    private final String label;
+
+    /**
+     * Creates RAM instruction.
+     *
+     * @param code      instruction code
+     * @param direction operand direction
+     * @param operand   operand; String if direction is DIRECT, Integer otherwise. Can be null.
+     * @param label     label operand (only for jump instructions); can be null
+     */
+    public InstructionImpl(int code, Direction direction, Object operand, String label) {
+        this.code = code;
+        this.direction = Objects.requireNonNull(direction);
+        this.operand = operand;
+        this.label = label;
+    }
+
+    @Override
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public Object getOperand() {
+        return operand;
+    }
+
+    @Override
+    public String getOperandLabel() {
+        return label;
+    }
+
+    @Override
+    public String getCodeStr() {
+        switch (code) {
+            case LOAD:
+                return "LOAD";
+            case STORE:
+                return "STORE";
+            case READ:
+                return "READ";
+            case WRITE:
+                return "WRITE";
+            case ADD:
+                return "ADD";
+            case SUB:
+                return "SUB";
+            case MUL:
+                return "MUL";
+            case DIV:
+                return "DIV";
+            case JMP:
+                return "JMP";
+            case JZ:
+                return "JZ";
+            case JGTZ:
+                return "JGTZ";
+            case HALT:
+                return "HALT";
+        }
+        return "unknown";
+    }
+
+    @Override
+    public String getOperandStr() {
+        if (code == HALT) {
+            return "";
+        }
+        if (label != null) {
+            return direction.value() + label;
+        }
+        return direction.value() + operand;
+    }
+
+    @Override
+    public String toString() {
+        return getCodeStr() + " " + getOperandStr();
+    }
+}
@@ -22,7 +22,9 @@ import net.emustudio.emulib.plugins.memory.AbstractMemoryContext;
 import net.emustudio.plugins.memory.ram.api.RAMInstruction;
 import net.emustudio.plugins.memory.ram.api.RAMMemoryContext;
 
-import java.io.*;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -115,21 +117,25 @@ public class MemoryContextImpl extends AbstractMemoryContext<RAMInstruction> imp
         return inputs;
     }
 
-    public void deserialize(String filename) throws IOException, ClassNotFoundException {
-        try {
-            InputStream file = new FileInputStream(filename);
-            InputStream buffer = new BufferedInputStream(file);
-            ObjectInput input = new ObjectInputStream(buffer);
+    /**
+     * Load compiled program from a file.
+     * <p>
+     * Current memory content, labels and inputs are replaced.
+     *
+     * @param filename compiled program file
+     * @throws IOException if the file could not be read
+     */
+    public void loadFromFile(String filename) throws IOException {
+        try (InputStream input = new FileInputStream(filename)) {
+            ProgramFile programFile = ProgramFile.read(input);
 
             labels.clear();
             inputs.clear();
             memory.clear();
 
-            labels.putAll((Map<Integer, String>) input.readObject());
-            inputs.addAll((List<String>) input.readObject());
-            memory.addAll((List<RAMInstruction>) input.readObject());
-
-            input.close();
+            labels.putAll(programFile.getLabels());
+            inputs.addAll(programFile.getInputs());
+            memory.addAll(programFile.getProgram());
         } finally {
             notifyMemoryChanged(-1);
             notifyMemorySizeChanged();
@@ -139,7 +145,4 @@ public class MemoryContextImpl extends AbstractMemoryContext<RAMInstruction> imp
     public void destroy() {
         memory.clear();
     }
-
-
-
 }
@@ -0,0 +1,215 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.ram;
+
+import net.emustudio.plugins.memory.ram.api.RAMInstruction;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compiled RAM program file.
+ * <p>
+ * The file has a compact binary format (all numbers are big-endian, strings are modified UTF-8 as written by
+ * {@link DataOutput#writeUTF(String)}):
+ * <ul>
+ *     <li>header: magic number {@link #MAGIC}, format version (short)</li>
+ *     <li>labels: count (int), then for each label its address (int) and name (string)</li>
+ *     <li>inputs: count (int), then each input (string)</li>
+ *     <li>instructions: count (int), then for each instruction its code (int), direction (byte), operand type
+ *     (byte) followed by the operand (int or string, nothing if there is none), and label flag (byte) followed by
+ *     the label (string) if the flag is set</li>
+ * </ul>
+ * Files written by older versions with Java serialization are still readable.
+ */
+public class ProgramFile {
+    public final static int MAGIC = 0x6552414D; // "eRAM"
+    public final static short VERSION = 1;
+
+    private final static int OPERAND_NONE = 0;
+    private final static int OPERAND_INT = 1;
+    private final static int OPERAND_STRING = 2;
+    private final static int SERIALIZATION_MAGIC = 0xACED;
+    // max. count of labels, inputs or program items; larger counts come only from corrupted files
+    private final static int MAX_COUNT = 0x1000000;
+    private final static RAMInstruction.Direction[] DIRECTIONS = RAMInstruction.Direction.values();
+
+    private final Map<Integer, String> labels;
+    private final List<String> inputs;
+    private final List<RAMInstruction> program;
+
+    public ProgramFile(Map<Integer, String> labels, List<String> inputs, List<RAMInstruction> program) {
+        this.labels = Objects.requireNonNull(labels);
+        this.inputs = Objects.requireNonNull(inputs);
+        this.program = Objects.requireNonNull(program);
+    }
+
+    public Map<Integer, String> getLabels() {
+        return labels;
+    }
+
+    public List<String> getInputs() {
+        return inputs;
+    }
+
+    public List<RAMInstruction> getProgram() {
+        return program;
+    }
+
+    /**
+     * Write the program in binary format.
+     *
+     * @param outputStream output stream; it is not closed
+     * @throws IOException if the program could not be written, or it contains an unsupported operand
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+
+        output.writeInt(labels.size());
+        for (Map.Entry<Integer, String> label : labels.entrySet()) {
+            output.writeInt(label.getKey());
+            output.writeUTF(label.getValue());
+        }
+
+        output.writeInt(inputs.size());
+        for (String input : inputs) {
+            output.writeUTF(input);
+        }
+
+        output.writeInt(program.size());
+        for (RAMInstruction instruction : program) {
+            output.writeInt(instruction.getCode());
+            output.writeByte(instruction.getDirection().ordinal());
+
+            Object operand = instruction.getOperand();
+            if (operand == null) {
+                output.writeByte(OPERAND_NONE);
+            } else if (operand instanceof Integer) {
+                output.writeByte(OPERAND_INT);
+                output.writeInt((Integer) operand);
+            } else if (operand instanceof String) {
+                output.writeByte(OPERAND_STRING);
+                output.writeUTF((String) operand);
+            } else {
+                throw new IOException("Unsupported operand type: " + operand.getClass());
+            }
+
+            String label = instruction.getOperandLabel();
+            output.writeBoolean(label != null);
+            if (label != null) {
+                output.writeUTF(label);
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Read the program.
+     * <p>
+     * If the input is not in the binary format, it is read as older Java-serialized file.
+     *
+     * @param inputStream input stream; it is not closed
+     * @return program file
+     * @throws IOException if the program could not be read, or it has unknown format
+     */
+    public static ProgramFile read(InputStream inputStream) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(inputStream);
+        DataInputStream input = new DataInputStream(buffered);
+
+        buffered.mark(4);
+        int magic = input.readInt();
+        if (magic != MAGIC) {
+            buffered.reset();
+            if ((magic >>> 16) == SERIALIZATION_MAGIC) {
+                return readSerialized(buffered);
+            }
+            throw new IOException("Unknown file format");
+        }
+        short version = input.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported file format version: " + version);
+        }
+
+        int labelsCount = readCount(input, "labels");
+        Map<Integer, String> labels = new HashMap<>();
+        for (int i = 0; i < labelsCount; i++) {
+            int address = input.readInt();
+            labels.put(address, input.readUTF());
+        }
+
+        int inputsCount = readCount(input, "inputs");
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < inputsCount; i++) {
+            inputs.add(input.readUTF());
+        }
+
+        int programSize = readCount(input, "program items");
+        List<RAMInstruction> program = new ArrayList<>();
+        for (int i = 0; i < programSize; i++) {
+            int code = input.readInt();
+            int direction = input.readUnsignedByte();
+            if (direction >= DIRECTIONS.length) {
+                throw new IOException("Unknown instruction direction: " + direction);
+            }
+
+            Object operand;
+            int operandType = input.readUnsignedByte();
+            switch (operandType) {
+                case OPERAND_NONE:
+                    operand = null;
+                    break;
+                case OPERAND_INT:
+                    operand = input.readInt();
+                    break;
+                case OPERAND_STRING:
+                    operand = input.readUTF();
+                    break;
+                default:
+                    throw new IOException("Unknown operand type: " + operandType);
+            }
+            String label = input.readBoolean() ? input.readUTF() : null;
+
+            program.add(new InstructionImpl(code, DIRECTIONS[direction], operand, label));
+        }
+        return new ProgramFile(labels, inputs, program);
+    }
+
+    private static int readCount(DataInputStream input, String what) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count of " + what + ": " + count);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProgramFile readSerialized(InputStream inputStream) throws IOException {
+        ObjectInputStream input = new ObjectInputStream(inputStream);
+        try {
+            Map<Integer, String> labels = (Map<Integer, String>) input.readObject();
+            List<String> inputs = (List<String>) input.readObject();
+            List<RAMInstruction> program = (List<RAMInstruction>) input.readObject();
+            return new ProgramFile(labels, inputs, program);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Could not read serialized program", e);
+        }
+    }
+}
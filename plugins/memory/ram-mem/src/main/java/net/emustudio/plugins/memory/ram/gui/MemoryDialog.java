@@ -77,14 +77,14 @@ public class MemoryDialog extends JDialog {
         File currentDirectory = Objects.requireNonNullElse(lastOpenedFile, new File(System.getProperty("user.dir")));
         dialogs.chooseFile(
             "Load compiled RAM program", "Load", currentDirectory.toPath(), false,
-            new FileExtensionsFilter("RAM compiler file", "ro")
+            new FileExtensionsFilter("RAM compiler file", "bram", "ro")
         ).ifPresent(path -> {
             lastOpenedFile = path.toFile();
             try {
-                memory.deserialize(lastOpenedFile.getAbsolutePath());
+                memory.loadFromFile(lastOpenedFile.getAbsolutePath());
                 tableModel.fireTableDataChanged();
                 refillTable();
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
                 dialogs.showError("Cannot open file " + lastOpenedFile.getPath() + ". Please see log file for details.");
                 LOGGER.error("Could not open file {}", lastOpenedFile, e);
             }
@@ -0,0 +1,158 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.ram;
+
+import net.emustudio.plugins.memory.ram.api.RAMInstruction;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ProgramFileTest {
+
+    private static ProgramFile roundTrip(ProgramFile programFile) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        programFile.write(output);
+        return ProgramFile.read(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    private static void assertInstruction(int code, RAMInstruction.Direction direction, Object operand, String label,
+                                          RAMInstruction instruction) {
+        assertEquals(code, instruction.getCode());
+        assertEquals(direction, instruction.getDirection());
+        assertEquals(operand, instruction.getOperand());
+        assertEquals(label, instruction.getOperandLabel());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        ProgramFile programFile = roundTrip(new ProgramFile(
+            Map.of(0, "loop", 3, "end"),
+            List.of("1", "2", "hello"),
+            List.of(
+                new InstructionImpl(RAMInstruction.READ, RAMInstruction.Direction.INDIRECT, 1, null),
+                new InstructionImpl(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "ahoj", null),
+                new InstructionImpl(RAMInstruction.JZ, RAMInstruction.Direction.REGISTER, 3, "end"),
+                new InstructionImpl(RAMInstruction.HALT, RAMInstruction.Direction.REGISTER, null, null)
+            )
+        ));
+
+        assertEquals(Map.of(0, "loop", 3, "end"), programFile.getLabels());
+        assertEquals(List.of("1", "2", "hello"), programFile.getInputs());
+
+        List<RAMInstruction> program = programFile.getProgram();
+        assertEquals(4, program.size());
+        assertInstruction(RAMInstruction.READ, RAMInstruction.Direction.INDIRECT, 1, null, program.get(0));
+        assertInstruction(RAMInstruction.LOAD, RAMInstruction.Direction.DIRECT, "ahoj", null, program.get(1));
+        assertInstruction(RAMInstruction.JZ, RAMInstruction.Direction.REGISTER, 3, "end", program.get(2));
+        assertInstruction(RAMInstruction.HALT, RAMInstruction.Direction.REGISTER, null, null, program.get(3));
+        assertEquals("=ahoj", program.get(1).getOperandStr());
+        assertEquals("end", program.get(2).getOperandStr());
+    }
+
+    @Test
+    public void testReadSerializedProgram() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(new HashMap<>(Map.of(1, "here")));
+            output.writeObject(new ArrayList<>(List.of("5")));
+            output.writeObject(new ArrayList<>(List.of(new SerializableInstruction())));
+        }
+
+        ProgramFile programFile = ProgramFile.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(Map.of(1, "here"), programFile.getLabels());
+        assertEquals(List.of("5"), programFile.getInputs());
+        assertInstruction(
+            RAMInstruction.WRITE, RAMInstruction.Direction.REGISTER, 7, null, programFile.getProgram().get(0)
+        );
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadUnknownFormat() throws IOException {
+        ProgramFile.read(new ByteArrayInputStream("hello world".getBytes()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadTruncatedFile() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ProgramFile(Map.of(), List.of("1"), List.of()).write(output);
+        byte[] content = output.toByteArray();
+
+        ProgramFile.read(new ByteArrayInputStream(content, 0, content.length - 4));
+    }
+
+    private static byte[] headerWithCounts(int labelsCount, int inputsCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(ProgramFile.MAGIC);
+        output.writeShort(ProgramFile.VERSION);
+        output.writeInt(labelsCount);
+        output.writeInt(inputsCount);
+        return bytes.toByteArray();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNegativeCountIsRejected() throws IOException {
+        ProgramFile.read(new ByteArrayInputStream(headerWithCounts(-1, 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadImplausibleCountIsRejected() throws IOException {
+        ProgramFile.read(new ByteArrayInputStream(headerWithCounts(0, Integer.MAX_VALUE)));
+    }
+
+    private static class SerializableInstruction implements RAMInstruction, Serializable {
+
+        @Override
+        public int getCode() {
+            return WRITE;
+        }
+
+        @Override
+        public Direction getDirection() {
+            return Direction.REGISTER;
+        }
+
+        @Override
+        public Object getOperand() {
+            return 7;
+        }
+
+        @Override
+        public String getOperandLabel() {
+            return null;
+        }
+
+        @Override
+        public String getCodeStr() {
+            return "WRITE";
+        }
+
+        @Override
+        public String getOperandStr() {
+            return "7";
+        }
+    }
+}
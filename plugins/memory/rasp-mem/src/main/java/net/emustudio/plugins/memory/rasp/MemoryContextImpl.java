@@ -25,10 +25,9 @@ import net.emustudio.plugins.memory.rasp.api.MemoryItem;
 import net.emustudio.plugins.memory.rasp.api.RASPInstruction;
 import net.emustudio.plugins.memory.rasp.api.RASPMemoryContext;
 
-import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
+import java.io.InputStream;
 import java.util.*;
 
 public class MemoryContextImpl extends AbstractMemoryContext<MemoryItem> implements RASPMemoryContext {
@@ -166,27 +165,30 @@ public class MemoryContextImpl extends AbstractMemoryContext<MemoryItem> impleme
         this.programLocation = Optional.ofNullable(programLocation).orElse(0);
     }
 
-    public void loadFromFile(String filename) throws IOException, ClassNotFoundException {
-        try {
-            FileInputStream fileInputStream = new FileInputStream(filename);
-            BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream);
-            try (ObjectInputStream objectInputStream = new ObjectInputStream(bufferedInputStream)) {
-                //clear labels and memory before loading
-                labels.clear();
-                memory.clear();
-                inputs.clear();
-
-                labels.putAll((Map<Integer, String>) objectInputStream.readObject());
-                programLocation = (Integer) objectInputStream.readObject();
-                inputs.addAll((List<Integer>) objectInputStream.readObject());
-                //load program from file
-                List<MemoryItem> program = (List<MemoryItem>) objectInputStream.readObject();
-                int position = programLocation;
-                //write all the program, beginning at programStart
-                for (MemoryItem item : program) {
-                    write(position++, item);
-                }
+    /**
+     * Load compiled program from a file.
+     * <p>
+     * Current memory content, labels and inputs are replaced. The program is placed at its program start.
+     *
+     * @param filename compiled program file
+     * @throws IOException if the file could not be read
+     */
+    public void loadFromFile(String filename) throws IOException {
+        try (InputStream input = new FileInputStream(filename)) {
+            ProgramFile programFile = ProgramFile.read(input);
+
+            //clear labels and memory before loading
+            labels.clear();
+            memory.clear();
+            inputs.clear();
+
+            labels.putAll(programFile.getLabels());
+            programLocation = programFile.getProgramStart();
+            inputs.addAll(programFile.getInputs());
+            for (int i = 0; i < programLocation; i++) {
+                memory.add(new NumberMemoryItem(0));
             }
+            memory.addAll(programFile.getProgram());
         } finally {
             /*any number can be put in this method, handling of the notification
              is just updating the whole table
@@ -0,0 +1,200 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2016-2017  Michal Šipoš
+ * Copyright (C) 2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.rasp;
+
+import net.emustudio.plugins.memory.rasp.api.MemoryItem;
+import net.emustudio.plugins.memory.rasp.api.RASPInstruction;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compiled RASP program file.
+ * <p>
+ * The file has a compact binary format (all numbers are big-endian, strings are modified UTF-8 as written by
+ * {@link DataOutput#writeUTF(String)}):
+ * <ul>
+ *     <li>header: magic number {@link #MAGIC}, format version (short)</li>
+ *     <li>program start (int)</li>
+ *     <li>labels: count (int), then for each label its address (int) and name (string)</li>
+ *     <li>inputs: count (int), then each input (int)</li>
+ *     <li>memory items: count (int), then for each item its type (byte; 0 = number, 1 = instruction) and value
+ *     (int; number or instruction code)</li>
+ * </ul>
+ * Files written by older versions with Java serialization are still readable.
+ */
+public class ProgramFile {
+    public final static int MAGIC = 0x65524150; // "eRAP"
+    public final static short VERSION = 1;
+
+    private final static int ITEM_NUMBER = 0;
+    private final static int ITEM_INSTRUCTION = 1;
+    private final static int SERIALIZATION_MAGIC = 0xACED;
+    // max. count of labels, inputs or program items; larger counts come only from corrupted files
+    private final static int MAX_COUNT = 0x1000000;
+
+    private final int programStart;
+    private final Map<Integer, String> labels;
+    private final List<Integer> inputs;
+    private final List<MemoryItem> program;
+
+    public ProgramFile(int programStart, Map<Integer, String> labels, List<Integer> inputs, List<MemoryItem> program) {
+        this.programStart = programStart;
+        this.labels = Objects.requireNonNull(labels);
+        this.inputs = Objects.requireNonNull(inputs);
+        this.program = Objects.requireNonNull(program);
+    }
+
+    public int getProgramStart() {
+        return programStart;
+    }
+
+    public Map<Integer, String> getLabels() {
+        return labels;
+    }
+
+    public List<Integer> getInputs() {
+        return inputs;
+    }
+
+    public List<MemoryItem> getProgram() {
+        return program;
+    }
+
+    /**
+     * Write the program in binary format.
+     *
+     * @param outputStream output stream; it is not closed
+     * @throws IOException if the program could not be written, or it contains unsupported memory item
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeInt(programStart);
+
+        output.writeInt(labels.size());
+        for (Map.Entry<Integer, String> label : labels.entrySet()) {
+            output.writeInt(label.getKey());
+            output.writeUTF(label.getValue());
+        }
+
+        output.writeInt(inputs.size());
+        for (int input : inputs) {
+            output.writeInt(input);
+        }
+
+        output.writeInt(program.size());
+        for (MemoryItem item : program) {
+            if (item instanceof RASPInstruction) {
+                output.writeByte(ITEM_INSTRUCTION);
+                output.writeInt(((RASPInstruction) item).getCode());
+            } else if (item instanceof NumberMemoryItem) {
+                output.writeByte(ITEM_NUMBER);
+                output.writeInt(((NumberMemoryItem) item).getValue());
+            } else {
+                throw new IOException("Unsupported memory item: " + item);
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Read the program.
+     * <p>
+     * If the input is not in the binary format, it is read as older Java-serialized file.
+     *
+     * @param inputStream input stream; it is not closed
+     * @return program file
+     * @throws IOException if the program could not be read, or it has unknown format
+     */
+    public static ProgramFile read(InputStream inputStream) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(inputStream);
+        DataInputStream input = new DataInputStream(buffered);
+
+        buffered.mark(4);
+        int magic = input.readInt();
+        if (magic != MAGIC) {
+            buffered.reset();
+            if ((magic >>> 16) == SERIALIZATION_MAGIC) {
+                return readSerialized(buffered);
+            }
+            throw new IOException("Unknown file format");
+        }
+        short version = input.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported file format version: " + version);
+        }
+        int programStart = input.readInt();
+
+        int labelsCount = readCount(input, "labels");
+        Map<Integer, String> labels = new HashMap<>();
+        for (int i = 0; i < labelsCount; i++) {
+            int address = input.readInt();
+            labels.put(address, input.readUTF());
+        }
+
+        int inputsCount = readCount(input, "inputs");
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < inputsCount; i++) {
+            inputs.add(input.readInt());
+        }
+
+        int programSize = readCount(input, "program items");
+        List<MemoryItem> program = new ArrayList<>();
+        for (int i = 0; i < programSize; i++) {
+            int type = input.readUnsignedByte();
+            int value = input.readInt();
+            switch (type) {
+                case ITEM_NUMBER:
+                    program.add(new NumberMemoryItem(value));
+                    break;
+                case ITEM_INSTRUCTION:
+                    program.add(new InstructionImpl(value));
+                    break;
+                default:
+                    throw new IOException("Unknown memory item type: " + type);
+            }
+        }
+        return new ProgramFile(programStart, labels, inputs, program);
+    }
+
+    private static int readCount(DataInputStream input, String what) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > MAX_COUNT) {
+            throw new IOException("Invalid count of " + what + ": " + count);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ProgramFile readSerialized(InputStream inputStream) throws IOException {
+        ObjectInputStream input = new ObjectInputStream(inputStream);
+        try {
+            Map<Integer, String> labels = (Map<Integer, String>) input.readObject();
+            int programStart = (Integer) input.readObject();
+            List<Integer> inputs = (List<Integer>) input.readObject();
+            List<MemoryItem> program = (List<MemoryItem>) input.readObject();
+            return new ProgramFile(programStart, labels, inputs, program);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Could not read serialized program", e);
+        }
+    }
+}
@@ -131,13 +131,13 @@ public class MemoryWindow extends JDialog {
         File currentDirectory = Objects.requireNonNullElse(recentOpenPath, new File(System.getProperty("user.dir")));
         dialogs.chooseFile(
             "Load compiled RASP program", "Load", currentDirectory.toPath(), false,
-            new FileExtensionsFilter("RASP compiler file", "bin")
+            new FileExtensionsFilter("RASP compiler file", "brasp", "bin")
         ).ifPresent(path -> {
             recentOpenPath = path.toFile().getParentFile();
             try {
                 memory.loadFromFile(path.toString());
                 updateTable();
-            } catch (IOException | ClassNotFoundException ex) {
+            } catch (IOException ex) {
                 LOGGER.error("Could not read file: {}", path, ex);
                 dialogs.showError("Could not open file " + path + ". Please see log file for details.");
             }
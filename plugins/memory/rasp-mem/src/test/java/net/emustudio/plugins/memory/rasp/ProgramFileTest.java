@@ -0,0 +1,128 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.rasp;
+
+import net.emustudio.plugins.memory.rasp.api.MemoryItem;
+import net.emustudio.plugins.memory.rasp.api.RASPInstruction;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ProgramFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static void assertProgram(List<MemoryItem> program) {
+        assertEquals(3, program.size());
+        assertEquals(RASPInstruction.LOAD_CONSTANT, ((RASPInstruction) program.get(0)).getCode());
+        assertEquals(42, ((NumberMemoryItem) program.get(1)).getValue());
+        assertEquals(RASPInstruction.HALT, ((RASPInstruction) program.get(2)).getCode());
+    }
+
+    private static List<MemoryItem> createProgram() {
+        return new ArrayList<>(List.of(
+            new InstructionImpl(RASPInstruction.LOAD_CONSTANT),
+            new NumberMemoryItem(42),
+            new InstructionImpl(RASPInstruction.HALT)
+        ));
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ProgramFile(20, Map.of(20, "start:"), List.of(1, -2), createProgram()).write(output);
+
+        ProgramFile programFile = ProgramFile.read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(20, programFile.getProgramStart());
+        assertEquals(Map.of(20, "start:"), programFile.getLabels());
+        assertEquals(List.of(1, -2), programFile.getInputs());
+        assertProgram(programFile.getProgram());
+    }
+
+    @Test
+    public void testReadSerializedProgram() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(new HashMap<>(Map.of(20, "start:")));
+            output.writeObject(20);
+            output.writeObject(new ArrayList<>(List.of(5)));
+            output.writeObject(createProgram());
+        }
+
+        ProgramFile programFile = ProgramFile.read(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(20, programFile.getProgramStart());
+        assertEquals(Map.of(20, "start:"), programFile.getLabels());
+        assertEquals(List.of(5), programFile.getInputs());
+        assertProgram(programFile.getProgram());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadUnknownFormat() throws IOException {
+        ProgramFile.read(new ByteArrayInputStream("hello world".getBytes()));
+    }
+
+    private static byte[] headerWithCounts(int labelsCount, int inputsCount) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(ProgramFile.MAGIC);
+        output.writeShort(ProgramFile.VERSION);
+        output.writeInt(0);
+        output.writeInt(labelsCount);
+        output.writeInt(inputsCount);
+        return bytes.toByteArray();
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadNegativeCountIsRejected() throws IOException {
+        ProgramFile.read(new ByteArrayInputStream(headerWithCounts(-1, 0)));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadImplausibleCountIsRejected() throws IOException {
+        ProgramFile.read(new ByteArrayInputStream(headerWithCounts(0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    public void testLoadFromFilePlacesProgramAtProgramStart() throws IOException {
+        File file = folder.newFile("program.brasp");
+        try (OutputStream output = new FileOutputStream(file)) {
+            new ProgramFile(2, Map.of(), List.of(3), createProgram()).write(output);
+        }
+
+        MemoryContextImpl memory = new MemoryContextImpl();
+        memory.loadFromFile(file.getPath());
+
+        assertEquals(5, memory.getSize());
+        assertEquals(2, memory.getProgramLocation());
+        assertEquals(0, ((NumberMemoryItem) memory.read(0)).getValue());
+        assertEquals(RASPInstruction.LOAD_CONSTANT, ((RASPInstruction) memory.read(2)).getCode());
+        assertEquals(List.of(3), memory.getInputs());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.standard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Tracker of modified memory cells.
+ * <p>
+ * Memory is split into pages of 256 bytes, and each page keeps a bitset of its modified 16-byte rows. Writes from the
+ * CPU thread only mark the row, and a reader (usually GUI) drains the marks periodically as coalesced address ranges.
+ */
+public class DirtyPages {
+    public final static int PAGE_SIZE = 256;
+    public final static int ROW_SIZE = 16;
+    private final static int ROWS_PER_PAGE = PAGE_SIZE / ROW_SIZE;
+    private final static int ALL_ROWS = (1 << ROWS_PER_PAGE) - 1;
+
+    private final AtomicIntegerArray pages;
+    private final int size;
+
+    public DirtyPages(int size) {
+        this.size = size;
+        this.pages = new AtomicIntegerArray((size + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    public void mark(int address) {
+        int page = address >>> 8;
+        if (page >= pages.length()) {
+            return;
+        }
+        int row = 1 << ((address >>> 4) & (ROWS_PER_PAGE - 1));
+        if ((pages.get(page) & row) == 0) {
+            pages.accumulateAndGet(page, row, (rows, newRow) -> rows | newRow);
+        }
+    }
+
+    public void markAll() {
+        for (int i = 0; i < pages.length(); i++) {
+            pages.set(i, ALL_ROWS);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < pages.length(); i++) {
+            pages.set(i, 0);
+        }
+    }
+
+    /**
+     * Get modified address ranges and reset the marks.
+     * <p>
+     * Neighbouring modified rows are coalesced into single range, even across page boundaries.
+     *
+     * @return list of modified address ranges, sorted by address
+     */
+    public List<RangeTree.Range> drain() {
+        List<RangeTree.Range> result = new ArrayList<>();
+
+        int from = -1;
+        int to = -1;
+        for (int page = 0; page < pages.length(); page++) {
+            if (pages.get(page) == 0) {
+                continue;
+            }
+            int rows = pages.getAndSet(page, 0);
+            for (int i = 0; i < ROWS_PER_PAGE; i++) {
+                if ((rows & (1 << i)) == 0) {
+                    continue;
+                }
+                int rowStart = page * PAGE_SIZE + i * ROW_SIZE;
+                if (from != -1 && rowStart == to + 1) {
+                    to = rowStart + ROW_SIZE - 1;
+                } else {
+                    if (from != -1) {
+                        result.add(new RangeTree.Range(from, Math.min(to, size - 1)));
+                    }
+                    from = rowStart;
+                    to = rowStart + ROW_SIZE - 1;
+                }
+            }
+        }
+        if (from != -1) {
+            result.add(new RangeTree.Range(from, Math.min(to, size - 1)));
+        }
+
+        return result;
+    }
+}
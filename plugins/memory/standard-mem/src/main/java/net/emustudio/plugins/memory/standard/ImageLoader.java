@@ -0,0 +1,159 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.standard;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Bulk loader of memory images.
+ * <p>
+ * Images are loaded directly into memory cells, without notifying anyone. The caller should notify memory listeners
+ * once the whole image is loaded.
+ */
+public class ImageLoader {
+    private final static int RECORD_DATA = 0;
+    private final static int RECORD_EOF = 1;
+
+    /**
+     * Receiver of loaded memory cells.
+     */
+    public interface CellWriter {
+
+        /**
+         * Write loaded byte into memory cell.
+         *
+         * @param address memory position
+         * @param value   byte value (0-255)
+         * @throws IOException if the address is out of memory
+         */
+        void write(int address, int value) throws IOException;
+    }
+
+    /**
+     * Load binary image into memory bank.
+     * <p>
+     * The image is read in one go through a file channel. If it does not fit into the bank, only the part which fits
+     * is loaded.
+     *
+     * @param binFile binary image
+     * @param bank    memory bank content
+     * @param address memory position where the image starts
+     * @return number of loaded bytes
+     * @throws IOException if the image cannot be read, or it does not fit into the bank
+     */
+    public static int loadBin(Path binFile, short[] bank, int address) throws IOException {
+        if (address < 0 || address > bank.length) {
+            throw new IOException("Image address is out of memory: " + address);
+        }
+        try (FileChannel channel = FileChannel.open(binFile, StandardOpenOption.READ)) {
+            long length = channel.size();
+            int count = (int) Math.min(length, bank.length - address);
+
+            ByteBuffer buffer = ByteBuffer.allocate(count);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // read until the buffer is full
+            }
+            buffer.flip();
+
+            int loaded = buffer.remaining();
+            for (int i = 0; i < loaded; i++) {
+                bank[address + i] = (short) (buffer.get(i) & 0xFF);
+            }
+            if (loaded < length) {
+                throw new IOException("Image does not fit into memory; loaded only " + loaded + " bytes");
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Load Intel HEX image.
+     * <p>
+     * Records are parsed while the file is being read and only data records are loaded. Other record types are
+     * skipped; end-of-file record stops the loading.
+     *
+     * @param hexFile Intel HEX image
+     * @param writer  receiver of loaded bytes
+     * @return address of the first data record (program start), or 0 if there is no data
+     * @throws IOException if the image cannot be read, or it is not a valid Intel HEX file
+     */
+    public static int loadHex(Path hexFile, CellWriter writer) throws IOException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(hexFile))) {
+            return loadHex(input, writer);
+        }
+    }
+
+    static int loadHex(InputStream input, CellWriter writer) throws IOException {
+        int programStart = -1;
+        int c;
+        while ((c = input.read()) != -1) {
+            if (Character.isWhitespace(c)) {
+                continue;
+            } else if (c != ':') {
+                throw new IOException("Invalid HEX file format: unexpected character '" + (char) c + "'");
+            }
+
+            int count = readByte(input);
+            int addressHigh = readByte(input);
+            int addressLow = readByte(input);
+            int type = readByte(input);
+            int address = (addressHigh << 8) | addressLow;
+            int checksum = count + addressHigh + addressLow + type;
+
+            if (type == RECORD_DATA && programStart == -1 && count > 0) {
+                programStart = address;
+            }
+            for (int i = 0; i < count; i++) {
+                int value = readByte(input);
+                checksum += value;
+                if (type == RECORD_DATA) {
+                    writer.write(address + i, value);
+                }
+            }
+            checksum += readByte(input);
+            if ((checksum & 0xFF) != 0) {
+                throw new IOException("Invalid HEX file format: wrong checksum of record at " + address);
+            }
+            if (type == RECORD_EOF) {
+                break;
+            }
+        }
+        return (programStart == -1) ? 0 : programStart;
+    }
+
+    private static int readByte(InputStream input) throws IOException {
+        return (readDigit(input) << 4) | readDigit(input);
+    }
+
+    private static int readDigit(InputStream input) throws IOException {
+        int c = input.read();
+        int digit = Character.digit(c, 16);
+        if (c == -1 || digit == -1) {
+            throw new IOException("Invalid HEX file format: expected hexadecimal digit");
+        }
+        return digit;
+    }
+}
@@ -20,24 +20,33 @@ package net.emustudio.plugins.memory.standard;
 
 import net.emustudio.emulib.plugins.annotations.PluginContext;
 import net.emustudio.emulib.plugins.memory.AbstractMemoryContext;
-import net.emustudio.emulib.runtime.helpers.IntelHEX;
+import net.emustudio.emulib.plugins.memory.Memory;
 import net.emustudio.emulib.runtime.interaction.Dialogs;
 import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
 
-import java.io.EOFException;
-import java.io.FileNotFoundException;
-import java.io.RandomAccessFile;
+import javax.swing.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 @PluginContext(id = "Standard Memory")
 public class MemoryContextImpl extends AbstractMemoryContext<Short> implements StandardMemoryContext {
     final static int DEFAULT_MEM_SIZE = 65536;
+    final static int DEFAULT_REFRESH_RATE = 25;
 
     private final RangeTree romRanges = new RangeTree();
     private final Dialogs dialogs;
+    private final Set<MemoryRangeListener> rangeListeners = new CopyOnWriteArraySet<>();
+    private final Set<Memory.MemoryListener> memoryListeners = new CopyOnWriteArraySet<>();
+    private final Timer refreshTimer = new Timer(1000 / DEFAULT_REFRESH_RATE, e -> flushChanges());
 
     public MemoryContextImpl(Dialogs dialogs) {
         this.dialogs = Objects.requireNonNull(dialogs);
@@ -48,6 +57,8 @@ public class MemoryContextImpl extends AbstractMemoryContext<Short> implements S
     private int banksCount;
     private short bankSelect = 0;
     private int bankCommon = 0;
+    private DirtyPages dirtyPages = new DirtyPages(0);
+    private DirtyPages changedCells = new DirtyPages(0);
 
     void init(int size, int banks, int bankCommon) {
         if (banks <= 0) {
@@ -57,6 +68,97 @@ public class MemoryContextImpl extends AbstractMemoryContext<Short> implements S
         this.bankCommon = bankCommon;
         this.banksCount = banks;
         mem = new short[banks][size];
+        dirtyPages = new DirtyPages(size);
+        changedCells = new DirtyPages(size);
+    }
+
+    /**
+     * Set how many times per second are memory range listeners notified.
+     *
+     * @param framesPerSecond refresh rate; must be > 0
+     */
+    void setRefreshRate(int framesPerSecond) {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("Refresh rate must be > 0!");
+        }
+        refreshTimer.setDelay(Math.max(1, 1000 / framesPerSecond));
+    }
+
+    @Override
+    public void addMemoryRangeListener(MemoryRangeListener listener) {
+        rangeListeners.add(Objects.requireNonNull(listener));
+        updateRefreshTimer();
+    }
+
+    @Override
+    public void removeMemoryRangeListener(MemoryRangeListener listener) {
+        rangeListeners.remove(listener);
+        updateRefreshTimer();
+    }
+
+    /**
+     * Add memory listener.
+     * <p>
+     * Writes of single cells are not notified right away, but coalesced and notified by the refresh timer, on the
+     * Swing thread. Changes of the whole memory (clearing, loading an image or a snapshot) are notified right away,
+     * with position -1.
+     *
+     * @param listener memory listener
+     */
+    @Override
+    public void addMemoryListener(Memory.MemoryListener listener) {
+        super.addMemoryListener(listener);
+        memoryListeners.add(Objects.requireNonNull(listener));
+        updateRefreshTimer();
+    }
+
+    @Override
+    public void removeMemoryListener(Memory.MemoryListener listener) {
+        super.removeMemoryListener(listener);
+        memoryListeners.remove(listener);
+        updateRefreshTimer();
+    }
+
+    private void updateRefreshTimer() {
+        if (rangeListeners.isEmpty() && memoryListeners.isEmpty()) {
+            refreshTimer.stop();
+        } else if (!refreshTimer.isRunning()) {
+            refreshTimer.start();
+        }
+    }
+
+    void flushChanges() {
+        for (RangeTree.Range range : dirtyPages.drain()) {
+            for (MemoryRangeListener listener : rangeListeners) {
+                listener.memoryChanged(range.from, range.to);
+            }
+        }
+
+        List<RangeTree.Range> changes = changedCells.drain();
+        int changedCount = 0;
+        for (RangeTree.Range range : changes) {
+            changedCount += range.to - range.from + 1;
+        }
+        if (changedCount > DirtyPages.PAGE_SIZE) {
+            notifyMemoryChanged(-1);
+        } else {
+            for (RangeTree.Range range : changes) {
+                for (int address = range.from; address <= range.to; address++) {
+                    notifyMemoryChanged(address);
+                }
+            }
+        }
+    }
+
+    private void markChanged(int address) {
+        dirtyPages.mark(address);
+        changedCells.mark(address);
+    }
+
+    private void markAllChanged() {
+        dirtyPages.markAll();
+        changedCells.clear();
+        notifyMemoryChanged(-1);
     }
 
     @Override
@@ -65,10 +167,13 @@ public class MemoryContextImpl extends AbstractMemoryContext<Short> implements S
             Arrays.fill(mem1, (short) 0);
         }
         lastImageStart = 0;
-        notifyMemoryChanged(-1);
+        markAllChanged();
     }
 
     void destroy() {
+        refreshTimer.stop();
+        rangeListeners.clear();
+        memoryListeners.clear();
         clear();
         mem = null;
         banksCount = 0;
@@ -97,43 +202,101 @@ public class MemoryContextImpl extends AbstractMemoryContext<Short> implements S
     }
 
     public void loadHex(Path hexFile, int bank) {
-        short currentBank = bankSelect;
         try {
-            bankSelect = (short)bank;
-            lastImageStart = IntelHEX.loadIntoMemory(hexFile.toFile(), this);
-        } catch (FileNotFoundException ex) {
+            lastImageStart = ImageLoader.loadHex(hexFile, (address, value) -> {
+                if (address >= mem[0].length) {
+                    throw new IOException("Address is out of memory: " + address);
+                }
+                if (!romRanges.isIn(address)) {
+                    int activeBank = (address < bankCommon) ? bank : 0;
+                    mem[activeBank][address] = (short) value;
+                }
+            });
+        } catch (NoSuchFileException ex) {
             dialogs.showError("File not found: " + hexFile);
         } catch (Exception e) {
             dialogs.showError("Error opening file: " + hexFile);
         } finally {
-            bankSelect = currentBank;
-            notifyMemoryChanged(-1);
+            markAllChanged();
         }
     }
 
     public void loadBin(Path binFile, int address, int bank) {
         lastImageStart = 0;
-        try (RandomAccessFile binaryFile = new RandomAccessFile(binFile.toFile(), "r")) {
-            long position = 0, length = binaryFile.length();
-            while (position < length) {
-                mem[bank][address++] = (short) (binaryFile.readUnsignedByte() & 0xFF);
-                position++;
-            }
-        } catch (EOFException ignored) {
-            // ignored intentionally
-        } catch (FileNotFoundException ex) {
+        try {
+            ImageLoader.loadBin(binFile, mem[bank], address);
+        } catch (NoSuchFileException ex) {
             dialogs.showError("File not found: " + binFile);
         } catch (Exception e) {
             dialogs.showError("Error opening file: " + binFile);
         } finally {
-            notifyMemoryChanged(-1);
+            markAllChanged();
         }
     }
 
+    /**
+     * Save memory content of all banks into a snapshot.
+     *
+     * @param output snapshot output
+     * @throws IOException if the content could not be written
+     */
+    void saveState(DataOutput output) throws IOException {
+        int size = getSize();
+        output.writeInt(banksCount);
+        output.writeInt(size);
+        output.writeShort(bankSelect);
+        output.writeInt(lastImageStart);
+
+        byte[] bytes = new byte[size];
+        for (short[] bank : mem) {
+            for (int i = 0; i < size; i++) {
+                bytes[i] = (byte) bank[i];
+            }
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Restore memory content of all banks from a snapshot.
+     * <p>
+     * Memory size and banks count must match the current configuration. ROM ranges are not part of the snapshot,
+     * they are kept as configured.
+     *
+     * @param input snapshot input
+     * @throws IOException if the content could not be read or the memory geometry does not match
+     */
+    void loadState(DataInput input) throws IOException {
+        int size = getSize();
+        int banks = input.readInt();
+        int snapshotSize = input.readInt();
+        if (banks != banksCount || snapshotSize != size) {
+            throw new IOException(
+                "Memory snapshot has " + banks + " banks of size " + snapshotSize
+                    + ", but memory has " + banksCount + " banks of size " + size
+            );
+        }
+        bankSelect = input.readShort();
+        lastImageStart = input.readInt();
+
+        byte[] bytes = new byte[size];
+        for (short[] bank : mem) {
+            input.readFully(bytes);
+            for (int i = 0; i < size; i++) {
+                bank[i] = (short) (bytes[i] & 0xFF);
+            }
+        }
+        markAllChanged();
+    }
+
     @Override
     public Short read(int from) {
-        int activeBank = (from < bankCommon) ? bankSelect : 0;
-        return mem[activeBank][from];
+        return (short) readByte(from);
+    }
+
+    @Override
+    public int readByte(int address) {
+        int activeBank = (address < bankCommon) ? bankSelect : 0;
+        return mem[activeBank][address];
     }
 
     public Short read(int from, int bank) {
@@ -150,12 +313,23 @@ public class MemoryContextImpl extends AbstractMemoryContext<Short> implements S
         return new Short[]{mem[activeBank][from], mem[activeBank][(from + 1) & 0xFFFF]};
     }
 
+    @Override
+    public int readWord16(int address) {
+        int activeBank = (address < bankCommon) ? bankSelect : 0;
+        return (mem[activeBank][(address + 1) & 0xFFFF] << 8) | mem[activeBank][address];
+    }
+
     @Override
     public void write(int to, Short val) {
-        if (!isReadOnly(to)) {
-            int activeBank = (to < bankCommon) ? bankSelect : 0;
-            mem[activeBank][to] = (short) (val & 0xFF);
-            notifyMemoryChanged(to);
+        writeByte(to, val);
+    }
+
+    @Override
+    public void writeByte(int address, int value) {
+        if (!isReadOnly(address)) {
+            int activeBank = (address < bankCommon) ? bankSelect : 0;
+            mem[activeBank][address] = (short) (value & 0xFF);
+            markChanged(address);
         }
     }
 
@@ -163,25 +337,51 @@ public class MemoryContextImpl extends AbstractMemoryContext<Short> implements S
         if (!isReadOnly(to)) {
             int activeBank = (to < bankCommon) ? bank : 0;
             mem[activeBank][to] = (short) (val & 0xFF);
-            notifyMemoryChanged(to);
+            markChanged(to);
         }
     }
 
     @Override
     public void writeWord(int to, Short[] cells) {
-        if (isReadOnly(to)) {
+        writeWord16(to, ((cells[1] & 0xFF) << 8) | (cells[0] & 0xFF));
+    }
+
+    @Override
+    public void writeWord16(int address, int value) {
+        if (isReadOnly(address)) {
             return;
         }
-        int activeBank = (to < bankCommon) ? bankSelect : 0;
-        mem[activeBank][to] = (short) (cells[0] & 0xFF);
+        int activeBank = (address < bankCommon) ? bankSelect : 0;
+        mem[activeBank][address] = (short) (value & 0xFF);
+        markChanged(address);
 
-        if (isReadOnly(to + 1)) {
+        if (isReadOnly(address + 1)) {
             return;
         }
 
-        mem[activeBank][to + 1] = (short) (cells[1] & 0xFF);
-        notifyMemoryChanged(to);
-        notifyMemoryChanged(to + 1);
+        mem[activeBank][address + 1] = (short) ((value >>> 8) & 0xFF);
+        markChanged(address + 1);
+    }
+
+    @Override
+    public void loadImage(Map<Integer, byte[]> image) {
+        for (Map.Entry<Integer, byte[]> block : image.entrySet()) {
+            int address = block.getKey();
+            if (address < 0 || address + block.getValue().length > getSize()) {
+                throw new IndexOutOfBoundsException("Program is out of memory: " + address);
+            }
+        }
+        for (Map.Entry<Integer, byte[]> block : image.entrySet()) {
+            int address = block.getKey();
+            for (byte value : block.getValue()) {
+                if (!romRanges.isIn(address)) {
+                    int activeBank = (address < bankCommon) ? bankSelect : 0;
+                    mem[activeBank][address] = (short) (value & 0xFF);
+                }
+                address++;
+            }
+        }
+        markAllChanged();
     }
 
     @Override
@@ -26,10 +26,14 @@ import net.emustudio.emulib.plugins.memory.MemoryContext;
 import net.emustudio.emulib.runtime.*;
 import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
 import net.emustudio.plugins.memory.standard.gui.MemoryGui;
+import net.emustudio.snapshot.Snapshottable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.MissingResourceException;
@@ -41,8 +45,9 @@ import java.util.ResourceBundle;
     title = "Standard operating memory"
 )
 @SuppressWarnings("unused")
-public class MemoryImpl extends AbstractMemory {
+public class MemoryImpl extends AbstractMemory implements Snapshottable {
     private final static Logger LOGGER = LoggerFactory.getLogger(MemoryImpl.class);
+    private final static int SNAPSHOT_VERSION = 1;
 
     private final MemoryContextImpl context;
     private MemoryGui gui;
@@ -114,6 +119,13 @@ public class MemoryImpl extends AbstractMemory {
             }
 
             context.init(memorySize, banksCount, bankCommon);
+
+            int refreshRate = settings.getInt("refreshRate", MemoryContextImpl.DEFAULT_REFRESH_RATE);
+            if (refreshRate <= 0) {
+                LOGGER.warn("Refresh rate <= 0. Resetting to {}", MemoryContextImpl.DEFAULT_REFRESH_RATE);
+                refreshRate = MemoryContextImpl.DEFAULT_REFRESH_RATE;
+            }
+            context.setRefreshRate(refreshRate);
         } catch (NumberFormatException e) {
             throw new PluginInitializationException(this, "Could not parse settings: Invalid number format ", e);
         }
@@ -227,6 +239,21 @@ public class MemoryImpl extends AbstractMemory {
         return !guiNotSupported;
     }
 
+    @Override
+    public int getSnapshotVersion() {
+        return SNAPSHOT_VERSION;
+    }
+
+    @Override
+    public void saveSnapshot(DataOutput output) throws IOException {
+        context.saveState(output);
+    }
+
+    @Override
+    public void loadSnapshot(DataInput input) throws IOException {
+        context.loadState(input);
+    }
+
     private Optional<ResourceBundle> getResourceBundle() {
         try {
             return Optional.of(ResourceBundle.getBundle("net.emustudio.plugins.memory.standard.version"));
@@ -21,52 +21,44 @@ package net.emustudio.plugins.memory.standard;
 import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.NavigableSet;
-import java.util.TreeSet;
 
+/**
+ * Set of addresses, organized in ranges.
+ * <p>
+ * Each address is represented by one bit, so membership test is O(1) and does not allocate.
+ */
 public class RangeTree {
-    private final NavigableSet<Integer> values = new TreeSet<>();
+    private final BitSet values = new BitSet();
 
     public void add(int from, int to) {
-        for (int i = from; i <= to; i++) {
-            values.add(i);
+        if (to >= 0 && from <= to) {
+            values.set(Math.max(0, from), to + 1);
         }
     }
 
     public void remove(int from, int to) {
-        for (int i = from; i <= to; i++) {
-            values.remove(i);
+        if (to >= 0 && from <= to) {
+            values.clear(Math.max(0, from), to + 1);
         }
     }
 
     public List<Range> getRanges() {
         List<Range> result = new ArrayList<>();
 
-        int from = -1;
-        int to = 0;
-
-        for (int value : values) {
-            if (from == -1) {
-                from = value;
-                to = value;
-            } else if (value - to == 1) {
-                to = value;
-            } else {
-                result.add(new Range(from, to));
-                from = value;
-                to = value;
-            }
-        }
-        if (from != -1) {
+        int from = values.nextSetBit(0);
+        while (from >= 0) {
+            int to = values.nextClearBit(from) - 1;
             result.add(new Range(from, to));
+            from = values.nextSetBit(to + 1);
         }
 
         return result;
     }
 
     public boolean isIn(int value) {
-        return values.contains(value);
+        return value >= 0 && values.get(value);
     }
 
     public final static class Range implements StandardMemoryContext.AddressRange {
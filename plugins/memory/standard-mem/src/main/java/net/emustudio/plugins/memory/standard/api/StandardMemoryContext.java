@@ -22,6 +22,7 @@ import net.emustudio.emulib.plugins.annotations.PluginContext;
 import net.emustudio.emulib.plugins.memory.MemoryContext;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Extended memory context.
@@ -40,6 +41,74 @@ public interface StandardMemoryContext extends MemoryContext<Short> {
         int getStopAddress();
     }
 
+    /**
+     * Listener of batched memory changes.
+     * <p>
+     * Instead of one callback per modified cell, it is notified periodically in the event dispatch thread
+     * with coalesced ranges of modified addresses.
+     */
+    interface MemoryRangeListener {
+
+        /**
+         * Memory cells in the range were (possibly) modified since the last notification.
+         *
+         * @param from first modified address
+         * @param to   last modified address (inclusive)
+         */
+        void memoryChanged(int from, int to);
+    }
+
+    /**
+     * Read a byte from the memory without boxing.
+     * <p>
+     * Works like {@link #read(int)}, but is meant for CPU emulators which access the memory on every instruction.
+     *
+     * @param address memory position
+     * @return value of the memory cell (0-255)
+     */
+    int readByte(int address);
+
+    /**
+     * Read a 16-bit little-endian word from the memory without boxing.
+     * <p>
+     * Works like {@link #readWord(int)}, but does not allocate an array.
+     *
+     * @param address memory position of the lower byte
+     * @return the word; lower byte is read from the address, upper byte from the next address
+     */
+    int readWord16(int address);
+
+    /**
+     * Write a byte into the memory without boxing.
+     * <p>
+     * Works like {@link #write(int, Object)}, including ROM protection and change notification.
+     *
+     * @param address memory position
+     * @param value   value to write; only lower 8 bits are used
+     */
+    void writeByte(int address, int value);
+
+    /**
+     * Write a 16-bit little-endian word into the memory without boxing.
+     * <p>
+     * Works like {@link #writeWord(int, Object[])}, but does not need an array.
+     *
+     * @param address memory position of the lower byte
+     * @param value   the word; lower byte is written to the address, upper byte to the next address
+     */
+    void writeWord16(int address, int value);
+
+    /**
+     * Load a program image into the memory at once.
+     * <p>
+     * Works like writing the bytes one by one with {@link #writeByte(int, int)}, including ROM protection and the
+     * selected bank, but memory listeners are notified only once, with position -1.
+     *
+     * @param image program image; keys are start addresses of code blocks, values are their bytes
+     * @throws IndexOutOfBoundsException if a code block does not fit into the memory; nothing is loaded then
+     */
+    void loadImage(Map<Integer, byte[]> image);
+
     /**
      * Determine whether specified memory position is read-only.
      *
@@ -98,4 +167,18 @@ public interface StandardMemoryContext extends MemoryContext<Short> {
      * @return common boundary address
      */
     int getCommonBoundary();
+
+    /**
+     * Add a listener of batched memory changes.
+     *
+     * @param listener memory range listener
+     */
+    void addMemoryRangeListener(MemoryRangeListener listener);
+
+    /**
+     * Remove a listener of batched memory changes.
+     *
+     * @param listener memory range listener
+     */
+    void removeMemoryRangeListener(MemoryRangeListener listener);
 }
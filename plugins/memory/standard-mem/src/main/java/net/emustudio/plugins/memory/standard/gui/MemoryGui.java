@@ -25,6 +25,7 @@ import net.emustudio.plugins.memory.standard.gui.model.MemoryTableModel;
 import net.emustudio.plugins.memory.standard.gui.model.TableMemory;
 import net.emustudio.plugins.memory.standard.MemoryContextImpl;
 import net.emustudio.plugins.memory.standard.MemoryImpl;
+import net.emustudio.plugins.memory.standard.api.StandardMemoryContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +47,7 @@ public class MemoryGui extends JDialog {
 
     private TableMemory table;
     private MemoryTableModel tableModel;
+    private final StandardMemoryContext.MemoryRangeListener rangeListener;
 
     public MemoryGui(JFrame parent, MemoryImpl memory, MemoryContextImpl context, PluginSettings settings, Dialogs dialogs) {
         super(parent);
@@ -55,6 +57,7 @@ public class MemoryGui extends JDialog {
         this.settings = Objects.requireNonNull(settings);
         this.dialogs = Objects.requireNonNull(dialogs);
         this.tableModel = new MemoryTableModel(context);
+        this.rangeListener = tableModel::memoryChanged;
 
         initComponents();
         super.setLocationRelativeTo(parent);
@@ -109,6 +112,22 @@ public class MemoryGui extends JDialog {
         table.addKeyListener(new KeyboardHandler(table, spnPage.getModel(), this));
     }
 
+    @Override
+    public void setVisible(boolean visible) {
+        if (visible) {
+            context.addMemoryRangeListener(rangeListener);
+        } else {
+            context.removeMemoryRangeListener(rangeListener);
+        }
+        super.setVisible(visible);
+    }
+
+    @Override
+    public void dispose() {
+        context.removeMemoryRangeListener(rangeListener);
+        super.dispose();
+    }
+
     public void updateMemVal(int row, int column) {
         if (!table.isCellSelected(row, column)) {
             return;
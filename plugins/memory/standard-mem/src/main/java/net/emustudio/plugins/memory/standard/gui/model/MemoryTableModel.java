@@ -103,6 +103,23 @@ public class MemoryTableModel extends AbstractTableModel {
         fireTableDataChanged();
     }
 
+    /**
+     * Repaint rows of current page which were modified.
+     *
+     * @param from first modified address
+     * @param to   last modified address (inclusive)
+     */
+    public void memoryChanged(int from, int to) {
+        int pageStart = ROW_COUNT * COLUMN_COUNT * currentPage;
+        int pageEnd = pageStart + ROW_COUNT * COLUMN_COUNT - 1;
+        if (to < pageStart || from > pageEnd) {
+            return;
+        }
+        int firstRow = (Math.max(from, pageStart) - pageStart) / COLUMN_COUNT;
+        int lastRow = (Math.min(to, pageEnd) - pageStart) / COLUMN_COUNT;
+        fireTableRowsUpdated(firstRow, lastRow);
+    }
+
     public int findSequence(byte[] sequence, int from) {
         final int size = mem.getSize();
         int offset = 0;
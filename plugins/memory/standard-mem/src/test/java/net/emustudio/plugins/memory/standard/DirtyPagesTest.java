@@ -0,0 +1,81 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.standard;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DirtyPagesTest {
+
+    @Test
+    public void testNeighbourRowsAreCoalescedAcrossPages() {
+        DirtyPages pages = new DirtyPages(65536);
+
+        pages.mark(0);
+        pages.mark(17);
+        pages.mark(255);
+        pages.mark(256);
+        pages.mark(1000);
+
+        List<RangeTree.Range> ranges = pages.drain();
+
+        assertEquals(3, ranges.size());
+        assertEquals(0, ranges.get(0).from);
+        assertEquals(31, ranges.get(0).to);
+        assertEquals(240, ranges.get(1).from);
+        assertEquals(271, ranges.get(1).to);
+        assertEquals(992, ranges.get(2).from);
+        assertEquals(1007, ranges.get(2).to);
+    }
+
+    @Test
+    public void testDrainResetsMarks() {
+        DirtyPages pages = new DirtyPages(65536);
+
+        pages.mark(100);
+        pages.drain();
+
+        assertTrue(pages.drain().isEmpty());
+    }
+
+    @Test
+    public void testAddressesOutOfMemoryAreIgnored() {
+        DirtyPages pages = new DirtyPages(1024);
+
+        pages.mark(-1);
+        pages.mark(1024);
+
+        assertTrue(pages.drain().isEmpty());
+    }
+
+    @Test
+    public void testMarkAllIsLimitedByMemorySize() {
+        DirtyPages pages = new DirtyPages(1000);
+
+        pages.markAll();
+        List<RangeTree.Range> ranges = pages.drain();
+
+        assertEquals(1, ranges.size());
+        assertEquals(0, ranges.get(0).from);
+        assertEquals(999, ranges.get(0).to);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.standard;
+
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.easymock.EasyMock.*;
+import static org.junit.Assert.*;
+
+public class ImageLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static int loadHex(String content, short[] memory) throws IOException {
+        return ImageLoader.loadHex(
+            new ByteArrayInputStream(content.getBytes()), (address, value) -> memory[address] = (short) value
+        );
+    }
+
+    @Test
+    public void testLoadBin() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, (byte) 0xFF});
+
+        short[] bank = new short[16];
+        assertEquals(3, ImageLoader.loadBin(file, bank, 4));
+        assertArrayEquals(new short[]{0, 0, 0, 0, 1, 2, 0xFF, 0, 0, 0, 0, 0, 0, 0, 0, 0}, bank);
+    }
+
+    @Test
+    public void testLoadBinLoadsOnlyWhatFits() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4});
+
+        short[] bank = new short[4];
+        try {
+            ImageLoader.loadBin(file, bank, 2);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            assertArrayEquals(new short[]{0, 0, 1, 2}, bank);
+        }
+    }
+
+    @Test
+    public void testLoadHex() throws IOException {
+        short[] memory = new short[0x1000];
+
+        int programStart = loadHex(":03010000AABBCCCB\n:020010000102EB\n:00000001FF\n", memory);
+
+        assertEquals(0x100, programStart);
+        assertEquals(0xAA, memory[0x100]);
+        assertEquals(0xBB, memory[0x101]);
+        assertEquals(0xCC, memory[0x102]);
+        assertEquals(1, memory[0x10]);
+        assertEquals(2, memory[0x11]);
+    }
+
+    @Test
+    public void testLoadHexStopsAtEndOfFileRecord() throws IOException {
+        short[] memory = new short[0x1000];
+
+        loadHex(":020010000102EB\r\n:00000001FF\r\n:0102000011EC\r\n", memory);
+
+        assertEquals(1, memory[0x10]);
+        assertEquals(0, memory[0x200]);
+    }
+
+    @Test
+    public void testLoadEmptyHexReturnsZeroProgramStart() throws IOException {
+        assertEquals(0, loadHex(":00000001FF\n", new short[16]));
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadHexWithWrongChecksum() throws IOException {
+        loadHex(":020010000102EC\n", new short[0x1000]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadHexWithTruncatedRecord() throws IOException {
+        loadHex(":0200100001", new short[0x1000]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testLoadHexWithGarbage() throws IOException {
+        loadHex("hello", new short[0x1000]);
+    }
+
+    @Test
+    public void testContextLoadsHexIntoBankAndSkipsROM() throws IOException {
+        Dialogs dialogs = createNiceMock(Dialogs.class);
+        replay(dialogs);
+        MemoryContextImpl context = new MemoryContextImpl(dialogs);
+        context.init(0x10000, 2, 0x8000);
+        context.setReadOnly(new RangeTree.Range(0x200, 0x200));
+
+        Path file = folder.newFile("image.hex").toPath();
+        Files.writeString(file, ":03010000AABBCCCB\n:0102000011EC\n:018000007708\n:00000001FF\n");
+        context.loadHex(file, 1);
+
+        assertEquals(0x100, context.lastImageStart);
+        assertEquals(0xAA, (int) context.read(0x100, 1));
+        assertEquals(0, (int) context.read(0x100, 0));
+        assertEquals(0, (int) context.read(0x200, 1));
+        assertEquals(0x77, (int) context.read(0x8000, 0));
+        assertEquals(0, context.getSelectedBank());
+        verify(dialogs);
+    }
+
+    @Test
+    public void testContextLoadsBinIntoBank() throws IOException {
+        Dialogs dialogs = createNiceMock(Dialogs.class);
+        replay(dialogs);
+        MemoryContextImpl context = new MemoryContextImpl(dialogs);
+        context.init(0x10000, 2, 0x8000);
+
+        Path file = folder.newFile("image.bin").toPath();
+        Files.write(file, new byte[]{(byte) 0xC3, 0, 1});
+        context.loadBin(file, 0x100, 1);
+
+        assertEquals(0xC3, (int) context.read(0x100, 1));
+        assertEquals(1, (int) context.read(0x102, 1));
+        assertEquals(0, (int) context.read(0x100, 0));
+    }
+}
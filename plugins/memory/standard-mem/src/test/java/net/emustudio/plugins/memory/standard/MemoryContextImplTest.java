@@ -0,0 +1,185 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.standard;
+
+import net.emustudio.emulib.plugins.memory.Memory;
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class MemoryContextImplTest {
+    private MemoryContextImpl memory;
+    private final List<Integer> changes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        memory = new MemoryContextImpl(createNiceMock(Dialogs.class));
+        memory.init(0x1000, 1, 0);
+        memory.setRefreshRate(1); // changes are flushed by the tests, not by the timer
+        memory.addMemoryListener(new Memory.MemoryListener() {
+            @Override
+            public void memoryChanged(int memoryPosition) {
+                changes.add(memoryPosition);
+            }
+
+            @Override
+            public void memorySizeChanged() {
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        memory.destroy();
+    }
+
+    private static List<Integer> row(int from) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < DirtyPages.ROW_SIZE; i++) {
+            result.add(from + i);
+        }
+        return result;
+    }
+
+    @Test
+    public void testWritesAreNotifiedWhenFlushed() {
+        memory.writeByte(0x10, 1);
+        memory.writeByte(0x11, 2);
+        assertEquals(List.of(), changes);
+
+        memory.flushChanges();
+        assertEquals(row(0x10), changes);
+
+        changes.clear();
+        memory.flushChanges();
+        assertEquals(List.of(), changes);
+    }
+
+    @Test
+    public void testManyWritesAreNotifiedAsWholeMemoryChange() {
+        for (int i = 0; i < 0x100; i += DirtyPages.ROW_SIZE) {
+            memory.writeByte(i, 1);
+        }
+        memory.writeByte(0x100, 1);
+
+        memory.flushChanges();
+        assertEquals(List.of(-1), changes);
+    }
+
+    @Test
+    public void testClearIsNotifiedImmediately() {
+        memory.writeByte(0x10, 1);
+
+        memory.clear();
+        assertEquals(List.of(-1), changes);
+
+        memory.flushChanges();
+        assertEquals(List.of(-1), changes);
+    }
+
+    @Test
+    public void testWriteWordNotifiesBothBytes() {
+        memory.writeWord16(0x1F, 0x1234);
+        memory.flushChanges();
+
+        assertEquals(0x1234, memory.readWord16(0x1F));
+        List<Integer> expected = row(0x10);
+        expected.addAll(row(0x20));
+        assertEquals(expected, changes);
+    }
+
+    @Test
+    public void testWriteWordWithHighByteInRomNotifiesLowByte() {
+        memory.setReadOnly(new RangeTree.Range(0x20, 0x20));
+
+        memory.writeWord16(0x1F, 0x1234);
+        memory.flushChanges();
+
+        assertEquals(0x34, memory.readWord16(0x1F));
+        assertEquals(row(0x10), changes);
+    }
+
+    @Test
+    public void testWriteWordWithLowByteInRomIsIgnored() {
+        memory.setReadOnly(new RangeTree.Range(0x1F, 0x1F));
+
+        memory.writeWord16(0x1F, 0x1234);
+        memory.flushChanges();
+
+        assertEquals(0, memory.readWord16(0x1F));
+        assertEquals(List.of(), changes);
+    }
+
+    @Test
+    public void testLoadImageIsNotifiedOnce() {
+        memory.loadImage(Map.of(0x10, new byte[]{1, 2, (byte) 0xFF}, 0x200, new byte[]{4}));
+
+        assertEquals(List.of(-1), changes);
+        assertEquals(0x0201, memory.readWord16(0x10));
+        assertEquals(0xFF, memory.readByte(0x12));
+        assertEquals(4, memory.readByte(0x200));
+
+        memory.flushChanges();
+        assertEquals(List.of(-1), changes);
+    }
+
+    @Test
+    public void testLoadImageSkipsRom() {
+        memory.setReadOnly(new RangeTree.Range(0x11, 0x11));
+
+        memory.loadImage(Map.of(0x10, new byte[]{1, 2, 3}));
+
+        assertEquals(1, memory.readByte(0x10));
+        assertEquals(0, memory.readByte(0x11));
+        assertEquals(3, memory.readByte(0x12));
+    }
+
+    @Test
+    public void testLoadImageIntoSelectedBank() {
+        memory.init(0x1000, 2, 0x800);
+        memory.selectBank((short) 1);
+
+        memory.loadImage(Map.of(0x7FF, new byte[]{1, 2}));
+
+        assertEquals(1, (int) memory.read(0x7FF, 1));
+        assertEquals(0, (int) memory.read(0x7FF, 0));
+        assertEquals(2, (int) memory.read(0x800, 0));
+    }
+
+    @Test
+    public void testLoadImageOutOfMemoryLoadsNothing() {
+        try {
+            memory.loadImage(Map.of(0x10, new byte[]{1}, 0xFFF, new byte[]{1, 2}));
+            fail("Expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+
+        assertEquals(0, memory.readByte(0x10));
+        assertEquals(List.of(), changes);
+    }
+}
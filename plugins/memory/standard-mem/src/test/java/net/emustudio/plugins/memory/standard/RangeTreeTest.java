@@ -98,4 +98,33 @@ public class RangeTreeTest {
         assertFalse(tree.isIn(-1));
         assertFalse(tree.isIn(21));
     }
+
+    @Test
+    public void testWholeMemoryRange() {
+        RangeTree tree = new RangeTree();
+
+        tree.add(0, 0xFFFF);
+        tree.remove(0, 0);
+        tree.remove(0xFFFF, 0xFFFF);
+
+        List<RangeTree.Range> ranges = tree.getRanges();
+
+        assertEquals(1, ranges.size());
+        assertEquals(1, ranges.get(0).from);
+        assertEquals(0xFFFE, ranges.get(0).to);
+        assertFalse(tree.isIn(0));
+        assertTrue(tree.isIn(0x8000));
+        assertFalse(tree.isIn(0xFFFF));
+    }
+
+    @Test
+    public void testEmptyTree() {
+        RangeTree tree = new RangeTree();
+
+        tree.add(10, 20);
+        tree.remove(0, 30);
+
+        assertTrue(tree.getRanges().isEmpty());
+        assertFalse(tree.isIn(15));
+    }
 }
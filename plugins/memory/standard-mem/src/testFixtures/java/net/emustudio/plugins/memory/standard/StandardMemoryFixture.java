@@ -0,0 +1,58 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.plugins.memory.standard;
+
+import net.emustudio.emulib.runtime.interaction.Dialogs;
+
+import static org.easymock.EasyMock.createNiceMock;
+
+/**
+ * Standard memory for tests and benchmarks of other modules, which cannot initialize it directly.
+ */
+public class StandardMemoryFixture {
+
+    /**
+     * Create standard memory with one bank, loaded with a program at address 0.
+     *
+     * @param size    memory size
+     * @param program program bytes
+     * @return initialized memory context
+     */
+    public static MemoryContextImpl create(int size, short[] program) {
+        MemoryContextImpl memory = create(size, 1, 0);
+        for (int i = 0; i < program.length; i++) {
+            memory.writeByte(i, program[i]);
+        }
+        return memory;
+    }
+
+    /**
+     * Create empty standard memory.
+     *
+     * @param size       memory size
+     * @param banks      number of banks
+     * @param bankCommon address from which the memory is common for all banks
+     * @return initialized memory context
+     */
+    public static MemoryContextImpl create(int size, int banks, int bankCommon) {
+        MemoryContextImpl memory = new MemoryContextImpl(createNiceMock(Dialogs.class));
+        memory.init(size, banks, bankCommon);
+        return memory;
+    }
+}
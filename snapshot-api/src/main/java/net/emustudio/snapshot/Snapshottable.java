@@ -0,0 +1,59 @@
+/*
+ * This file is part of emuStudio.
+ *
+ * Copyright (C) 2006-2020  Peter Jakubčo
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package net.emustudio.snapshot;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Plugin which can save and restore its state in a snapshot of the virtual computer.
+ * <p>
+ * The existing plugin instance is used for both saving and loading; the plugin is never instantiated by the snapshot.
+ * Each plugin state is stored in a separate section of the snapshot, together with the state version. A snapshot is
+ * loaded into the plugin only if the version matches, so the version must be increased whenever the layout of the
+ * state changes.
+ */
+public interface Snapshottable {
+
+    /**
+     * Get version of the state layout.
+     *
+     * @return state version, 0 - 65535
+     */
+    int getSnapshotVersion();
+
+    /**
+     * Save plugin state. Emulation is not running.
+     *
+     * @param output snapshot output
+     * @throws IOException if the state could not be written
+     */
+    void saveSnapshot(DataOutput output) throws IOException;
+
+    /**
+     * Restore plugin state. Emulation is not running.
+     * <p>
+     * The input contains exactly the data written by {@link #saveSnapshot(DataOutput)} of the same state version.
+     *
+     * @param input snapshot input
+     * @throws IOException if the state could not be read or it is invalid
+     */
+    void loadSnapshot(DataInput input) throws IOException;
+}